@@ -0,0 +1,78 @@
+package com.saadsafi.todoapp.bench;
+
+import com.saadsafi.todoapp.db.DatabaseConnection;
+import com.saadsafi.todoapp.model.Category;
+import com.saadsafi.todoapp.model.Subtask;
+import com.saadsafi.todoapp.model.Task;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-operation latency of the app's typical DAO calls on each storage
+ * backend (embedded H2 in memory, embedded H2 on disk, and MySQL when a
+ * server is available).
+ *
+ * Sample mode reports percentiles as well as the mean, since a desktop
+ * user notices the slow outliers. Usage:
+ *   java -jar benchmarks/target/benchmarks.jar Backend
+ *   java -jar benchmarks/target/benchmarks.jar Backend -p backend=h2-file,mysql
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BackendBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    @Benchmark
+    public int roundTrip(BackendState db) throws SQLException {
+        // The fixed cost every query pays: borrow a connection, run a trivial statement
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT 1");
+             ResultSet rs = pstmt.executeQuery()) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    @Benchmark
+    public List<Category> loadCategories(BackendState db) {
+        return db.categoryDAO.getCategoriesByUserId(db.userId);
+    }
+
+    @Benchmark
+    public List<Task> firstPage(BackendState db) {
+        return db.taskDAO.getTaskPage(db.query(), null, true, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Subtask> subtasksOfTask(BackendState db) {
+        return db.subtaskDAO.getSubtasksByTaskId(db.nextTask().getTaskId());
+    }
+
+    @Benchmark
+    public boolean updateTask(BackendState db) {
+        return db.taskDAO.updateTask(db.nextTask());
+    }
+
+    @Benchmark
+    public boolean createAndDeleteTask(BackendState db) {
+        Task task = new Task(0, db.userId, "Benchmark task", "Created and deleted again",
+                "MEDIUM", null, "PENDING", db.category);
+        Task created = db.taskDAO.createTask(task);
+        return db.taskDAO.deleteTask(created.getTaskId());
+    }
+}
@@ -0,0 +1,78 @@
+package com.saadsafi.todoapp.bench;
+
+import com.saadsafi.todoapp.dao.CategoryDAO;
+import com.saadsafi.todoapp.dao.SubtaskDAO;
+import com.saadsafi.todoapp.dao.TaskDAO;
+import com.saadsafi.todoapp.dao.TaskQuery;
+import com.saadsafi.todoapp.model.Category;
+import com.saadsafi.todoapp.model.Task;
+import java.sql.SQLException;
+import java.util.List;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * One user with a desktop-sized task list (TASK_COUNT tasks) in the
+ * storage backend under test.
+ *
+ * MySQL isn't in the default list because it needs a running server;
+ * add it with -p backend=h2-memory,h2-file,mysql (see BenchDatabase.start).
+ */
+@State(Scope.Benchmark)
+public class BackendState {
+
+    public static final int TASK_COUNT = 2_000;
+    public static final int CATEGORY_COUNT = 5;
+
+    @Param({BenchDatabase.H2_MEMORY, BenchDatabase.H2_FILE})
+    public String backend;
+
+    public TaskDAO taskDAO;
+    public SubtaskDAO subtaskDAO;
+    public CategoryDAO categoryDAO;
+
+    public int userId;
+    public Category category;
+    public List<Task> tasks;
+
+    // Round-robin position for benchmarks that modify existing rows
+    private int cursor = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        BenchDatabase.start(backend);
+        taskDAO = new TaskDAO();
+        subtaskDAO = new SubtaskDAO();
+        categoryDAO = new CategoryDAO();
+
+        // Unique, since a MySQL database outlives the run
+        userId = BenchDatabase.createUser("bench-user-" + System.nanoTime());
+        List<Category> categories = BenchDatabase.createCategories(userId, CATEGORY_COUNT);
+        BenchDatabase.insertTasks(new TaskDataGenerator(42).tasks(TASK_COUNT, userId, categories));
+        tasks = BenchDatabase.loadTasks(userId, categories);
+        category = categories.get(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        BenchDatabase.deleteUser(userId);
+        BenchDatabase.stop();
+    }
+
+    public TaskQuery query() {
+        return new TaskQuery(userId, category.getCategoryId());
+    }
+
+    /**
+     * @return The next existing task, cycling through all of them.
+     */
+    public Task nextTask() {
+        Task task = tasks.get(cursor);
+        cursor = (cursor + 1) % tasks.size();
+        return task;
+    }
+}
@@ -0,0 +1,228 @@
+package com.saadsafi.todoapp.bench;
+
+import com.saadsafi.todoapp.dao.CategoryDAO;
+import com.saadsafi.todoapp.dao.TaskDAO;
+import com.saadsafi.todoapp.db.DatabaseConfig;
+import com.saadsafi.todoapp.db.DatabaseConnection;
+import com.saadsafi.todoapp.db.StorageBackend;
+import com.saadsafi.todoapp.model.Category;
+import com.saadsafi.todoapp.model.Subtask;
+import com.saadsafi.todoapp.model.Task;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The database the DAO benchmarks run against, filled with generated data.
+ *
+ * By default this is an in-memory H2 database standing in for MySQL: H2
+ * runs in MySQL compatibility mode and SchemaBootstrapper creates the app's
+ * own db/schema.sql, so the DAOs run their normal SQL through the normal
+ * connection pool. Absolute numbers will differ from a real MySQL server
+ * (no network, no disk); the point is to catch regressions.
+ * BackendBenchmark compares the backends themselves.
+ *
+ * JMH runs each benchmark in a fresh JVM, so there is one database per run.
+ */
+public final class BenchDatabase {
+
+    // --- Backends a benchmark can run against ---
+    public static final String H2_MEMORY = "h2-memory";
+    public static final String H2_FILE = "h2-file";
+    public static final String MYSQL = "mysql";
+
+    private static final int INSERT_BATCH_SIZE = 1_000;
+
+    private BenchDatabase() {
+    }
+
+    /**
+     * Points DatabaseConnection at an in-memory H2 database and creates the schema.
+     * Must be called before anything else touches DatabaseConnection.
+     */
+    public static void start() throws SQLException {
+        start(H2_MEMORY);
+    }
+
+    /**
+     * Points DatabaseConnection at the given backend and creates the schema.
+     * Must be called before anything else touches DatabaseConnection.
+     *
+     * @param backend H2_MEMORY, H2_FILE (a fresh database in a temp directory) or
+     *                MYSQL (the server configured in todoapp.properties or with
+     *                -Dtodoapp.db.*, by default localhost/todo_app).
+     */
+    public static void start(String backend) throws SQLException {
+        switch (backend) {
+            case H2_MEMORY:
+                useH2("jdbc:h2:mem:todo_bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1");
+                break;
+            case H2_FILE:
+                Path dir;
+                try {
+                    dir = Files.createTempDirectory("todo_bench");
+                } catch (IOException e) {
+                    throw new SQLException("Could not create a directory for the database", e);
+                }
+                useH2("jdbc:h2:" + dir.resolve("todo_bench").toAbsolutePath()
+                        + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;IGNORECASE=TRUE");
+                break;
+            case MYSQL:
+                System.setProperty(DatabaseConfig.BACKEND_KEY, StorageBackend.MYSQL.name());
+                System.setProperty(DatabaseConfig.BOOTSTRAP_KEY, "true");
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown backend: " + backend);
+        }
+        DatabaseConnection.getPool(); // Creates the schema
+    }
+
+    /**
+     * Closes the pool. The in-memory database goes away with the JVM.
+     */
+    public static void stop() {
+        DatabaseConnection.shutdown();
+    }
+
+    /**
+     * Creates a user directly (the real registration hashes the password with BCrypt,
+     * which would dominate any setup time).
+     *
+     * @return The new user's ID.
+     */
+    public static int createUser(String username) throws SQLException {
+        String sql = "INSERT INTO users (username, password_hash) VALUES (?, ?)";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setString(1, username);
+            pstmt.setString(2, "not-a-real-hash");
+            pstmt.executeUpdate();
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                keys.next();
+                return keys.getInt(1);
+            }
+        }
+    }
+
+    /**
+     * Creates categories through the real CategoryDAO.
+     */
+    public static List<Category> createCategories(int userId, int count) {
+        CategoryDAO categoryDAO = new CategoryDAO();
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            categories.add(categoryDAO.createCategory(TaskDataGenerator.categoryName(i), userId));
+        }
+        return categories;
+    }
+
+    /**
+     * Reads back all of a user's tasks (with their subtasks) as stored.
+     */
+    public static List<Task> loadTasks(int userId, List<Category> categories) {
+        TaskDAO taskDAO = new TaskDAO();
+        List<Task> tasks = new ArrayList<>();
+        for (Category category : categories) {
+            tasks.addAll(taskDAO.getTasksWithSubtasksByUserAndCategory(userId, category.getCategoryId()));
+        }
+        return tasks;
+    }
+
+    /**
+     * Deletes a user and (by cascade) everything they own, so runs against
+     * a persistent database leave nothing behind.
+     */
+    public static void deleteUser(int userId) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("DELETE FROM users WHERE user_id = ?")) {
+            pstmt.setInt(1, userId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Bulk-inserts generated tasks and their subtasks for one new user.
+     *
+     * The database assigns its own IDs (which only match TaskDataGenerator's
+     * numbering on an empty database), so reload the tasks afterwards to
+     * work with the stored rows.
+     */
+    public static void insertTasks(List<Task> tasks) throws SQLException {
+        String taskSql = "INSERT INTO tasks (user_id, category_id, title, description, priority, due_date, status) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        String subtaskSql = "INSERT INTO subtasks (task_id, title, status) VALUES (?, ?, ?)";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement taskStmt = conn.prepareStatement(taskSql);
+                 PreparedStatement subtaskStmt = conn.prepareStatement(subtaskSql)) {
+                int pending = 0;
+                for (Task task : tasks) {
+                    taskStmt.setInt(1, task.getUserId());
+                    taskStmt.setInt(2, task.getCategory().getCategoryId());
+                    taskStmt.setString(3, task.getTitle());
+                    taskStmt.setString(4, task.getDescription());
+                    taskStmt.setString(5, task.getPriority().name());
+                    taskStmt.setDate(6, task.getDueDate() != null ? Date.valueOf(task.getDueDate()) : null);
+                    taskStmt.setString(7, task.getStatus().name());
+                    taskStmt.addBatch();
+                    if (++pending == INSERT_BATCH_SIZE) {
+                        taskStmt.executeBatch();
+                        pending = 0;
+                    }
+                }
+                taskStmt.executeBatch();
+
+                // The user is new, so their rows in ID order are the tasks in insert order
+                int[] taskIds = new int[tasks.size()];
+                try (PreparedStatement idStmt = conn.prepareStatement(
+                        "SELECT task_id FROM tasks WHERE user_id = ? ORDER BY task_id")) {
+                    idStmt.setInt(1, tasks.isEmpty() ? 0 : tasks.get(0).getUserId());
+                    try (ResultSet rs = idStmt.executeQuery()) {
+                        for (int i = 0; i < taskIds.length && rs.next(); i++) {
+                            taskIds[i] = rs.getInt(1);
+                        }
+                    }
+                }
+
+                // Subtasks after all tasks, so every parent row exists
+                pending = 0;
+                for (int i = 0; i < tasks.size(); i++) {
+                    for (Subtask subtask : tasks.get(i).getSubtasks()) {
+                        subtaskStmt.setInt(1, taskIds[i]);
+                        subtaskStmt.setString(2, subtask.getTitle());
+                        subtaskStmt.setString(3, subtask.getStatus().name());
+                        subtaskStmt.addBatch();
+                        if (++pending == INSERT_BATCH_SIZE) {
+                            subtaskStmt.executeBatch();
+                            pending = 0;
+                        }
+                    }
+                }
+                subtaskStmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static void useH2(String url) {
+        System.setProperty(DatabaseConfig.BACKEND_KEY, StorageBackend.H2.name());
+        System.setProperty(DatabaseConfig.URL_KEY, url);
+        System.setProperty(DatabaseConfig.USER_KEY, "sa");
+        System.setProperty(DatabaseConfig.PASSWORD_KEY, "");
+        System.setProperty(DatabaseConfig.BOOTSTRAP_KEY, "true");
+    }
+}
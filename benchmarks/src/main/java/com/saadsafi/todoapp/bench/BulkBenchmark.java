@@ -0,0 +1,50 @@
+package com.saadsafi.todoapp.bench;
+
+import com.saadsafi.todoapp.model.Category;
+import com.saadsafi.todoapp.model.Task;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Changing BulkState.TASK_COUNT tasks at once, with the bulk TaskDAO
+ * calls and, as the baseline, one updateTask per task. Scores are tasks
+ * per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(BulkState.TASK_COUNT)
+public class BulkBenchmark {
+
+    @Benchmark
+    public int bulkMove(BulkState state) {
+        return state.taskDAO.moveTasks(state.userId, state.taskIds, state.nextCategory());
+    }
+
+    @Benchmark
+    public int bulkStatus(BulkState state) {
+        return state.taskDAO.updateTasksStatus(state.userId, state.taskIds, state.nextStatus());
+    }
+
+    @Benchmark
+    public int movePerTask(BulkState state) {
+        Category target = state.nextCategory();
+        int moved = 0;
+        for (Task task : state.tasks) {
+            task.setCategory(target);
+            if (state.taskDAO.updateTask(task)) {
+                moved++;
+            }
+        }
+        return moved;
+    }
+}
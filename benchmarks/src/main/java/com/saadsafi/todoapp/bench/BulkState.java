@@ -0,0 +1,69 @@
+package com.saadsafi.todoapp.bench;
+
+import com.saadsafi.todoapp.dao.TaskDAO;
+import com.saadsafi.todoapp.model.Category;
+import com.saadsafi.todoapp.model.Status;
+import com.saadsafi.todoapp.model.Task;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * One user with TASK_COUNT tasks that the bulk benchmarks move back and
+ * forth between two categories.
+ */
+@State(Scope.Benchmark)
+public class BulkState {
+
+    public static final int TASK_COUNT = 10_000;
+
+    public TaskDAO taskDAO;
+    public int userId;
+    public List<Task> tasks;
+    public List<Integer> taskIds;
+
+    private List<Category> categories;
+    private int rounds = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        BenchDatabase.start();
+        taskDAO = new TaskDAO();
+
+        userId = BenchDatabase.createUser("bulk-user");
+        categories = BenchDatabase.createCategories(userId, 2);
+        // All tasks start in the first category
+        BenchDatabase.insertTasks(new TaskDataGenerator(42).tasks(TASK_COUNT, userId, categories.subList(0, 1)));
+        tasks = BenchDatabase.loadTasks(userId, categories.subList(0, 1));
+        taskIds = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            taskIds.add(task.getTaskId());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchDatabase.stop();
+    }
+
+    /**
+     * @return The category the tasks aren't in, i.e. where the next move takes them.
+     */
+    public Category nextCategory() {
+        rounds++;
+        return categories.get(rounds % 2);
+    }
+
+    /**
+     * @return COMPLETED and PENDING in turn, so every bulk update really changes the rows.
+     */
+    public Status nextStatus() {
+        rounds++;
+        return rounds % 2 == 0 ? Status.PENDING : Status.COMPLETED;
+    }
+}
@@ -0,0 +1,35 @@
+package com.saadsafi.todoapp.bench;
+
+import com.saadsafi.todoapp.dao.CategoryDeleteResult;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Deleting a category of CategoryDeleteState.TASK_COUNT tasks, moving the
+ * tasks to another category or deleting them (and their subtasks) too.
+ * Each invocation deletes a freshly filled category, so scores are the
+ * time of one whole delete.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CategoryDeleteBenchmark {
+
+    @Benchmark
+    public CategoryDeleteResult deleteMovingTasks(CategoryDeleteState state) {
+        return state.categoryDAO.deleteCategory(state.userId, state.doomed.getCategoryId(), state.target);
+    }
+
+    @Benchmark
+    public CategoryDeleteResult deleteWithTasks(CategoryDeleteState state) {
+        return state.categoryDAO.deleteCategoryWithTasks(state.userId, state.doomed.getCategoryId());
+    }
+}
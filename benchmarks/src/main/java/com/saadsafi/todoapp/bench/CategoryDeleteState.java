@@ -0,0 +1,50 @@
+package com.saadsafi.todoapp.bench;
+
+import com.saadsafi.todoapp.dao.CategoryDAO;
+import com.saadsafi.todoapp.model.Category;
+import java.sql.SQLException;
+import java.util.List;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Before every invocation, a new user with two categories: one of
+ * TASK_COUNT tasks (and their subtasks) for the benchmark to delete, and
+ * an empty one to move the tasks to. A new user each time, since
+ * BenchDatabase.insertTasks needs one.
+ */
+@State(Scope.Benchmark)
+public class CategoryDeleteState {
+
+    public static final int TASK_COUNT = 10_000;
+
+    public CategoryDAO categoryDAO;
+    public int userId;
+    public Category doomed;
+    public Category target;
+
+    private int seed = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        BenchDatabase.start();
+        categoryDAO = new CategoryDAO();
+    }
+
+    @Setup(Level.Invocation)
+    public void fillCategory() throws SQLException {
+        userId = BenchDatabase.createUser("category-delete-user-" + seed);
+        List<Category> categories = BenchDatabase.createCategories(userId, 2);
+        doomed = categories.get(0);
+        target = categories.get(1);
+        BenchDatabase.insertTasks(new TaskDataGenerator(seed++).tasks(TASK_COUNT, userId, List.of(doomed)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchDatabase.stop();
+    }
+}
@@ -0,0 +1,92 @@
+package com.saadsafi.todoapp.bench;
+
+import com.saadsafi.todoapp.dao.CachingTaskDAO;
+import com.saadsafi.todoapp.dao.SubtaskDAO;
+import com.saadsafi.todoapp.dao.TaskCache;
+import com.saadsafi.todoapp.dao.TaskDAO;
+import com.saadsafi.todoapp.dao.TaskQuery;
+import com.saadsafi.todoapp.model.Category;
+import com.saadsafi.todoapp.model.Task;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * One user with taskCount generated tasks in the embedded database,
+ * shared by the DAO benchmarks.
+ */
+@State(Scope.Benchmark)
+public class DatabaseState {
+
+    public static final int CATEGORY_COUNT = 10;
+
+    @Param({"1000", "10000", "100000"})
+    public int taskCount;
+
+    public TaskDAO taskDAO;
+    public SubtaskDAO subtaskDAO;
+    public TaskCache taskCache;
+    public CachingTaskDAO cachingTaskDAO;
+
+    public int userId;
+    public List<Category> categories;
+    public List<Task> tasks;
+
+    // The category the list queries run against, and a task in the middle of it
+    public Category category;
+    public Task middleTask;
+
+    // Round-robin position for benchmarks that modify existing rows
+    private int cursor = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        BenchDatabase.start();
+        taskDAO = new TaskDAO();
+        subtaskDAO = new SubtaskDAO();
+        taskCache = new TaskCache();
+        cachingTaskDAO = new CachingTaskDAO(taskCache);
+
+        userId = BenchDatabase.createUser("bench-user");
+        categories = BenchDatabase.createCategories(userId, CATEGORY_COUNT);
+        BenchDatabase.insertTasks(new TaskDataGenerator(42).tasks(taskCount, userId, categories));
+        tasks = BenchDatabase.loadTasks(userId, categories);
+
+        category = categories.get(0);
+        List<Task> inCategory = new ArrayList<>();
+        for (Task task : tasks) {
+            if (task.getCategory().getCategoryId() == category.getCategoryId()) {
+                inCategory.add(task);
+            }
+        }
+        middleTask = inCategory.get(inCategory.size() / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.println(taskCache.describe());
+        BenchDatabase.stop();
+    }
+
+    /**
+     * @return The default query for the benchmark category (no search, filter or sort).
+     */
+    public TaskQuery query() {
+        return new TaskQuery(userId, category.getCategoryId());
+    }
+
+    /**
+     * @return The next existing task, cycling through all of them.
+     */
+    public Task nextTask() {
+        Task task = tasks.get(cursor);
+        cursor = (cursor + 1) % tasks.size();
+        return task;
+    }
+}
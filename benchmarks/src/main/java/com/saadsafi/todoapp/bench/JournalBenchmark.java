@@ -0,0 +1,70 @@
+package com.saadsafi.todoapp.bench;
+
+import com.saadsafi.todoapp.dao.TaskSort;
+import com.saadsafi.todoapp.model.Status;
+import com.saadsafi.todoapp.model.Subtask;
+import com.saadsafi.todoapp.model.Task;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The journal-backed DAOs, for comparison with TaskDaoBenchmark and
+ * SubtaskDaoBenchmark (same data, same operations).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JournalBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+    private static final int STATUS_BATCH_SIZE = 50;
+
+    @Benchmark
+    public List<Task> firstPage(JournalState journal) {
+        return journal.taskDAO.getTaskPage(journal.query(), null, true, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Task> firstPageByDueDate(JournalState journal) {
+        return journal.taskDAO.getTaskPage(journal.query().withSort(TaskSort.DUE_DATE), null, true, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Subtask> subtasksOfTask(JournalState journal) {
+        return journal.subtaskDAO.getSubtasksByTaskId(journal.nextTask().getTaskId());
+    }
+
+    @Benchmark
+    public boolean createAndDeleteTask(JournalState journal) {
+        Task task = new Task(0, JournalState.USER_ID, "Benchmark task", "Created and deleted again",
+                "MEDIUM", null, "PENDING", journal.category);
+        Task created = journal.taskDAO.createTask(task);
+        return journal.taskDAO.deleteTask(created.getTaskId());
+    }
+
+    @Benchmark
+    public boolean updateTask(JournalState journal) {
+        return journal.taskDAO.updateTask(journal.nextTask());
+    }
+
+    @Benchmark
+    public boolean updateStatusBatch(JournalState journal) {
+        Map<Integer, Status> statuses = new LinkedHashMap<>();
+        for (int i = 0; i < STATUS_BATCH_SIZE; i++) {
+            Task task = journal.nextTask();
+            statuses.put(task.getTaskId(), task.getStatus());
+        }
+        return journal.taskDAO.updateTaskStatuses(statuses);
+    }
+}
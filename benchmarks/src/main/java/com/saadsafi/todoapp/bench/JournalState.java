@@ -0,0 +1,87 @@
+package com.saadsafi.todoapp.bench;
+
+import com.saadsafi.todoapp.dao.JournalSubtaskDAO;
+import com.saadsafi.todoapp.dao.JournalTaskDAO;
+import com.saadsafi.todoapp.dao.TaskQuery;
+import com.saadsafi.todoapp.journal.JournalStore;
+import com.saadsafi.todoapp.model.Category;
+import com.saadsafi.todoapp.model.Subtask;
+import com.saadsafi.todoapp.model.Task;
+import com.saadsafi.todoapp.model.TaskRecord;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * One user with taskCount generated tasks in a JournalStore in a temp
+ * directory, the same data as DatabaseState puts in the database.
+ */
+@State(Scope.Benchmark)
+public class JournalState {
+
+    public static final int USER_ID = 1;
+
+    @Param({"1000", "10000", "100000"})
+    public int taskCount;
+
+    public JournalStore store;
+    public JournalTaskDAO taskDAO;
+    public JournalSubtaskDAO subtaskDAO;
+
+    public Category category;
+    public List<Task> tasks;
+
+    // Round-robin position for benchmarks that modify existing rows
+    private int cursor = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Path dir = Files.createTempDirectory("todo_journal_bench");
+        store = JournalStore.open(dir);
+        taskDAO = new JournalTaskDAO(store);
+        subtaskDAO = new JournalSubtaskDAO(store);
+
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < DatabaseState.CATEGORY_COUNT; i++) {
+            categories.add(store.createCategory(TaskDataGenerator.categoryName(i), USER_ID));
+        }
+        for (Task task : new TaskDataGenerator(42).tasks(taskCount, USER_ID, categories)) {
+            TaskRecord created = store.createTask(task.toRecord());
+            for (Subtask subtask : task.getSubtasks()) {
+                Subtask stored = store.createSubtask(subtask.getTitle(), created.getTaskId());
+                store.updateSubtask(stored.getSubtaskId(), stored.getTitle(), subtask.getStatus());
+            }
+        }
+        category = categories.get(0);
+        tasks = new ArrayList<>();
+        for (Category c : categories) {
+            tasks.addAll(taskDAO.getTasksWithSubtasksByUserAndCategory(USER_ID, c.getCategoryId()));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        store.close();
+    }
+
+    public TaskQuery query() {
+        return new TaskQuery(USER_ID, category.getCategoryId());
+    }
+
+    /**
+     * @return The next existing task, cycling through all of them.
+     */
+    public Task nextTask() {
+        Task task = tasks.get(cursor);
+        cursor = (cursor + 1) % tasks.size();
+        return task;
+    }
+}
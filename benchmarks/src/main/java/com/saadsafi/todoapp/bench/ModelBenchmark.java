@@ -0,0 +1,76 @@
+package com.saadsafi.todoapp.bench;
+
+import com.saadsafi.todoapp.model.Category;
+import com.saadsafi.todoapp.model.Priority;
+import com.saadsafi.todoapp.model.Status;
+import com.saadsafi.todoapp.model.Subtask;
+import com.saadsafi.todoapp.model.Task;
+import com.saadsafi.todoapp.model.TaskRecord;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The cost of creating model objects, which every DAO read pays once per row.
+ * Subtask wraps every field in a JavaFX property; Task only creates its
+ * properties when the UI asks for them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelBenchmark {
+
+    private final Category category = new Category(1, "Inbox");
+    private final LocalDate dueDate = LocalDate.of(2030, 1, 15);
+
+    @Benchmark
+    public Task newTask() {
+        return new Task(1, 1, "Buy groceries", "Milk, eggs and bread from the corner shop",
+                "HIGH", dueDate, "PENDING", category);
+    }
+
+    @Benchmark
+    public TaskRecord newTaskRecord() {
+        return new TaskRecord(1, 1, "Buy groceries", "Milk, eggs and bread from the corner shop",
+                Priority.HIGH, dueDate, Status.PENDING, category);
+    }
+
+    @Benchmark
+    public Task newTaskBoundToUi() {
+        // A task the UI binds to creates (some of) its properties on demand
+        Task task = newTask();
+        task.titleProperty();
+        task.statusProperty();
+        return task;
+    }
+
+    @Benchmark
+    public Subtask newSubtask() {
+        return new Subtask(1, 1, "Buy milk", "PENDING");
+    }
+
+    @Benchmark
+    public Task newTaskWithSubtasks() {
+        // What TaskDAO builds per row of a page (tasks come with their subtasks)
+        Task task = newTask();
+        List<Subtask> subtasks = new ArrayList<>(3);
+        for (int i = 1; i <= 3; i++) {
+            subtasks.add(new Subtask(i, 1, "Step " + i, "PENDING"));
+        }
+        task.setSubtasks(subtasks);
+        return task;
+    }
+}
@@ -0,0 +1,84 @@
+package com.saadsafi.todoapp.bench;
+
+import com.saadsafi.todoapp.model.Category;
+import com.saadsafi.todoapp.model.Task;
+import com.saadsafi.todoapp.search.SearchDocument;
+import com.saadsafi.todoapp.search.TaskSearchIndex;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * TaskSearchIndex against the search it replaced, which lowercased every
+ * title and description and ran String.contains on each keystroke.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchIndexBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int taskCount;
+
+    @Param({"g", "gro", "groceries", "fix bug", "zzz"})
+    public String query;
+
+    private List<Task> tasks;
+    private TaskSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Category> categories = new ArrayList<>();
+        for (int i = 1; i <= DatabaseState.CATEGORY_COUNT; i++) {
+            categories.add(new Category(i, TaskDataGenerator.categoryName(i)));
+        }
+        tasks = new TaskDataGenerator(42).tasks(taskCount, 1, categories);
+
+        List<SearchDocument> documents = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            documents.add(SearchDocument.of(task));
+        }
+        index = new TaskSearchIndex();
+        index.rebuild(documents);
+    }
+
+    @Benchmark
+    public int scan() {
+        String searchText = query.toLowerCase(Locale.ROOT);
+        int hits = 0;
+        for (Task task : tasks) {
+            if (task.getTitle().toLowerCase().contains(searchText)
+                    || (task.getDescription() != null && task.getDescription().toLowerCase().contains(searchText))) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    @Benchmark
+    public List<Integer> indexAllCategories() {
+        return index.search(query, 0, 100);
+    }
+
+    @Benchmark
+    public List<Integer> indexOneCategory() {
+        // What the app does: search within the selected category
+        return index.search(query, 1, 100);
+    }
+}
@@ -0,0 +1,66 @@
+package com.saadsafi.todoapp.bench;
+
+import com.saadsafi.todoapp.model.Status;
+import com.saadsafi.todoapp.model.Subtask;
+import com.saadsafi.todoapp.model.Task;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * SubtaskDAO reads and writes against the embedded database.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SubtaskDaoBenchmark {
+
+    private static final int STATUS_BATCH_SIZE = 50;
+
+    @Benchmark
+    public List<Subtask> subtasksOfTask(DatabaseState db) {
+        return db.subtaskDAO.getSubtasksByTaskId(db.nextTask().getTaskId());
+    }
+
+    @Benchmark
+    public List<Task> tasksWithSubtasks(DatabaseState db) {
+        // The whole category with subtasks in one query (grows with taskCount)
+        return db.taskDAO.getTasksWithSubtasksByUserAndCategory(db.userId, db.category.getCategoryId());
+    }
+
+    @Benchmark
+    public boolean createAndDeleteSubtask(DatabaseState db) {
+        Subtask created = db.subtaskDAO.createSubtask("Benchmark subtask", db.nextTask().getTaskId());
+        return db.subtaskDAO.deleteSubtask(created.getSubtaskId());
+    }
+
+    @Benchmark
+    public boolean updateSubtask(DatabaseState db) {
+        Task task = db.nextTask();
+        while (task.getSubtaskCount() == 0) {
+            task = db.nextTask();
+        }
+        return db.subtaskDAO.updateSubtask(task.getSubtasks().get(0));
+    }
+
+    @Benchmark
+    public boolean updateStatusBatch(DatabaseState db) {
+        Map<Integer, Status> statuses = new LinkedHashMap<>();
+        while (statuses.size() < STATUS_BATCH_SIZE) {
+            for (Subtask subtask : db.nextTask().getSubtasks()) {
+                statuses.put(subtask.getSubtaskId(), subtask.getStatus());
+            }
+        }
+        return db.subtaskDAO.updateSubtaskStatuses(statuses);
+    }
+}
@@ -0,0 +1,93 @@
+package com.saadsafi.todoapp.bench;
+
+import com.saadsafi.todoapp.dao.TaskFilter;
+import com.saadsafi.todoapp.dao.TaskSort;
+import com.saadsafi.todoapp.model.Status;
+import com.saadsafi.todoapp.model.Task;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * TaskDAO reads and writes against the embedded database.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskDaoBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+    private static final int STATUS_BATCH_SIZE = 50;
+
+    @Benchmark
+    public List<Task> firstPage(DatabaseState db) {
+        return db.taskDAO.getTaskPage(db.query(), null, true, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Task> pageInTheMiddle(DatabaseState db) {
+        // Keyset pagination should cost the same wherever the page is
+        return db.taskDAO.getTaskPage(db.query(), db.middleTask, true, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Task> firstPageByDueDate(DatabaseState db) {
+        return db.taskDAO.getTaskPage(db.query().withSort(TaskSort.DUE_DATE), null, true, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Task> firstPagePendingOnly(DatabaseState db) {
+        return db.taskDAO.getTaskPage(db.query().withFilter(TaskFilter.PENDING), null, true, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Task> searchInSql(DatabaseState db) {
+        return db.taskDAO.getTaskPage(db.query().withSearchText("gro"), null, true, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Task> firstPageCached(DatabaseState db) {
+        // Categories over TaskCache.DEFAULT_MAX_TASKS_PER_ENTRY fall back to SQL paging
+        return db.cachingTaskDAO.getTaskPage(db.query(), null, true, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Task> firstPageByDueDateCached(DatabaseState db) {
+        return db.cachingTaskDAO.getTaskPage(db.query().withSort(TaskSort.DUE_DATE), null, true, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public boolean createAndDeleteTask(DatabaseState db) {
+        Task task = new Task(0, db.userId, "Benchmark task", "Created and deleted again",
+                "MEDIUM", null, "PENDING", db.category);
+        Task created = db.taskDAO.createTask(task);
+        return db.taskDAO.deleteTask(created.getTaskId());
+    }
+
+    @Benchmark
+    public boolean updateTask(DatabaseState db) {
+        Task task = db.nextTask();
+        task.setTitle(task.getTitle()); // Same values, the UPDATE still runs in full
+        return db.taskDAO.updateTask(task);
+    }
+
+    @Benchmark
+    public boolean updateStatusBatch(DatabaseState db) {
+        Map<Integer, Status> statuses = new LinkedHashMap<>();
+        for (int i = 0; i < STATUS_BATCH_SIZE; i++) {
+            Task task = db.nextTask();
+            statuses.put(task.getTaskId(), task.getStatus());
+        }
+        return db.taskDAO.updateTaskStatuses(statuses);
+    }
+}
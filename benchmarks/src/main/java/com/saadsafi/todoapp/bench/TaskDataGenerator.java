@@ -0,0 +1,117 @@
+package com.saadsafi.todoapp.bench;
+
+import com.saadsafi.todoapp.model.Category;
+import com.saadsafi.todoapp.model.Priority;
+import com.saadsafi.todoapp.model.Status;
+import com.saadsafi.todoapp.model.Subtask;
+import com.saadsafi.todoapp.model.Task;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates realistic-looking task data for the benchmarks.
+ *
+ * The data is random but repeatable (seeded), so two runs of a benchmark
+ * see exactly the same tasks. The shape roughly follows a real user:
+ * short titles, longer descriptions, most tasks pending, a third without
+ * a due date, and zero to four subtasks per task.
+ */
+public class TaskDataGenerator {
+
+    private static final String[] WORDS = {
+        "buy", "milk", "groceries", "call", "mom", "finish", "report", "review", "pull", "request",
+        "book", "flight", "dentist", "appointment", "pay", "rent", "clean", "kitchen", "water", "plants",
+        "write", "blog", "post", "fix", "bug", "deploy", "server", "meeting", "notes", "budget",
+        "gym", "laundry", "email", "invoice", "taxes", "garden", "birthday", "gift", "renew", "passport"
+    };
+
+    private static final String[] CATEGORY_NAMES = {"Inbox", "Work", "Home", "Shopping", "Health",
+        "Finance", "Travel", "Study", "Family", "Projects"};
+
+    private final Random random;
+    private final LocalDate today = LocalDate.now();
+
+    public TaskDataGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * @return The name of the n-th generated category (cycles through a fixed list).
+     */
+    public static String categoryName(int n) {
+        return CATEGORY_NAMES[n % CATEGORY_NAMES.length] + (n >= CATEGORY_NAMES.length ? " " + n : "");
+    }
+
+    /**
+     * Generates tasks spread evenly over the given categories, each with its
+     * subtasks already set. Task and subtask IDs are numbered from 1.
+     *
+     * @param count How many tasks to generate.
+     * @param userId The owner of the tasks.
+     * @param categories The categories to spread the tasks over.
+     * @return The generated tasks.
+     */
+    public List<Task> tasks(int count, int userId, List<Category> categories) {
+        List<Task> tasks = new ArrayList<>(count);
+        int subtaskId = 1;
+        for (int i = 1; i <= count; i++) {
+            Task task = task(i, userId, categories.get(random.nextInt(categories.size())));
+            List<Subtask> subtasks = new ArrayList<>();
+            for (int s = random.nextInt(5); s > 0; s--) {
+                subtasks.add(subtask(subtaskId++, i));
+            }
+            task.setSubtasks(subtasks);
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    /**
+     * Generates one task (without subtasks).
+     */
+    public Task task(int taskId, int userId, Category category) {
+        return new Task(taskId, userId, sentence(2 + random.nextInt(4)), sentence(8 + random.nextInt(12)),
+                priority().name(), dueDate(), status().name(), category);
+    }
+
+    /**
+     * Generates one subtask.
+     */
+    public Subtask subtask(int subtaskId, int taskId) {
+        return new Subtask(subtaskId, taskId, sentence(2 + random.nextInt(3)), status().name());
+    }
+
+    /**
+     * A few random words, sometimes with a number attached so the
+     * vocabulary isn't tiny (like "invoice2041").
+     */
+    public String sentence(int words) {
+        StringBuilder sb = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            if (w > 0) {
+                sb.append(' ');
+            }
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+            if (random.nextInt(5) == 0) {
+                sb.append(random.nextInt(1000));
+            }
+        }
+        return sb.toString();
+    }
+
+    private Priority priority() {
+        int roll = random.nextInt(10);
+        return roll < 2 ? Priority.HIGH : roll < 8 ? Priority.MEDIUM : Priority.LOW;
+    }
+
+    private Status status() {
+        return random.nextInt(10) < 7 ? Status.PENDING : Status.COMPLETED;
+    }
+
+    private LocalDate dueDate() {
+        // A third have no due date, the rest are within two months either way
+        return random.nextInt(3) == 0 ? null : today.plusDays(random.nextInt(121) - 60);
+    }
+}
@@ -0,0 +1,91 @@
+package com.saadsafi.todoapp.bench;
+
+import com.saadsafi.todoapp.model.Category;
+import com.saadsafi.todoapp.model.Task;
+import com.saadsafi.todoapp.model.TaskRecord;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Measures how much heap task objects take, per 100k tasks by default.
+ *
+ * Heap size isn't something JMH measures, so this is a plain program:
+ *   java -cp benchmarks/target/benchmarks.jar com.saadsafi.todoapp.bench.TaskFootprint [taskCount]
+ *
+ * The strings are generated once up front and shared by every variant,
+ * so only the per-task objects themselves are counted.
+ */
+public class TaskFootprint {
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+
+        List<Category> categories = new ArrayList<>();
+        categories.add(new Category(1, "Inbox"));
+        List<TaskRecord> source = new ArrayList<>(count);
+        for (Task task : new TaskDataGenerator(42).tasks(count, 1, categories)) {
+            source.add(task.toRecord());
+        }
+
+        System.out.printf("Heap used by %,d tasks (strings not included):%n", count);
+        long records = measure(source, record -> new TaskRecord(record.getTaskId(), record.getUserId(),
+                record.getTitle(), record.getDescription(), record.getPriority(), record.getDueDate(),
+                record.getStatus(), record.getCategory()));
+        report("TaskRecord", records, count);
+
+        long lazy = measure(source, Task::new);
+        report("Task, no properties used", lazy + records, count);
+
+        long bound = measure(source, record -> {
+            // What every Task used to cost: all eight properties created
+            Task task = new Task(record);
+            task.taskIdProperty();
+            task.userIdProperty();
+            task.titleProperty();
+            task.descriptionProperty();
+            task.priorityProperty();
+            task.dueDateProperty();
+            task.statusProperty();
+            task.categoryProperty();
+            return task;
+        });
+        report("Task, all properties created", bound, count);
+
+        System.out.printf("Saved per %,d tasks: %.1f MB%n", count, (bound - lazy - records) / 1e6);
+    }
+
+    /**
+     * @return The bytes retained by one object per source record.
+     */
+    private static long measure(List<TaskRecord> source, Function<TaskRecord, Object> factory) {
+        long before = usedHeap();
+        Object[] objects = new Object[source.size()];
+        for (int i = 0; i < objects.length; i++) {
+            objects[i] = factory.apply(source.get(i));
+        }
+        long after = usedHeap();
+        if (objects[0] == null) {
+            throw new IllegalStateException(); // Keeps the objects reachable until here
+        }
+        // Don't count the array holding them
+        return after - before - (16L + 4L * objects.length);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void report(String label, long bytes, int count) {
+        System.out.printf("  %-30s %8.1f MB  (%d bytes/task)%n", label, bytes / 1e6, bytes / count);
+    }
+}
@@ -0,0 +1,84 @@
+package com.saadsafi.todoapp.bench;
+
+import com.saadsafi.todoapp.dao.TaskFilter;
+import com.saadsafi.todoapp.dao.TaskQuery;
+import com.saadsafi.todoapp.dao.TaskQueryBuilder;
+import com.saadsafi.todoapp.dao.TaskSort;
+import com.saadsafi.todoapp.model.Category;
+import com.saadsafi.todoapp.model.Task;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The task list's search, filter and sort logic, without a database.
+ *
+ * filterAndSortInMemory is what the main screen used to do on every
+ * keystroke with its FilteredList/SortedList (TaskQuery.matches plus
+ * TaskSort.comparator are the same rules, pulled out of the controller).
+ * buildPageQuery is the SQL generation that replaced it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskQueryBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int taskCount;
+
+    @Param({"ALL", "PENDING", "DUE_TODAY", "HIGH_PRIORITY"})
+    public TaskFilter filter;
+
+    @Param({"DEFAULT", "PRIORITY", "DUE_DATE", "TITLE"})
+    public TaskSort sort;
+
+    private List<Task> tasks;
+    private TaskQuery query;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Category> categories = new ArrayList<>();
+        categories.add(new Category(1, "Inbox"));
+        tasks = new TaskDataGenerator(42).tasks(taskCount, 1, categories);
+        query = new TaskQuery(1, 1).withSearchText("gro").withFilter(filter).withSort(sort);
+    }
+
+    @Benchmark
+    public List<Task> filterAndSortInMemory() {
+        List<Task> matching = new ArrayList<>();
+        for (Task task : tasks) {
+            if (query.matches(task)) {
+                matching.add(task);
+            }
+        }
+        matching.sort(sort.comparator());
+        return matching;
+    }
+
+    @Benchmark
+    public List<Task> sortOnly() {
+        List<Task> sorted = new ArrayList<>(tasks);
+        sorted.sort(sort.comparator());
+        return sorted;
+    }
+
+    @Benchmark
+    public String buildPageQuery() {
+        return TaskQueryBuilder.page(query, tasks.get(0), true, 100).getSql();
+    }
+}
@@ -1,8 +1,10 @@
 package com.saadsafi.todoapp;
 
+import com.saadsafi.todoapp.controller.ViewFactory;
+import com.saadsafi.todoapp.db.DatabaseConnection;
+import com.saadsafi.todoapp.journal.LocalJournal;
 import javafx.application.Application;
 import javafx.application.Platform;
-import javafx.concurrent.Task;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
@@ -22,29 +24,12 @@ public class App extends Application {
         // 1. Show the Splash Screen
         showSplashScreen();
 
-        // 2. Create a background task to simulate loading
-        Task<Void> loadingTask = new Task<>() {
-            @Override
-            protected Void call() throws Exception {
-                // Simulate loading time (e.g., connecting to DB)
-                FXMLLoader loader = new FXMLLoader(App.class.getResource("/fxml/LoginScreen.fxml"));
-                Parent loginRoot = loader.load();
-
-                // Simulate a 2-second load time
-                Thread.sleep(2000); 
-
-                // When done, switch to the login screen on the main UI thread
-                Platform.runLater(() -> {
-                    showLoginScreen(loginRoot);
-                    splashStage.close(); // Close the splash screen
-                });
-                
-                return null;
-            }
-        };
-
-        // 3. Start the background task
-        new Thread(loadingTask).start();
+        // 2. Open the database, load the screens and calibrate BCrypt in parallel,
+        //    and switch to the login screen as soon as all of that is done
+        new StartupPipeline().run().thenRun(() -> Platform.runLater(() -> {
+            showLoginScreen();
+            splashStage.close(); // Close the splash screen
+        }));
     }
 
     /**
@@ -69,23 +54,33 @@ public class App extends Application {
     }
 
     /**
-     * Creates and shows the main Login Screen
+     * Creates and shows the main Login Screen (preloaded by the startup pipeline)
      */
-    private void showLoginScreen(Parent loginRoot) {
-        Stage loginStage = new Stage();
-        loginStage.setTitle("Login"); // Title will be set based on brand
-        Scene scene = new Scene(loginRoot);
-
+    private void showLoginScreen() {
+        ViewFactory views = ViewFactory.get();
         try {
-            String cssPath = "/styles/loginscreen.css";
-            scene.getStylesheets().add(getClass().getResource(cssPath).toExternalForm());
-        } catch (Exception e) {
-            System.err.println("Could not load loginscreen.css: " + e.getMessage());
+            Stage loginStage = views.newStage(views.take(ViewFactory.LOGIN_SCREEN), "Login"); // Title will be set based on brand
+            loginStage.setResizable(false);
+            loginStage.show();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
         }
 
-        loginStage.setScene(scene);
-        loginStage.setResizable(false);
-        loginStage.show();
+        // Builds the main window while the user types their password
+        views.preloadLater(ViewFactory.MAIN_APP);
+    }
+
+    /**
+     * Called by JavaFX when the last window closes. Stops the windows'
+     * background work, flushes the task journal and releases pooled DB connections.
+     */
+    @Override
+    public void stop() {
+        // First, so the main window's last writes reach the journal and the pool
+        ViewFactory.get().shutdown();
+        LocalJournal.shutdown();
+        DatabaseConnection.shutdown();
     }
 
     /**
@@ -0,0 +1,178 @@
+package com.saadsafi.todoapp;
+
+import com.saadsafi.todoapp.auth.AuthService;
+import com.saadsafi.todoapp.controller.ViewFactory;
+import com.saadsafi.todoapp.db.ConnectionPool;
+import com.saadsafi.todoapp.db.DatabaseConnection;
+import com.saadsafi.todoapp.db.SchemaBootstrapper;
+import java.sql.Connection;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Everything the app does while the splash screen shows, run in parallel:
+ * opening the connection pool, checking the schema, loading the login
+ * screen into the ViewFactory, warming up the main window's FXML and CSS,
+ * and calibrating the BCrypt cost. Each phase is timed and the timings
+ * are logged together, so cold-start regressions show up in the console.
+ *
+ * A failed phase is logged and the app starts anyway, the way it did
+ * before any of this ran up front (the login screen is then loaded when
+ * it is shown).
+ */
+final class StartupPipeline {
+
+    // Show the login screen after this long even if the database is still connecting
+    private static final long TIMEOUT_MS = 10_000;
+
+    private final List<Phase> phases = new CopyOnWriteArrayList<>();
+    private final ExecutorService executor;
+    private final long startNanos = System.nanoTime();
+
+    StartupPipeline() {
+        AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(3, runnable -> {
+            Thread thread = new Thread(runnable, "todoapp-startup-" + count.incrementAndGet());
+            thread.setDaemon(true); // Never keeps the JVM alive
+            return thread;
+        });
+    }
+
+    /**
+     * Starts every phase.
+     *
+     * @return Completes once all phases have finished (or TIMEOUT_MS has
+     *         passed), whether or not they succeeded. Completes on a background thread.
+     */
+    CompletableFuture<Void> run() {
+        CompletableFuture<ConnectionPool> pool = phase("pool", StartupPipeline::openPool);
+        CompletableFuture<List<String>> schema = pool.thenCompose(ignored -> phase("schema", StartupPipeline::verifySchema));
+        CompletableFuture<Void> loginView = phase("login-view", () -> {
+            // Its controller only builds nodes, so it can be built here
+            ViewFactory.get().preload(ViewFactory.LOGIN_SCREEN);
+            return null;
+        });
+        CompletableFuture<Void> mainView = phase("main-view", () -> {
+            // Its controller opens DAOs and context menus; App preloads it for real later
+            ViewFactory.warmUp(ViewFactory.MAIN_APP);
+            return null;
+        });
+        // BCrypt calibration runs on the AuthService's own workers
+        CompletableFuture<Integer> auth = track(new Phase("auth"), AuthService.get().whenCostReady());
+
+        return CompletableFuture.allOf(schema, loginView, mainView, auth)
+                .handle((ignored, error) -> null)
+                .completeOnTimeout(null, TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                .thenRun(() -> {
+                    log();
+                    executor.shutdown();
+                });
+    }
+
+    // --- Phases ---
+
+    /**
+     * Creates the pool (which reads the configuration and bootstraps the
+     * schema if enabled) and opens its minimum idle connections, so the
+     * first login does not pay the handshake.
+     */
+    private static ConnectionPool openPool() throws Exception {
+        ConnectionPool pool = DatabaseConnection.getPool();
+        pool.warmUp();
+        return pool;
+    }
+
+    private static List<String> verifySchema() throws Exception {
+        List<String> missing;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            missing = SchemaBootstrapper.verify(conn);
+        }
+        if (!missing.isEmpty()) {
+            System.err.println("Startup Error: database schema is missing " + missing.size()
+                    + " objects (enable todoapp.db.bootstrap or apply db/schema.sql): " + missing);
+        }
+        return missing;
+    }
+
+    // --- Timing ---
+
+    private <T> CompletableFuture<T> phase(String name, Callable<T> work) {
+        Phase phase = new Phase(name);
+        return track(phase, CompletableFuture.supplyAsync(() -> {
+            phase.begin();
+            try {
+                return work.call();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor));
+    }
+
+    private <T> CompletableFuture<T> track(Phase phase, CompletableFuture<T> future) {
+        phases.add(phase);
+        return future.whenComplete((result, error) -> phase.end(error));
+    }
+
+    /**
+     * Prints one line with every phase's time, then one line per failure.
+     */
+    private void log() {
+        StringBuilder line = new StringBuilder(String.format("Startup: ready in %.1f ms",
+                (System.nanoTime() - startNanos) / 1_000_000.0));
+        ProcessHandle.current().info().startInstant().ifPresent(launched ->
+                line.append(String.format(" (%d ms since launch)", Duration.between(launched, Instant.now()).toMillis())));
+        String separator = ": ";
+        for (Phase phase : phases) {
+            line.append(separator).append(phase);
+            separator = ", ";
+        }
+        System.out.println(line);
+
+        for (Phase phase : phases) {
+            Throwable error = phase.error;
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                System.err.println("Startup Error: " + phase.name + " failed: " + cause);
+            }
+        }
+    }
+
+    private final class Phase {
+        final String name;
+        volatile long beginNanos = System.nanoTime();
+        volatile long endNanos = -1;
+        volatile Throwable error;
+
+        Phase(String name) {
+            this.name = name;
+        }
+
+        void begin() {
+            beginNanos = System.nanoTime(); // Excludes time queued for a worker
+        }
+
+        void end(Throwable error) {
+            this.error = error;
+            endNanos = System.nanoTime();
+        }
+
+        @Override
+        public String toString() {
+            long end = endNanos;
+            if (end < 0) {
+                return name + " still running";
+            }
+            return String.format("%s %.1f ms%s (at +%.1f ms)", name, (end - beginNanos) / 1_000_000.0,
+                    error != null ? " FAILED" : "", (end - startNanos) / 1_000_000.0);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.saadsafi.todoapp.auth;
+
+import com.saadsafi.todoapp.model.User;
+
+/**
+ * The outcome of an AuthService login or registration.
+ */
+public final class AuthResult {
+
+    public enum Outcome {
+        SUCCESS,
+        /** Wrong username or password, or (registering) the username is taken. */
+        REJECTED,
+        /** Too many failed attempts for this username; try again after getRetryAfterMillis(). */
+        RATE_LIMITED,
+        /** The hashing workers are all busy and their queue is full. */
+        BUSY,
+        /** Something broke (e.g. the database is unreachable). */
+        ERROR
+    }
+
+    private final Outcome outcome;
+    private final User user;
+    private final long retryAfterMillis;
+
+    private AuthResult(Outcome outcome, User user, long retryAfterMillis) {
+        this.outcome = outcome;
+        this.user = user;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    static AuthResult success(User user) {
+        return new AuthResult(Outcome.SUCCESS, user, 0);
+    }
+
+    static AuthResult of(Outcome outcome) {
+        return new AuthResult(outcome, null, 0);
+    }
+
+    static AuthResult rateLimited(long retryAfterMillis) {
+        return new AuthResult(Outcome.RATE_LIMITED, null, retryAfterMillis);
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public boolean isSuccess() {
+        return outcome == Outcome.SUCCESS;
+    }
+
+    /**
+     * @return The logged-in user (null for registrations and failures).
+     */
+    public User getUser() {
+        return user;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "AuthResult[" + outcome + (retryAfterMillis > 0 ? ", retryAfter=" + retryAfterMillis + "ms" : "") + "]";
+    }
+}
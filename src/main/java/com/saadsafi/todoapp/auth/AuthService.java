@@ -0,0 +1,522 @@
+package com.saadsafi.todoapp.auth;
+
+import com.saadsafi.todoapp.dao.DaoExecutor;
+import com.saadsafi.todoapp.dao.SessionDAO;
+import com.saadsafi.todoapp.dao.UserDAO;
+import com.saadsafi.todoapp.dao.UserCredentials;
+import com.saadsafi.todoapp.db.DatabaseConfig;
+import com.saadsafi.todoapp.db.DatabaseConnection;
+import com.saadsafi.todoapp.model.User;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import org.mindrot.jbcrypt.BCrypt;
+
+/**
+ * Logs users in and registers them without ever hashing on the caller's
+ * (the JavaFX) thread.
+ *
+ * BCrypt is slow on purpose, so it gets its own small, bounded worker
+ * pool instead of the DaoExecutor: a few hashes at a time, a short queue,
+ * and attempts beyond that are refused (BUSY) rather than queued. Only
+ * the database lookups and inserts run on the DaoExecutor. Before any
+ * hashing is queued, a LoginRateLimiter checks the username, so bursts of
+ * guesses are refused cheaply (RATE_LIMITED).
+ *
+ * An unknown username is checked against a dummy hash of the current
+ * cost, made once when the cost is known, so it takes about as long as a
+ * wrong password for a user whose hash has that cost. Checks take as long
+ * as the stored hash's cost makes them, though: users whose hashes have an
+ * older cost (until their next login rehashes them) answer in a different
+ * time, so timing alone can still tell some usernames apart.
+ *
+ * New hashes use the configured BCrypt cost, or one calibrated on the hash
+ * pool at startup to take about the configured target time (see
+ * BCryptCost). After a successful login with a hash of another cost, the
+ * password is rehashed at the current cost in the background; the login
+ * itself doesn't wait for it.
+ *
+ * A login can be remembered: a random token is saved on this machine
+ * (SessionFile) and its hash in the sessions table, so the next start
+ * resumes with one indexed read instead of a password check. Logging out
+ * revokes it.
+ *
+ * The service is shared (get()), so its limits outlive the login screen.
+ */
+public class AuthService {
+
+    // Hashing is CPU-bound: leave cores for the UI and the rest of the app
+    private static final int HASH_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+    private static final int HASH_QUEUE_CAPACITY = 8;
+    private static final long SESSION_TTL_MS = 30L * 24 * 60 * 60 * 1000;
+
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+    private static volatile AuthService shared;
+
+    private final UserDAO userDAO;
+    private final SessionDAO sessionDAO;
+    private final SessionFile sessionFile;
+    private final ThreadPoolExecutor hashPool;
+    private final LoginRateLimiter limiter;
+    private final CompletableFuture<Integer> cost; // The cost for new hashes, once calibrated
+    // Checked for unknown usernames; made on the hash pool once the cost is known
+    private final AtomicReference<String> dummyHash = new AtomicReference<>();
+
+    // --- Metrics (guarded by this) ---
+    private long logins = 0;
+    private long registrations = 0;
+    private long rejected = 0;
+    private long rateLimited = 0;
+    private long busy = 0;
+    private long errors = 0;
+    private long hashes = 0;
+    private long totalHashNanos = 0;
+    private long maxHashNanos = 0;
+    private long rehashes = 0;
+    private long failedRehashes = 0;
+    private long calibrationNanos = 0;
+    private long sessionsCreated = 0;
+    private long resumes = 0;
+    private long failedResumes = 0;
+
+    /**
+     * Uses the BCrypt settings of the DatabaseConfig.
+     */
+    public AuthService(UserDAO userDAO) {
+        this(userDAO, new SessionDAO(), new SessionFile(), HASH_THREADS, HASH_QUEUE_CAPACITY, new LoginRateLimiter(),
+                DatabaseConnection.getConfig().getBcryptCost(), DatabaseConnection.getConfig().getBcryptTargetMillis());
+    }
+
+    /**
+     * @param configuredCost The BCrypt cost for new hashes, or 0 to calibrate one.
+     * @param targetMillis What the calibration aims for.
+     * @throws IllegalArgumentException If configuredCost is not a valid BCrypt cost.
+     */
+    AuthService(UserDAO userDAO, SessionDAO sessionDAO, SessionFile sessionFile, int threads, int queueCapacity,
+                LoginRateLimiter limiter, int configuredCost, long targetMillis) {
+        if (configuredCost != 0 && (configuredCost < 4 || configuredCost > 30)) {
+            throw new IllegalArgumentException(DatabaseConfig.BCRYPT_COST_KEY + " must be between 4 and 30");
+        }
+        this.userDAO = userDAO;
+        this.sessionDAO = sessionDAO;
+        this.sessionFile = sessionFile;
+        this.limiter = limiter;
+        this.hashPool = new ThreadPoolExecutor(
+                threads, threads,
+                30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "bcrypt-worker-" + threadCounter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        hashPool.allowCoreThreadTimeOut(true);
+
+        if (configuredCost != 0) {
+            cost = CompletableFuture.completedFuture(configuredCost);
+        } else {
+            // First in the pool's queue, so hashes that need it wait the least
+            cost = submit(() -> calibrate(targetMillis), hashPool)
+                    .exceptionally(e -> BCryptCost.MIN_COST);
+        }
+        // Made once, as soon as the cost is known (see dummyHash() for logins before that)
+        cost.thenAcceptAsync(hashCost -> dummyHash.set(newDummyHash(hashCost)), hashPool);
+    }
+
+    /**
+     * @return The app's shared service, backed by a plain UserDAO. The
+     *         first call starts the cost calibration, so call it early.
+     */
+    public static AuthService get() {
+        AuthService service = shared;
+        if (service == null) {
+            synchronized (AuthService.class) {
+                service = shared;
+                if (service == null) {
+                    service = new AuthService(new UserDAO());
+                    shared = service;
+                }
+            }
+        }
+        return service;
+    }
+
+    /**
+     * Checks a username and password.
+     *
+     * @return Completes with SUCCESS and the user, or why not. Never completes exceptionally.
+     */
+    public CompletableFuture<AuthResult> login(String username, String password) {
+        return login(username, password, false);
+    }
+
+    /**
+     * Checks a username and password, and on success remembers the login
+     * on this machine if asked to (replacing any earlier one).
+     *
+     * @return Completes with SUCCESS and the user, or why not. Failing to
+     *         remember the login doesn't fail it. Never completes exceptionally.
+     */
+    public CompletableFuture<AuthResult> login(String username, String password, boolean remember) {
+        long retryAfter = limiter.tryStart(username);
+        if (retryAfter > 0) {
+            return CompletableFuture.completedFuture(count(AuthResult.rateLimited(retryAfter)));
+        }
+        return submit(() -> userDAO.getCredentials(username), DaoExecutor.get())
+                .thenApplyAsync(credentials -> verify(credentials, password), hashPool)
+                .handle((user, error) -> {
+                    AuthResult result = resultOf(user, error);
+                    // Only a checked password counts: busy workers or a database error
+                    // (or a full executor) neither add a failure nor clear the earlier ones
+                    if (result.getOutcome() == AuthResult.Outcome.REJECTED) {
+                        limiter.finish(username, true);
+                    } else if (result.isSuccess()) {
+                        limiter.finish(username, false);
+                    } else {
+                        limiter.release(username);
+                    }
+                    return count(result);
+                })
+                .thenCompose(result -> remember && result.isSuccess()
+                        ? submit(() -> rememberLogin(result.getUser()), DaoExecutor.get())
+                                .handle((saved, error) -> result)
+                        : CompletableFuture.completedFuture(result));
+    }
+
+    // --- Sessions ---
+
+    /**
+     * @return True if a remembered login that hasn't expired is saved on this machine.
+     */
+    public boolean hasSavedSession() {
+        SessionFile.Saved saved = sessionFile.read();
+        return saved != null && saved.token != null && saved.expiresAt > System.currentTimeMillis();
+    }
+
+    /**
+     * Logs in with the login remembered on this machine, if there is one
+     * and the database still knows it. One indexed read, no hashing.
+     *
+     * @return Completes with SUCCESS and the user, REJECTED (the saved
+     *         session is then forgotten), or BUSY or ERROR if the database
+     *         couldn't be asked (the session is kept for the next start).
+     *         Never completes exceptionally.
+     */
+    public CompletableFuture<AuthResult> resumeSession() {
+        SessionFile.Saved saved = sessionFile.read();
+        if (saved == null || saved.token == null || saved.expiresAt <= System.currentTimeMillis()) {
+            sessionFile.delete();
+            return CompletableFuture.completedFuture(AuthResult.of(AuthResult.Outcome.REJECTED));
+        }
+        String tokenHash = SessionFile.hashToken(saved.token);
+        return submit(() -> findSessionUser(tokenHash), DaoExecutor.get())
+                .handle((user, error) -> {
+                    synchronized (this) {
+                        if (user != null) {
+                            resumes++;
+                        } else {
+                            failedResumes++;
+                        }
+                    }
+                    if (error != null) {
+                        return resultOf(null, error); // Not a miss, the session may still be valid
+                    }
+                    if (user == null) {
+                        // Revoked, expired or the database is another one
+                        sessionFile.delete();
+                        return AuthResult.of(AuthResult.Outcome.REJECTED);
+                    }
+                    return AuthResult.success(user);
+                });
+    }
+
+    /**
+     * Forgets the login remembered on this machine, here at once and in
+     * the database in the background.
+     */
+    public CompletableFuture<Void> logout() {
+        SessionFile.Saved saved = sessionFile.read();
+        sessionFile.delete();
+        if (saved == null || saved.token == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        String tokenHash = SessionFile.hashToken(saved.token);
+        return submit(() -> sessionDAO.deleteSession(tokenHash), DaoExecutor.get())
+                .handle((deleted, error) -> null);
+    }
+
+    /**
+     * Looks a session up (DAO worker). A failed query fails the future
+     * instead of looking like a miss.
+     */
+    private User findSessionUser(String tokenHash) {
+        try {
+            return sessionDAO.findSessionUser(tokenHash);
+        } catch (SQLException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Creates a session for a user and saves its token here (DAO worker).
+     */
+    private boolean rememberLogin(User user) {
+        String token = SessionFile.newToken();
+        long expiresAt = System.currentTimeMillis() + SESSION_TTL_MS;
+        SessionFile.Saved previous = sessionFile.read();
+        if (!sessionDAO.createSession(SessionFile.hashToken(token), user.getUserId(), expiresAt)) {
+            return false;
+        }
+        try {
+            sessionFile.write(new SessionFile.Saved(token, user.getUsername(), expiresAt));
+        } catch (IOException e) {
+            System.err.println("Auth Error saving the session: " + e.getMessage());
+            sessionDAO.deleteSession(SessionFile.hashToken(token));
+            return false;
+        }
+        if (previous != null && previous.token != null) {
+            sessionDAO.deleteSession(SessionFile.hashToken(previous.token));
+        }
+        synchronized (this) {
+            sessionsCreated++;
+        }
+        return true;
+    }
+
+    /**
+     * Registers a new user.
+     *
+     * @return Completes with SUCCESS (no user; they still log in), or why
+     *         not. Never completes exceptionally.
+     */
+    public CompletableFuture<AuthResult> register(String username, String password) {
+        long retryAfter = limiter.tryStart(username);
+        if (retryAfter > 0) {
+            return CompletableFuture.completedFuture(count(AuthResult.rateLimited(retryAfter)));
+        }
+        return cost.thenApplyAsync(hashCost -> hash(password, hashCost), hashPool)
+                .thenApplyAsync(passwordHash -> userDAO.createUser(username, passwordHash), DaoExecutor.get())
+                .handle((created, error) -> {
+                    AuthResult result = error != null ? resultOf(null, error)
+                            : AuthResult.of(created ? AuthResult.Outcome.SUCCESS : AuthResult.Outcome.REJECTED);
+                    // A refused registration (usually a taken username) counts as a failed
+                    // attempt; a registration never clears the failures of logins being guessed
+                    if (result.getOutcome() == AuthResult.Outcome.REJECTED) {
+                        limiter.finish(username, true);
+                    } else {
+                        limiter.release(username);
+                    }
+                    return count(result);
+                });
+    }
+
+    /**
+     * @return The BCrypt cost of new hashes, or 0 while it is being calibrated.
+     */
+    public int getCost() {
+        return cost.getNow(0);
+    }
+
+    /**
+     * @return Completes with the BCrypt cost once it has been calibrated (at once if it is configured).
+     */
+    public CompletableFuture<Integer> whenCostReady() {
+        return cost.copy();
+    }
+
+    // --- Metrics getters ---
+
+    /**
+     * How many hashes are waiting for a free worker.
+     */
+    public int getQueueDepth() {
+        return hashPool.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return hashPool.getActiveCount();
+    }
+
+    public synchronized long getHashCount() {
+        return hashes;
+    }
+
+    public synchronized double getAverageHashMillis() {
+        return hashes == 0 ? 0 : totalHashNanos / 1_000_000.0 / hashes;
+    }
+
+    public synchronized double getMaxHashMillis() {
+        return maxHashNanos / 1_000_000.0;
+    }
+
+    public synchronized long getRehashCount() {
+        return rehashes;
+    }
+
+    public synchronized String describe() {
+        return String.format("AuthService[cost=%d, logins=%d, registrations=%d, rejected=%d, rateLimited=%d, "
+                        + "busy=%d, errors=%d, hashes=%d, avgHash=%.1fms, maxHash=%.1fms, rehashes=%d, "
+                        + "failedRehashes=%d, calibration=%.1fms, sessions=%d, resumes=%d, failedResumes=%d, "
+                        + "queue=%d, active=%d/%d, tracked=%d]",
+                getCost(), logins, registrations, rejected, rateLimited, busy, errors, hashes,
+                hashes == 0 ? 0 : totalHashNanos / 1_000_000.0 / hashes, maxHashNanos / 1_000_000.0,
+                rehashes, failedRehashes, calibrationNanos / 1_000_000.0, sessionsCreated, resumes, failedResumes,
+                getQueueDepth(), getActiveCount(), hashPool.getMaximumPoolSize(), limiter.getTrackedCount());
+    }
+
+    // --- Hashing (hash pool) ---
+
+    /**
+     * @return The user if the password matches, otherwise null.
+     */
+    private User verify(UserCredentials credentials, String password) {
+        if (credentials == null) {
+            // About as long as a wrong password, see the class comment
+            timedCheck(password, dummyHash());
+            return null;
+        }
+        if (!timedCheck(password, credentials.getPasswordHash())) {
+            return null;
+        }
+        int currentCost = getCost();
+        if (currentCost != 0 && BCryptCost.of(credentials.getPasswordHash()) != currentCost) {
+            rehash(credentials, password, currentCost);
+        }
+        return credentials.toUser();
+    }
+
+    /**
+     * Replaces a user's hash with one of the current cost, in the
+     * background. Skipped if the pool is full; the next login tries again.
+     */
+    private void rehash(UserCredentials credentials, String password, int newCost) {
+        submit(() -> hash(password, newCost), hashPool)
+                .thenApplyAsync(newHash -> userDAO.updatePasswordHash(
+                        credentials.getUserId(), credentials.getPasswordHash(), newHash), DaoExecutor.get())
+                .whenComplete((updated, error) -> {
+                    synchronized (this) {
+                        if (updated != null && updated) {
+                            rehashes++;
+                        } else {
+                            failedRehashes++;
+                        }
+                    }
+                });
+    }
+
+    private boolean timedCheck(String password, String hash) {
+        long start = System.nanoTime();
+        try {
+            return BCrypt.checkpw(password, hash);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Auth Error: stored password hash is not a BCrypt hash");
+            return false;
+        } finally {
+            recordHash(System.nanoTime() - start);
+        }
+    }
+
+    private String hash(String password, int hashCost) {
+        long start = System.nanoTime();
+        String hash = BCrypt.hashpw(password, BCrypt.gensalt(hashCost));
+        recordHash(System.nanoTime() - start);
+        return hash;
+    }
+
+    /**
+     * @return The dummy hash. If it isn't there yet (a login during
+     *         calibration, or the pool was too busy to make it) one is made
+     *         here and kept until the one of the known cost replaces it.
+     */
+    private String dummyHash() {
+        String hash = dummyHash.get();
+        if (hash == null) {
+            hash = newDummyHash(getCost() != 0 ? getCost() : BCryptCost.MIN_COST);
+            if (!dummyHash.compareAndSet(null, hash)) {
+                hash = dummyHash.get();
+            }
+        }
+        return hash;
+    }
+
+    private static String newDummyHash(int hashCost) {
+        return BCrypt.hashpw("", BCrypt.gensalt(hashCost));
+    }
+
+    private int calibrate(long targetMillis) {
+        long start = System.nanoTime();
+        int calibrated = BCryptCost.calibrate(targetMillis);
+        long elapsed = System.nanoTime() - start;
+        synchronized (this) {
+            calibrationNanos = elapsed;
+        }
+        System.out.printf("BCrypt cost %d calibrated for %d ms hashes in %.1f ms%n",
+                calibrated, targetMillis, elapsed / 1_000_000.0);
+        return calibrated;
+    }
+
+    private synchronized void recordHash(long nanos) {
+        hashes++;
+        totalHashNanos += nanos;
+        maxHashNanos = Math.max(maxHashNanos, nanos);
+    }
+
+    // --- Results ---
+
+    /**
+     * supplyAsync, but a full executor fails the future instead of throwing.
+     */
+    private static <T> CompletableFuture<T> submit(Supplier<T> work, Executor executor) {
+        try {
+            return CompletableFuture.supplyAsync(work, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private AuthResult resultOf(User user, Throwable error) {
+        if (error == null) {
+            return user != null ? AuthResult.success(user) : AuthResult.of(AuthResult.Outcome.REJECTED);
+        }
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof RejectedExecutionException) {
+            return AuthResult.of(AuthResult.Outcome.BUSY);
+        }
+        System.err.println("Auth Error: " + cause);
+        return AuthResult.of(AuthResult.Outcome.ERROR);
+    }
+
+    private synchronized AuthResult count(AuthResult result) {
+        switch (result.getOutcome()) {
+            case SUCCESS:
+                if (result.getUser() != null) {
+                    logins++;
+                } else {
+                    registrations++;
+                }
+                break;
+            case REJECTED:
+                rejected++;
+                break;
+            case RATE_LIMITED:
+                rateLimited++;
+                break;
+            case BUSY:
+                busy++;
+                break;
+            default:
+                errors++;
+                break;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,58 @@
+package com.saadsafi.todoapp.auth;
+
+import org.mindrot.jbcrypt.BCrypt;
+
+/**
+ * Choosing and reading BCrypt work factors ("costs"). Each step of the
+ * cost doubles the time a hash takes.
+ */
+final class BCryptCost {
+
+    // Never below jBCrypt's own default, however slow the machine
+    static final int MIN_COST = 10;
+    static final int MAX_COST = 16;
+
+    // Calibration hashes at this cheap cost and extrapolates
+    private static final int PROBE_COST = 8;
+    private static final int PROBE_ROUNDS = 3;
+
+    private BCryptCost() {
+    }
+
+    /**
+     * Finds the cost whose hashes take closest to targetMillis on this
+     * machine, clamped to MIN_COST..MAX_COST. Takes a few times
+     * targetMillis / 2^(cost - PROBE_COST); well under a second.
+     */
+    static int calibrate(long targetMillis) {
+        BCrypt.hashpw("calibration", BCrypt.gensalt(PROBE_COST)); // Warm-up (JIT)
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < PROBE_ROUNDS; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw("calibration", BCrypt.gensalt(PROBE_COST));
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        double probeMillis = Math.max(best / 1_000_000.0, 0.01);
+        int cost = PROBE_COST + (int) Math.round(Math.log(targetMillis / probeMillis) / Math.log(2));
+        return clamp(cost);
+    }
+
+    static int clamp(int cost) {
+        return Math.max(MIN_COST, Math.min(MAX_COST, cost));
+    }
+
+    /**
+     * @return The cost a hash was made with ("$2a$12$..." is 12), or -1 if it is not a BCrypt hash.
+     */
+    static int of(String hash) {
+        if (hash == null || hash.length() < 7 || hash.charAt(0) != '$' || hash.charAt(3) != '$'
+                || hash.charAt(6) != '$') {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(hash.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
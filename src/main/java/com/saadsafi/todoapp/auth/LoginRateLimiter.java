@@ -0,0 +1,125 @@
+package com.saadsafi.todoapp.auth;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Per-username attempt limits, checked before any hashing is queued.
+ *
+ * A username gets at most one attempt at a time, and after MAX_FAILURES
+ * failed attempts within FAILURE_WINDOW_MS it is refused until the oldest
+ * of them leaves the window. So a burst of guesses costs one BCrypt hash
+ * per username at a time, not one per click or script iteration.
+ */
+final class LoginRateLimiter {
+
+    static final int MAX_FAILURES = 5;
+    static final long FAILURE_WINDOW_MS = 60_000;
+    // Beyond this many tracked usernames, idle ones are forgotten
+    private static final int MAX_TRACKED = 10_000;
+
+    private final int maxFailures;
+    private final long windowMillis;
+    private final Map<String, Attempts> attempts = new HashMap<>();
+
+    LoginRateLimiter() {
+        this(MAX_FAILURES, FAILURE_WINDOW_MS);
+    }
+
+    LoginRateLimiter(int maxFailures, long windowMillis) {
+        this.maxFailures = maxFailures;
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Starts an attempt for a username.
+     *
+     * @return 0 if the attempt may go ahead (then call finish), otherwise
+     *         how many milliseconds to wait (at least 1).
+     */
+    synchronized long tryStart(String username) {
+        long now = System.currentTimeMillis();
+        Attempts entry = attempts.computeIfAbsent(key(username), k -> new Attempts());
+        entry.expire(now, windowMillis);
+        if (entry.inFlight) {
+            return 1;
+        }
+        if (entry.failures.size() >= maxFailures) {
+            return Math.max(1, entry.failures.peekFirst() + windowMillis - now);
+        }
+        entry.inFlight = true;
+        if (attempts.size() > MAX_TRACKED) {
+            forgetIdle(now);
+        }
+        return 0;
+    }
+
+    /**
+     * Ends an attempt started with tryStart.
+     *
+     * @param failed True if the password was wrong; a success clears the username's failures.
+     */
+    synchronized void finish(String username, boolean failed) {
+        Attempts entry = attempts.get(key(username));
+        if (entry == null) {
+            return;
+        }
+        entry.inFlight = false;
+        if (failed) {
+            entry.failures.addLast(System.currentTimeMillis());
+        } else {
+            entry.failures.clear();
+        }
+        if (entry.failures.isEmpty()) {
+            attempts.remove(key(username));
+        }
+    }
+
+    /**
+     * Ends an attempt started with tryStart without judging it: the
+     * username's failures stay as they are.
+     */
+    synchronized void release(String username) {
+        Attempts entry = attempts.get(key(username));
+        if (entry == null) {
+            return;
+        }
+        entry.inFlight = false;
+        if (entry.failures.isEmpty()) {
+            attempts.remove(key(username));
+        }
+    }
+
+    synchronized int getTrackedCount() {
+        return attempts.size();
+    }
+
+    private void forgetIdle(long now) {
+        Iterator<Attempts> it = attempts.values().iterator();
+        while (it.hasNext()) {
+            Attempts entry = it.next();
+            entry.expire(now, windowMillis);
+            if (!entry.inFlight && entry.failures.isEmpty()) {
+                it.remove();
+            }
+        }
+    }
+
+    private static String key(String username) {
+        return username.trim().toLowerCase(Locale.ROOT); // MySQL compares usernames case-insensitively
+    }
+
+    private static final class Attempts {
+        final ArrayDeque<Long> failures = new ArrayDeque<>();
+        boolean inFlight = false;
+
+        void expire(long now, long windowMillis) {
+            while (!failures.isEmpty() && failures.peekFirst() + windowMillis <= now) {
+                failures.removeFirst();
+            }
+        }
+    }
+}
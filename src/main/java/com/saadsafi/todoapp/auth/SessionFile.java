@@ -0,0 +1,132 @@
+package com.saadsafi.todoapp.auth;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Properties;
+
+/**
+ * The remembered login on this machine: a random session token, whose
+ * SHA-256 the database keeps in the sessions table, and when it expires.
+ * Kept in ~/.todoapp/session.properties, readable by the user only where
+ * the file system allows it.
+ */
+final class SessionFile {
+
+    private static final int TOKEN_BYTES = 32;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final Path path;
+
+    SessionFile() {
+        this(Paths.get(System.getProperty("user.home"), ".todoapp", "session.properties"));
+    }
+
+    SessionFile(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * A saved session: the token and when it expires (epoch ms).
+     */
+    static final class Saved {
+        final String token;
+        final String username;
+        final long expiresAt;
+
+        Saved(String token, String username, long expiresAt) {
+            this.token = token;
+            this.username = username;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * @return The saved session, or null if there is none or it can't be read.
+     */
+    Saved read() {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(path)) {
+            props.load(in);
+            return new Saved(props.getProperty("token"), props.getProperty("username", ""),
+                    Long.parseLong(props.getProperty("expires_at", "0")));
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Could not read " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Saves a session, replacing the previous one (written to a temporary
+     * file first, so a crash never leaves half a file).
+     */
+    void write(Saved session) throws IOException {
+        Files.createDirectories(path.getParent());
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.deleteIfExists(tmp);
+        try {
+            Files.createFile(tmp, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } catch (UnsupportedOperationException e) {
+            Files.createFile(tmp); // Not a POSIX file system
+        }
+        Properties props = new Properties();
+        props.setProperty("token", session.token);
+        props.setProperty("username", session.username);
+        props.setProperty("expires_at", Long.toString(session.expiresAt));
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            props.store(out, "Todo App session, delete to forget the login");
+        }
+        try {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Forgets the saved session, if any.
+     */
+    void delete() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            System.err.println("Could not delete " + path + ": " + e.getMessage());
+        }
+    }
+
+    static String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * @return The token's SHA-256 as 64 hex digits, what the sessions table stores.
+     */
+    static String hashToken(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is missing", e); // Every JVM has it
+        }
+    }
+}
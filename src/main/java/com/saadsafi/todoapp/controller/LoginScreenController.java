@@ -1,40 +1,73 @@
 package com.saadsafi.todoapp.controller;
 
-import com.saadsafi.todoapp.dao.UserDAO;
+import com.saadsafi.todoapp.auth.AuthResult;
+import com.saadsafi.todoapp.auth.AuthService;
 import com.saadsafi.todoapp.model.User;
 
 // --- NEW IMPORTS ---
 import java.io.IOException;
 import java.net.URL;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.PasswordField;
 import javafx.scene.control.TextField;
-import javafx.stage.Stage; 
+import javafx.stage.Stage;
+import javafx.stage.WindowEvent;
 
-public class LoginScreenController implements Initializable {
+public class LoginScreenController implements Initializable, ViewFactory.Reusable {
     
     @FXML private TextField usernameField;
     @FXML private PasswordField passwordField;
+    @FXML private CheckBox rememberMeCheckBox;
     @FXML private Button loginButton;
     @FXML private Button registerButton;
     @FXML private Label messageLabel;
 
-    private UserDAO userDAO;
+    private AuthService authService;
 
     @Override
     public void initialize(URL url, ResourceBundle rb) {
         messageLabel.setText("");
-        this.userDAO = new UserDAO(); 
+        this.authService = AuthService.get();
+
+        // A remembered login is resumed once the window is up (App shows it after the splash)
+        loginButton.sceneProperty().addListener((sceneObs, oldScene, scene) -> {
+            if (scene != null) {
+                scene.windowProperty().addListener((windowObs, oldWindow, window) -> {
+                    if (window != null) {
+                        window.addEventHandler(WindowEvent.WINDOW_SHOWN, e -> resumeSavedSession());
+                    }
+                });
+            }
+        });
     }    
 
+    /**
+     * Skips the password if this machine remembers a login.
+     */
+    private void resumeSavedSession() {
+        if (!authService.hasSavedSession()) {
+            return;
+        }
+        setBusy(true, "Resuming your session...");
+        long start = System.nanoTime();
+        authService.resumeSession().thenAccept(result -> Platform.runLater(() -> {
+            setBusy(false, "");
+            if (result.isSuccess()) {
+                System.out.printf("Resumed session for user_id %d in %.1f ms%n",
+                        result.getUser().getUserId(), (System.nanoTime() - start) / 1_000_000.0);
+                loadMainApp(result.getUser());
+            }
+        }));
+    }
+
     @FXML
     private void handleLoginButtonAction(ActionEvent event) {
         String username = usernameField.getText();
@@ -45,20 +78,28 @@ public class LoginScreenController implements Initializable {
             return;
         }
 
-        User user = userDAO.loginUser(username, password);
-
-        if (user != null) {
-            // --- SUCCESS! ---
-            messageLabel.setText("Login Successful! Welcome, " + user.getUsername());
-            System.out.println("Successful login for user_id: " + user.getUserId());
-            
-            // --- NEW: Call the method to switch scenes ---
-            loadMainApp(user, event);
-            
-        } else {
-            // --- FAILURE ---
-            messageLabel.setText("Error: Invalid username or password.");
-        }
+        // Password checking is slow (BCrypt), so it runs on the AuthService's workers
+        setBusy(true, "Signing in...");
+        authService.login(username, password, rememberMeCheckBox.isSelected()).thenAccept(result -> Platform.runLater(() -> {
+            setBusy(false, "");
+            System.out.println("Login " + result + ": " + authService.describe());
+
+            if (result.isSuccess()) {
+                // --- SUCCESS! ---
+                User user = result.getUser();
+                messageLabel.setText("Login Successful! Welcome, " + user.getUsername());
+                System.out.println("Successful login for user_id: " + user.getUserId());
+                
+                // --- NEW: Call the method to switch scenes ---
+                loadMainApp(user);
+                
+            } else if (result.getOutcome() == AuthResult.Outcome.REJECTED) {
+                // --- FAILURE ---
+                messageLabel.setText("Error: Invalid username or password.");
+            } else {
+                messageLabel.setText(describeFailure(result));
+            }
+        }));
     }
 
     @FXML
@@ -71,52 +112,66 @@ public class LoginScreenController implements Initializable {
             return;
         }
 
-        boolean success = userDAO.registerUser(username, password);
+        setBusy(true, "Creating account...");
+        authService.register(username, password).thenAccept(result -> Platform.runLater(() -> {
+            setBusy(false, "");
 
-        if (success) {
-            messageLabel.setText("Registration Successful! Please log in.");
-        } else {
-            messageLabel.setText("Error: Registration failed. Username may be taken.");
+            if (result.isSuccess()) {
+                messageLabel.setText("Registration Successful! Please log in.");
+            } else if (result.getOutcome() == AuthResult.Outcome.REJECTED) {
+                messageLabel.setText("Error: Registration failed. Username may be taken.");
+            } else {
+                messageLabel.setText(describeFailure(result));
+            }
+        }));
+    }
+    
+    /**
+     * The message for an attempt that was refused or failed before the password was checked.
+     */
+    private String describeFailure(AuthResult result) {
+        switch (result.getOutcome()) {
+            case RATE_LIMITED:
+                long seconds = (result.getRetryAfterMillis() + 999) / 1000;
+                return "Too many attempts. Please try again in " + seconds + (seconds == 1 ? " second." : " seconds.");
+            case BUSY:
+                return "Too many sign-ins at once. Please try again in a moment.";
+            default:
+                return "Error: Could not reach the database. Please try again.";
         }
     }
     
+    /**
+     * Disables the buttons while a background request is running.
+     */
+    private void setBusy(boolean busy, String message) {
+        loginButton.setDisable(busy);
+        rememberMeCheckBox.setDisable(busy);
+        registerButton.setDisable(busy);
+        messageLabel.setText(message);
+    }
+    
     
     // --- THIS IS THE NEW HELPER METHOD ---
     /**
      * Closes the login window and opens the main application window.
      * @param user The user who successfully logged in.
-     * @param event The ActionEvent from the button click, used to get the stage.
      */
-    private void loadMainApp(User user, ActionEvent event) {
+    private void loadMainApp(User user) {
+        ViewFactory views = ViewFactory.get();
         try {
-            // 1. Load the FXML file
-            // Make sure the path is correct!
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/MainApp.fxml"));
-            Parent root = loader.load();
-
-            // 2. Get the MainAppController
-            MainAppController mainAppController = loader.getController();
-            
-            // 3. Pass the logged-in user's data to the controller
-            mainAppController.initData(user);
-
-            // 4. Create a new stage (window) for the main app
-            Stage mainStage = new Stage();
-            mainStage.setTitle("Todo App - Dashboard");
-            Scene scene = new Scene(root);
-            
-            // 5. Load the main app's CSS
-            try {
-                String cssPath = "/styles/mainapp.css";
-                scene.getStylesheets().add(getClass().getResource(cssPath).toExternalForm());
-            } catch (Exception e) {
-                System.err.println("Could not load mainapp.css: " + e.getMessage());
-            }
+            // 1. Get the main window, usually preloaded while this screen was up
+            ViewFactory.View<MainAppController> mainApp = views.take(ViewFactory.MAIN_APP);
 
-            mainStage.setScene(scene);
+            // 2. Pass the logged-in user's data to the controller
+            mainApp.getController().initData(user);
+
+            // 3. Create a new stage (window) for the main app. Its CSS is
+            //    already on the scene; closing it resets the controller.
+            Stage mainStage = views.newStage(mainApp, "Todo App - Dashboard");
             mainStage.show();
 
-            // 6. Close the current (login) window
+            // 4. Close the current (login) window
             Stage loginStage = (Stage) loginButton.getScene().getWindow();
             loginStage.close();
 
@@ -125,4 +180,17 @@ public class LoginScreenController implements Initializable {
             messageLabel.setText("Error: Could not load main application window.");
         }
     }
+
+    /**
+     * Clears the form when the window closes, so the next time it is shown
+     * (after a logout) no password or old message is left in it.
+     */
+    @Override
+    public CompletableFuture<Void> reset() {
+        setBusy(false, "");
+        usernameField.clear();
+        passwordField.clear();
+        rememberMeCheckBox.setSelected(false);
+        return CompletableFuture.completedFuture(null);
+    }
 }
\ No newline at end of file
@@ -1,32 +1,70 @@
 package com.saadsafi.todoapp.controller;
 
 // --- ALL IMPORTS ---
+import com.saadsafi.todoapp.auth.AuthService;
+import com.saadsafi.todoapp.dao.AsyncCategoryDAO;
+import com.saadsafi.todoapp.dao.AsyncSubtaskDAO;
+import com.saadsafi.todoapp.dao.AsyncTaskDAO;
+import com.saadsafi.todoapp.dao.CachingCategoryDAO;
+import com.saadsafi.todoapp.dao.CachingSubtaskDAO;
+import com.saadsafi.todoapp.dao.CachingTaskDAO;
 import com.saadsafi.todoapp.dao.CategoryDAO;
+import com.saadsafi.todoapp.dao.CategoryDeleteResult;
+import com.saadsafi.todoapp.dao.DaoExecutor;
+import com.saadsafi.todoapp.dao.JournalCategoryDAO;
+import com.saadsafi.todoapp.dao.JournalSubtaskDAO;
+import com.saadsafi.todoapp.dao.JournalTaskDAO;
+import com.saadsafi.todoapp.dao.StatusWriteBehindQueue;
+import com.saadsafi.todoapp.dao.TaskCache;
 import com.saadsafi.todoapp.dao.TaskDAO;
+import com.saadsafi.todoapp.dao.TaskFilter;
+import com.saadsafi.todoapp.dao.TaskQuery;
+import com.saadsafi.todoapp.dao.TaskSort;
 import com.saadsafi.todoapp.dao.SubtaskDAO;
+import com.saadsafi.todoapp.db.DatabaseConnection;
+import com.saadsafi.todoapp.journal.JournalStore;
+import com.saadsafi.todoapp.journal.LocalJournal;
+import com.saadsafi.todoapp.journal.PullResult;
 import com.saadsafi.todoapp.model.Category;
 import com.saadsafi.todoapp.model.Priority;
 import com.saadsafi.todoapp.model.Status;
 import com.saadsafi.todoapp.model.Subtask;
 import com.saadsafi.todoapp.model.Task;
 import com.saadsafi.todoapp.model.User;
+import com.saadsafi.todoapp.search.SearchDocument;
+import com.saadsafi.todoapp.search.TaskSearchIndex;
+import com.saadsafi.todoapp.sync.ChangeFeed;
+import com.saadsafi.todoapp.sync.SyncEngine;
+import com.saadsafi.todoapp.sync.TaskChanges;
+import com.saadsafi.todoapp.transfer.TaskExporter;
+import com.saadsafi.todoapp.transfer.TaskImporter;
+import java.io.File;
 import java.io.IOException;
 import java.net.URL;
 import java.time.LocalDate;
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javafx.beans.Observable;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
-import javafx.collections.transformation.SortedList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
@@ -38,41 +76,94 @@ import javafx.scene.control.DatePicker;
 import javafx.scene.control.Label;
 import javafx.scene.control.ListCell;
 import javafx.scene.control.ListView;
+import javafx.scene.control.Menu;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.MenuItem;
+import javafx.scene.control.SelectionMode;
+import javafx.scene.control.SeparatorMenuItem;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
 import javafx.scene.control.TextInputDialog;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.util.Callback;
 import javafx.scene.layout.StackPane;
-public class MainAppController implements Initializable {
+public class MainAppController implements Initializable, ViewFactory.Reusable {
+
+    // How long a bulk change waits for queued checkbox toggles to be written
+    private static final long STATUS_FLUSH_TIMEOUT_MS = 5_000;
 
     private User currentUser;
     
+    // Bumped when the user logs out (the window is reused for the next
+    // login), so background results for the last user are dropped
+    private int session = 0;
+    
     // DAOs
     private CategoryDAO categoryDAO;
     private TaskDAO taskDAO;
     private SubtaskDAO subtaskDAO;
     
+    // Recently loaded categories and tasks, shared by the DAOs above
+    // (null when tasks are kept in the local journal)
+    private TaskCache taskCache;
+    
+    // The local journal, and its sync with the database (null when not used)
+    private JournalStore journal;
+    private SyncEngine syncEngine;
+    
+    // Other clients' changes to the database, when tasks are kept there
+    private ChangeFeed changeFeed;
+    
+    // Async wrappers, so no DAO call ever runs on the JavaFX thread
+    private AsyncCategoryDAO asyncCategoryDAO;
+    private AsyncTaskDAO asyncTaskDAO;
+    private AsyncSubtaskDAO asyncSubtaskDAO;
+    
+    // Batches checkbox toggles and writes them in the background
+    private StatusWriteBehindQueue statusQueue;
+    
+    // Loads the task list page by page as the user scrolls
+    private TaskPager taskPager;
+    
+    // In-memory search index over all of the user's tasks (built after login)
+    private TaskSearchIndex searchIndex;
+    
+    // Debounces search bar input and runs task queries off the JavaFX thread
+    private SearchPipeline searchPipeline;
+    
+    // Runs the slow part of reset() (flushing writes, stopping sync) after a logout
+    private final ExecutorService teardown = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "main-window-teardown");
+        t.setDaemon(true);
+        return t;
+    });
+    
+    // The latest in-flight subtask load. A newer request cancels the older
+    // one, and results from a stale request are ignored.
+    private CompletableFuture<List<Subtask>> pendingSubtaskLoad;
+    
+    // True while we fill the subtask list ourselves (not a user edit)
+    private boolean showingSubtasks = false;
+    
     // Observable Lists
     private ObservableList<Category> categoryList;
-    private ObservableList<Task> taskList; // This is our MASTER list
+    private ObservableList<Task> taskList; // The tasks on screen (already searched, filtered and sorted by the DB)
     private ObservableList<Subtask> subtaskList; 
     
-    // --- LISTS FOR FILTERING/SORTING ---
-    private FilteredList<Task> filteredTaskList;
-    private SortedList<Task> sortedTaskList;
-    
     private Task currentSelectedTask; 
 
-    // --- NEW: Stores the current filter selection ---
-    private String currentFilter = "Show All";
+    // --- Current search/filter/sort choices (applied in SQL) ---
+    private TaskFilter currentFilter = TaskFilter.ALL;
+    private TaskSort currentSort = TaskSort.DEFAULT;
 
     // --- FXML Variables ---
     @FXML private ListView<Category> categoryListView;
     @FXML private Button addCategoryButton;
+    @FXML private Button importButton;
+    @FXML private Button exportButton;
     @FXML private Button logoutButton;
     @FXML private TextField searchBar;
     @FXML private Button filterButton;
@@ -96,46 +187,62 @@ public class MainAppController implements Initializable {
         System.out.println("MainAppController initialized.");
         
         // --- DAOs ---
-        this.categoryDAO = new CategoryDAO();
-        this.taskDAO = new TaskDAO();
-        this.subtaskDAO = new SubtaskDAO();
+        this.journal = openJournal();
+        if (journal != null) {
+            // Everything is in the journal's memory already, no cache needed
+            this.categoryDAO = new JournalCategoryDAO(journal);
+            this.taskDAO = new JournalTaskDAO(journal);
+            this.subtaskDAO = new JournalSubtaskDAO(journal);
+        } else {
+            // Reads come from the cache when possible, writes update it
+            this.taskCache = new TaskCache();
+            this.categoryDAO = new CachingCategoryDAO(taskCache);
+            this.taskDAO = new CachingTaskDAO(taskCache);
+            this.subtaskDAO = new CachingSubtaskDAO(taskCache);
+        }
+        this.asyncCategoryDAO = new AsyncCategoryDAO(categoryDAO);
+        this.asyncTaskDAO = new AsyncTaskDAO(taskDAO);
+        this.asyncSubtaskDAO = new AsyncSubtaskDAO(subtaskDAO);
+        this.statusQueue = new StatusWriteBehindQueue(taskDAO, subtaskDAO);
         
         // --- Lists ---
         this.categoryList = FXCollections.observableArrayList();
         this.taskList = FXCollections.observableArrayList(); // Master list
-        this.subtaskList = FXCollections.observableArrayList();
+        // The extractor makes status changes fire list updates too
+        this.subtaskList = FXCollections.observableArrayList(
+                subtask -> new Observable[]{subtask.statusProperty(), subtask.titleProperty()});
         
-        // --- Setup Filtered & Sorted Lists ---
-        this.filteredTaskList = new FilteredList<>(taskList, p -> true); // Show all by default
-
-        // 2. Add listener to search bar to change the filter
+        // Search text changes re-run the query once typing pauses
         searchBar.textProperty().addListener((observable, oldValue, newValue) -> {
-            applyFilters(); 
+            Category selected = categoryListView.getSelectionModel().getSelectedItem();
+            searchPipeline.submit(selected != null ? buildTaskQuery(selected) : null);
         });
 
-        // 3. Wrap the FilteredList in a SortedList
-        this.sortedTaskList = new SortedList<>(filteredTaskList);
-        
-        // 4. *** THIS IS THE LINE I REMOVED. IT WAS THE ERROR. ***
-        // sortedTaskList.comparatorProperty().bind(taskListView.comparatorProperty()); 
-
         // --- Link Lists to ListViews ---
         categoryListView.setItems(categoryList);
-        taskListView.setItems(sortedTaskList); // <-- Correctly bound
+        taskListView.setItems(taskList);
         subtaskListView.setItems(subtaskList);
         
+        this.taskPager = new TaskPager(asyncTaskDAO, taskList, taskListView);
+        this.searchIndex = new TaskSearchIndex();
+        this.searchPipeline = new SearchPipeline(searchIndex, taskPager);
+        
         // Call setup methods
         setupDetailPaneControls(); 
         addCategorySelectionListener();
         addTaskSelectionListener();
         setupCategoryContextMenu();
+        setupTaskContextMenu();
         setupSubtaskListView();
+        setupSubtaskProgressSync();
         
         // --- WIRE UP ALL BUTTONS ---
         saveTaskButton.setOnAction(this::handleSaveTaskButton);
         deleteTaskButton.setOnAction(this::handleDeleteTaskButton);
         addTaskButton.setOnAction(this::handleAddTaskButton);
         addCategoryButton.setOnAction(this::handleAddCategoryButton);
+        importButton.setOnAction(this::handleImportButton);
+        exportButton.setOnAction(this::handleExportButton);
         logoutButton.setOnAction(this::handleLogoutButton);
         addSubtaskButton.setOnAction(this::handleAddNewSubtask);
         sortButton.setOnAction(this::handleSortButton);
@@ -148,28 +255,196 @@ public class MainAppController implements Initializable {
         taskDetailsPane.setVisible(false);
     }    
     
+    /**
+     * @return The local journal if the configuration keeps tasks there, otherwise null.
+     */
+    private JournalStore openJournal() {
+        try {
+            return LocalJournal.isEnabled() ? LocalJournal.get() : null;
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Could not open the task journal, using the database: " + e.getMessage());
+            return null;
+        }
+    }
+    
     public void initData(User user) {
         this.currentUser = user;
         System.out.println("User logged in: " + currentUser.getUsername());
         
+        // Selects the first category once the list has arrived
         loadCategories();
+        buildSearchIndex();
+        startSync();
+        startChangeFeed();
+    }
+    
+    /**
+     * Starts copying the journal's changes to and from the database in the
+     * background, if tasks are in the journal and sync is configured.
+     */
+    private void startSync() {
+        if (journal == null || !DatabaseConnection.getConfig().isSyncEnabled()) {
+            return;
+        }
+        syncEngine = new SyncEngine(journal, currentUser.getUserId());
+        int started = session;
+        syncEngine.setChangeListener(result -> Platform.runLater(() -> {
+            if (session == started) {
+                showServerChanges(result);
+            }
+        }));
+        syncEngine.start();
+    }
+    
+    /**
+     * Starts watching the database for other clients' changes, if tasks are
+     * kept there (with the journal, sync reports them instead).
+     */
+    private void startChangeFeed() {
+        if (journal != null) {
+            return;
+        }
+        changeFeed = new ChangeFeed(taskDAO, currentUser.getUserId());
+        int started = session;
+        changeFeed.setListener(changes -> Platform.runLater(() -> {
+            if (session == started) {
+                showDatabaseChanges(changes);
+            }
+        }));
+        changeFeed.start();
+    }
+    
+    /**
+     * Shows what sync brought in from the database (other devices' edits).
+     * The journal already has the changes, so the changed tasks are read
+     * from it and patched into the list.
+     */
+    private void showServerChanges(PullResult result) {
+        if (currentUser == null) {
+            return;
+        }
+        if (result.isCategoriesChanged()) {
+            mergeCategories();
+        }
+        if (!result.isTasksChanged()) {
+            return;
+        }
+        Set<Integer> deletedTaskIds = result.getDeletedTaskIds();
+        if (result.getChangedTaskIds().isEmpty()) {
+            patchTasks(List.of(), deletedTaskIds, Set.of());
+            return;
+        }
+        runInBackground(asyncTaskDAO.getTasksByIds(currentUser.getUserId(), result.getChangedTaskIds()),
+                tasks -> patchTasks(tasks, deletedTaskIds, Set.of()));
+    }
+    
+    /**
+     * Shows what the ChangeFeed found in the database (other clients' edits,
+     * and our own coming back). The cache gets the deletions first; the
+     * changed tasks were written to it when they were fetched.
+     */
+    private void showDatabaseChanges(TaskChanges changes) {
+        if (currentUser == null) {
+            return;
+        }
+        if (taskCache != null) {
+            changes.getDeletedTaskIds().forEach(taskCache::removeTask);
+            changes.getDeletedSubtaskIds().forEach(taskCache::removeSubtask);
+            changes.getDeletedCategoryIds().forEach(taskCache::removeCategory);
+            if (changes.isCategoriesChanged()) {
+                taskCache.invalidateCategories(currentUser.getUserId());
+            }
+        }
+        if (changes.isCategoriesChanged()) {
+            mergeCategories();
+        }
+        patchTasks(changes.getChangedTasks(), changes.getDeletedTaskIds(), changes.getDeletedSubtaskIds());
+    }
+    
+    /**
+     * Brings the search index and the task list up to date with tasks that
+     * changed elsewhere, without reloading the list.
+     */
+    private void patchTasks(List<Task> changed, Set<Integer> deletedTaskIds, Set<Integer> deletedSubtaskIds) {
+        for (Task task : changed) {
+            searchIndex.index(SearchDocument.of(task));
+        }
+        deletedTaskIds.forEach(searchIndex::remove);
+        
+        int patched = taskPager.applyChanges(changed, deletedTaskIds, deletedSubtaskIds);
+        if (patched > 0) {
+            System.out.println("Patched " + patched + " tasks from changes made elsewhere.");
+        }
         
-        if (!categoryList.isEmpty()) {
-            categoryListView.getSelectionModel().selectFirst();
+        // The open task's subtasks are shown from a copy; refresh it if they changed
+        Task open = currentSelectedTask;
+        if (open != null && open.hasSubtasksLoaded() && !sameSubtasks(subtaskList, open.getSubtasks())) {
+            showSubtasks(open.getSubtasks());
         }
     }
     
+    private static boolean sameSubtasks(List<Subtask> shown, List<Subtask> current) {
+        if (shown.size() != current.size()) {
+            return false;
+        }
+        for (int i = 0; i < shown.size(); i++) {
+            Subtask a = shown.get(i);
+            Subtask b = current.get(i);
+            if (a.getSubtaskId() != b.getSubtaskId() || a.getStatus() != b.getStatus()
+                    || !Objects.equals(a.getTitle(), b.getTitle())) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Adds new categories and drops deleted ones without touching the
+     * selection (unless the selected category itself is gone).
+     */
+    private void mergeCategories() {
+        runInBackground(asyncCategoryDAO.getCategoriesByUserId(currentUser.getUserId()), categoriesFromDB -> {
+            Set<Integer> ids = new HashSet<>();
+            for (Category category : categoriesFromDB) {
+                ids.add(category.getCategoryId());
+            }
+            categoryList.removeIf(category -> !ids.contains(category.getCategoryId()));
+            for (Category category : categoriesFromDB) {
+                if (categoryList.stream().noneMatch(c -> c.getCategoryId() == category.getCategoryId())) {
+                    categoryList.add(category);
+                }
+            }
+        });
+    }
+    
+    /**
+     * Loads the searchable text of all the user's tasks and builds the search
+     * index, both in the background. Until it is ready, searches run in SQL.
+     */
+    private void buildSearchIndex() {
+        long start = System.nanoTime();
+        // A logout clears the index; a rebuild loaded before it is dropped
+        long generation = searchIndex.getGeneration();
+        CompletableFuture<Boolean> build = asyncTaskDAO.getSearchDocuments(currentUser.getUserId())
+                .thenApply(documents -> searchIndex.rebuild(documents, generation));
+        runInBackground(build, rebuilt -> {
+            if (rebuilt) {
+                System.out.printf("Search index built: %d tasks, %d tokens in %.1f ms%n",
+                        searchIndex.getDocumentCount(), searchIndex.getTokenCount(),
+                        (System.nanoTime() - start) / 1_000_000.0);
+            }
+        });
+    }
+    
     // --- NEW: METHOD FOR FILTER BUTTON ---
     @FXML
     private void handleFilterButton(ActionEvent event) {
-        List<String> choices = List.of("Show All", "Show Pending Only", "Show Completed Only", "Show Due Today", "Show High Priority");
-        
-        ChoiceDialog<String> dialog = new ChoiceDialog<>(currentFilter, choices);
+        ChoiceDialog<TaskFilter> dialog = new ChoiceDialog<>(currentFilter, TaskFilter.values());
         dialog.setTitle("Filter Tasks");
         dialog.setHeaderText("Select a filter to apply:");
         dialog.setContentText("Filter by:");
 
-        Optional<String> result = dialog.showAndWait();
+        Optional<TaskFilter> result = dialog.showAndWait();
 
         result.ifPresent(choice -> {
             currentFilter = choice; // Store the new filter choice
@@ -179,86 +454,125 @@ public class MainAppController implements Initializable {
 
     // --- NEW: COMBINED FILTER LOGIC ---
     /**
-     * Applies both the Search Bar filter AND the Dropdown filter
-     * to the task list.
+     * Applies the Search Bar text, the Filter choice and the Sort choice.
+     * All three go into the SQL query (see TaskQueryBuilder), so only the
+     * matching rows come back from the database.
      */
     private void applyFilters() {
-        String searchText = searchBar.getText().toLowerCase();
-        
-        filteredTaskList.setPredicate(task -> {
-            // 1. Check Search Bar
-            boolean searchMatches = false;
-            if (searchText == null || searchText.isEmpty()) {
-                searchMatches = true;
-            } else {
-                if (task.getTitle().toLowerCase().contains(searchText)) {
-                    searchMatches = true;
-                } else if (task.getDescription() != null && task.getDescription().toLowerCase().contains(searchText)) {
-                    searchMatches = true;
-                }
-            }
-
-            // 2. Check Filter Dropdown
-            boolean filterMatches = false;
-            switch (currentFilter) {
-                case "Show Pending Only":
-                    filterMatches = (task.getStatus() == Status.PENDING);
-                    break;
-                case "Show Completed Only":
-                    filterMatches = (task.getStatus() == Status.COMPLETED);
-                    break;
-                case "Show Due Today":
-                    filterMatches = (task.getDueDate() != null && task.getDueDate().isEqual(LocalDate.now()));
-                    break;
-                case "Show High Priority":
-                    filterMatches = (task.getPriority() == Priority.HIGH);
-                    break;
-                case "Show All":
-                default:
-                    filterMatches = true;
-                    break;
-            }
-            
-            // 3. Both must be true
-            return searchMatches && filterMatches;
-        });
+        loadTasks(categoryListView.getSelectionModel().getSelectedItem());
+    }
+    
+    /**
+     * Builds the query for the given category from the current search/filter/sort choices.
+     */
+    private TaskQuery buildTaskQuery(Category category) {
+        // The search text is looked up in the index later, by the SearchPipeline
+        return new TaskQuery(currentUser.getUserId(), category.getCategoryId())
+                .withSearchText(searchBar.getText())
+                .withFilter(currentFilter)
+                .withSort(currentSort);
     }
     
     
     @FXML
     private void handleSortButton(ActionEvent event) {
-        List<String> choices = List.of("Default (None)", "Priority (High-Low)", "Due Date (Soonest)", "Title (A-Z)");
-        
-        ChoiceDialog<String> dialog = new ChoiceDialog<>(choices.get(0), choices);
+        ChoiceDialog<TaskSort> dialog = new ChoiceDialog<>(currentSort, TaskSort.values());
         dialog.setTitle("Sort Tasks");
         dialog.setHeaderText("How would you like to sort the tasks?");
         dialog.setContentText("Sort by:");
 
-        Optional<String> result = dialog.showAndWait();
+        Optional<TaskSort> result = dialog.showAndWait();
 
+        // The list is paged, so re-read it from the database in the new order
+        // (ORDER BY + keyset pagination) instead of sorting what happens to be loaded.
         result.ifPresent(choice -> {
-            // 4. *** APPLY COMPARATOR TO THE SORTEDLIST ***
-            switch (choice) {
-                case "Priority (High-Low)":
-                    sortedTaskList.setComparator(Comparator.comparing(Task::getPriority));
-                    break;
-                case "Due Date (Soonest)":
-                    sortedTaskList.setComparator(
-                        Comparator.comparing(Task::getDueDate, Comparator.nullsLast(Comparator.naturalOrder()))
-                    );
-                    break;
-                case "Title (A-Z)":
-                    sortedTaskList.setComparator(Comparator.comparing(Task::getTitle, String.CASE_INSENSITIVE_ORDER));
-                    break;
-                case "Default (None)":
-                default:
-                    sortedTaskList.setComparator(null); 
-                    break;
-            }
+            currentSort = choice;
+            applyFilters();
         });
     }
 
     
+    /**
+     * Imports tasks from a CSV or JSON file in the background (see TaskImporter),
+     * then reloads the lists.
+     */
+    @FXML
+    private void handleImportButton(ActionEvent event) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import Tasks");
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Task files (CSV, JSON)", "*.csv", "*.json", "*.jsonl", "*.ndjson"),
+                new FileChooser.ExtensionFilter("All files", "*.*"));
+        File file = chooser.showOpenDialog(importButton.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        TaskImporter importer = new TaskImporter(taskDAO, categoryDAO);
+        int userId = currentUser.getUserId();
+        importButton.setDisable(true);
+        runInBackground(DaoExecutor.supply(() -> importer.importFile(file.toPath(), userId)),
+                report -> {
+                    importButton.setDisable(false);
+                    StringBuilder message = new StringBuilder(String.format(
+                            "Imported %d of %d rows (%.0f rows/s).", report.getImported(), report.getRowsRead(),
+                            report.getRowsPerSecond()));
+                    if (report.getCategoriesCreated() > 0) {
+                        message.append("\nNew categories: ").append(report.getCategoriesCreated());
+                    }
+                    if (report.getRejected() > 0) {
+                        message.append("\n\nSkipped ").append(report.getRejected()).append(" rows:");
+                        report.getRejectedRows().stream().limit(10)
+                                .forEach(rejected -> message.append("\n").append(rejected));
+                    }
+                    if (!report.isComplete()) {
+                        message.append("\n\nThe import stopped early: ").append(report.getError());
+                    }
+                    showAlert(report.isComplete() ? Alert.AlertType.INFORMATION : Alert.AlertType.WARNING,
+                            "Import", message.toString());
+
+                    if (report.getImported() > 0 || report.getCategoriesCreated() > 0) {
+                        mergeCategories();
+                        loadTasks(categoryListView.getSelectionModel().getSelectedItem());
+                        buildSearchIndex();
+                    }
+                });
+    }
+    
+    /**
+     * Exports all of the user's categories, tasks and subtasks to a CSV or
+     * JSON file in the background (see TaskExporter).
+     */
+    @FXML
+    private void handleExportButton(ActionEvent event) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export Tasks");
+        chooser.setInitialFileName("tasks.csv");
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("CSV", "*.csv"),
+                new FileChooser.ExtensionFilter("JSON (with categories)", "*.json"));
+        File file = chooser.showSaveDialog(exportButton.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        // Queued checkbox toggles belong in the export too
+        TaskExporter exporter = journal != null ? new TaskExporter(journal) : new TaskExporter();
+        int userId = currentUser.getUserId();
+        exportButton.setDisable(true);
+        runInBackground(afterPendingToggles(() -> DaoExecutor.supply(
+                () -> exporter.exportFile(userId, file.toPath()))), report -> {
+            exportButton.setDisable(false);
+            if (report.isComplete()) {
+                showAlert(Alert.AlertType.INFORMATION, "Export", String.format(
+                        "Exported %d tasks, %d subtasks and %d categories to %s.",
+                        report.getTasks(), report.getSubtasks(), report.getCategories(), file.getName()));
+            } else {
+                showAlert(Alert.AlertType.ERROR, "Export", "The export failed: " + report.getError());
+            }
+        });
+    }
+    
     @FXML
     private void handleLogoutButton(ActionEvent event) {
         Alert confirmationAlert = showAlert(
@@ -270,25 +584,16 @@ public class MainAppController implements Initializable {
         Optional<ButtonType> result = confirmationAlert.showAndWait();
 
         if (result.isPresent() && result.get() == ButtonType.OK) {
-            try {
-                FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/LoginScreen.fxml"));
-                Parent root = loader.load();
-
-                Stage loginStage = new Stage();
-                loginStage.setTitle("Todo App - Login");
-                Scene scene = new Scene(root);
-                
-                try {
-                    String cssPath = "/styles/loginscreen.css";
-                    scene.getStylesheets().add(getClass().getResource(cssPath).toExternalForm());
-                } catch (Exception e) {
-                    System.err.println("Could not load loginscreen.css: " + e.getMessage());
-                }
+            // A remembered login must not resume after an explicit logout
+            AuthService.get().logout();
 
-                loginStage.setScene(scene);
+            ViewFactory views = ViewFactory.get();
+            try {
+                Stage loginStage = views.newStage(views.take(ViewFactory.LOGIN_SCREEN), "Todo App - Login");
                 loginStage.setResizable(false);
                 loginStage.show();
 
+                // Closing the window resets this controller (see reset()) for the next login
                 Stage mainAppStage = (Stage) logoutButton.getScene().getWindow();
                 mainAppStage.close();
 
@@ -302,6 +607,75 @@ public class MainAppController implements Initializable {
     }
     
     
+    /**
+     * Ends the user's session when the main window closes (logout, or the
+     * app exiting): clears what the user saw, then, in the background,
+     * writes pending changes and stops sync and the change feed. The
+     * ViewFactory shows this window again for the next login once that is done.
+     */
+    @Override
+    public CompletableFuture<Void> reset() {
+        if (currentUser == null) {
+            return CompletableFuture.completedFuture(null); // Preloaded but never shown, or already reset
+        }
+        // Clearing the selection clears the task list and details too
+        categoryListView.getSelectionModel().clearSelection();
+        categoryList.clear();
+        searchBar.clear();
+        searchPipeline.cancel();
+        taskPager.reset(null);
+        showSubtasks(List.of());
+        taskDetailsPane.setVisible(false);
+        currentSelectedTask = null;
+        currentFilter = TaskFilter.ALL;
+        currentSort = TaskSort.DEFAULT;
+        searchIndex.clear();
+
+        // Results still on their way belong to the last user
+        session++;
+        currentUser = null;
+
+        // Closing these waits on their workers (seconds, with a last sync
+        // cycle), too long to freeze the window for
+        ChangeFeed feed = changeFeed;
+        SyncEngine sync = syncEngine;
+        changeFeed = null;
+        syncEngine = null;
+        return CompletableFuture.runAsync(() -> {
+            if (feed != null) {
+                feed.close();
+            }
+            // Make sure no checkbox toggles are lost
+            statusQueue.flushAndWait(STATUS_FLUSH_TIMEOUT_MS);
+            if (sync != null) {
+                // After the status queue, so its last toggles are pushed too
+                sync.close();
+            }
+            if (taskCache != null) {
+                System.out.println("Closing task cache: " + taskCache.describe());
+                taskCache.clear();
+            }
+            System.out.println("Main window reset after logout.");
+        }, teardown);
+    }
+
+    /**
+     * Stops the background workers for good. Called when the app exits,
+     * on the JavaFX thread; waits for the last reset to finish.
+     */
+    @Override
+    public void dispose() {
+        try {
+            reset().join();
+        } catch (RuntimeException e) {
+            System.err.println("Main window teardown failed: " + e);
+        }
+        teardown.shutdown();
+        searchPipeline.shutdown();
+        statusQueue.shutdown();
+    }
+    
+    
     // --- CATEGORY METHODS ---
     
     private void setupCategoryContextMenu() {
@@ -320,27 +694,82 @@ public class MainAppController implements Initializable {
     }
     
     private void handleDeleteCategory(Category categoryToDelete) {
+        ButtonType keepTasks = new ButtonType("Keep Tasks");
+        ButtonType moveTasks = new ButtonType("Move Tasks...");
+        ButtonType deleteTasks = new ButtonType("Delete Tasks");
         Alert confirmationAlert = showAlert(
                 Alert.AlertType.CONFIRMATION, 
                 "Delete Category?", 
                 "Are you sure you want to delete '" + categoryToDelete.getCategoryName() + "'?\n\n" +
-                "Tasks in this category will not be deleted."
+                "Its tasks can stay without a category, move to another category, or be deleted too."
         );
+        confirmationAlert.getButtonTypes().setAll(keepTasks, moveTasks, deleteTasks, ButtonType.CANCEL);
 
         Optional<ButtonType> result = confirmationAlert.showAndWait();
+        if (result.isEmpty() || result.get() == ButtonType.CANCEL) {
+            return;
+        }
 
-        if (result.isPresent() && result.get() == ButtonType.OK) {
-            boolean success = categoryDAO.deleteCategory(categoryToDelete.getCategoryId());
+        int userId = currentUser.getUserId();
+        int categoryId = categoryToDelete.getCategoryId();
+        Supplier<CompletableFuture<CategoryDeleteResult>> operation;
+        if (result.get() == deleteTasks) {
+            operation = () -> asyncCategoryDAO.deleteCategoryWithTasks(userId, categoryId);
+        } else if (result.get() == moveTasks) {
+            List<Category> others = new ArrayList<>(categoryList);
+            others.remove(categoryToDelete);
+            if (others.isEmpty()) {
+                showAlert(Alert.AlertType.INFORMATION, "Move Tasks", "There is no other category to move the tasks to.");
+                return;
+            }
+            ChoiceDialog<Category> dialog = new ChoiceDialog<>(others.get(0), others);
+            dialog.setTitle("Move Tasks");
+            dialog.setHeaderText(null);
+            dialog.setContentText("Move the tasks of '" + categoryToDelete.getCategoryName() + "' to:");
+            Optional<Category> target = dialog.showAndWait();
+            if (target.isEmpty()) {
+                return;
+            }
+            operation = () -> asyncCategoryDAO.deleteCategory(userId, categoryId, target.get());
+        } else {
+            operation = () -> asyncCategoryDAO.deleteCategory(userId, categoryId, null);
+        }
 
-            if (success) {
-                System.out.println("Category deleted.");
-                categoryList.remove(categoryToDelete);
-                loadTasks(null); 
-                taskDetailsPane.setVisible(false);
-            } else {
+        long start = System.nanoTime();
+        runInBackground(afterPendingToggles(operation), deleteResult -> {
+            if (deleteResult == null) {
                 showAlert(Alert.AlertType.ERROR, "Error", "Could not delete category.");
+                return;
+            }
+            System.out.printf("Category deleted (%d tasks moved, %d deleted) in %.1f ms%n",
+                    deleteResult.getMovedTaskIds().size(), deleteResult.getDeletedTaskIds().size(),
+                    (System.nanoTime() - start) / 1_000_000.0);
+            applyCategoryDelete(categoryToDelete, deleteResult);
+        });
+    }
+    
+    /**
+     * Patches the search index and the task list with what a category
+     * delete did to its tasks, then drops the category. The selection
+     * moving on (or clearing) lists the next category, nothing is reloaded.
+     */
+    private void applyCategoryDelete(Category deleted, CategoryDeleteResult deleteResult) {
+        Category movedTo = deleteResult.getMovedTo();
+        deleteResult.getDeletedTaskIds().forEach(searchIndex::remove);
+        searchIndex.moveToCategory(deleteResult.getMovedTaskIds(), movedTo != null ? movedTo.getCategoryId() : 0);
+
+        Set<Integer> movedIds = new HashSet<>(deleteResult.getMovedTaskIds());
+        List<Task> moved = new ArrayList<>();
+        for (Task task : taskList) {
+            if (movedIds.contains(task.getTaskId())) {
+                task.setCategory(movedTo);
+                moved.add(task);
             }
         }
+        taskPager.applyChanges(moved, deleteResult.getDeletedTaskIds(), deleteResult.getDeletedSubtaskIds());
+
+        categoryList.remove(deleted);
+        taskDetailsPane.setVisible(false);
     }
     
     @FXML
@@ -355,25 +784,32 @@ public class MainAppController implements Initializable {
         if (result.isPresent() && !result.get().trim().isEmpty()) {
             String categoryName = result.get().trim();
             
-            Category newCategory = categoryDAO.createCategory(categoryName, currentUser.getUserId());
-            
-            if (newCategory != null) {
-                System.out.println("New category created: " + newCategory.getCategoryName());
-                categoryList.add(newCategory);
-                categoryListView.getSelectionModel().select(newCategory);
-            } else {
-                showAlert(Alert.AlertType.ERROR, "Error", "Could not create new category in database.");
-            }
+            runInBackground(asyncCategoryDAO.createCategory(categoryName, currentUser.getUserId()), newCategory -> {
+                if (newCategory != null) {
+                    System.out.println("New category created: " + newCategory.getCategoryName());
+                    categoryList.add(newCategory);
+                    categoryListView.getSelectionModel().select(newCategory);
+                } else {
+                    showAlert(Alert.AlertType.ERROR, "Error", "Could not create new category in database.");
+                }
+            });
         }
     }
     
     private void loadCategories() {
-        List<Category> categoriesFromDB = categoryDAO.getCategoriesByUserId(currentUser.getUserId());
-        categoryList.clear();
-        categoryList.addAll(categoriesFromDB);
-        System.out.println("Loaded " + categoriesFromDB.size() + " categories.");
+        categoryListView.setPlaceholder(new ProgressIndicator());
         
-        taskCategoryComboBox.setItems(categoryList);
+        runInBackground(asyncCategoryDAO.getCategoriesByUserId(currentUser.getUserId()), categoriesFromDB -> {
+            categoryListView.setPlaceholder(new Label("No categories yet"));
+            categoryList.setAll(categoriesFromDB);
+            System.out.println("Loaded " + categoriesFromDB.size() + " categories.");
+            
+            taskCategoryComboBox.setItems(categoryList);
+            
+            if (!categoryList.isEmpty()) {
+                categoryListView.getSelectionModel().selectFirst();
+            }
+        });
     }
     
     private void addCategorySelectionListener() {
@@ -421,7 +857,12 @@ public class MainAppController implements Initializable {
         taskPriorityComboBox.setValue(task.getPriority());
         taskCategoryComboBox.setValue(task.getCategory());
         
-        loadSubtasks(task.getTaskId());
+        if (task.hasSubtasksLoaded()) {
+            // Already loaded together with the task, no database call needed
+            showSubtasks(task.getSubtasks());
+        } else {
+            loadSubtasks(task);
+        }
     }
     
     @FXML
@@ -437,7 +878,7 @@ public class MainAppController implements Initializable {
         taskPriorityComboBox.setValue(Priority.MEDIUM);
         taskCategoryComboBox.setValue(categoryListView.getSelectionModel().getSelectedItem());
         
-        subtaskList.clear();
+        showSubtasks(List.of());
         
         taskDetailsPane.setVisible(true);
         taskTitleField.requestFocus();
@@ -459,21 +900,174 @@ public class MainAppController implements Initializable {
         Optional<ButtonType> result = confirmationAlert.showAndWait();
 
         if (result.isPresent() && result.get() == ButtonType.OK) {
-            boolean success = taskDAO.deleteTask(currentSelectedTask.getTaskId());
+            Task taskToDelete = currentSelectedTask;
+            deleteTaskButton.setDisable(true);
+            
+            runInBackground(asyncTaskDAO.deleteTask(taskToDelete.getTaskId()), success -> {
+                deleteTaskButton.setDisable(false);
+                if (success) {
+                    System.out.println("Task deleted successfully!");
+                    searchIndex.remove(taskToDelete.getTaskId());
+                    taskList.remove(taskToDelete); // Remove from master list
+                    if (currentSelectedTask == taskToDelete) {
+                        taskDetailsPane.setVisible(false);
+                        currentSelectedTask = null;
+                    }
+                    showAlert(Alert.AlertType.INFORMATION, "Success", "Task deleted.");
+                } else {
+                    System.err.println("Failed to delete task.");
+                    showAlert(Alert.AlertType.ERROR, "Error", "Failed to delete task from the database.");
+                }
+            });
+        } else {
+            System.out.println("Delete cancelled.");
+        }
+    }
+    
+    // --- BULK TASK METHODS ---
+    
+    /**
+     * Lets the user select several tasks (Ctrl/Shift-click) and change them
+     * all at once. Each action is one batched DAO call, not one per task.
+     */
+    private void setupTaskContextMenu() {
+        taskListView.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        ContextMenu contextMenu = new ContextMenu();
+
+        MenuItem completeMenuItem = new MenuItem("Mark Completed");
+        completeMenuItem.setOnAction(event -> handleBulkStatus(Status.COMPLETED));
+        MenuItem pendingMenuItem = new MenuItem("Mark Pending");
+        pendingMenuItem.setOnAction(event -> handleBulkStatus(Status.PENDING));
+
+        Menu priorityMenu = new Menu("Set Priority");
+        for (Priority priority : Priority.values()) {
+            MenuItem priorityMenuItem = new MenuItem(priority.toString());
+            priorityMenuItem.setOnAction(event -> handleBulkPriority(priority));
+            priorityMenu.getItems().add(priorityMenuItem);
+        }
+
+        MenuItem moveMenuItem = new MenuItem("Move to Category...");
+        moveMenuItem.setOnAction(event -> handleBulkMove());
+        MenuItem deleteMenuItem = new MenuItem("Delete Selected");
+        deleteMenuItem.setOnAction(event -> handleBulkDelete());
 
-            if (success) {
-                System.out.println("Task deleted successfully!");
-                taskList.remove(currentSelectedTask); // Remove from master list
+        contextMenu.getItems().addAll(completeMenuItem, pendingMenuItem, priorityMenu,
+                new SeparatorMenuItem(), moveMenuItem, deleteMenuItem);
+        taskListView.setContextMenu(contextMenu);
+    }
+    
+    private void handleBulkStatus(Status status) {
+        runBulkUpdate("update", ids -> asyncTaskDAO.updateTasksStatus(currentUser.getUserId(), ids, status),
+                task -> task.setStatus(status));
+    }
+    
+    private void handleBulkPriority(Priority priority) {
+        runBulkUpdate("update", ids -> asyncTaskDAO.updateTasksPriority(currentUser.getUserId(), ids, priority),
+                task -> task.setPriority(priority));
+    }
+    
+    private void handleBulkMove() {
+        if (taskListView.getSelectionModel().getSelectedItems().isEmpty() || categoryList.isEmpty()) {
+            return;
+        }
+        ChoiceDialog<Category> dialog = new ChoiceDialog<>(
+                categoryListView.getSelectionModel().getSelectedItem(), categoryList);
+        dialog.setTitle("Move Tasks");
+        dialog.setHeaderText(null);
+        dialog.setContentText("Move the selected tasks to:");
+
+        dialog.showAndWait().ifPresent(category ->
+                runBulkUpdate("move", ids -> asyncTaskDAO.moveTasks(currentUser.getUserId(), ids, category),
+                        task -> task.setCategory(category)));
+    }
+    
+    private void handleBulkDelete() {
+        List<Task> selected = new ArrayList<>(taskListView.getSelectionModel().getSelectedItems());
+        if (selected.isEmpty()) {
+            return;
+        }
+        Alert confirmationAlert = showAlert(
+                Alert.AlertType.CONFIRMATION,
+                "Delete Tasks?",
+                "Are you sure you want to permanently delete " + selected.size() + " tasks?"
+        );
+        Optional<ButtonType> result = confirmationAlert.showAndWait();
+        if (result.isEmpty() || result.get() != ButtonType.OK) {
+            System.out.println("Delete cancelled.");
+            return;
+        }
+
+        Set<Integer> ids = taskIdsOf(selected);
+        long start = System.nanoTime();
+        runInBackground(afterPendingToggles(() -> asyncTaskDAO.deleteTasks(currentUser.getUserId(), ids)), deleted -> {
+            if (deleted < 0) {
+                showAlert(Alert.AlertType.ERROR, "Error", "Failed to delete the selected tasks.");
+                return;
+            }
+            System.out.printf("Deleted %d tasks in %.1f ms%n", deleted, (System.nanoTime() - start) / 1_000_000.0);
+            ids.forEach(searchIndex::remove);
+            taskPager.applyChanges(List.of(), ids, Set.of());
+            if (currentSelectedTask != null && ids.contains(currentSelectedTask.getTaskId())) {
                 taskDetailsPane.setVisible(false);
                 currentSelectedTask = null;
-                showAlert(Alert.AlertType.INFORMATION, "Success", "Task deleted.");
-            } else {
-                System.err.println("Failed to delete task.");
-                showAlert(Alert.AlertType.ERROR, "Error", "Failed to delete task from the database.");
             }
-        } else {
-            System.out.println("Delete cancelled.");
+        });
+    }
+    
+    /**
+     * Runs one bulk update over the selected tasks, then applies the same
+     * change to the Task objects on screen and patches the list (tasks
+     * that no longer match the category or filter drop out).
+     *
+     * @param action For messages ("update", "move").
+     * @param operation The DAO call; its result is the number of tasks changed, or -1.
+     * @param change What the update did, applied to each selected Task.
+     */
+    private void runBulkUpdate(String action, Function<Set<Integer>, CompletableFuture<Integer>> operation,
+                               Consumer<Task> change) {
+        List<Task> selected = new ArrayList<>(taskListView.getSelectionModel().getSelectedItems());
+        if (selected.isEmpty()) {
+            return;
         }
+        Set<Integer> ids = taskIdsOf(selected);
+        long start = System.nanoTime();
+        runInBackground(afterPendingToggles(() -> operation.apply(ids)), updated -> {
+            if (updated < 0) {
+                showAlert(Alert.AlertType.ERROR, "Error", "Failed to " + action + " the selected tasks.");
+                return;
+            }
+            System.out.printf("Bulk %s of %d tasks took %.1f ms%n", action, updated,
+                    (System.nanoTime() - start) / 1_000_000.0);
+            for (Task task : selected) {
+                change.accept(task);
+                searchIndex.index(SearchDocument.of(task));
+            }
+            taskPager.applyChanges(selected, Set.of(), Set.of());
+            if (currentSelectedTask != null && !taskList.contains(currentSelectedTask)) {
+                taskDetailsPane.setVisible(false);
+                currentSelectedTask = null;
+            } else if (currentSelectedTask != null && selected.contains(currentSelectedTask)) {
+                taskPriorityComboBox.setValue(currentSelectedTask.getPriority());
+                taskCategoryComboBox.setValue(currentSelectedTask.getCategory());
+            }
+        });
+    }
+    
+    /**
+     * Writes queued checkbox toggles before a bulk change, so a toggle made
+     * just before it can't be written after it and undo it.
+     */
+    private <T> CompletableFuture<T> afterPendingToggles(Supplier<CompletableFuture<T>> operation) {
+        return DaoExecutor.run(() -> statusQueue.flushAndWait(STATUS_FLUSH_TIMEOUT_MS))
+                .thenCompose(ignored -> operation.get());
+    }
+    
+    private static Set<Integer> taskIdsOf(List<Task> tasks) {
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (Task task : tasks) {
+            ids.add(task.getTaskId());
+        }
+        return ids;
     }
     
     @FXML
@@ -493,30 +1087,36 @@ public class MainAppController implements Initializable {
             // --- UPDATE LOGIC ---
             System.out.println("Saving changes to existing task ID: " + currentSelectedTask.getTaskId());
             
-            currentSelectedTask.setTitle(newTitle);
-            currentSelectedTask.setDescription(newDescription);
-            currentSelectedTask.setPriority(newPriority);
-            currentSelectedTask.setDueDate(newDueDate);
-            currentSelectedTask.setCategory(newCategory);
-
-            boolean success = taskDAO.updateTask(currentSelectedTask);
-
-            if (success) {
-                System.out.println("Task updated successfully!");
-                showAlert(Alert.AlertType.INFORMATION, "Success", "Task updated successfully.");
-
-                taskListView.refresh();
-                
-                Category currentCategory = categoryListView.getSelectionModel().getSelectedItem();
-                if (newCategory == null || (currentCategory != null && newCategory.getCategoryId() != currentCategory.getCategoryId())) {
-                    loadTasks(currentCategory);
-                    taskDetailsPane.setVisible(false);
-                }
+            // The edits go to a copy; the task in the list takes them only once they are saved
+            Task updatedTask = currentSelectedTask;
+            Task edited = new Task(updatedTask.toRecord());
+            edited.setTitle(newTitle);
+            edited.setDescription(newDescription);
+            edited.setPriority(newPriority);
+            edited.setDueDate(newDueDate);
+            edited.setCategory(newCategory);
 
-            } else {
-                System.err.println("Failed to update task.");
-                showAlert(Alert.AlertType.ERROR, "Error", "Failed to update task in the database.");
-            }
+            saveTaskButton.setDisable(true);
+            runInBackground(asyncTaskDAO.updateTask(edited), success -> {
+                saveTaskButton.setDisable(false);
+                if (success) {
+                    System.out.println("Task updated successfully!");
+                    updatedTask.updateFrom(edited);
+                    searchIndex.index(SearchDocument.of(updatedTask));
+                    showAlert(Alert.AlertType.INFORMATION, "Success", "Task updated successfully.");
+
+                    // Moves it if the new values sort elsewhere, removes it
+                    // if it left the category (or the filter)
+                    taskPager.applyChanges(List.of(updatedTask), Set.of(), Set.of());
+                    if (!taskList.contains(updatedTask)) {
+                        taskDetailsPane.setVisible(false);
+                    }
+
+                } else {
+                    System.err.println("Failed to update task.");
+                    showAlert(Alert.AlertType.ERROR, "Error", "Failed to update task in the database.");
+                }
+            }, () -> saveTaskButton.setDisable(false));
 
         } else {
             // --- CREATE LOGIC ---
@@ -525,38 +1125,38 @@ public class MainAppController implements Initializable {
             Task newTask = new Task(0, currentUser.getUserId(), newTitle, newDescription,
                                     newPriority.name(), newDueDate, Status.PENDING.name(), newCategory);
             
-            Task createdTask = taskDAO.createTask(newTask);
-            
-            if (createdTask != null) {
-                System.out.println("New task created with ID: " + createdTask.getTaskId());
-                showAlert(Alert.AlertType.INFORMATION, "Success", "New task created!");
-                
-                taskList.add(createdTask); // Add to master list
-                taskListView.getSelectionModel().select(createdTask);
-                
-            } else {
-                System.err.println("Failed to create task.");
-                showAlert(Alert.AlertType.ERROR, "Error", "Failed to create task in the database.");
-            }
+            saveTaskButton.setDisable(true);
+            runInBackground(asyncTaskDAO.createTask(newTask), createdTask -> {
+                saveTaskButton.setDisable(false);
+                if (createdTask != null) {
+                    System.out.println("New task created with ID: " + createdTask.getTaskId());
+                    searchIndex.index(SearchDocument.of(createdTask));
+                    showAlert(Alert.AlertType.INFORMATION, "Success", "New task created!");
+                    
+                    // Only show it if it belongs in the current (searched/filtered) list
+                    TaskQuery shownQuery = taskPager.getQuery();
+                    if (shownQuery != null && shownQuery.matches(createdTask)) {
+                        taskList.add(createdTask);
+                        taskListView.getSelectionModel().select(createdTask);
+                    }
+                    
+                } else {
+                    System.err.println("Failed to create task.");
+                    showAlert(Alert.AlertType.ERROR, "Error", "Failed to create task in the database.");
+                }
+            });
         }
     }
     
     private void loadTasks(Category selectedCategory) {
-        taskList.clear(); // Clear master list
+        // Starts over with the first page; a load still running for the
+        // previous category is cancelled and its result ignored.
+        // Each page comes with its subtasks, for details and progress display.
+        searchPipeline.submitNow(selectedCategory != null ? buildTaskQuery(selectedCategory) : null);
         
         if (selectedCategory == null) {
             System.out.println("No category selected. Task list cleared.");
-            return;
         }
-        
-        List<Task> tasksFromDB = taskDAO.getTasksByUserAndCategory(
-                currentUser.getUserId(), 
-                selectedCategory.getCategoryId()
-        );
-        
-        taskList.addAll(tasksFromDB); // Add to master list
-        
-        System.out.println("Loaded " + tasksFromDB.size() + " tasks for category " + selectedCategory.getCategoryName());
     }
     
 //    private void setupTaskCellFactory() {
@@ -573,16 +1173,60 @@ public class MainAppController implements Initializable {
 //        });
 //    }
     private void setupTaskCellFactory() {
-        taskListView.setCellFactory(param -> new TaskCell(taskDAO));
+        taskListView.setCellFactory(param -> new TaskCell(statusQueue));
     }
 
     // --- SUBTASK METHODS ---
     
-    private void loadSubtasks(int taskId) {
-        List<Subtask> subtasksFromDB = subtaskDAO.getSubtasksByTaskId(taskId);
-        subtaskList.clear();
-        subtaskList.addAll(subtasksFromDB);
-        System.out.println("Loaded " + subtasksFromDB.size() + " subtasks.");
+    private void loadSubtasks(Task task) {
+        showSubtasks(List.of());
+        subtaskListView.setPlaceholder(new ProgressIndicator());
+        
+        CompletableFuture<List<Subtask>> load = asyncSubtaskDAO.getSubtasksByTaskId(task.getTaskId());
+        pendingSubtaskLoad = load;
+        
+        runInBackground(load, subtasksFromDB -> {
+            if (load != pendingSubtaskLoad) {
+                return; // Another task was selected in the meantime
+            }
+            pendingSubtaskLoad = null;
+            task.setSubtasks(subtasksFromDB);
+            showSubtasks(subtasksFromDB);
+            taskListView.refresh(); // Progress counts are known now
+            System.out.println("Loaded " + subtasksFromDB.size() + " subtasks.");
+        });
+    }
+    
+    /**
+     * Replaces the subtask list contents without writing them back into the task.
+     */
+    private void showSubtasks(List<Subtask> subtasks) {
+        if (pendingSubtaskLoad != null) {
+            pendingSubtaskLoad.cancel(false);
+            pendingSubtaskLoad = null;
+        }
+        subtaskListView.setPlaceholder(new Label("No subtasks"));
+        showingSubtasks = true;
+        try {
+            subtaskList.setAll(subtasks);
+        } finally {
+            showingSubtasks = false;
+        }
+    }
+    
+    /**
+     * Keeps the selected task's eagerly loaded subtasks in step with the
+     * subtask list (add, delete, toggle), so TaskCell's progress stays right.
+     */
+    private void setupSubtaskProgressSync() {
+        subtaskList.addListener((javafx.collections.ListChangeListener<Subtask>) change -> {
+            if (showingSubtasks || currentSelectedTask == null) {
+                return;
+            }
+            currentSelectedTask.setSubtasks(subtaskList);
+            searchIndex.index(SearchDocument.of(currentSelectedTask)); // Subtask titles are searchable
+            taskListView.refresh();
+        });
     }
     
     @FXML
@@ -598,28 +1242,69 @@ public class MainAppController implements Initializable {
             return;
         }
         
-        Subtask newSubtask = subtaskDAO.createSubtask(title, currentSelectedTask.getTaskId());
+        Task parentTask = currentSelectedTask;
+        addSubtaskButton.setDisable(true);
         
-        if (newSubtask != null) {
-            subtaskList.add(newSubtask);
-            newSubtaskField.clear();
-        } else {
-            showAlert(Alert.AlertType.ERROR, "Error", "Failed to create subtask.");
-        }
+        runInBackground(asyncSubtaskDAO.createSubtask(title, parentTask.getTaskId()), newSubtask -> {
+            addSubtaskButton.setDisable(false);
+            if (newSubtask != null) {
+                // Only show it if the same task is still open
+                if (currentSelectedTask == parentTask) {
+                    subtaskList.add(newSubtask);
+                }
+                newSubtaskField.clear();
+            } else {
+                showAlert(Alert.AlertType.ERROR, "Error", "Failed to create subtask.");
+            }
+        });
     }
     
     private void setupSubtaskListView() {
         subtaskListView.setCellFactory(new Callback<ListView<Subtask>, ListCell<Subtask>>() {
             @Override
             public ListCell<Subtask> call(ListView<Subtask> param) {
-                return new SubtaskCell(subtaskDAO, subtaskList);
+                return new SubtaskCell(MainAppController.this, asyncSubtaskDAO, statusQueue, subtaskList);
             }
         });
     }
 
     // --- GENERIC HELPER METHODS ---
     
-    private Alert showAlert(Alert.AlertType alertType, String title, String content) {
+    /**
+     * Waits for a background DAO call and hands its result to onSuccess on
+     * the JavaFX thread. Cancelled (superseded) requests, and requests made
+     * before the user logged out, are silently dropped.
+     */
+    private <T> void runInBackground(CompletableFuture<T> future, Consumer<T> onSuccess) {
+        runInBackground(future, onSuccess, () -> { });
+    }
+
+    /**
+     * Like runInBackground(future, onSuccess), but also runs onFailure (on the
+     * JavaFX thread, after the error alert) if the call failed, so the caller
+     * can undo what it showed ahead of the result.
+     */
+    <T> void runInBackground(CompletableFuture<T> future, Consumer<T> onSuccess, Runnable onFailure) {
+        int started = session;
+        future.whenComplete((result, error) -> Platform.runLater(() -> {
+            if (session != started) {
+                return;
+            }
+            if (error == null) {
+                onSuccess.accept(result);
+                return;
+            }
+            Throwable cause = (error instanceof CompletionException && error.getCause() != null) ? error.getCause() : error;
+            if (cause instanceof CancellationException) {
+                return;
+            }
+            System.err.println("Background database call failed: " + cause);
+            showAlert(Alert.AlertType.ERROR, "Error", "A database operation failed:\n" + cause.getMessage());
+            onFailure.run();
+        }));
+    }
+    
+    Alert showAlert(Alert.AlertType alertType, String title, String content) {
         Alert alert = new Alert(alertType);
         alert.setTitle(title);
         alert.setHeaderText(null);
@@ -670,12 +1355,17 @@ class SubtaskCell extends ListCell<Subtask> {
     private TextField titleField = new TextField();
     private StackPane titlePane = new StackPane(); // Use StackPane to swap Label and Field
     
-    private SubtaskDAO subtaskDAO;
+    private MainAppController owner; // Runs the background writes, see runInBackground
+    private AsyncSubtaskDAO subtaskDAO;
+    private StatusWriteBehindQueue statusQueue;
     private ObservableList<Subtask> subtaskList;
 
-    public SubtaskCell(SubtaskDAO subtaskDAO, ObservableList<Subtask> subtaskList) {
+    public SubtaskCell(MainAppController owner, AsyncSubtaskDAO subtaskDAO, StatusWriteBehindQueue statusQueue,
+                       ObservableList<Subtask> subtaskList) {
         super();
+        this.owner = owner;
         this.subtaskDAO = subtaskDAO;
+        this.statusQueue = statusQueue;
         this.subtaskList = subtaskList;
         
         // Add style classes from our CSS
@@ -720,9 +1410,13 @@ class SubtaskCell extends ListCell<Subtask> {
         deleteItem.setOnAction(event -> {
             Subtask subtask = getItem();
             if (subtask != null) {
-                if (subtaskDAO.deleteSubtask(subtask.getSubtaskId())) {
-                    subtaskList.remove(subtask);
-                }
+                owner.runInBackground(subtaskDAO.deleteSubtask(subtask.getSubtaskId()), success -> {
+                    if (success) {
+                        subtaskList.remove(subtask);
+                    } else {
+                        owner.showAlert(Alert.AlertType.ERROR, "Error", "Failed to delete subtask.");
+                    }
+                }, () -> { });
             }
         });
         setContextMenu(new ContextMenu(deleteItem));
@@ -732,13 +1426,21 @@ class SubtaskCell extends ListCell<Subtask> {
         checkBox.setOnAction(event -> {
             Subtask subtask = getItem();
             if (subtask != null) {
-                if (checkBox.isSelected()) {
-                    subtask.setStatus(Status.COMPLETED);
-                } else {
-                    subtask.setStatus(Status.PENDING);
-                }
-                subtaskDAO.updateSubtask(subtask);
+                Status previousStatus = subtask.getStatus();
+                Status newStatus = checkBox.isSelected() ? Status.COMPLETED : Status.PENDING;
+
+                subtask.setStatus(newStatus);
                 updateStyle(subtask); // Instantly apply strikethrough
+
+                // Written in the background; undo the toggle if the write fails
+                statusQueue.enqueueSubtaskStatus(subtask.getSubtaskId(), newStatus, previousStatus,
+                        rollbackStatus -> Platform.runLater(() -> {
+                            subtask.setStatus(rollbackStatus);
+                            if (getItem() == subtask) {
+                                checkBox.setSelected(rollbackStatus == Status.COMPLETED);
+                                updateStyle(subtask);
+                            }
+                        }));
             }
         });
     }
@@ -763,10 +1465,25 @@ class SubtaskCell extends ListCell<Subtask> {
      */
     private void saveAndHideTextField() {
         Subtask subtask = getItem();
-        if (subtask != null) {
+        if (subtask != null && !titleField.getText().equals(subtask.getTitle())) {
+            String oldTitle = subtask.getTitle();
             subtask.setTitle(titleField.getText());
-            subtaskDAO.updateSubtask(subtask);
             titleLabel.setText(titleField.getText()); // Update label
+
+            // Saved in the background; put the old title back if the write fails
+            Runnable restore = () -> {
+                subtask.setTitle(oldTitle);
+                if (getItem() == subtask) {
+                    titleLabel.setText(oldTitle);
+                    titleField.setText(oldTitle);
+                }
+            };
+            owner.runInBackground(subtaskDAO.updateSubtask(subtask), success -> {
+                if (!success) {
+                    owner.showAlert(Alert.AlertType.ERROR, "Error", "Failed to update subtask.");
+                    restore.run();
+                }
+            }, restore);
         }
         showTextField(false);
     }
@@ -0,0 +1,217 @@
+package com.saadsafi.todoapp.controller;
+
+import com.saadsafi.todoapp.dao.TaskQuery;
+import com.saadsafi.todoapp.search.TaskSearchIndex;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.util.Duration;
+
+/**
+ * Runs task list queries for the search bar (and the filter, sort and
+ * category choices) without doing the work on the JavaFX thread.
+ *
+ * - Keystrokes are debounced: the query only runs once typing pauses.
+ * - The search itself runs on a background worker against the query
+ *   snapshot taken when it was submitted.
+ * - A newer query supersedes an older one: a search that hasn't started
+ *   is skipped, and a late result is ignored.
+ * - The results replace the list in one go when the first page arrives
+ *   (see TaskPager.reset), so the list never flashes empty in between.
+ *
+ * Also keeps simple metrics: latency from running a query to its results
+ * being on screen, and how many queries were superseded.
+ *
+ * All public methods must be called on the JavaFX thread.
+ */
+public class SearchPipeline {
+
+    // How long typing must pause before the search runs
+    private static final Duration DEBOUNCE_DELAY = Duration.millis(200);
+
+    private final TaskSearchIndex searchIndex;
+    private final TaskPager taskPager;
+
+    // Searches run here, one at a time, off the JavaFX thread
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "search-worker");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final PauseTransition debounce = new PauseTransition(DEBOUNCE_DELAY);
+    private TaskQuery debouncedQuery; // Waiting for typing to pause
+    private CompletableFuture<List<Integer>> pendingSearch;
+
+    // Bumped for every query that runs, so stale callbacks can tell they are stale
+    private long generation = 0;
+    private boolean queryInProgress = false;
+
+    // --- Metrics ---
+    private long completedCount = 0;
+    private long cancelledCount = 0;
+    private long debouncedCount = 0;
+    private long totalLatencyNanos = 0;
+    private long maxLatencyNanos = 0;
+
+    public SearchPipeline(TaskSearchIndex searchIndex, TaskPager taskPager) {
+        this.searchIndex = searchIndex;
+        this.taskPager = taskPager;
+        debounce.setOnFinished(e -> {
+            TaskQuery query = debouncedQuery;
+            debouncedQuery = null;
+            run(query);
+        });
+    }
+
+    /**
+     * Queues a query from the search bar. It runs once no new query has
+     * been submitted for DEBOUNCE_DELAY; earlier ones are dropped.
+     *
+     * @param query The query to list, or null to clear the list.
+     */
+    public void submit(TaskQuery query) {
+        if (debouncedQuery != null) {
+            debouncedCount++; // This keystroke replaces one that never ran
+        }
+        debouncedQuery = query;
+        debounce.playFromStart();
+    }
+
+    /**
+     * Runs a query right away (a category, filter or sort change),
+     * replacing anything debounced or in progress.
+     *
+     * @param query The query to list, or null to clear the list.
+     */
+    public void submitNow(TaskQuery query) {
+        debounce.stop();
+        debouncedQuery = null;
+        run(query);
+    }
+
+    /**
+     * Drops the waiting and running queries; their results never reach the
+     * pager. Called on logout.
+     */
+    public void cancel() {
+        debounce.stop();
+        debouncedQuery = null;
+        cancelPendingSearch();
+        generation++; // A first page still loading no longer counts as finished
+        queryInProgress = false;
+    }
+
+    /**
+     * Stops the search worker. Called when the app exits.
+     */
+    public void shutdown() {
+        cancel();
+        worker.shutdownNow();
+    }
+
+    // --- Metrics getters ---
+
+    public long getCompletedCount() {
+        return completedCount;
+    }
+
+    /**
+     * @return How many queries were superseded after they started running.
+     */
+    public long getCancelledCount() {
+        return cancelledCount;
+    }
+
+    /**
+     * @return How many keystrokes were folded into a later query by the debounce.
+     */
+    public long getDebouncedCount() {
+        return debouncedCount;
+    }
+
+    public double getAverageLatencyMillis() {
+        return completedCount == 0 ? 0 : totalLatencyNanos / 1_000_000.0 / completedCount;
+    }
+
+    public double getMaxLatencyMillis() {
+        return maxLatencyNanos / 1_000_000.0;
+    }
+
+    public String describe() {
+        return String.format("SearchPipeline[completed=%d, cancelled=%d, debounced=%d, avgLatency=%.1fms, maxLatency=%.1fms]",
+                completedCount, cancelledCount, debouncedCount, getAverageLatencyMillis(), getMaxLatencyMillis());
+    }
+
+    // --- Internal helpers ---
+
+    private void run(TaskQuery query) {
+        cancelPendingSearch();
+        if (queryInProgress) {
+            cancelledCount++;
+        }
+        long runGeneration = ++generation;
+        long start = System.nanoTime();
+
+        if (query == null) {
+            queryInProgress = false;
+            taskPager.reset(null);
+            return;
+        }
+        if (!query.hasSearchText() || !searchIndex.isBuilt() || !TaskSearchIndex.hasWords(query.getSearchText())) {
+            // Nothing to look up in the index; the database does all the work
+            queryInProgress = true;
+            taskPager.reset(query, () -> finished(runGeneration, start));
+            return;
+        }
+
+        queryInProgress = true;
+        // Every match, not just a page: the filter is applied to them in SQL afterwards
+        CompletableFuture<List<Integer>> search = CompletableFuture.supplyAsync(
+                () -> searchIndex.search(query.getSearchText(), query.getCategoryId(), Integer.MAX_VALUE), worker);
+        pendingSearch = search;
+
+        search.whenComplete((matches, error) -> Platform.runLater(() -> {
+            if (search != pendingSearch) {
+                return; // Superseded, a newer query owns the list now
+            }
+            pendingSearch = null;
+
+            if (error != null) {
+                // Fall back to searching in SQL
+                System.err.println("Index search failed: " + error);
+                taskPager.reset(query, () -> finished(runGeneration, start));
+            } else {
+                // The database then fetches (and filters) the matching rows a page at a time
+                taskPager.reset(query.withRankedTaskIds(matches), () -> finished(runGeneration, start));
+            }
+        }));
+    }
+
+    private void cancelPendingSearch() {
+        if (pendingSearch != null) {
+            // A search that hasn't started yet is skipped by the worker
+            pendingSearch.cancel(false);
+            pendingSearch = null;
+        }
+    }
+
+    /**
+     * Called by the pager once the first page of a query is on screen (or failed).
+     */
+    private void finished(long runGeneration, long start) {
+        if (runGeneration != generation) {
+            return;
+        }
+        queryInProgress = false;
+
+        long latency = System.nanoTime() - start;
+        completedCount++;
+        totalLatencyNanos += latency;
+        maxLatencyNanos = Math.max(maxLatencyNanos, latency);
+        System.out.printf("Task query took %.1f ms (%s)%n", latency / 1_000_000.0, describe());
+    }
+}
@@ -1,8 +1,9 @@
 package com.saadsafi.todoapp.controller;
 
-import com.saadsafi.todoapp.dao.TaskDAO;
+import com.saadsafi.todoapp.dao.StatusWriteBehindQueue;
 import com.saadsafi.todoapp.model.Status;
 import com.saadsafi.todoapp.model.Task;
+import javafx.application.Platform;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.ListCell;
@@ -13,38 +14,50 @@ public class TaskCell extends ListCell<Task> {
     private HBox hbox = new HBox(10);
     private CheckBox checkBox = new CheckBox();
     private Label titleLabel = new Label();
-    private TaskDAO taskDAO;
+    private Label progressLabel = new Label(); // e.g. "2/5" completed subtasks
+    private StatusWriteBehindQueue statusQueue;
     private Task currentTask;
 
-    public TaskCell(TaskDAO taskDAO) {
+    public TaskCell(StatusWriteBehindQueue statusQueue) {
         super();
-        this.taskDAO = taskDAO;
+        this.statusQueue = statusQueue;
 
         HBox.setHgrow(titleLabel, Priority.ALWAYS);
         
         // Add style classes
         hbox.getStyleClass().add("task-cell-hbox");
         titleLabel.getStyleClass().add("task-cell-label");
+        progressLabel.getStyleClass().add("task-cell-progress");
         
-        hbox.getChildren().addAll(checkBox, titleLabel);
+        hbox.getChildren().addAll(checkBox, titleLabel, progressLabel);
 
         checkBox.setOnAction(event -> {
             if (currentTask != null) {
-                if (checkBox.isSelected()) {
-                    currentTask.setStatus(Status.COMPLETED);
-                } else {
-                    currentTask.setStatus(Status.PENDING);
-                }
-                
-                boolean success = taskDAO.updateTask(currentTask);
-                
-                if (success) {
-                    updateStyle(currentTask);
-                }
+                Task task = currentTask;
+                Status previousStatus = task.getStatus();
+                Status newStatus = checkBox.isSelected() ? Status.COMPLETED : Status.PENDING;
+
+                // Update the UI right away, the database write happens in the background
+                task.setStatus(newStatus);
+                updateStyle(task);
+
+                statusQueue.enqueueTaskStatus(task.getTaskId(), newStatus, previousStatus,
+                        rollbackStatus -> Platform.runLater(() -> rollBack(task, rollbackStatus)));
             }
         });
     }
 
+    /**
+     * Undoes an optimistic toggle after the background write failed.
+     */
+    private void rollBack(Task task, Status rollbackStatus) {
+        task.setStatus(rollbackStatus);
+        if (task == currentTask) {
+            checkBox.setSelected(rollbackStatus == Status.COMPLETED);
+            updateStyle(task);
+        }
+    }
+
     /**
      * Updates the style CLASS based on the task's status.
      */
@@ -70,6 +83,15 @@ public class TaskCell extends ListCell<Task> {
         } else {
             titleLabel.setText(task.getTitle());
             checkBox.setSelected(task.getStatus() == Status.COMPLETED);
+            
+            // Subtask progress, only when the subtasks came with the task
+            if (task.getSubtaskCount() > 0) {
+                progressLabel.setText(task.getCompletedSubtaskCount() + "/" + task.getSubtaskCount());
+                progressLabel.setVisible(true);
+            } else {
+                progressLabel.setText("");
+                progressLabel.setVisible(false);
+            }
             updateStyle(task); // Apply the style
             setGraphic(hbox);
         }
@@ -0,0 +1,432 @@
+package com.saadsafi.todoapp.controller;
+
+import com.saadsafi.todoapp.dao.AsyncTaskDAO;
+import com.saadsafi.todoapp.dao.TaskFilter;
+import com.saadsafi.todoapp.dao.TaskQuery;
+import com.saadsafi.todoapp.dao.TaskSort;
+import com.saadsafi.todoapp.model.Subtask;
+import com.saadsafi.todoapp.model.Task;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import javafx.application.Platform;
+import javafx.collections.ObservableList;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.skin.VirtualFlow;
+
+/**
+ * Feeds the task ListView one page at a time.
+ *
+ * The first page is loaded when a category is selected, or when the
+ * search, filter or sort changes. Further pages are fetched (with keyset
+ * pagination, see TaskDAO.getTaskPage) as the user scrolls near the
+ * bottom. Only a bounded window of tasks is kept in the list: when it
+ * grows past MAX_RESIDENT, tasks are dropped from the far end and fetched
+ * again if the user scrolls back.
+ *
+ * On a reset the old tasks stay on screen until the first page of the new
+ * query arrives, then the list is replaced in one step.
+ *
+ * Changes made elsewhere are patched into the resident tasks
+ * (applyChanges) rather than reloading the list.
+ *
+ * All methods must be called on the JavaFX thread.
+ */
+public class TaskPager {
+
+    public static final int PAGE_SIZE = 100;
+    public static final int MAX_RESIDENT = 500;
+
+    // Start fetching when the scroll bar is this close to either end
+    private static final double PREFETCH_THRESHOLD = 0.1;
+
+    private final AsyncTaskDAO asyncTaskDAO;
+    private final ObservableList<Task> tasks; // The master list the ListView shows
+    private final ListView<Task> listView;
+
+    // --- What we are currently listing (null = nothing) ---
+    private TaskQuery query;
+
+    // --- Window state ---
+    // Anchors are copies of the first/last tasks that came from the
+    // database, so tasks added or edited locally never move the keyset position.
+    private Task firstAnchor;
+    private Task lastAnchor;
+    private boolean moreBefore = false;
+    private boolean moreAfter = false;
+    private CompletableFuture<List<Task>> pendingLoad;
+    private Runnable onFirstPage; // Called once the first page of the current query is handled
+
+    public TaskPager(AsyncTaskDAO asyncTaskDAO, ObservableList<Task> tasks, ListView<Task> listView) {
+        this.asyncTaskDAO = asyncTaskDAO;
+        this.tasks = tasks;
+        this.listView = listView;
+
+        // The scroll bar only exists once the ListView has its skin
+        listView.skinProperty().addListener((obs, oldSkin, newSkin) -> Platform.runLater(this::hookScrollBar));
+        if (listView.getSkin() != null) {
+            hookScrollBar();
+        }
+    }
+
+    /**
+     * Clears the list and starts loading the first page of a query.
+     *
+     * @param query The category, search, filter and sort to list, or null to just clear the list.
+     */
+    public void reset(TaskQuery query) {
+        reset(query, null);
+    }
+
+    /**
+     * Like {@link #reset(TaskQuery)}, with a callback for when the first page
+     * is on screen (or failed to load). It is not called if the query is
+     * superseded by another reset first.
+     *
+     * @param query The category, search, filter and sort to list, or null to just clear the list.
+     * @param onFirstPage Called on the JavaFX thread, may be null.
+     */
+    public void reset(TaskQuery query, Runnable onFirstPage) {
+        cancelPendingLoad();
+        this.query = query;
+        this.firstAnchor = null;
+        this.lastAnchor = null;
+        this.moreBefore = false;
+        this.moreAfter = false;
+        this.onFirstPage = onFirstPage;
+
+        if (query == null) {
+            tasks.clear();
+            listView.setPlaceholder(new Label("No category selected"));
+            runFirstPageCallback();
+            return;
+        }
+
+        // The old tasks stay until the new ones arrive (see appendPage)
+        listView.setPlaceholder(new ProgressIndicator());
+        load(null, true);
+    }
+
+    /**
+     * @return The query currently listed, or null if no category is selected.
+     */
+    public TaskQuery getQuery() {
+        return query;
+    }
+
+    /**
+     * Patches the resident tasks with changes made elsewhere (another
+     * client, or an edit that moved a task to another category) instead of
+     * reloading the list.
+     *
+     * - A changed task on screen is updated in place (the same Task object,
+     *   so the selection stays), and moved if its sort position changed.
+     *   It is removed if it no longer matches the query.
+     * - A changed task not on screen is inserted at its sort position, if
+     *   that position is inside the loaded window (otherwise it comes with
+     *   the page it falls in). Index search results are ranked, so new
+     *   tasks are not inserted there; they show up with the next search.
+     * - Deleted tasks and subtasks are removed.
+     *
+     * The selected task is updated but never moved, since moving it would
+     * clear the selection and close its details.
+     *
+     * @param changed Tasks as they are now, with their subtasks.
+     * @return How many resident tasks were updated, inserted or removed.
+     */
+    public int applyChanges(Collection<Task> changed, Collection<Integer> deletedTaskIds,
+                            Collection<Integer> deletedSubtaskIds) {
+        if (query == null) {
+            return 0;
+        }
+        boolean ranked = query.getRankedTaskIds() != null;
+        Comparator<Task> order = query.getSort().comparator();
+        Task selected = listView.getSelectionModel().getSelectedItem();
+
+        Map<Integer, Task> residentById = new HashMap<>();
+        for (Task task : tasks) {
+            residentById.put(task.getTaskId(), task);
+        }
+
+        int patched = 0;
+        Set<Integer> removeIds = new HashSet<>(deletedTaskIds);
+        List<Task> insert = new ArrayList<>();
+        for (Task fresh : changed) {
+            Task resident = residentById.get(fresh.getTaskId());
+            boolean belongs = ranked ? query.matchesExceptSearch(fresh) : query.matches(fresh);
+            if (!belongs) {
+                if (resident != null) {
+                    removeIds.add(fresh.getTaskId());
+                }
+            } else if (resident != null) {
+                if (resident != fresh) {
+                    resident.updateFrom(fresh);
+                }
+                patched++;
+                if (!(ranked && query.getSort() == TaskSort.DEFAULT) && resident != selected
+                        && !isInOrder(resident, order)) {
+                    tasks.remove(resident);
+                    insert.add(resident);
+                }
+            } else if (!ranked) {
+                insert.add(fresh);
+            }
+        }
+
+        if (!removeIds.isEmpty()) {
+            int before = tasks.size();
+            tasks.removeIf(task -> removeIds.contains(task.getTaskId()));
+            patched += before - tasks.size();
+        }
+
+        if (!deletedSubtaskIds.isEmpty()) {
+            for (Task task : tasks) {
+                if (task.getSubtasks().stream().anyMatch(subtask -> deletedSubtaskIds.contains(subtask.getSubtaskId()))) {
+                    List<Subtask> kept = new ArrayList<>(task.getSubtasks());
+                    kept.removeIf(subtask -> deletedSubtaskIds.contains(subtask.getSubtaskId()));
+                    task.setSubtasks(kept);
+                    patched++;
+                }
+            }
+        }
+
+        for (Task task : insert) {
+            int position = 0;
+            while (position < tasks.size() && order.compare(tasks.get(position), task) < 0) {
+                position++;
+            }
+            // Outside the window: the page it belongs to brings it
+            if ((position == tasks.size() && moreAfter) || (position == 0 && moreBefore)) {
+                continue;
+            }
+            tasks.add(position, task);
+            patched++;
+        }
+        trimBottom();
+
+        if (patched > 0) {
+            listView.refresh(); // In-place updates don't fire list changes
+        }
+        return patched;
+    }
+
+    /**
+     * Fetches the page after the last loaded task, if there is one.
+     */
+    public void loadNext() {
+        if (pendingLoad == null && moreAfter) {
+            load(lastAnchor, true);
+        }
+    }
+
+    /**
+     * Fetches the page before the first loaded task, if some were dropped.
+     */
+    public void loadPrevious() {
+        if (pendingLoad == null && moreBefore) {
+            load(firstAnchor, false);
+        }
+    }
+
+    // --- Internal helpers ---
+
+    private void cancelPendingLoad() {
+        if (pendingLoad != null) {
+            pendingLoad.cancel(false);
+            pendingLoad = null;
+        }
+    }
+
+    private void runFirstPageCallback() {
+        Runnable callback = onFirstPage;
+        onFirstPage = null;
+        if (callback != null) {
+            callback.run();
+        }
+    }
+
+    private void load(Task anchor, boolean forward) {
+        TaskQuery loadingQuery = query;
+        CompletableFuture<List<Task>> load = asyncTaskDAO.getTaskPage(loadingQuery, anchor, forward, PAGE_SIZE);
+        pendingLoad = load;
+
+        load.whenComplete((page, error) -> Platform.runLater(() -> {
+            if (load != pendingLoad) {
+                return; // Superseded by a reset, ignore the late result
+            }
+            pendingLoad = null;
+
+            if (error != null) {
+                if (!(error instanceof CancellationException)) {
+                    System.err.println("Failed to load tasks: " + error);
+                    if (anchor == null) {
+                        tasks.clear(); // Don't leave the previous query's tasks up
+                    }
+                    listView.setPlaceholder(new Label("Could not load tasks"));
+                }
+                if (anchor == null) {
+                    runFirstPageCallback();
+                }
+                return;
+            }
+
+            listView.setPlaceholder(new Label(loadingQuery.hasSearchText()
+                    || loadingQuery.getFilter() != TaskFilter.ALL
+                    ? "No matching tasks" : "No tasks in this category"));
+            if (forward) {
+                appendPage(page, anchor == null);
+            } else {
+                prependPage(page);
+            }
+            System.out.println("Loaded " + page.size() + " tasks for category " + loadingQuery.getCategoryId()
+                    + " (" + tasks.size() + " resident)");
+            if (anchor == null) {
+                runFirstPageCallback();
+            }
+        }));
+    }
+
+    private void appendPage(List<Task> page, boolean firstPage) {
+        moreAfter = page.size() == PAGE_SIZE;
+        if (firstPage) {
+            // Swap the previous query's tasks for the new ones in one change
+            tasks.setAll(page);
+            if (!page.isEmpty()) {
+                firstAnchor = anchorOf(page.get(0));
+                lastAnchor = anchorOf(page.get(page.size() - 1));
+                listView.scrollTo(0);
+            }
+            return;
+        }
+        if (page.isEmpty()) {
+            return;
+        }
+        lastAnchor = anchorOf(page.get(page.size() - 1));
+
+        tasks.addAll(withoutDuplicates(page));
+
+        // Too many resident? Drop the oldest ones from the top.
+        int excess = tasks.size() - MAX_RESIDENT;
+        if (excess > 0) {
+            Task keepVisible = firstVisibleTask();
+            tasks.remove(0, excess);
+            firstAnchor = anchorOf(tasks.get(0));
+            moreBefore = true;
+            restoreScroll(keepVisible);
+        }
+    }
+
+    private void prependPage(List<Task> page) {
+        moreBefore = page.size() == PAGE_SIZE;
+        if (page.isEmpty()) {
+            return;
+        }
+        firstAnchor = anchorOf(page.get(0));
+
+        Task keepVisible = firstVisibleTask();
+        tasks.addAll(0, withoutDuplicates(page));
+
+        trimBottom();
+        restoreScroll(keepVisible);
+    }
+
+    /**
+     * Drops tasks from the bottom while there are more than MAX_RESIDENT.
+     */
+    private void trimBottom() {
+        int excess = tasks.size() - MAX_RESIDENT;
+        if (excess > 0) {
+            tasks.remove(tasks.size() - excess, tasks.size());
+            lastAnchor = anchorOf(tasks.get(tasks.size() - 1));
+            moreAfter = true;
+        }
+    }
+
+    private static Task anchorOf(Task task) {
+        return new Task(task.toRecord());
+    }
+
+    /**
+     * @return True if a resident task still sorts between its neighbours.
+     */
+    private boolean isInOrder(Task task, Comparator<Task> order) {
+        int index = tasks.indexOf(task);
+        return (index == 0 || order.compare(tasks.get(index - 1), task) <= 0)
+                && (index == tasks.size() - 1 || order.compare(task, tasks.get(index + 1)) <= 0);
+    }
+
+    /**
+     * Skips tasks that are already in the list (e.g. a task the user just created).
+     */
+    private List<Task> withoutDuplicates(List<Task> page) {
+        Set<Integer> residentIds = new HashSet<>();
+        for (Task task : tasks) {
+            residentIds.add(task.getTaskId());
+        }
+        List<Task> fresh = new ArrayList<>(page.size());
+        for (Task task : page) {
+            if (residentIds.add(task.getTaskId())) {
+                fresh.add(task);
+            }
+        }
+        return fresh;
+    }
+
+    private void hookScrollBar() {
+        for (Node node : listView.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar && ((ScrollBar) node).getOrientation() == Orientation.VERTICAL) {
+                ScrollBar bar = (ScrollBar) node;
+                if (bar.getProperties().putIfAbsent(TaskPager.class, Boolean.TRUE) == null) {
+                    bar.valueProperty().addListener((obs, oldValue, newValue) -> onScroll(bar));
+                }
+            }
+        }
+    }
+
+    private void onScroll(ScrollBar bar) {
+        double range = bar.getMax() - bar.getMin();
+        if (range <= 0) {
+            return;
+        }
+        double position = (bar.getValue() - bar.getMin()) / range;
+        if (position >= 1.0 - PREFETCH_THRESHOLD) {
+            loadNext();
+        } else if (position <= PREFETCH_THRESHOLD) {
+            loadPrevious();
+        }
+    }
+
+    private Task firstVisibleTask() {
+        Node node = listView.lookup(".virtual-flow");
+        if (node instanceof VirtualFlow) {
+            IndexedCell<?> cell = ((VirtualFlow<?>) node).getFirstVisibleCell();
+            if (cell != null && cell.getItem() instanceof Task) {
+                return (Task) cell.getItem();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Scrolls back to the task that was at the top before rows were
+     * inserted or removed above it, so the content doesn't jump.
+     */
+    private void restoreScroll(Task keepVisible) {
+        if (keepVisible != null && listView.getItems().contains(keepVisible)) {
+            listView.scrollTo(keepVisible);
+        }
+    }
+}
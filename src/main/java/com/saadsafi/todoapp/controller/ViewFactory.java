@@ -0,0 +1,340 @@
+package com.saadsafi.todoapp.controller;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import javafx.application.Platform;
+import javafx.css.CssParser;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Group;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+
+/**
+ * Builds the app's windows from FXML and keeps them for reuse, so logging
+ * in and out does not parse the FXML, create the controller and apply the
+ * stylesheet again each time.
+ *
+ * At most one idle view per FXML file is kept. A view taken with
+ * {@link #take} and shown with {@link #newStage} comes back when its window
+ * closes; its controller's {@link Reusable#reset} drops the user's state
+ * first, and the view is only handed out again once that has finished. JavaFX drops a parsed stylesheet once no scene in a showing
+ * window uses it, so every stylesheet is also kept on a scene that is
+ * never shown; it is parsed once, not every time a window opens.
+ *
+ * take, newStage and release must be called on the JavaFX thread.
+ */
+public final class ViewFactory {
+
+    public static final String LOGIN_SCREEN = "/fxml/LoginScreen.fxml";
+    public static final String MAIN_APP = "/fxml/MainApp.fxml";
+
+    private static final Map<String, String> STYLESHEETS = Map.of(
+            LOGIN_SCREEN, "/styles/loginscreen.css",
+            MAIN_APP, "/styles/mainapp.css");
+
+    private static final ViewFactory shared = new ViewFactory();
+
+    /**
+     * Implemented by controllers whose views are reused.
+     */
+    public interface Reusable {
+
+        /**
+         * Called on the JavaFX thread when the view's window has closed:
+         * stop per-user work and clear what the last user saw. Slow
+         * teardown (flushing writes, stopping workers) runs in the background.
+         *
+         * @return Completes once the view can be shown again.
+         */
+        CompletableFuture<Void> reset();
+
+        /**
+         * Called when the app exits, for views that are idle or still
+         * showing: stop background workers for good.
+         */
+        default void dispose() {
+        }
+    }
+
+    /**
+     * A loaded FXML file: its root, its controller and (once shown) its scene.
+     */
+    public static final class View<C> {
+        private final String fxml;
+        private final Parent root;
+        private final C controller;
+        private Scene scene; // Created on the JavaFX thread by take()
+
+        private View(String fxml, Parent root, C controller) {
+            this.fxml = fxml;
+            this.root = root;
+            this.controller = controller;
+        }
+
+        public String getFxml() {
+            return fxml;
+        }
+
+        public Parent getRoot() {
+            return root;
+        }
+
+        public C getController() {
+            return controller;
+        }
+
+        public Scene getScene() {
+            return scene;
+        }
+    }
+
+    private final Map<String, View<?>> idle = new ConcurrentHashMap<>();
+    private final Set<View<?>> inUse = ConcurrentHashMap.newKeySet();
+    private final Map<View<?>, CompletableFuture<Void>> resetting = new ConcurrentHashMap<>();
+    private final Map<String, String> stylesheetUrls = new ConcurrentHashMap<>();
+    private Scene stylesheetHolder; // Never shown, JavaFX thread only
+    private volatile boolean shutdown = false;
+
+    // --- Metrics ---
+    private final Object statsLock = new Object();
+    private long loads = 0;
+    private long reuses = 0;
+    private long totalLoadNanos = 0;
+
+    private ViewFactory() {
+    }
+
+    public static ViewFactory get() {
+        return shared;
+    }
+
+    // --- Views ---
+
+    /**
+     * Loads a view now, on the calling thread, and keeps it for the next
+     * take(). Does nothing if one is already waiting. Only for views whose
+     * controllers just build nodes (the login screen); nodes may be built
+     * on any thread while they are not showing, but windows and popups may not.
+     */
+    public void preload(String fxml) throws IOException {
+        if (idle.containsKey(fxml)) {
+            return;
+        }
+        View<?> view = load(fxml);
+        if (shutdown || idle.putIfAbsent(fxml, view) != null) {
+            dispose(view);
+        }
+    }
+
+    /**
+     * Loads a view on the JavaFX thread once the events already queued
+     * have run (after the current window has shown), unless one exists
+     * already. For views like the main window, whose controller creates
+     * context menus.
+     */
+    public void preloadLater(String fxml) {
+        Platform.runLater(() -> {
+            if (shutdown || idle.containsKey(fxml)
+                    || inUse.stream().anyMatch(view -> view.fxml.equals(fxml))
+                    || resetting.keySet().stream().anyMatch(view -> view.fxml.equals(fxml))) {
+                return;
+            }
+            try {
+                preload(fxml);
+            } catch (IOException e) {
+                System.err.println("Could not preload " + fxml + ": " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * @return A view of fxml with its scene and stylesheet set: the idle one if
+     *         there is one, otherwise loaded now. Give it back with release()
+     *         (newStage does that when the window closes).
+     */
+    @SuppressWarnings("unchecked")
+    public <C> View<C> take(String fxml) throws IOException {
+        View<C> view = (View<C>) idle.remove(fxml);
+        if (view != null) {
+            synchronized (statsLock) {
+                reuses++;
+            }
+        } else {
+            view = (View<C>) load(fxml);
+        }
+        if (view.scene == null) {
+            view.scene = new Scene(view.root);
+            String css = STYLESHEETS.get(fxml);
+            if (css != null) {
+                try {
+                    String url = stylesheet(css);
+                    keepParsed(url);
+                    view.scene.getStylesheets().add(url);
+                } catch (IOException e) {
+                    System.err.println("Could not load " + css + ": " + e.getMessage());
+                }
+            }
+        }
+        inUse.add(view);
+        return view;
+    }
+
+    /**
+     * Creates a (not yet shown) window for a view from take(). The view is
+     * released when the window closes.
+     */
+    public Stage newStage(View<?> view, String title) {
+        Stage stage = new Stage();
+        stage.setTitle(title);
+        stage.setScene(view.scene);
+        stage.setOnHidden(e -> {
+            stage.setScene(null); // Frees the scene for the next window
+            release(view);
+        });
+        return stage;
+    }
+
+    /**
+     * Resets a view's controller and, once the reset has finished, keeps the
+     * view for the next take(), or disposes of it if another one is already
+     * waiting. A take() in the meantime loads a new view.
+     */
+    public void release(View<?> view) {
+        if (!inUse.remove(view)) {
+            return;
+        }
+        CompletableFuture<Void> reset = view.controller instanceof Reusable
+                ? ((Reusable) view.controller).reset()
+                : CompletableFuture.completedFuture(null);
+        resetting.put(view, reset);
+        reset.whenComplete((ignored, error) -> {
+            if (error != null) {
+                System.err.println("Could not reset " + view.fxml + ": " + error);
+            }
+            Platform.runLater(() -> {
+                if (resetting.remove(view) == null) {
+                    return; // Disposed by shutdown()
+                }
+                if (shutdown || idle.putIfAbsent(view.fxml, view) != null) {
+                    dispose(view);
+                }
+            });
+        });
+    }
+
+    /**
+     * Disposes of every view, idle, showing or still resetting. Called when
+     * the application exits; waits for the resets, so the last user's
+     * writes are done before the databases close.
+     */
+    public void shutdown() {
+        shutdown = true;
+        System.out.println("Closing view factory: " + describe());
+        for (Map.Entry<View<?>, CompletableFuture<Void>> entry : resetting.entrySet()) {
+            try {
+                entry.getValue().join();
+            } catch (RuntimeException e) {
+                // Already reported by release()
+            }
+            if (resetting.remove(entry.getKey()) != null) {
+                dispose(entry.getKey());
+            }
+        }
+        for (View<?> view : idle.values()) {
+            dispose(view);
+        }
+        idle.clear();
+        for (View<?> view : inUse) {
+            dispose(view);
+        }
+        inUse.clear();
+    }
+
+    // --- Warm-up ---
+
+    /**
+     * Loads fxml once with a stand-in controller and parses its stylesheet,
+     * then throws both away. Safe on any thread: the real controller is not
+     * created. Loads the classes behind the view's controls and the FXML and
+     * CSS parsers so a later take() is quick.
+     */
+    public static void warmUp(String fxml) throws IOException {
+        FXMLLoader loader = new FXMLLoader(resource(fxml));
+        loader.setControllerFactory(type -> new Object());
+        loader.load();
+        String css = STYLESHEETS.get(fxml);
+        if (css != null) {
+            new CssParser().parse(resource(css));
+        }
+    }
+
+    // --- Metrics getters ---
+
+    public String describe() {
+        synchronized (statsLock) {
+            return String.format("ViewFactory[loads=%d, reuses=%d, avgLoad=%.1fms, idle=%s]",
+                    loads, reuses, loads == 0 ? 0 : totalLoadNanos / 1_000_000.0 / loads, idle.keySet());
+        }
+    }
+
+    // --- Internal helpers ---
+
+    private View<?> load(String fxml) throws IOException {
+        long start = System.nanoTime();
+        FXMLLoader loader = new FXMLLoader(resource(fxml));
+        Parent root = loader.load();
+        View<?> view = new View<>(fxml, root, loader.getController());
+        long nanos = System.nanoTime() - start;
+        synchronized (statsLock) {
+            loads++;
+            totalLoadNanos += nanos;
+        }
+        System.out.printf("Loaded %s in %.1f ms%n", fxml, nanos / 1_000_000.0);
+        return view;
+    }
+
+    /**
+     * Parses a stylesheet on the holder scene, unless it is there already.
+     * Scenes that add the same URL later use that parsed copy.
+     */
+    private void keepParsed(String url) {
+        if (stylesheetHolder == null) {
+            stylesheetHolder = new Scene(new Group());
+        }
+        if (!stylesheetHolder.getStylesheets().contains(url)) {
+            stylesheetHolder.getStylesheets().add(url);
+            stylesheetHolder.getRoot().applyCss();
+        }
+    }
+
+    private static void dispose(View<?> view) {
+        if (view.controller instanceof Reusable) {
+            ((Reusable) view.controller).dispose();
+        }
+    }
+
+    /**
+     * The stylesheet's URL as a scene wants it, looked up once.
+     */
+    private String stylesheet(String path) throws IOException {
+        String url = stylesheetUrls.get(path);
+        if (url == null) {
+            url = resource(path).toExternalForm();
+            stylesheetUrls.put(path, url);
+        }
+        return url;
+    }
+
+    private static URL resource(String path) throws IOException {
+        URL url = ViewFactory.class.getResource(path);
+        if (url == null) {
+            throw new IOException("Not found on the classpath: " + path);
+        }
+        return url;
+    }
+}
@@ -0,0 +1,33 @@
+package com.saadsafi.todoapp.dao;
+
+import com.saadsafi.todoapp.model.Category;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous wrapper around CategoryDAO. See AsyncTaskDAO for the threading rules.
+ */
+public class AsyncCategoryDAO {
+
+    private final CategoryDAO categoryDAO;
+
+    public AsyncCategoryDAO(CategoryDAO categoryDAO) {
+        this.categoryDAO = categoryDAO;
+    }
+
+    public CompletableFuture<List<Category>> getCategoriesByUserId(int userId) {
+        return DaoExecutor.supply(() -> categoryDAO.getCategoriesByUserId(userId));
+    }
+
+    public CompletableFuture<Category> createCategory(String categoryName, int userId) {
+        return DaoExecutor.supply(() -> categoryDAO.createCategory(categoryName, userId));
+    }
+
+    public CompletableFuture<CategoryDeleteResult> deleteCategory(int userId, int categoryId, Category moveTasksTo) {
+        return DaoExecutor.supply(() -> categoryDAO.deleteCategory(userId, categoryId, moveTasksTo));
+    }
+
+    public CompletableFuture<CategoryDeleteResult> deleteCategoryWithTasks(int userId, int categoryId) {
+        return DaoExecutor.supply(() -> categoryDAO.deleteCategoryWithTasks(userId, categoryId));
+    }
+}
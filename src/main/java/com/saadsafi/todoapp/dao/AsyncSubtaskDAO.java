@@ -0,0 +1,38 @@
+package com.saadsafi.todoapp.dao;
+
+import com.saadsafi.todoapp.model.Subtask;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous wrapper around SubtaskDAO. See AsyncTaskDAO for the threading rules.
+ */
+public class AsyncSubtaskDAO {
+
+    private final SubtaskDAO subtaskDAO;
+
+    public AsyncSubtaskDAO(SubtaskDAO subtaskDAO) {
+        this.subtaskDAO = subtaskDAO;
+    }
+
+    public CompletableFuture<List<Subtask>> getSubtasksByTaskId(int taskId) {
+        return DaoExecutor.supply(() -> subtaskDAO.getSubtasksByTaskId(taskId));
+    }
+
+    public CompletableFuture<Subtask> createSubtask(String title, int taskId) {
+        return DaoExecutor.supply(() -> subtaskDAO.createSubtask(title, taskId));
+    }
+
+    /**
+     * Writes a snapshot of the subtask as it is now, like AsyncTaskDAO.updateTask.
+     */
+    public CompletableFuture<Boolean> updateSubtask(Subtask subtask) {
+        Subtask snapshot = new Subtask(subtask.getSubtaskId(), subtask.getTaskId(),
+                subtask.getTitle(), subtask.getStatus().name());
+        return DaoExecutor.supply(() -> subtaskDAO.updateSubtask(snapshot));
+    }
+
+    public CompletableFuture<Boolean> deleteSubtask(int subtaskId) {
+        return DaoExecutor.supply(() -> subtaskDAO.deleteSubtask(subtaskId));
+    }
+}
@@ -0,0 +1,85 @@
+package com.saadsafi.todoapp.dao;
+
+import com.saadsafi.todoapp.model.Category;
+import com.saadsafi.todoapp.model.Priority;
+import com.saadsafi.todoapp.model.Status;
+import com.saadsafi.todoapp.model.Task;
+import com.saadsafi.todoapp.search.SearchDocument;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous wrapper around TaskDAO.
+ *
+ * Every method runs the matching TaskDAO call on the shared DaoExecutor and
+ * returns a CompletableFuture, so the JavaFX thread never waits on the database.
+ * Tasks passed in are copied first; the worker never reads the caller's objects.
+ * Results are delivered on a worker thread; UI code must hop back with
+ * Platform.runLater before touching any controls.
+ */
+public class AsyncTaskDAO {
+
+    private final TaskDAO taskDAO;
+
+    public AsyncTaskDAO(TaskDAO taskDAO) {
+        this.taskDAO = taskDAO;
+    }
+
+    public CompletableFuture<List<Task>> getTasksByUserAndCategory(int userId, int categoryId) {
+        return DaoExecutor.supply(() -> taskDAO.getTasksByUserAndCategory(userId, categoryId));
+    }
+
+    public CompletableFuture<List<Task>> getTasksWithSubtasksByUserAndCategory(int userId, int categoryId) {
+        return DaoExecutor.supply(() -> taskDAO.getTasksWithSubtasksByUserAndCategory(userId, categoryId));
+    }
+
+    public CompletableFuture<List<Task>> getTaskPage(TaskQuery query, Task anchor, boolean forward, int limit) {
+        return DaoExecutor.supply(() -> taskDAO.getTaskPage(query, anchor, forward, limit));
+    }
+
+    public CompletableFuture<List<Task>> getTasksByIds(int userId, Collection<Integer> taskIds) {
+        return DaoExecutor.supply(() -> taskDAO.getTasksByIds(userId, taskIds));
+    }
+
+    public CompletableFuture<List<SearchDocument>> getSearchDocuments(int userId) {
+        return DaoExecutor.supply(() -> taskDAO.getSearchDocuments(userId));
+    }
+
+    /**
+     * Writes a snapshot of the task as it is now: the caller (the JavaFX
+     * thread) keeps editing and binding its Task, which a worker must not read.
+     */
+    public CompletableFuture<Task> createTask(Task task) {
+        Task snapshot = new Task(task.toRecord());
+        return DaoExecutor.supply(() -> taskDAO.createTask(snapshot));
+    }
+
+    /**
+     * Writes a snapshot of the task as it is now, like createTask.
+     */
+    public CompletableFuture<Boolean> updateTask(Task task) {
+        Task snapshot = new Task(task.toRecord());
+        return DaoExecutor.supply(() -> taskDAO.updateTask(snapshot));
+    }
+
+    public CompletableFuture<Boolean> deleteTask(int taskId) {
+        return DaoExecutor.supply(() -> taskDAO.deleteTask(taskId));
+    }
+
+    public CompletableFuture<Integer> updateTasksStatus(int userId, Collection<Integer> taskIds, Status status) {
+        return DaoExecutor.supply(() -> taskDAO.updateTasksStatus(userId, taskIds, status));
+    }
+
+    public CompletableFuture<Integer> updateTasksPriority(int userId, Collection<Integer> taskIds, Priority priority) {
+        return DaoExecutor.supply(() -> taskDAO.updateTasksPriority(userId, taskIds, priority));
+    }
+
+    public CompletableFuture<Integer> moveTasks(int userId, Collection<Integer> taskIds, Category category) {
+        return DaoExecutor.supply(() -> taskDAO.moveTasks(userId, taskIds, category));
+    }
+
+    public CompletableFuture<Integer> deleteTasks(int userId, Collection<Integer> taskIds) {
+        return DaoExecutor.supply(() -> taskDAO.deleteTasks(userId, taskIds));
+    }
+}
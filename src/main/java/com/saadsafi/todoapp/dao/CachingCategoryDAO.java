@@ -0,0 +1,58 @@
+package com.saadsafi.todoapp.dao;
+
+import com.saadsafi.todoapp.model.Category;
+import java.util.List;
+
+/**
+ * A CategoryDAO that keeps each user's category list in the TaskCache.
+ */
+public class CachingCategoryDAO extends CategoryDAO {
+
+    private final TaskCache cache;
+
+    public CachingCategoryDAO(TaskCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public List<Category> getCategoriesByUserId(int userId) {
+        List<Category> cached = cache.getCategories(userId);
+        if (cached != null) {
+            return cached;
+        }
+        long loadVersion = cache.beginLoad();
+        long start = System.nanoTime();
+        List<Category> categories = super.getCategoriesByUserId(userId);
+        cache.putCategories(userId, categories, loadVersion, System.nanoTime() - start);
+        return categories;
+    }
+
+    @Override
+    public Category createCategory(String categoryName, int userId) {
+        Category created = super.createCategory(categoryName, userId);
+        if (created != null) {
+            cache.addCategory(userId, created);
+        }
+        return created;
+    }
+
+    @Override
+    public CategoryDeleteResult deleteCategory(int userId, int categoryId, Category moveTasksTo) {
+        CategoryDeleteResult result = super.deleteCategory(userId, categoryId, moveTasksTo);
+        if (result != null) {
+            cache.removeCategory(categoryId);
+            // Reloaded on the next read, like a bulk move
+            cache.invalidateTasks(userId, moveTasksTo != null ? moveTasksTo.getCategoryId() : 0);
+        }
+        return result;
+    }
+
+    @Override
+    public CategoryDeleteResult deleteCategoryWithTasks(int userId, int categoryId) {
+        CategoryDeleteResult result = super.deleteCategoryWithTasks(userId, categoryId);
+        if (result != null) {
+            cache.removeCategory(categoryId);
+        }
+        return result;
+    }
+}
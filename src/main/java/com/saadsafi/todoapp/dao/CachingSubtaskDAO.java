@@ -0,0 +1,62 @@
+package com.saadsafi.todoapp.dao;
+
+import com.saadsafi.todoapp.model.Status;
+import com.saadsafi.todoapp.model.Subtask;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A SubtaskDAO that reads a task's subtasks from the TaskCache when the
+ * task is cached, and keeps the cached subtasks up to date after every
+ * successful write.
+ */
+public class CachingSubtaskDAO extends SubtaskDAO {
+
+    private final TaskCache cache;
+
+    public CachingSubtaskDAO(TaskCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByTaskId(int taskId) {
+        List<Subtask> cached = cache.getSubtasks(taskId);
+        return cached != null ? cached : super.getSubtasksByTaskId(taskId);
+    }
+
+    @Override
+    public Subtask createSubtask(String title, int taskId) {
+        Subtask created = super.createSubtask(title, taskId);
+        if (created != null) {
+            cache.putSubtask(created);
+        }
+        return created;
+    }
+
+    @Override
+    public boolean updateSubtask(Subtask subtask) {
+        boolean updated = super.updateSubtask(subtask);
+        if (updated) {
+            cache.putSubtask(subtask);
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean deleteSubtask(int subtaskId) {
+        boolean deleted = super.deleteSubtask(subtaskId);
+        if (deleted) {
+            cache.removeSubtask(subtaskId);
+        }
+        return deleted;
+    }
+
+    @Override
+    public boolean updateSubtaskStatuses(Map<Integer, Status> statuses) {
+        boolean updated = super.updateSubtaskStatuses(statuses);
+        if (updated) {
+            cache.updateSubtaskStatuses(statuses);
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,194 @@
+package com.saadsafi.todoapp.dao;
+
+import com.saadsafi.todoapp.model.Category;
+import com.saadsafi.todoapp.model.Priority;
+import com.saadsafi.todoapp.model.Status;
+import com.saadsafi.todoapp.model.Task;
+import com.saadsafi.todoapp.model.TaskRecord;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A TaskDAO that answers reads from a TaskCache and keeps the cache
+ * up to date after every successful write.
+ *
+ * The first read of a category loads all of its tasks (with subtasks) in
+ * one query. After that, pages for any search, filter and sort are cut
+ * from memory with the same rules as the SQL (TaskQuery.matches and
+ * TaskSort.comparator). Categories too big to cache are paged from the
+ * database as before.
+ */
+public class CachingTaskDAO extends TaskDAO {
+
+    private final TaskCache cache;
+
+    public CachingTaskDAO(TaskCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public List<Task> getTasksByUserAndCategory(int userId, int categoryId) {
+        List<Task> tasks = cachedCategory(userId, categoryId);
+        return tasks != null ? tasks : super.getTasksByUserAndCategory(userId, categoryId);
+    }
+
+    @Override
+    public List<Task> getTasksWithSubtasksByUserAndCategory(int userId, int categoryId) {
+        List<Task> tasks = cachedCategory(userId, categoryId);
+        if (tasks == null) {
+            return super.getTasksWithSubtasksByUserAndCategory(userId, categoryId);
+        }
+        cache.attachSubtasks(tasks);
+        return tasks;
+    }
+
+    @Override
+    public List<Task> getTaskPage(TaskQuery query, Task anchor, boolean forward, int limit) {
+        List<Task> tasks = cachedCategory(query.getUserId(), query.getCategoryId());
+        if (tasks == null) {
+            return super.getTaskPage(query, anchor, forward, limit);
+        }
+        // Only the tasks on the page need their subtasks copied
+        List<Task> page = TaskPages.page(tasks, query, anchor, forward, limit);
+        cache.attachSubtasks(page);
+        return page;
+    }
+
+    /**
+     * Always reads from the database: this is how changes made by other
+     * clients come in, so the fresh rows replace the cached ones.
+     */
+    @Override
+    public List<Task> getTasksByIds(int userId, Collection<Integer> taskIds) {
+        List<Task> tasks = super.getTasksByIds(userId, taskIds);
+        for (Task task : tasks) {
+            cache.putTask(task);
+        }
+        return tasks;
+    }
+
+    // --- Write-through ---
+
+    @Override
+    public Task createTask(Task task) {
+        Task created = super.createTask(task);
+        if (created != null) {
+            cache.putTask(created);
+        }
+        return created;
+    }
+
+    @Override
+    public boolean updateTask(Task task) {
+        boolean updated = super.updateTask(task);
+        if (updated) {
+            cache.putTask(task);
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean deleteTask(int taskId) {
+        boolean deleted = super.deleteTask(taskId);
+        if (deleted) {
+            cache.removeTask(taskId);
+        }
+        return deleted;
+    }
+
+    @Override
+    public boolean updateTaskStatuses(Map<Integer, Status> statuses) {
+        boolean updated = super.updateTaskStatuses(statuses);
+        if (updated) {
+            cache.updateTaskStatuses(statuses);
+        }
+        return updated;
+    }
+
+    @Override
+    public int updateTasksStatus(int userId, Collection<Integer> taskIds, Status status) {
+        int updated = super.updateTasksStatus(userId, taskIds, status);
+        if (updated > 0) {
+            cache.updateTasks(taskIds, record -> record.withStatus(status));
+        }
+        return updated;
+    }
+
+    @Override
+    public int updateTasksPriority(int userId, Collection<Integer> taskIds, Priority priority) {
+        int updated = super.updateTasksPriority(userId, taskIds, priority);
+        if (updated > 0) {
+            cache.updateTasks(taskIds, record -> record.withPriority(priority));
+        }
+        return updated;
+    }
+
+    @Override
+    public int moveTasks(int userId, Collection<Integer> taskIds, Category category) {
+        int moved = super.moveTasks(userId, taskIds, category);
+        if (moved > 0) {
+            cache.moveTasks(userId, taskIds, category != null ? category.getCategoryId() : 0);
+        }
+        return moved;
+    }
+
+    @Override
+    public int insertTasks(List<TaskRecord> tasks) {
+        int inserted = super.insertTasks(tasks);
+        if (inserted > 0) {
+            Set<Long> invalidated = new HashSet<>();
+            for (TaskRecord task : tasks) {
+                if (invalidated.add(((long) task.getUserId() << 32) | task.getCategoryId())) {
+                    cache.invalidateTasks(task.getUserId(), task.getCategoryId());
+                }
+            }
+        }
+        return inserted;
+    }
+
+    @Override
+    public int deleteTasks(int userId, Collection<Integer> taskIds) {
+        int deleted = super.deleteTasks(userId, taskIds);
+        if (deleted > 0) {
+            cache.removeTasks(taskIds);
+        }
+        return deleted;
+    }
+
+    // --- Internal helpers ---
+
+    /**
+     * @return The category's tasks from the cache (loading them on a miss),
+     * or null if the category is too big to cache. Subtasks aren't attached.
+     */
+    private List<Task> cachedCategory(int userId, int categoryId) {
+        List<Task> cached = cache.getTasks(userId, categoryId);
+        if (cached != null) {
+            return cached;
+        }
+        if (cache.isTooLarge(userId, categoryId)) {
+            return null;
+        }
+
+        long loadVersion = cache.beginLoad();
+        long start = System.nanoTime();
+        int count = countTasksByUserAndCategory(userId, categoryId);
+        if (count < 0) {
+            return null; // Database trouble, let the normal query report it
+        }
+        if (count > cache.getMaxTasksPerEntry()) {
+            cache.putTasks(userId, categoryId, null, loadVersion, System.nanoTime() - start);
+            return null;
+        }
+
+        List<Task> tasks = super.getTasksWithSubtasksByUserAndCategory(userId, categoryId);
+        if (tasks.size() == count) {
+            // (A size mismatch means the query failed or the data changed, so don't keep it)
+            cache.putTasks(userId, categoryId, tasks, loadVersion, System.nanoTime() - start);
+        }
+        return tasks; // These already have their subtasks
+    }
+}
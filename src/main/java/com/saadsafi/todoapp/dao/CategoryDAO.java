@@ -1,6 +1,7 @@
 package com.saadsafi.todoapp.dao;
 
 import com.saadsafi.todoapp.db.DatabaseConnection;
+import com.saadsafi.todoapp.db.SyncClock;
 import com.saadsafi.todoapp.model.Category;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -9,6 +10,7 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.sql.Statement;
+import java.sql.Types;
 
 /**
  * Data Access Object for all Category-related database operations.
@@ -54,13 +56,19 @@ public class CategoryDAO {
      * or null if creation failed.
      */
     public Category createCategory(String categoryName, int userId) {
-        String sql = "INSERT INTO categories (user_id, category_name) VALUES (?, ?)";
+        String sql = "INSERT INTO categories (user_id, category_name, updated_at, row_version) VALUES (?, ?, ?, ?)";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
+            // Stamped for sync, see SyncClock
+            conn.setAutoCommit(false);
+            long version = SyncClock.next(conn, userId);
+
             pstmt.setInt(1, userId);
             pstmt.setString(2, categoryName);
+            pstmt.setLong(3, System.currentTimeMillis());
+            pstmt.setLong(4, version);
 
             int rowsAffected = pstmt.executeUpdate();
 
@@ -69,6 +77,7 @@ public class CategoryDAO {
                 try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
                     if (generatedKeys.next()) {
                         int newCategoryId = generatedKeys.getInt(1);
+                        conn.commit();
                         // Return a new Category object with the new ID
                         return new Category(newCategoryId, categoryName);
                     }
@@ -81,30 +90,143 @@ public class CategoryDAO {
             return null;
         }
     }
-    
-    
-        /**
-     * Deletes a category from the database.
-     * The database schema (ON DELETE SET NULL) will handle
-     * un-linking any tasks associated with it.
+
+    // --- Deleting ---
+    // Both deletes handle the category's tasks themselves, in the same
+    // transaction as the category (the schema's ON DELETE rules are only a
+    // fallback), with statements over the whole category instead of one
+    // per task. They return what happened to which rows, or null if the
+    // delete failed (then nothing changed).
+
+    /**
+     * Deletes one of a user's categories and moves its tasks to another of
+     * the user's categories, or leaves them without a category.
      *
-     * @param categoryId The ID of the category to delete.
-     * @return true if the deletion was successful, false otherwise.
+     * @param moveTasksTo Where the tasks go, or null for no category.
+     * @return The moved tasks, or null if either category isn't the user's.
      */
-    public boolean deleteCategory(int categoryId) {
-        String sql = "DELETE FROM categories WHERE category_id = ?";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    public CategoryDeleteResult deleteCategory(int userId, int categoryId, Category moveTasksTo) {
+        String moveSql = "UPDATE tasks SET category_id = ?, updated_at = ?, row_version = ? " +
+                         "WHERE user_id = ? AND category_id = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            // Returning without a commit rolls back (the pool does it)
+            conn.setAutoCommit(false);
+            // The clock before the category, the order every write takes them in
+            long version = SyncClock.next(conn, userId);
+            if (!lockCategory(conn, userId, categoryId)) {
+                return null;
+            }
+            if (moveTasksTo != null && (moveTasksTo.getCategoryId() == categoryId
+                    || !lockCategory(conn, userId, moveTasksTo.getCategoryId()))) {
+                return null;
+            }
+            List<Integer> taskIds = selectIds(conn,
+                    "SELECT task_id FROM tasks WHERE user_id = ? AND category_id = ? ORDER BY task_id",
+                    userId, categoryId);
+
+            // Stamped, so sync clients and the change feed see the move
+            try (PreparedStatement pstmt = conn.prepareStatement(moveSql)) {
+                if (moveTasksTo != null) {
+                    pstmt.setInt(1, moveTasksTo.getCategoryId());
+                } else {
+                    pstmt.setNull(1, Types.INTEGER);
+                }
+                pstmt.setLong(2, System.currentTimeMillis());
+                pstmt.setLong(3, version);
+                pstmt.setInt(4, userId);
+                pstmt.setInt(5, categoryId);
+                pstmt.executeUpdate();
+            }
+            deleteCategoryRow(conn, userId, categoryId, version);
+            conn.commit();
+            return CategoryDeleteResult.moved(categoryId, moveTasksTo, taskIds);
 
-            pstmt.setInt(1, categoryId);
-            int rowsAffected = pstmt.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("SQL Error deleting category: " + e.getMessage());
+            return null;
+        }
+    }
 
-            return rowsAffected > 0;
+    /**
+     * Deletes one of a user's categories along with its tasks and their subtasks.
+     *
+     * @return The deleted tasks and subtasks, or null if the category isn't the user's.
+     */
+    public CategoryDeleteResult deleteCategoryWithTasks(int userId, int categoryId) {
+        String inCategory = "user_id = ? AND category_id = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            long version = SyncClock.next(conn, userId); // Before the category lock, see deleteCategory
+            if (!lockCategory(conn, userId, categoryId)) {
+                return null;
+            }
+            List<Integer> taskIds = selectIds(conn,
+                    "SELECT task_id FROM tasks WHERE " + inCategory + " ORDER BY task_id",
+                    userId, categoryId);
+            List<Integer> subtaskIds = selectIds(conn,
+                    "SELECT s.subtask_id FROM subtasks s JOIN tasks t ON t.task_id = s.task_id " +
+                    "WHERE t.user_id = ? AND t.category_id = ? ORDER BY s.subtask_id",
+                    userId, categoryId);
+
+            // Task tombstones first, while the rows are there; clients drop
+            // the subtasks with their tasks, so those need none
+            SyncClock.recordDeletesWhere(conn, "tasks", "task_id", inCategory, version, userId, categoryId);
+            update(conn, "DELETE FROM subtasks WHERE task_id IN " +
+                    "(SELECT task_id FROM tasks WHERE " + inCategory + ")", userId, categoryId);
+            update(conn, "DELETE FROM tasks WHERE " + inCategory, userId, categoryId);
+            deleteCategoryRow(conn, userId, categoryId, version);
+            conn.commit();
+            return CategoryDeleteResult.deleted(categoryId, taskIds, subtaskIds);
 
         } catch (SQLException e) {
-            System.err.println("SQL Error deleting category: " + e.getMessage());
-            return false;
+            System.err.println("SQL Error deleting category with tasks: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Locks one of a user's category rows until the transaction ends, so
+     * no task can be added to it meanwhile.
+     *
+     * @return False if the user has no such category.
+     */
+    private boolean lockCategory(Connection conn, int userId, int categoryId) throws SQLException {
+        String sql = "SELECT category_id FROM categories WHERE user_id = ? AND category_id = ? FOR UPDATE";
+        return !selectIds(conn, sql, userId, categoryId).isEmpty();
+    }
+
+    /**
+     * Writes the category's tombstone and deletes it.
+     */
+    private void deleteCategoryRow(Connection conn, int userId, int categoryId, long version) throws SQLException {
+        String inCategory = "user_id = ? AND category_id = ?";
+        SyncClock.recordDeletesWhere(conn, "categories", "category_id", inCategory, version, userId, categoryId);
+        update(conn, "DELETE FROM categories WHERE " + inCategory, userId, categoryId);
+    }
+
+    private List<Integer> selectIds(Connection conn, String sql, int... params) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setInt(i + 1, params[i]);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    private int update(Connection conn, String sql, int... params) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setInt(i + 1, params[i]);
+            }
+            return pstmt.executeUpdate();
         }
     }
-}
\ No newline at end of file
+}
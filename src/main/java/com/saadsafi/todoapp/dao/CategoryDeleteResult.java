@@ -0,0 +1,70 @@
+package com.saadsafi.todoapp.dao;
+
+import com.saadsafi.todoapp.model.Category;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What deleting a category did to its tasks, so the caller can patch its
+ * lists, caches and search index instead of reloading them.
+ */
+public final class CategoryDeleteResult {
+
+    private final int categoryId;
+    private final Category movedTo;
+    private final List<Integer> movedTaskIds;
+    private final List<Integer> deletedTaskIds;
+    private final List<Integer> deletedSubtaskIds;
+
+    CategoryDeleteResult(int categoryId, Category movedTo, List<Integer> movedTaskIds,
+                         List<Integer> deletedTaskIds, List<Integer> deletedSubtaskIds) {
+        this.categoryId = categoryId;
+        this.movedTo = movedTo;
+        this.movedTaskIds = Collections.unmodifiableList(movedTaskIds);
+        this.deletedTaskIds = Collections.unmodifiableList(deletedTaskIds);
+        this.deletedSubtaskIds = Collections.unmodifiableList(deletedSubtaskIds);
+    }
+
+    /**
+     * The category's tasks went to another category (or to none).
+     */
+    static CategoryDeleteResult moved(int categoryId, Category movedTo, List<Integer> taskIds) {
+        return new CategoryDeleteResult(categoryId, movedTo, taskIds, List.of(), List.of());
+    }
+
+    /**
+     * The category's tasks and their subtasks were deleted with it.
+     */
+    static CategoryDeleteResult deleted(int categoryId, List<Integer> taskIds, List<Integer> subtaskIds) {
+        return new CategoryDeleteResult(categoryId, null, List.of(), taskIds, subtaskIds);
+    }
+
+    public int getCategoryId() {
+        return categoryId;
+    }
+
+    /**
+     * @return Where the moved tasks went, or null if they have no category now (or were deleted).
+     */
+    public Category getMovedTo() {
+        return movedTo;
+    }
+
+    public List<Integer> getMovedTaskIds() {
+        return movedTaskIds;
+    }
+
+    public List<Integer> getDeletedTaskIds() {
+        return deletedTaskIds;
+    }
+
+    public List<Integer> getDeletedSubtaskIds() {
+        return deletedSubtaskIds;
+    }
+
+    @Override
+    public String toString() {
+        return "CategoryDeleteResult[category=" + categoryId + ", moved=" + movedTaskIds.size()
+                + ", deletedTasks=" + deletedTaskIds.size() + ", deletedSubtasks=" + deletedSubtaskIds.size() + "]";
+    }
+}
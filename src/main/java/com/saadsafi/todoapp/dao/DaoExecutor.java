@@ -0,0 +1,85 @@
+package com.saadsafi.todoapp.dao;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * The shared background executor all the Async*DAO classes run on.
+ *
+ * It is bounded on both sides: a fixed number of worker threads (there is no
+ * point running more queries at once than the connection pool can serve)
+ * and a fixed-size queue, so a burst of clicks can't pile up unbounded work.
+ * Work that doesn't fit is refused with a failed future (see supply), not
+ * an exception thrown at the caller.
+ */
+public final class DaoExecutor {
+
+    private static final int THREADS = 8;
+    private static final int QUEUE_CAPACITY = 500;
+
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+
+    private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(
+            THREADS, THREADS,
+            30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+            r -> {
+                Thread t = new Thread(r, "dao-worker-" + threadCounter.incrementAndGet());
+                t.setDaemon(true); // never keep the JVM alive after the window closes
+                return t;
+            });
+
+    static {
+        // Let idle workers die so an idle app holds no threads
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    private DaoExecutor() {
+    }
+
+    public static ExecutorService get() {
+        return EXECUTOR;
+    }
+
+    /**
+     * Runs work on a worker.
+     * @return Its result, or a future failed with RejectedExecutionException
+     *         if the queue is full, so callers on the JavaFX thread handle it
+     *         like any other failed DAO call.
+     */
+    public static <T> CompletableFuture<T> supply(Supplier<T> work) {
+        try {
+            return CompletableFuture.supplyAsync(work, EXECUTOR);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Like supply, for work without a result.
+     */
+    public static CompletableFuture<Void> run(Runnable work) {
+        try {
+            return CompletableFuture.runAsync(work, EXECUTOR);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * How many DAO calls are waiting for a free worker.
+     */
+    public static int getQueueDepth() {
+        return EXECUTOR.getQueue().size();
+    }
+
+    public static int getActiveCount() {
+        return EXECUTOR.getActiveCount();
+    }
+}
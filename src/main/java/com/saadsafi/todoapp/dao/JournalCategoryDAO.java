@@ -0,0 +1,63 @@
+package com.saadsafi.todoapp.dao;
+
+import com.saadsafi.todoapp.journal.JournalStore;
+import com.saadsafi.todoapp.model.Category;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A CategoryDAO backed by the local JournalStore instead of the database.
+ */
+public class JournalCategoryDAO extends CategoryDAO {
+
+    private final JournalStore store;
+
+    public JournalCategoryDAO(JournalStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public List<Category> getCategoriesByUserId(int userId) {
+        return store.getCategories(userId);
+    }
+
+    @Override
+    public Category createCategory(String categoryName, int userId) {
+        try {
+            return store.createCategory(categoryName, userId);
+        } catch (IOException e) {
+            System.err.println("Journal Error creating category: " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public CategoryDeleteResult deleteCategory(int userId, int categoryId, Category moveTasksTo) {
+        try {
+            List<Integer> movedIds = store.deleteCategory(userId, categoryId,
+                    moveTasksTo != null ? moveTasksTo.getCategoryId() : 0);
+            return movedIds != null ? CategoryDeleteResult.moved(categoryId, moveTasksTo, movedIds) : null;
+        } catch (IOException e) {
+            System.err.println("Journal Error deleting category: " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public CategoryDeleteResult deleteCategoryWithTasks(int userId, int categoryId) {
+        try {
+            Map<Integer, List<Integer>> deleted = store.deleteCategoryWithTasks(userId, categoryId);
+            if (deleted == null) {
+                return null;
+            }
+            List<Integer> subtaskIds = new ArrayList<>();
+            deleted.values().forEach(subtaskIds::addAll);
+            return CategoryDeleteResult.deleted(categoryId, new ArrayList<>(deleted.keySet()), subtaskIds);
+        } catch (IOException e) {
+            System.err.println("Journal Error deleting category with tasks: " + e.getMessage());
+            return null;
+        }
+    }
+}
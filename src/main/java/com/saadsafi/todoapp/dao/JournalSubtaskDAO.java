@@ -0,0 +1,66 @@
+package com.saadsafi.todoapp.dao;
+
+import com.saadsafi.todoapp.journal.JournalStore;
+import com.saadsafi.todoapp.model.Status;
+import com.saadsafi.todoapp.model.Subtask;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A SubtaskDAO backed by the local JournalStore instead of the database.
+ */
+public class JournalSubtaskDAO extends SubtaskDAO {
+
+    private final JournalStore store;
+
+    public JournalSubtaskDAO(JournalStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByTaskId(int taskId) {
+        return store.getSubtasks(taskId);
+    }
+
+    @Override
+    public Subtask createSubtask(String title, int taskId) {
+        try {
+            return store.createSubtask(title, taskId);
+        } catch (IOException e) {
+            System.err.println("Journal Error creating subtask: " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public boolean updateSubtask(Subtask subtask) {
+        try {
+            return store.updateSubtask(subtask.getSubtaskId(), subtask.getTitle(), subtask.getStatus());
+        } catch (IOException e) {
+            System.err.println("Journal Error updating subtask: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean deleteSubtask(int subtaskId) {
+        try {
+            return store.deleteSubtask(subtaskId);
+        } catch (IOException e) {
+            System.err.println("Journal Error deleting subtask: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean updateSubtaskStatuses(Map<Integer, Status> statuses) {
+        try {
+            store.updateSubtaskStatuses(statuses);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Journal Error updating subtask statuses: " + e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.saadsafi.todoapp.dao;
+
+import com.saadsafi.todoapp.journal.JournalStore;
+import com.saadsafi.todoapp.model.Category;
+import com.saadsafi.todoapp.model.Priority;
+import com.saadsafi.todoapp.model.Status;
+import com.saadsafi.todoapp.model.Task;
+import com.saadsafi.todoapp.model.TaskRecord;
+import com.saadsafi.todoapp.search.SearchDocument;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * A TaskDAO backed by the local JournalStore instead of the database.
+ *
+ * Every read is served from the store's memory; pages are cut with the
+ * same rules as the SQL (see TaskPages). Every write is one append to the
+ * journal.
+ */
+public class JournalTaskDAO extends TaskDAO {
+
+    private final JournalStore store;
+
+    public JournalTaskDAO(JournalStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public List<Task> getTasksByUserAndCategory(int userId, int categoryId) {
+        return toTasks(store.getTasks(userId, categoryId));
+    }
+
+    @Override
+    public int countTasksByUserAndCategory(int userId, int categoryId) {
+        return store.countTasks(userId, categoryId);
+    }
+
+    @Override
+    public List<Task> getTasksWithSubtasksByUserAndCategory(int userId, int categoryId) {
+        List<Task> tasks = toTasks(store.getTasks(userId, categoryId));
+        attachSubtasks(tasks);
+        return tasks;
+    }
+
+    @Override
+    public List<Task> getTaskPage(TaskQuery query, Task anchor, boolean forward, int limit) {
+        List<Task> page = TaskPages.page(toTasks(store.getTasks(query.getUserId(), query.getCategoryId())),
+                query, anchor, forward, limit);
+        attachSubtasks(page);
+        return page;
+    }
+
+    @Override
+    public List<Task> getTasksByIds(int userId, Collection<Integer> taskIds) {
+        List<Task> tasks = new ArrayList<>(taskIds.size());
+        for (int taskId : new TreeSet<>(taskIds)) {
+            TaskRecord record = store.getTask(taskId);
+            if (record != null && record.getUserId() == userId) {
+                tasks.add(new Task(record));
+            }
+        }
+        attachSubtasks(tasks);
+        return tasks;
+    }
+
+    @Override
+    public List<SearchDocument> getSearchDocuments(int userId) {
+        return store.getSearchDocuments(userId);
+    }
+
+    @Override
+    public Task createTask(Task task) {
+        try {
+            TaskRecord created = store.createTask(task.toRecord());
+            if (created == null) {
+                return null;
+            }
+            Task createdTask = new Task(created);
+            createdTask.setSubtasks(new ArrayList<>());
+            return createdTask;
+        } catch (IOException e) {
+            System.err.println("Journal Error creating task: " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public boolean updateTask(Task task) {
+        try {
+            return store.updateTask(task.toRecord());
+        } catch (IOException e) {
+            System.err.println("Journal Error updating task: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean deleteTask(int taskId) {
+        try {
+            return store.deleteTask(taskId);
+        } catch (IOException e) {
+            System.err.println("Journal Error deleting task: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean updateTaskStatuses(Map<Integer, Status> statuses) {
+        try {
+            store.updateTaskStatuses(statuses);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Journal Error updating task statuses: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public int updateTasksStatus(int userId, Collection<Integer> taskIds, Status status) {
+        try {
+            return store.updateTasks(userId, taskIds, record -> record.withStatus(status));
+        } catch (IOException e) {
+            System.err.println("Journal Error updating task statuses: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    @Override
+    public int updateTasksPriority(int userId, Collection<Integer> taskIds, Priority priority) {
+        try {
+            return store.updateTasks(userId, taskIds, record -> record.withPriority(priority));
+        } catch (IOException e) {
+            System.err.println("Journal Error updating task priorities: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    @Override
+    public int moveTasks(int userId, Collection<Integer> taskIds, Category category) {
+        try {
+            return store.updateTasks(userId, taskIds, record -> record.withCategory(category));
+        } catch (IOException e) {
+            System.err.println("Journal Error moving tasks: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    @Override
+    public int insertTasks(List<TaskRecord> tasks) {
+        try {
+            return store.createTasks(tasks);
+        } catch (IOException e) {
+            System.err.println("Journal Error inserting tasks: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    @Override
+    public int deleteTasks(int userId, Collection<Integer> taskIds) {
+        try {
+            return store.deleteTasks(userId, taskIds);
+        } catch (IOException e) {
+            System.err.println("Journal Error deleting tasks: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    // --- Internal helpers ---
+
+    private static List<Task> toTasks(List<TaskRecord> records) {
+        List<Task> tasks = new ArrayList<>(records.size());
+        for (TaskRecord record : records) {
+            tasks.add(new Task(record));
+        }
+        return tasks;
+    }
+
+    private void attachSubtasks(List<Task> tasks) {
+        for (Task task : tasks) {
+            task.setSubtasks(store.getSubtasks(task.getTaskId()));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.saadsafi.todoapp.dao;
+
+import com.saadsafi.todoapp.db.DatabaseConnection;
+import com.saadsafi.todoapp.model.User;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Data Access Object for remembered logins (the sessions table).
+ *
+ * Sessions are stored by the SHA-256 of their token, so a copy of the
+ * table can't be used to log in. Resuming one is a primary key read.
+ */
+public class SessionDAO {
+
+    /**
+     * Stores a new session and clears the user's expired ones.
+     *
+     * @return true if the session was stored.
+     */
+    public boolean createSession(String tokenHash, int userId, long expiresAt) {
+        String sql = "INSERT INTO sessions (token_hash, user_id, created_at, expires_at) VALUES (?, ?, ?, ?)";
+        String expiredSql = "DELETE FROM sessions WHERE user_id = ? AND expires_at <= ?";
+        long now = System.currentTimeMillis();
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(expiredSql)) {
+                pstmt.setInt(1, userId);
+                pstmt.setLong(2, now);
+                pstmt.executeUpdate();
+            }
+            int rowsAffected;
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, tokenHash);
+                pstmt.setInt(2, userId);
+                pstmt.setLong(3, now);
+                pstmt.setLong(4, expiresAt);
+                rowsAffected = pstmt.executeUpdate();
+            }
+            conn.commit();
+            return rowsAffected > 0;
+
+        } catch (SQLException e) {
+            System.err.println("SQL Error creating session: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Looks up an unexpired session. Unlike the other lookups, a failed query
+     * is thrown, not returned as null: the caller forgets the session on a
+     * miss, and must not forget a valid one because the database was unreachable.
+     *
+     * @return The session's user, or null if there is no such session or it expired.
+     * @throws SQLException If the query failed.
+     */
+    public User findSessionUser(String tokenHash) throws SQLException {
+        String sql = "SELECT u.user_id, u.username FROM sessions s " +
+                     "JOIN users u ON u.user_id = s.user_id " +
+                     "WHERE s.token_hash = ? AND s.expires_at > ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, tokenHash);
+            pstmt.setLong(2, System.currentTimeMillis());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return new User(rs.getInt("user_id"), rs.getString("username"));
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Revokes a session (logout).
+     *
+     * @return true if there was such a session.
+     */
+    public boolean deleteSession(String tokenHash) {
+        String sql = "DELETE FROM sessions WHERE token_hash = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, tokenHash);
+            return pstmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            System.err.println("SQL Error deleting session: " + e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.saadsafi.todoapp.dao;
+
+import com.saadsafi.todoapp.model.Status;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind queue for task and subtask status toggles.
+ *
+ * Checkbox clicks update the model right away (optimistically) and then
+ * enqueue the new status here. Rapid toggles of the same id are coalesced,
+ * and a single background thread writes them out with one status-only
+ * JDBC batch per table, either after a short delay or as soon as enough
+ * changes have piled up. If a batch fails, every affected item gets its
+ * failure callback with the status it should roll back to.
+ */
+public class StatusWriteBehindQueue {
+
+    // Flush this long after the first pending change...
+    private static final long FLUSH_DELAY_MS = 300;
+    // ...or immediately once this many changes are pending
+    private static final int FLUSH_BATCH_SIZE = 50;
+
+    private final TaskDAO taskDAO;
+    private final SubtaskDAO subtaskDAO;
+
+    // Pending changes, guarded by "this"
+    private Map<Integer, PendingWrite> pendingTasks = new LinkedHashMap<>();
+    private Map<Integer, PendingWrite> pendingSubtasks = new LinkedHashMap<>();
+    private ScheduledFuture<?> scheduledFlush;
+    private boolean shutdown = false;
+
+    // One writer thread keeps the writes in the order they were flushed
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "status-write-behind");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public StatusWriteBehindQueue(TaskDAO taskDAO, SubtaskDAO subtaskDAO) {
+        this.taskDAO = taskDAO;
+        this.subtaskDAO = subtaskDAO;
+    }
+
+    /**
+     * Queues a task status change.
+     *
+     * @param taskId The task that was toggled.
+     * @param newStatus The status the user just set.
+     * @param previousStatus The status before the toggle (what we roll back to).
+     * @param onFailure Called on the writer thread with the rollback status if the write fails.
+     */
+    public void enqueueTaskStatus(int taskId, Status newStatus, Status previousStatus, Consumer<Status> onFailure) {
+        enqueue(true, taskId, newStatus, previousStatus, onFailure);
+    }
+
+    /**
+     * Queues a subtask status change. Same contract as {@link #enqueueTaskStatus}.
+     */
+    public void enqueueSubtaskStatus(int subtaskId, Status newStatus, Status previousStatus, Consumer<Status> onFailure) {
+        enqueue(false, subtaskId, newStatus, previousStatus, onFailure);
+    }
+
+    /**
+     * Writes everything that is pending right now, without waiting for the timer.
+     * @return A Future that completes once the batch has been written.
+     */
+    public synchronized Future<?> flush() {
+        cancelScheduledFlush();
+        if (shutdown) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return writer.submit(this::writePending);
+    }
+
+    /**
+     * Flushes and blocks until the pending changes are written (or the timeout passes).
+     * Called on logout so no toggles are lost.
+     */
+    public void flushAndWait(long timeoutMillis) {
+        try {
+            flush().get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            System.err.println("Could not flush pending status changes: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Flushes what is pending and stops the writer thread.
+     */
+    public void shutdown() {
+        flushAndWait(5_000);
+        synchronized (this) {
+            shutdown = true;
+        }
+        writer.shutdown();
+    }
+
+    public synchronized int getPendingCount() {
+        return pendingTasks.size() + pendingSubtasks.size();
+    }
+
+    // --- Internal helpers ---
+
+    private synchronized void enqueue(boolean isTask, int id, Status newStatus,
+                                      Status previousStatus, Consumer<Status> onFailure) {
+        if (shutdown) {
+            onFailure.accept(previousStatus);
+            return;
+        }
+
+        // Look the map up under the lock, writePending() swaps it out
+        Map<Integer, PendingWrite> pending = isTask ? pendingTasks : pendingSubtasks;
+
+        PendingWrite existing = pending.get(id);
+        if (existing == null) {
+            pending.put(id, new PendingWrite(newStatus, previousStatus, onFailure));
+        } else if (newStatus == existing.originalStatus) {
+            // Toggled back to what the database already has, nothing to write
+            pending.remove(id);
+        } else {
+            existing.status = newStatus;
+            existing.onFailure = onFailure;
+        }
+
+        if (getPendingCount() >= FLUSH_BATCH_SIZE) {
+            flush();
+        } else if (scheduledFlush == null && getPendingCount() > 0) {
+            scheduledFlush = writer.schedule(this::writePending, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void cancelScheduledFlush() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+    }
+
+    /**
+     * Runs on the writer thread. Swaps out the pending maps and writes them.
+     */
+    private void writePending() {
+        Map<Integer, PendingWrite> tasks;
+        Map<Integer, PendingWrite> subtasks;
+        synchronized (this) {
+            scheduledFlush = null;
+            tasks = pendingTasks;
+            subtasks = pendingSubtasks;
+            pendingTasks = new LinkedHashMap<>();
+            pendingSubtasks = new LinkedHashMap<>();
+        }
+
+        if (!tasks.isEmpty() && !taskDAO.updateTaskStatuses(toStatusMap(tasks))) {
+            rollBack(tasks);
+        }
+        if (!subtasks.isEmpty() && !subtaskDAO.updateSubtaskStatuses(toStatusMap(subtasks))) {
+            rollBack(subtasks);
+        }
+    }
+
+    private static Map<Integer, Status> toStatusMap(Map<Integer, PendingWrite> pending) {
+        Map<Integer, Status> statuses = new LinkedHashMap<>();
+        for (Map.Entry<Integer, PendingWrite> entry : pending.entrySet()) {
+            statuses.put(entry.getKey(), entry.getValue().status);
+        }
+        return statuses;
+    }
+
+    private static void rollBack(Map<Integer, PendingWrite> failed) {
+        System.err.println("Status batch failed, rolling back " + failed.size() + " change(s).");
+        for (PendingWrite write : failed.values()) {
+            try {
+                write.onFailure.accept(write.originalStatus);
+            } catch (RuntimeException e) {
+                System.err.println("Error in status rollback callback: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * The latest status queued for one id, plus what it was before the first toggle.
+     */
+    private static final class PendingWrite {
+        private Status status;
+        private final Status originalStatus;
+        private Consumer<Status> onFailure;
+
+        PendingWrite(Status status, Status originalStatus, Consumer<Status> onFailure) {
+            this.status = status;
+            this.originalStatus = originalStatus;
+            this.onFailure = onFailure;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.saadsafi.todoapp.dao;
 
 import com.saadsafi.todoapp.db.DatabaseConnection;
+import com.saadsafi.todoapp.db.SyncClock;
 import com.saadsafi.todoapp.model.Status;
 import com.saadsafi.todoapp.model.Subtask;
 import java.sql.Connection;
@@ -10,12 +11,18 @@ import java.sql.SQLException;
 import java.sql.Statement; // <-- Required import
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Data Access Object for all Subtask-related database operations.
  */
 public class SubtaskDAO {
 
+    // Subtasks have no user_id; the parent task's owner takes the sync version (see SyncClock)
+    private static final String TASK_OWNER_SQL = "SELECT user_id FROM tasks WHERE task_id = ?";
+    private static final String SUBTASK_OWNER_SQL = "SELECT t.user_id FROM subtasks s "
+            + "JOIN tasks t ON t.task_id = s.task_id WHERE s.subtask_id = ?";
+
     /**
      * Fetches all subtasks for a specific parent task.
      * @param taskId The ID of the parent task.
@@ -52,20 +59,30 @@ public class SubtaskDAO {
      * @return The new Subtask object with its generated ID, or null.
      */
     public Subtask createSubtask(String title, int taskId) {
-        String sql = "INSERT INTO subtasks (task_id, title, status) VALUES (?, ?, ?)";
+        String sql = "INSERT INTO subtasks (task_id, title, status, updated_at, row_version) VALUES (?, ?, ?, ?, ?)";
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
+            // Stamped for sync, see SyncClock
+            conn.setAutoCommit(false);
+            long version = SyncClock.nextForOwner(conn, TASK_OWNER_SQL, taskId);
+            if (version < 0) {
+                return null; // No such parent task
+            }
+
             pstmt.setInt(1, taskId);
             pstmt.setString(2, title);
             pstmt.setString(3, Status.PENDING.name());
+            pstmt.setLong(4, System.currentTimeMillis());
+            pstmt.setLong(5, version);
 
             int rowsAffected = pstmt.executeUpdate();
             if (rowsAffected > 0) {
                 try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
                     if (generatedKeys.next()) {
                         int newSubtaskId = generatedKeys.getInt(1);
+                        conn.commit();
                         return new Subtask(newSubtaskId, taskId, title, Status.PENDING.name());
                     }
                 }
@@ -82,16 +99,26 @@ public class SubtaskDAO {
      * @return true if successful, false otherwise.
      */
     public boolean updateSubtask(Subtask subtask) {
-        String sql = "UPDATE subtasks SET title = ?, status = ? WHERE subtask_id = ?";
+        String sql = "UPDATE subtasks SET title = ?, status = ?, updated_at = ?, row_version = ? WHERE subtask_id = ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
+            // Stamped for sync, see SyncClock
+            conn.setAutoCommit(false);
+            long version = SyncClock.nextForOwner(conn, SUBTASK_OWNER_SQL, subtask.getSubtaskId());
+            if (version < 0) {
+                return false; // No such subtask
+            }
+
             pstmt.setString(1, subtask.getTitle());
             pstmt.setString(2, subtask.getStatus().name());
-            pstmt.setInt(3, subtask.getSubtaskId());
+            pstmt.setLong(3, System.currentTimeMillis());
+            pstmt.setLong(4, version);
+            pstmt.setInt(5, subtask.getSubtaskId());
             
             int rowsAffected = pstmt.executeUpdate();
+            conn.commit();
             return rowsAffected > 0;
             
         } catch (SQLException e) {
@@ -110,9 +137,18 @@ public class SubtaskDAO {
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            // The tombstone tells sync clients
+            conn.setAutoCommit(false);
+            long version = SyncClock.nextForOwner(conn, SUBTASK_OWNER_SQL, subtaskId);
+            if (version < 0) {
+                return false; // No such subtask
+            }
+            SyncClock.recordDelete(conn, "subtasks", subtaskId, SUBTASK_OWNER_SQL, version);
             
             pstmt.setInt(1, subtaskId);
             int rowsAffected = pstmt.executeUpdate();
+            conn.commit();
             return rowsAffected > 0;
 
         } catch (SQLException e) {
@@ -120,4 +156,47 @@ public class SubtaskDAO {
         }
         return false;
     }
-}
\ No newline at end of file
+
+    /**
+     * Updates only the status column of many subtasks in one JDBC batch.
+     * Used by the StatusWriteBehindQueue when it flushes checkbox toggles.
+     * @param statuses Map of subtask_id to its new status.
+     * @return true if every update was written, false otherwise.
+     */
+    public boolean updateSubtaskStatuses(Map<Integer, Status> statuses) {
+        if (statuses.isEmpty()) {
+            return true;
+        }
+        String sql = "UPDATE subtasks SET status = ?, updated_at = ?, row_version = ? WHERE subtask_id = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            conn.setAutoCommit(false);
+            // Each subtask is stamped by its owner's clock; subtasks that no longer exist are skipped
+            Map<Integer, Long> versions = SyncClock.nextForOwners(conn, "SELECT s.subtask_id, t.user_id FROM subtasks s "
+                    + "JOIN tasks t ON t.task_id = s.task_id WHERE s.subtask_id IN ", statuses.keySet());
+            long now = System.currentTimeMillis();
+
+            for (Map.Entry<Integer, Status> entry : statuses.entrySet()) {
+                Long version = versions.get(entry.getKey());
+                if (version == null) {
+                    continue;
+                }
+                pstmt.setString(1, entry.getValue().name());
+                pstmt.setLong(2, now);
+                pstmt.setLong(3, version);
+                pstmt.setInt(4, entry.getKey());
+                pstmt.addBatch();
+            }
+
+            pstmt.executeBatch();
+            conn.commit();
+            return true;
+
+        } catch (SQLException e) {
+            System.err.println("SQL Error updating subtask statuses: " + e.getMessage());
+        }
+        return false;
+    }
+}
@@ -0,0 +1,675 @@
+package com.saadsafi.todoapp.dao;
+
+import com.saadsafi.todoapp.model.Category;
+import com.saadsafi.todoapp.model.Status;
+import com.saadsafi.todoapp.model.Subtask;
+import com.saadsafi.todoapp.model.Task;
+import com.saadsafi.todoapp.model.TaskRecord;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory cache of task rows and category lists, used by the Caching*DAO
+ * classes so that switching back to a category doesn't hit the database.
+ *
+ * - Tasks are cached per (user, category): all of the category's tasks
+ *   with their subtasks, in task_id order.
+ * - Entries expire after a time-to-live, and the least recently used ones
+ *   are evicted when there are too many or they take too much memory
+ *   (estimated).
+ * - The DAOs keep the cache up to date after every successful write
+ *   (write-through), so an entry never needs reloading just because the
+ *   user edited something.
+ *
+ * The cache hands out copies: callers may change the returned Tasks and
+ * Subtasks freely, the cache only changes through its own methods.
+ * All methods are thread-safe.
+ */
+public class TaskCache {
+
+    // --- Defaults ---
+    public static final int DEFAULT_MAX_ENTRIES = 50;
+    public static final long DEFAULT_MAX_BYTES = 32L * 1024 * 1024;
+    public static final long DEFAULT_TTL_MILLIS = 5 * 60_000;
+    // Bigger categories are paged from the database instead of cached whole
+    public static final int DEFAULT_MAX_TASKS_PER_ENTRY = 5_000;
+
+    // Rough per-object sizes for the memory estimate
+    private static final long TASK_BYTES = 96;     // TaskRecord + map entry + holder
+    private static final long SUBTASK_BYTES = 200; // Subtask and its four properties
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final long ttlNanos;
+    private final int maxTasksPerEntry;
+
+    // Access-ordered, so iteration starts with the least recently used entry
+    private final LinkedHashMap<Long, TaskEntry> taskEntries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<Integer, CategoryEntry> categoryEntries = new LinkedHashMap<>(16, 0.75f, true);
+    // Reverse lookups for write-through updates
+    private final Map<Integer, Long> keyByTaskId = new HashMap<>();
+    private final Map<Integer, Integer> taskIdBySubtaskId = new HashMap<>();
+    private long totalBytes = 0;
+
+    // Bumped on every write, so a load that raced with a write isn't stored
+    private long version = 0;
+
+    // --- Metrics ---
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private long expirations = 0;
+    private long loads = 0;
+    private long totalLoadNanos = 0;
+    private long maxLoadNanos = 0;
+
+    public TaskCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BYTES, DEFAULT_TTL_MILLIS, DEFAULT_MAX_TASKS_PER_ENTRY);
+    }
+
+    /**
+     * @param maxEntries The most (user, category) task lists to keep.
+     * @param maxBytes The estimated memory all cached tasks may take.
+     * @param ttlMillis How long an entry is served before it is loaded again.
+     * @param maxTasksPerEntry Categories with more tasks than this are not cached.
+     */
+    public TaskCache(int maxEntries, long maxBytes, long ttlMillis, int maxTasksPerEntry) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.maxTasksPerEntry = maxTasksPerEntry;
+    }
+
+    // --- Tasks ---
+
+    /**
+     * @return The category's tasks in task_id order, or null if they are not
+     * cached. They are new Task objects without their subtasks loaded (which
+     * makes this cheap); call attachSubtasks for the ones that need them.
+     */
+    public synchronized List<Task> getTasks(int userId, int categoryId) {
+        TaskEntry entry = liveTaskEntry(key(userId, categoryId));
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (entry.tooLarge) {
+            return null; // Not a miss, the category is deliberately not cached
+        }
+        hits++;
+        List<Task> tasks = new ArrayList<>(entry.tasks.size());
+        for (CachedTask cached : entry.tasks.values()) {
+            tasks.add(new Task(cached.record));
+        }
+        return tasks;
+    }
+
+    /**
+     * Gives each task copies of its cached subtasks.
+     * Tasks that aren't cached (any more) get an empty list.
+     */
+    public synchronized void attachSubtasks(List<Task> tasks) {
+        for (Task task : tasks) {
+            CachedTask cached = findTask(task.getTaskId());
+            task.setSubtasks(cached != null ? copySubtasks(cached.subtasks) : new ArrayList<>());
+        }
+    }
+
+    /**
+     * @return True if the category was found to be too big to cache (until the TTL passes).
+     */
+    public synchronized boolean isTooLarge(int userId, int categoryId) {
+        TaskEntry entry = liveTaskEntry(key(userId, categoryId));
+        return entry != null && entry.tooLarge;
+    }
+
+    public int getMaxTasksPerEntry() {
+        return maxTasksPerEntry;
+    }
+
+    /**
+     * Call before loading from the database, and pass the result to putTasks.
+     */
+    public synchronized long beginLoad() {
+        return version;
+    }
+
+    /**
+     * Stores a category's tasks as loaded from the database.
+     *
+     * @param tasks All tasks of the category, with subtasks, or null if there were too many.
+     * @param loadVersion What beginLoad() returned before the load started.
+     * @param loadNanos How long the load took (for the metrics).
+     */
+    public synchronized void putTasks(int userId, int categoryId, List<Task> tasks, long loadVersion, long loadNanos) {
+        recordLoad(loadNanos);
+        if (loadVersion != version) {
+            return; // Something was written meanwhile, the loaded list may be stale
+        }
+        long key = key(userId, categoryId);
+        removeTaskEntry(key);
+
+        TaskEntry entry = new TaskEntry();
+        if (tasks == null || tasks.size() > maxTasksPerEntry) {
+            entry.tooLarge = true; // Remembered so we don't try again on every page
+        } else {
+            for (Task task : tasks) {
+                entry.tasks.put(task.getTaskId(), new CachedTask(task.toRecord(), task.getSubtasks()));
+            }
+        }
+        addTaskEntry(key, entry);
+    }
+
+    /**
+     * Write-through for a created or updated task. Moves it to its new
+     * category's entry if the category changed.
+     *
+     * @param task The task as it is now in the database. If its subtasks are
+     * not loaded, the cached ones are kept.
+     */
+    public synchronized void putTask(Task task) {
+        version++;
+        TaskRecord record = task.toRecord();
+        List<Subtask> subtasks = task.hasSubtasksLoaded() ? task.getSubtasks() : null;
+
+        Long oldKey = keyByTaskId.get(record.getTaskId());
+        CachedTask previous = null;
+        if (oldKey != null) {
+            previous = removeFromEntry(oldKey, record.getTaskId());
+        }
+        if (subtasks == null && previous != null) {
+            subtasks = previous.subtasks;
+        }
+
+        long newKey = key(record.getUserId(), record.getCategoryId());
+        TaskEntry entry = taskEntries.get(newKey);
+        if (entry == null || entry.tooLarge) {
+            return; // Not cached, it will be loaded with the category
+        }
+        CachedTask cached = new CachedTask(record, subtasks != null ? subtasks : new ArrayList<>());
+        insertInOrder(entry, cached);
+        index(newKey, cached);
+        entry.bytes += cached.bytes;
+        totalBytes += cached.bytes;
+        evictIfNeeded();
+    }
+
+    /**
+     * Write-through for a deleted task (its subtasks go with it).
+     */
+    public synchronized void removeTask(int taskId) {
+        version++;
+        Long key = keyByTaskId.get(taskId);
+        if (key != null) {
+            removeFromEntry(key, taskId);
+        }
+    }
+
+    /**
+     * Write-through for a batch of task status changes.
+     */
+    public synchronized void updateTaskStatuses(Map<Integer, Status> statuses) {
+        version++;
+        for (Map.Entry<Integer, Status> change : statuses.entrySet()) {
+            CachedTask cached = findTask(change.getKey());
+            if (cached != null) {
+                cached.record = cached.record.withStatus(change.getValue());
+            }
+        }
+    }
+
+    /**
+     * Write-through for a bulk change that keeps tasks in their category
+     * (e.g. a new priority). Tasks that aren't cached are skipped.
+     */
+    public synchronized void updateTasks(Collection<Integer> taskIds, UnaryOperator<TaskRecord> change) {
+        version++;
+        for (int taskId : taskIds) {
+            CachedTask cached = findTask(taskId);
+            if (cached != null) {
+                cached.record = change.apply(cached.record);
+            }
+        }
+    }
+
+    /**
+     * Write-through for a bulk move. The tasks leave their old entries and
+     * the target category's entry is dropped, to be reloaded on the next
+     * read, rather than inserting thousands of tasks into it one by one.
+     */
+    public synchronized void moveTasks(int userId, Collection<Integer> taskIds, int categoryId) {
+        version++;
+        for (int taskId : taskIds) {
+            Long key = keyByTaskId.get(taskId);
+            if (key != null) {
+                removeFromEntry(key, taskId);
+            }
+        }
+        removeTaskEntry(key(userId, categoryId));
+    }
+
+    /**
+     * Drops a category's cached tasks, so the next read goes to the database
+     * (e.g. after an import added tasks whose IDs aren't known here).
+     */
+    public synchronized void invalidateTasks(int userId, int categoryId) {
+        version++;
+        removeTaskEntry(key(userId, categoryId));
+    }
+
+    /**
+     * Write-through for a bulk delete (subtasks go with their tasks).
+     */
+    public synchronized void removeTasks(Collection<Integer> taskIds) {
+        version++;
+        for (int taskId : taskIds) {
+            Long key = keyByTaskId.get(taskId);
+            if (key != null) {
+                removeFromEntry(key, taskId);
+            }
+        }
+    }
+
+    // --- Subtasks ---
+
+    /**
+     * @return Copies of a task's subtasks, or null if the task is not cached.
+     */
+    public synchronized List<Subtask> getSubtasks(int taskId) {
+        CachedTask cached = findTask(taskId);
+        if (cached == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return copySubtasks(cached.subtasks);
+    }
+
+    /**
+     * Write-through for a created or updated subtask.
+     */
+    public synchronized void putSubtask(Subtask subtask) {
+        version++;
+        CachedTask cached = findTask(subtask.getTaskId());
+        if (cached == null) {
+            return;
+        }
+        Subtask copy = copySubtask(subtask);
+        for (int i = 0; i < cached.subtasks.size(); i++) {
+            if (cached.subtasks.get(i).getSubtaskId() == subtask.getSubtaskId()) {
+                cached.subtasks.set(i, copy);
+                return;
+            }
+        }
+        cached.subtasks.add(copy);
+        taskIdBySubtaskId.put(subtask.getSubtaskId(), subtask.getTaskId());
+        resize(subtask.getTaskId(), SUBTASK_BYTES + stringBytes(subtask.getTitle()));
+    }
+
+    /**
+     * Write-through for a deleted subtask.
+     */
+    public synchronized void removeSubtask(int subtaskId) {
+        version++;
+        Integer taskId = taskIdBySubtaskId.remove(subtaskId);
+        CachedTask cached = taskId != null ? findTask(taskId) : null;
+        if (cached == null) {
+            return;
+        }
+        for (Iterator<Subtask> it = cached.subtasks.iterator(); it.hasNext(); ) {
+            Subtask subtask = it.next();
+            if (subtask.getSubtaskId() == subtaskId) {
+                it.remove();
+                resize(taskId, -(SUBTASK_BYTES + stringBytes(subtask.getTitle())));
+                return;
+            }
+        }
+    }
+
+    /**
+     * Write-through for a batch of subtask status changes.
+     */
+    public synchronized void updateSubtaskStatuses(Map<Integer, Status> statuses) {
+        version++;
+        for (Map.Entry<Integer, Status> change : statuses.entrySet()) {
+            Integer taskId = taskIdBySubtaskId.get(change.getKey());
+            CachedTask cached = taskId != null ? findTask(taskId) : null;
+            if (cached == null) {
+                continue;
+            }
+            for (Subtask subtask : cached.subtasks) {
+                if (subtask.getSubtaskId() == change.getKey()) {
+                    subtask.setStatus(change.getValue());
+                }
+            }
+        }
+    }
+
+    // --- Categories ---
+
+    /**
+     * @return A copy of the user's category list, or null if it is not cached.
+     */
+    public synchronized List<Category> getCategories(int userId) {
+        CategoryEntry entry = categoryEntries.get(userId);
+        if (entry != null && isExpired(entry.loadedAt)) {
+            categoryEntries.remove(userId);
+            expirations++;
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return new ArrayList<>(entry.categories);
+    }
+
+    public synchronized void putCategories(int userId, List<Category> categories, long loadVersion, long loadNanos) {
+        recordLoad(loadNanos);
+        if (loadVersion != version) {
+            return;
+        }
+        CategoryEntry entry = new CategoryEntry();
+        entry.categories.addAll(categories);
+        categoryEntries.put(userId, entry);
+        while (categoryEntries.size() > maxEntries) {
+            Iterator<Integer> eldest = categoryEntries.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Write-through for a created category.
+     */
+    public synchronized void addCategory(int userId, Category category) {
+        version++;
+        CategoryEntry entry = categoryEntries.get(userId);
+        if (entry != null) {
+            entry.categories.add(category);
+        }
+    }
+
+    /**
+     * Write-through for a deleted category. Its tasks were moved or deleted
+     * with it, so their cached list is dropped.
+     */
+    public synchronized void removeCategory(int categoryId) {
+        version++;
+        for (CategoryEntry entry : categoryEntries.values()) {
+            entry.categories.removeIf(category -> category.getCategoryId() == categoryId);
+        }
+        List<Long> keys = new ArrayList<>();
+        for (Long key : taskEntries.keySet()) {
+            if (categoryIdOf(key) == categoryId) {
+                keys.add(key);
+            }
+        }
+        for (Long key : keys) {
+            removeTaskEntry(key);
+        }
+    }
+
+    /**
+     * Drops a user's cached category list, so the next read goes to the
+     * database (another client created or deleted a category).
+     */
+    public synchronized void invalidateCategories(int userId) {
+        version++;
+        categoryEntries.remove(userId);
+    }
+
+    /**
+     * Drops everything (e.g. on logout).
+     */
+    public synchronized void clear() {
+        version++;
+        taskEntries.clear();
+        categoryEntries.clear();
+        keyByTaskId.clear();
+        taskIdBySubtaskId.clear();
+        totalBytes = 0;
+    }
+
+    // --- Metrics getters ---
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * @return How many entries were evicted to stay within the size limits.
+     */
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    public synchronized long getExpirationCount() {
+        return expirations;
+    }
+
+    public synchronized double getAverageLoadMillis() {
+        return loads == 0 ? 0 : totalLoadNanos / 1_000_000.0 / loads;
+    }
+
+    public synchronized double getMaxLoadMillis() {
+        return maxLoadNanos / 1_000_000.0;
+    }
+
+    public synchronized long getEstimatedBytes() {
+        return totalBytes;
+    }
+
+    public synchronized String describe() {
+        return String.format("TaskCache[entries=%d, ~%.1fMB, hitRate=%.0f%%, hits=%d, misses=%d, evictions=%d, "
+                        + "expirations=%d, avgLoad=%.1fms, maxLoad=%.1fms]",
+                taskEntries.size() + categoryEntries.size(), totalBytes / 1e6, getHitRate() * 100, hits, misses,
+                evictions, expirations, getAverageLoadMillis(), getMaxLoadMillis());
+    }
+
+    // --- Internal helpers (callers hold the lock) ---
+
+    private static long key(int userId, int categoryId) {
+        return ((long) userId << 32) | (categoryId & 0xFFFFFFFFL);
+    }
+
+    private static int categoryIdOf(long key) {
+        return (int) key;
+    }
+
+    private boolean isExpired(long loadedAt) {
+        return System.nanoTime() - loadedAt > ttlNanos;
+    }
+
+    private TaskEntry liveTaskEntry(long key) {
+        TaskEntry entry = taskEntries.get(key);
+        if (entry != null && isExpired(entry.loadedAt)) {
+            removeTaskEntry(key);
+            expirations++;
+            return null;
+        }
+        return entry;
+    }
+
+    private CachedTask findTask(int taskId) {
+        Long key = keyByTaskId.get(taskId);
+        if (key == null) {
+            return null;
+        }
+        TaskEntry entry = taskEntries.get(key);
+        return entry != null ? entry.tasks.get(taskId) : null;
+    }
+
+    private void recordLoad(long loadNanos) {
+        loads++;
+        totalLoadNanos += loadNanos;
+        maxLoadNanos = Math.max(maxLoadNanos, loadNanos);
+    }
+
+    private void addTaskEntry(long key, TaskEntry entry) {
+        for (CachedTask cached : entry.tasks.values()) {
+            index(key, cached);
+            entry.bytes += cached.bytes;
+        }
+        taskEntries.put(key, entry);
+        totalBytes += entry.bytes;
+        evictIfNeeded();
+    }
+
+    private void removeTaskEntry(long key) {
+        TaskEntry entry = taskEntries.remove(key);
+        if (entry == null) {
+            return;
+        }
+        for (CachedTask cached : entry.tasks.values()) {
+            unindex(cached);
+        }
+        totalBytes -= entry.bytes;
+    }
+
+    private CachedTask removeFromEntry(long key, int taskId) {
+        TaskEntry entry = taskEntries.get(key);
+        CachedTask removed = entry != null ? entry.tasks.remove(taskId) : null;
+        if (removed != null) {
+            unindex(removed);
+            entry.bytes -= removed.bytes;
+            totalBytes -= removed.bytes;
+        } else {
+            keyByTaskId.remove(taskId);
+        }
+        return removed;
+    }
+
+    private void index(long key, CachedTask cached) {
+        keyByTaskId.put(cached.record.getTaskId(), key);
+        for (Subtask subtask : cached.subtasks) {
+            taskIdBySubtaskId.put(subtask.getSubtaskId(), cached.record.getTaskId());
+        }
+    }
+
+    private void unindex(CachedTask cached) {
+        keyByTaskId.remove(cached.record.getTaskId());
+        for (Subtask subtask : cached.subtasks) {
+            taskIdBySubtaskId.remove(subtask.getSubtaskId());
+        }
+    }
+
+    /**
+     * Entries are kept in task_id order, like the default sort.
+     * New tasks have the highest ID, so this is normally an append.
+     */
+    private static void insertInOrder(TaskEntry entry, CachedTask cached) {
+        int taskId = cached.record.getTaskId();
+        if (entry.tasks.isEmpty() || lastKey(entry.tasks) < taskId) {
+            entry.tasks.put(taskId, cached);
+            return;
+        }
+        LinkedHashMap<Integer, CachedTask> reordered = new LinkedHashMap<>();
+        boolean inserted = false;
+        for (Map.Entry<Integer, CachedTask> existing : entry.tasks.entrySet()) {
+            if (!inserted && existing.getKey() > taskId) {
+                reordered.put(taskId, cached);
+                inserted = true;
+            }
+            reordered.put(existing.getKey(), existing.getValue());
+        }
+        entry.tasks.clear();
+        entry.tasks.putAll(reordered);
+    }
+
+    private static int lastKey(LinkedHashMap<Integer, CachedTask> tasks) {
+        int last = 0;
+        for (Integer id : tasks.keySet()) {
+            last = id;
+        }
+        return last;
+    }
+
+    private void resize(int taskId, long delta) {
+        CachedTask cached = findTask(taskId);
+        TaskEntry entry = taskEntries.get(keyByTaskId.get(taskId));
+        cached.bytes += delta;
+        entry.bytes += delta;
+        totalBytes += delta;
+        evictIfNeeded();
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<Long, TaskEntry>> eldest = taskEntries.entrySet().iterator();
+        while ((taskEntries.size() > maxEntries || totalBytes > maxBytes) && eldest.hasNext()) {
+            TaskEntry entry = eldest.next().getValue();
+            eldest.remove();
+            for (CachedTask cached : entry.tasks.values()) {
+                unindex(cached);
+            }
+            totalBytes -= entry.bytes;
+            evictions++;
+        }
+    }
+
+    private static long stringBytes(String s) {
+        return s == null ? 0 : 40 + 2L * s.length();
+    }
+
+    private static Subtask copySubtask(Subtask subtask) {
+        return new Subtask(subtask.getSubtaskId(), subtask.getTaskId(), subtask.getTitle(), subtask.getStatus().name());
+    }
+
+    private static List<Subtask> copySubtasks(List<Subtask> subtasks) {
+        List<Subtask> copies = new ArrayList<>(subtasks.size());
+        for (Subtask subtask : subtasks) {
+            copies.add(copySubtask(subtask));
+        }
+        return copies;
+    }
+
+    /**
+     * One category's tasks.
+     */
+    private static final class TaskEntry {
+        private final LinkedHashMap<Integer, CachedTask> tasks = new LinkedHashMap<>();
+        private final long loadedAt = System.nanoTime();
+        private boolean tooLarge = false;
+        private long bytes = 0;
+    }
+
+    private static final class CategoryEntry {
+        private final List<Category> categories = new ArrayList<>();
+        private final long loadedAt = System.nanoTime();
+    }
+
+    /**
+     * One task: its immutable record plus the cache's own copies of its subtasks.
+     */
+    private static final class CachedTask {
+        private TaskRecord record;
+        private final List<Subtask> subtasks;
+        private long bytes;
+
+        CachedTask(TaskRecord record, List<Subtask> subtasks) {
+            this.record = record;
+            this.subtasks = copySubtasks(subtasks);
+            this.bytes = TASK_BYTES + stringBytes(record.getTitle()) + stringBytes(record.getDescription());
+            for (Subtask subtask : subtasks) {
+                bytes += SUBTASK_BYTES + stringBytes(subtask.getTitle());
+            }
+        }
+    }
+}
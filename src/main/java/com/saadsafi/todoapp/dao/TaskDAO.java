@@ -1,22 +1,40 @@
 package com.saadsafi.todoapp.dao;
 
 import com.saadsafi.todoapp.db.DatabaseConnection;
+import com.saadsafi.todoapp.db.SyncClock;
 import com.saadsafi.todoapp.model.Category;
+import com.saadsafi.todoapp.model.Priority;
+import com.saadsafi.todoapp.model.Status;
+import com.saadsafi.todoapp.model.Subtask;
 import com.saadsafi.todoapp.model.Task;
+import com.saadsafi.todoapp.model.TaskRecord;
+import com.saadsafi.todoapp.search.SearchDocument;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.sql.Statement;
+import java.sql.Types;
 
 /**
  * Data Access Object for all Task-related database operations.
  */
 public class TaskDAO {
 
+    // Most IDs bound in one IN list
+    private static final int ID_CHUNK_SIZE = 500;
+    // Rows per multi-row INSERT (9 parameters each)
+    private static final int INSERT_ROWS_PER_STATEMENT = 100;
+
     /**
      * Fetches all tasks for a specific user AND a specific category.
      *
@@ -77,6 +95,392 @@ public class TaskDAO {
         return tasks; // Return the list
     }
     
+    /**
+     * Counts the tasks in a category.
+     *
+     * @param userId The owner of the tasks.
+     * @param categoryId The category to count.
+     * @return The number of tasks, or -1 if the query failed.
+     */
+    public int countTasksByUserAndCategory(int userId, int categoryId) {
+        String sql = "SELECT COUNT(*) FROM tasks WHERE user_id = ? AND category_id = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, userId);
+            pstmt.setInt(2, categoryId);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            System.err.println("SQL Error counting tasks: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Fetches all tasks for a user and category TOGETHER with their subtasks,
+     * in a single query. Each returned Task has its subtasks attached
+     * (see Task.getSubtasks()), so showing task details or subtask progress
+     * needs no extra round-trip per task.
+     *
+     * @param userId The ID of the logged-in user.
+     * @param categoryId The ID of the category to filter by.
+     * @return A List of Task objects with subtasks loaded.
+     */
+    public List<Task> getTasksWithSubtasksByUserAndCategory(int userId, int categoryId) {
+        // One row per (task, subtask) pair; tasks without subtasks still get one row
+        String sql = "SELECT t.*, c.category_name, " +
+                     "s.subtask_id, s.title AS subtask_title, s.status AS subtask_status " +
+                     "FROM tasks t " +
+                     "LEFT JOIN categories c ON t.category_id = c.category_id " +
+                     "LEFT JOIN subtasks s ON s.task_id = t.task_id " +
+                     "WHERE t.user_id = ? AND t.category_id = ? " +
+                     "ORDER BY t.task_id, s.subtask_id";
+
+        // Keeps the tasks in query order while we attach their subtasks
+        LinkedHashMap<Integer, Task> tasksById = new LinkedHashMap<>();
+        LinkedHashMap<Integer, List<Subtask>> subtasksByTaskId = new LinkedHashMap<>();
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, userId);
+            pstmt.setInt(2, categoryId);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                Category category = null;
+                while (rs.next()) {
+                    int taskId = rs.getInt("task_id");
+                    List<Subtask> subtasks = subtasksByTaskId.get(taskId);
+
+                    if (subtasks == null) {
+                        // First row for this task: build the Task itself
+                        String categoryName = rs.getString("category_name");
+                        if (category == null && categoryName != null) {
+                            // Every row is in the same category, so share one object
+                            category = new Category(categoryId, categoryName);
+                        }
+                        tasksById.put(taskId, mapTask(rs, userId, category));
+                        subtasks = new ArrayList<>();
+                        subtasksByTaskId.put(taskId, subtasks);
+                    }
+
+                    // subtask_id is NULL when the task has no subtasks
+                    int subtaskId = rs.getInt("subtask_id");
+                    if (!rs.wasNull()) {
+                        subtasks.add(new Subtask(subtaskId, taskId,
+                                rs.getString("subtask_title"), rs.getString("subtask_status")));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("SQL Error getting tasks with subtasks: " + e.getMessage());
+        }
+
+        // --- Attach the subtasks in memory ---
+        List<Task> tasks = new ArrayList<>(tasksById.size());
+        for (Task task : tasksById.values()) {
+            task.setSubtasks(subtasksByTaskId.get(task.getTaskId()));
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    /**
+     * Fetches one page of tasks using keyset (seek) pagination.
+     *
+     * Instead of OFFSET, the query continues from an anchor task: the next
+     * page holds the rows that sort after it (or before it, going backwards).
+     * That keeps every page equally cheap no matter how deep the user has
+     * scrolled. Search, filter and sort all come from the TaskQuery and are
+     * applied in SQL (see TaskQueryBuilder). Subtasks for the page are
+     * attached with one extra IN-list query.
+     *
+     * Index search results (TaskQuery.getRankedTaskIds) are read in
+     * ID_CHUNK_SIZE slices, so the filter sees every match while no single
+     * statement binds all of them.
+     *
+     * @param query The user, category, search text, filter and sort to list.
+     * @param anchor The task to continue from, or null for the first page.
+     * @param forward true for the rows after the anchor, false for the rows before it.
+     * @param limit The maximum number of tasks to return.
+     * @return The page in display order (may be shorter than limit at the end).
+     */
+    public List<Task> getTaskPage(TaskQuery query, Task anchor, boolean forward, int limit) {
+        List<Task> tasks = new ArrayList<>();
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            if (query.getRankedTaskIds() == null) {
+                tasks = queryPage(conn, query, anchor, forward, limit);
+            } else if (query.getSort() == TaskSort.DEFAULT) {
+                tasks = rankedPage(conn, query, anchor, forward, limit);
+            } else {
+                tasks = sortedRankedPage(conn, query, anchor, forward, limit);
+            }
+
+            if (!forward) {
+                // We walked backwards, put the page back into display order
+                Collections.reverse(tasks);
+            }
+
+            attachSubtasks(conn, tasks);
+
+        } catch (SQLException e) {
+            System.err.println("SQL Error getting task page: " + e.getMessage());
+        }
+
+        return tasks;
+    }
+
+    /**
+     * Fetches specific tasks of a user, with their subtasks. Used to patch
+     * the task list with tasks that changed elsewhere (see ChangeFeed).
+     *
+     * @param userId The ID of the logged-in user.
+     * @param taskIds The tasks to fetch; IDs that don't exist (any more) are skipped.
+     * @return The tasks that exist, in task_id order.
+     */
+    public List<Task> getTasksByIds(int userId, Collection<Integer> taskIds) {
+        List<Task> tasks = new ArrayList<>();
+        List<Integer> ids = new ArrayList<>(taskIds);
+        Collections.sort(ids);
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            // Bounded IN lists, so a big batch of changes doesn't make one huge statement
+            for (int from = 0; from < ids.size(); from += ID_CHUNK_SIZE) {
+                List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + ID_CHUNK_SIZE));
+                String sql = "SELECT t.*, c.category_name " +
+                             "FROM tasks t " +
+                             "LEFT JOIN categories c ON t.category_id = c.category_id " +
+                             "WHERE t.user_id = ? AND t.task_id IN " + placeholders(chunk.size()) + " " +
+                             "ORDER BY t.task_id";
+
+                List<Task> found = new ArrayList<>(chunk.size());
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setInt(1, userId);
+                    bindIds(pstmt, 2, chunk);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            // Tasks can be in different categories here
+                            Category category = null;
+                            String categoryName = rs.getString("category_name");
+                            if (categoryName != null) {
+                                category = new Category(rs.getInt("category_id"), categoryName);
+                            }
+                            found.add(mapTask(rs, userId, category));
+                        }
+                    }
+                }
+                attachSubtasks(conn, found);
+                tasks.addAll(found);
+            }
+        } catch (SQLException e) {
+            System.err.println("SQL Error getting tasks by ID: " + e.getMessage());
+        }
+        return tasks;
+    }
+
+    /**
+     * Loads the searchable text (title, description, subtask titles) of all
+     * of a user's tasks in one query, to build the TaskSearchIndex.
+     *
+     * @param userId The ID of the logged-in user.
+     * @return One SearchDocument per task.
+     */
+    public List<SearchDocument> getSearchDocuments(int userId) {
+        List<SearchDocument> documents = new ArrayList<>();
+        String sql = "SELECT t.task_id, t.category_id, t.title, t.description, s.title AS subtask_title " +
+                     "FROM tasks t " +
+                     "LEFT JOIN subtasks s ON s.task_id = t.task_id " +
+                     "WHERE t.user_id = ? " +
+                     "ORDER BY t.task_id";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, userId);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                int currentTaskId = -1;
+                int categoryId = 0;
+                String title = null;
+                String description = null;
+                List<String> subtaskTitles = null;
+
+                while (rs.next()) {
+                    int taskId = rs.getInt("task_id");
+                    if (taskId != currentTaskId) {
+                        // Rows are grouped by task; finish the previous one
+                        if (subtaskTitles != null) {
+                            documents.add(new SearchDocument(currentTaskId, categoryId, title, description, subtaskTitles));
+                        }
+                        currentTaskId = taskId;
+                        categoryId = rs.getInt("category_id"); // 0 if NULL
+                        title = rs.getString("title");
+                        description = rs.getString("description");
+                        subtaskTitles = new ArrayList<>();
+                    }
+                    String subtaskTitle = rs.getString("subtask_title");
+                    if (subtaskTitle != null) {
+                        subtaskTitles.add(subtaskTitle);
+                    }
+                }
+                if (subtaskTitles != null) {
+                    documents.add(new SearchDocument(currentTaskId, categoryId, title, description, subtaskTitles));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("SQL Error getting search documents: " + e.getMessage());
+        }
+        return documents;
+    }
+
+    /**
+     * Loads the subtasks of all the given tasks with a single IN-list query
+     * and attaches them to their tasks.
+     */
+    private void attachSubtasks(Connection conn, List<Task> tasks) throws SQLException {
+        if (tasks.isEmpty()) {
+            return;
+        }
+
+        HashMap<Integer, List<Subtask>> subtasksByTaskId = new HashMap<>();
+        StringBuilder sql = new StringBuilder(
+                "SELECT subtask_id, task_id, title, status FROM subtasks WHERE task_id IN (");
+        for (int i = 0; i < tasks.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+            subtasksByTaskId.put(tasks.get(i).getTaskId(), new ArrayList<>());
+        }
+        sql.append(") ORDER BY subtask_id");
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < tasks.size(); i++) {
+                pstmt.setInt(i + 1, tasks.get(i).getTaskId());
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    int taskId = rs.getInt("task_id");
+                    subtasksByTaskId.get(taskId).add(new Subtask(
+                            rs.getInt("subtask_id"), taskId,
+                            rs.getString("title"), rs.getString("status")));
+                }
+            }
+        }
+
+        for (Task task : tasks) {
+            task.setSubtasks(subtasksByTaskId.get(task.getTaskId()));
+        }
+    }
+
+    /**
+     * Runs one TaskQueryBuilder page query.
+     * @return The rows in query order (reversed display order when going backwards).
+     */
+    private List<Task> queryPage(Connection conn, TaskQuery query, Task anchor, boolean forward, int limit)
+            throws SQLException {
+        List<Task> tasks = new ArrayList<>();
+        TaskQueryBuilder builder = TaskQueryBuilder.page(query, anchor, forward, limit);
+        try (PreparedStatement pstmt = conn.prepareStatement(builder.getSql())) {
+            builder.bind(pstmt);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                Category category = null;
+                while (rs.next()) {
+                    String categoryName = rs.getString("category_name");
+                    if (category == null && categoryName != null) {
+                        category = new Category(query.getCategoryId(), categoryName);
+                    }
+                    tasks.add(mapTask(rs, query.getUserId(), category));
+                }
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * A page of index search results in ranked order: walks the ranked IDs
+     * from the anchor's rank, one slice at a time, until the filter has let
+     * through enough tasks.
+     * @return The rows in walking order (reversed display order when going backwards).
+     */
+    private List<Task> rankedPage(Connection conn, TaskQuery query, Task anchor, boolean forward, int limit)
+            throws SQLException {
+        List<Task> tasks = new ArrayList<>();
+        List<Integer> ranked = query.getRankedTaskIds();
+        int position = anchor == null ? (forward ? -1 : ranked.size()) : ranked.indexOf(anchor.getTaskId());
+        if (position < 0 && anchor != null) {
+            return tasks; // Not one of the results, so no position to continue from
+        }
+
+        Map<Integer, Integer> rankById = new HashMap<>();
+        for (int rank = 0; rank < ranked.size(); rank++) {
+            rankById.put(ranked.get(rank), rank);
+        }
+        Comparator<Task> byRank = Comparator.comparingInt(task -> rankById.get(task.getTaskId()));
+
+        int next = forward ? position + 1 : position;
+        while (tasks.size() < limit && (forward ? next < ranked.size() : next > 0)) {
+            List<Integer> slice = forward
+                    ? ranked.subList(next, Math.min(ranked.size(), next + ID_CHUNK_SIZE))
+                    : ranked.subList(Math.max(0, next - ID_CHUNK_SIZE), next);
+            next = forward ? next + slice.size() : next - slice.size();
+
+            List<Task> found = queryPage(conn, query.withRankedTaskIds(slice), null, true, slice.size());
+            found.sort(forward ? byRank : byRank.reversed());
+            tasks.addAll(found.subList(0, Math.min(found.size(), limit - tasks.size())));
+        }
+        return tasks;
+    }
+
+    /**
+     * A page of index search results in a chosen sort: the best page of
+     * each slice of the ranked IDs, merged. Every task of the real page is
+     * on the page of its own slice, so nothing is missed.
+     * @return The rows in query order (reversed display order when going backwards).
+     */
+    private List<Task> sortedRankedPage(Connection conn, TaskQuery query, Task anchor, boolean forward, int limit)
+            throws SQLException {
+        List<Integer> ranked = query.getRankedTaskIds();
+        if (ranked.size() <= ID_CHUNK_SIZE) {
+            return queryPage(conn, query, anchor, forward, limit);
+        }
+        List<Task> tasks = new ArrayList<>();
+        for (int from = 0; from < ranked.size(); from += ID_CHUNK_SIZE) {
+            List<Integer> slice = ranked.subList(from, Math.min(ranked.size(), from + ID_CHUNK_SIZE));
+            tasks.addAll(queryPage(conn, query.withRankedTaskIds(slice), anchor, forward, limit));
+        }
+        Comparator<Task> order = query.getSort().comparator();
+        tasks.sort(forward ? order : order.reversed());
+        return new ArrayList<>(tasks.subList(0, Math.min(tasks.size(), limit)));
+    }
+
+    /**
+     * Builds a Task from the task columns of the current result set row.
+     */
+    private Task mapTask(ResultSet rs, int userId, Category category) throws SQLException {
+        // The Task only creates its JavaFX properties if the UI binds to it
+        return new Task(mapRecord(rs, userId, category));
+    }
+
+    /**
+     * Reads the current row of a task query into an immutable record.
+     */
+    private TaskRecord mapRecord(ResultSet rs, int userId, Category category) throws SQLException {
+        java.sql.Date dueDate = rs.getDate("due_date");
+        return TaskRecord.fromDatabase(
+                rs.getInt("task_id"),
+                userId,
+                rs.getString("title"),
+                rs.getString("description"),
+                rs.getString("priority"),
+                dueDate != null ? dueDate.toLocalDate() : null,
+                rs.getString("status"),
+                category
+        );
+    }
+    
     // We will add more methods here later:
     /**
      * Creates a new task in the database.
@@ -86,13 +490,17 @@ public class TaskDAO {
      * or null if the creation failed.
      */
     public Task createTask(Task task) {
-        String sql = "INSERT INTO tasks (user_id, category_id, title, description, priority, due_date, status) " +
-                     "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        String sql = "INSERT INTO tasks (user_id, category_id, title, description, priority, due_date, status, " +
+                     "updated_at, row_version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
         // Use Statement.RETURN_GENERATED_KEYS to get the new task_id
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
+            // Stamped for sync, see SyncClock
+            conn.setAutoCommit(false);
+            long version = SyncClock.next(conn, task.getUserId());
+
             pstmt.setInt(1, task.getUserId());
 
             if (task.getCategory() != null) {
@@ -112,6 +520,8 @@ public class TaskDAO {
             }
 
             pstmt.setString(7, task.getStatus().name());
+            pstmt.setLong(8, System.currentTimeMillis());
+            pstmt.setLong(9, version);
 
             int rowsAffected = pstmt.executeUpdate();
 
@@ -120,18 +530,13 @@ public class TaskDAO {
                 try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
                     if (generatedKeys.next()) {
                         int newTaskId = generatedKeys.getInt(1);
+                        conn.commit();
 
                         // Return a new Task object with the correct ID
-                        return new Task(
-                                newTaskId,
-                                task.getUserId(),
-                                task.getTitle(),
-                                task.getDescription(),
-                                task.getPriority().name(),
-                                task.getDueDate(),
-                                task.getStatus().name(),
-                                task.getCategory()
-                        );
+                        Task createdTask = new Task(task.toRecord().withTaskId(newTaskId));
+                        // A brand-new task has no subtasks yet
+                        createdTask.setSubtasks(new ArrayList<>());
+                        return createdTask;
                     }
                 }
             }
@@ -158,12 +563,18 @@ public class TaskDAO {
                      "priority = ?, " +
                      "due_date = ?, " +
                      "status = ?, " +
-                     "category_id = ? " +
+                     "category_id = ?, " +
+                     "updated_at = ?, " +
+                     "row_version = ? " +
                      "WHERE task_id = ?";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
+            // Stamped for sync, see SyncClock
+            conn.setAutoCommit(false);
+            long version = SyncClock.next(conn, task.getUserId());
+
             // Set the parameters for the UPDATE statement
             pstmt.setString(1, task.getTitle());
             pstmt.setString(2, task.getDescription());
@@ -187,11 +598,15 @@ public class TaskDAO {
                 pstmt.setNull(6, java.sql.Types.INTEGER);
             }
 
+            pstmt.setLong(7, System.currentTimeMillis());
+            pstmt.setLong(8, version);
+
             // Set the WHERE clause parameter
-            pstmt.setInt(7, task.getTaskId());
+            pstmt.setInt(9, task.getTaskId());
 
             // Execute the update
             int rowsAffected = pstmt.executeUpdate();
+            conn.commit();
 
             // Return true if exactly one row was updated
             return rowsAffected > 0;
@@ -211,13 +626,30 @@ public class TaskDAO {
      */
     public boolean deleteTask(int taskId) {
         String sql = "DELETE FROM tasks WHERE task_id = ?";
+        String subtasksSql = "DELETE FROM subtasks WHERE task_id = ?";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
+            // The tombstone tells sync clients, who drop the subtasks with the task
+            conn.setAutoCommit(false);
+            String ownerSql = "SELECT user_id FROM tasks WHERE task_id = ?";
+            long version = SyncClock.nextForOwner(conn, ownerSql, taskId);
+            if (version < 0) {
+                return false; // No such task
+            }
+            SyncClock.recordDelete(conn, "tasks", taskId, ownerSql, version);
+
+            // The subtasks first, in the same transaction (not left to ON DELETE CASCADE)
+            try (PreparedStatement subtasksStmt = conn.prepareStatement(subtasksSql)) {
+                subtasksStmt.setInt(1, taskId);
+                subtasksStmt.executeUpdate();
+            }
+
             pstmt.setInt(1, taskId);
 
             int rowsAffected = pstmt.executeUpdate();
+            conn.commit();
 
             // Return true if exactly one row was deleted
             return rowsAffected > 0;
@@ -227,4 +659,269 @@ public class TaskDAO {
             return false;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Updates only the status column of many tasks in one JDBC batch.
+     * Used by the StatusWriteBehindQueue when it flushes checkbox toggles.
+     *
+     * @param statuses Map of task_id to its new status.
+     * @return true if every update was written, false otherwise.
+     */
+    public boolean updateTaskStatuses(Map<Integer, Status> statuses) {
+        if (statuses.isEmpty()) {
+            return true;
+        }
+        String sql = "UPDATE tasks SET status = ?, updated_at = ?, row_version = ? WHERE task_id = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            // One transaction for the whole batch. If anything fails the pool
+            // rolls the uncommitted work back when the connection is returned.
+            conn.setAutoCommit(false);
+            // Each task is stamped by its owner's clock; tasks that no longer exist are skipped
+            Map<Integer, Long> versions = SyncClock.nextForOwners(conn,
+                    "SELECT task_id, user_id FROM tasks WHERE task_id IN ", statuses.keySet());
+            long now = System.currentTimeMillis();
+
+            for (Map.Entry<Integer, Status> entry : statuses.entrySet()) {
+                Long version = versions.get(entry.getKey());
+                if (version == null) {
+                    continue;
+                }
+                pstmt.setString(1, entry.getValue().name());
+                pstmt.setLong(2, now);
+                pstmt.setLong(3, version);
+                pstmt.setInt(4, entry.getKey());
+                pstmt.addBatch();
+            }
+
+            pstmt.executeBatch();
+            conn.commit();
+            return true;
+
+        } catch (SQLException e) {
+            System.err.println("SQL Error updating task statuses: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // --- Bulk operations ---
+    // Each runs in one transaction with one sync version, as multi-row
+    // statements over IN lists of up to ID_CHUNK_SIZE task IDs. Only the
+    // user's own tasks are touched. They return how many tasks changed,
+    // or -1 if the operation failed (then nothing changed).
+
+    /**
+     * Sets the status of many tasks (e.g. completes them all).
+     */
+    public int updateTasksStatus(int userId, Collection<Integer> taskIds, Status status) {
+        return updateInBulk(userId, taskIds, "status", status.name(), null, "updating task statuses");
+    }
+
+    /**
+     * Sets the priority of many tasks.
+     */
+    public int updateTasksPriority(int userId, Collection<Integer> taskIds, Priority priority) {
+        return updateInBulk(userId, taskIds, "priority", priority.name(), null, "updating task priorities");
+    }
+
+    /**
+     * Moves many tasks to a category.
+     *
+     * @param category The new category, or null for none. Fails (-1) if it isn't the user's.
+     */
+    public int moveTasks(int userId, Collection<Integer> taskIds, Category category) {
+        Integer categoryId = category != null ? category.getCategoryId() : null;
+        return updateInBulk(userId, taskIds, "category_id", categoryId, categoryId, "moving tasks");
+    }
+
+    /**
+     * Inserts many new tasks (an import) with multi-row INSERTs, all in one
+     * transaction. The new IDs are not read back: reload the list afterwards.
+     *
+     * @param tasks The tasks to insert; their task IDs are ignored.
+     * @return How many tasks were inserted, or -1 if the insert failed (then none are).
+     */
+    public int insertTasks(List<TaskRecord> tasks) {
+        if (tasks.isEmpty()) {
+            return 0;
+        }
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            List<Integer> userIds = new ArrayList<>();
+            for (TaskRecord task : tasks) {
+                userIds.add(task.getUserId());
+            }
+            Map<Integer, Long> versions = SyncClock.next(conn, userIds);
+            long now = System.currentTimeMillis();
+            int inserted = 0;
+            for (int from = 0; from < tasks.size(); from += INSERT_ROWS_PER_STATEMENT) {
+                List<TaskRecord> rows = tasks.subList(from, Math.min(tasks.size(), from + INSERT_ROWS_PER_STATEMENT));
+                StringBuilder sql = new StringBuilder(
+                        "INSERT INTO tasks (user_id, category_id, title, description, priority, due_date, status, " +
+                        "updated_at, row_version) VALUES ");
+                for (int i = 0; i < rows.size(); i++) {
+                    sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, ?, ?, ?, ?, ?)");
+                }
+
+                try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+                    int index = 1;
+                    for (TaskRecord task : rows) {
+                        pstmt.setInt(index++, task.getUserId());
+                        if (task.getCategory() != null) {
+                            pstmt.setInt(index++, task.getCategoryId());
+                        } else {
+                            pstmt.setNull(index++, Types.INTEGER);
+                        }
+                        pstmt.setString(index++, task.getTitle());
+                        pstmt.setString(index++, task.getDescription());
+                        pstmt.setString(index++, task.getPriority().name());
+                        if (task.getDueDate() != null) {
+                            pstmt.setDate(index++, java.sql.Date.valueOf(task.getDueDate()));
+                        } else {
+                            pstmt.setNull(index++, Types.DATE);
+                        }
+                        pstmt.setString(index++, task.getStatus().name());
+                        pstmt.setLong(index++, now);
+                        pstmt.setLong(index++, versions.get(task.getUserId()));
+                    }
+                    inserted += pstmt.executeUpdate();
+                }
+            }
+            conn.commit();
+            return inserted;
+
+        } catch (SQLException e) {
+            System.err.println("SQL Error inserting tasks: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Deletes many tasks and their subtasks.
+     */
+    public int deleteTasks(int userId, Collection<Integer> taskIds) {
+        if (taskIds.isEmpty()) {
+            return 0;
+        }
+        List<Integer> ids = new ArrayList<>(taskIds);
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            long version = SyncClock.next(conn, userId);
+            int deleted = 0;
+            for (int from = 0; from < ids.size(); from += ID_CHUNK_SIZE) {
+                List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + ID_CHUNK_SIZE));
+                // Tombstones first, while the rows (and their owners) are still there
+                SyncClock.recordDeletes(conn, "tasks", "task_id", userId, chunk, version);
+                String inChunk = "user_id = ? AND task_id IN " + placeholders(chunk.size());
+                String subtasksSql = "DELETE FROM subtasks WHERE task_id IN (SELECT task_id FROM tasks WHERE "
+                        + inChunk + ")";
+                try (PreparedStatement pstmt = conn.prepareStatement(subtasksSql)) {
+                    pstmt.setInt(1, userId);
+                    bindIds(pstmt, 2, chunk);
+                    pstmt.executeUpdate();
+                }
+                String sql = "DELETE FROM tasks WHERE " + inChunk;
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setInt(1, userId);
+                    bindIds(pstmt, 2, chunk);
+                    deleted += pstmt.executeUpdate();
+                }
+            }
+            conn.commit();
+            return deleted;
+
+        } catch (SQLException e) {
+            System.err.println("SQL Error deleting tasks: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Sets one column of many tasks, chunk by chunk, in one transaction.
+     *
+     * @param value The new value (null writes NULL).
+     * @param categoryId A category the change puts the tasks in, or null;
+     *                   nothing changes (-1) unless it is the user's.
+     */
+    private int updateInBulk(int userId, Collection<Integer> taskIds, String column, Object value,
+                             Integer categoryId, String action) {
+        if (taskIds.isEmpty()) {
+            return 0;
+        }
+        List<Integer> ids = new ArrayList<>(taskIds);
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            // If anything fails the pool rolls the uncommitted chunks back
+            conn.setAutoCommit(false);
+            long version = SyncClock.next(conn, userId);
+            // The clock before the category, like CategoryDAO.deleteCategory
+            if (categoryId != null && !lockCategory(conn, userId, categoryId)) {
+                return -1;
+            }
+            long now = System.currentTimeMillis();
+            int updated = 0;
+            for (int from = 0; from < ids.size(); from += ID_CHUNK_SIZE) {
+                List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + ID_CHUNK_SIZE));
+                // Full chunks share one SQL string, so the statement cache reuses them
+                String sql = "UPDATE tasks SET " + column + " = ?, updated_at = ?, row_version = ? " +
+                             "WHERE user_id = ? AND task_id IN " + placeholders(chunk.size());
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    if (value == null) {
+                        pstmt.setNull(1, Types.INTEGER);
+                    } else {
+                        pstmt.setObject(1, value);
+                    }
+                    pstmt.setLong(2, now);
+                    pstmt.setLong(3, version);
+                    pstmt.setInt(4, userId);
+                    bindIds(pstmt, 5, chunk);
+                    updated += pstmt.executeUpdate();
+                }
+            }
+            conn.commit();
+            return updated;
+
+        } catch (SQLException e) {
+            System.err.println("SQL Error " + action + ": " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Locks one of a user's category rows until the transaction ends, so it
+     * can't be deleted while tasks move into it.
+     *
+     * @return False if the user has no such category.
+     */
+    private static boolean lockCategory(Connection conn, int userId, int categoryId) throws SQLException {
+        String sql = "SELECT category_id FROM categories WHERE user_id = ? AND category_id = ? FOR UPDATE";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, userId);
+            pstmt.setInt(2, categoryId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /**
+     * @return "(?, ?, ...)" with count placeholders.
+     */
+    private static String placeholders(int count) {
+        StringBuilder sql = new StringBuilder("(");
+        for (int i = 0; i < count; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        return sql.append(")").toString();
+    }
+
+    private static void bindIds(PreparedStatement pstmt, int firstIndex, List<Integer> ids) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) {
+            pstmt.setInt(firstIndex + i, ids.get(i));
+        }
+    }
+}
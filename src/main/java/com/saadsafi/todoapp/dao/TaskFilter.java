@@ -0,0 +1,53 @@
+package com.saadsafi.todoapp.dao;
+
+import com.saadsafi.todoapp.model.Priority;
+import com.saadsafi.todoapp.model.Status;
+import com.saadsafi.todoapp.model.Task;
+import java.time.LocalDate;
+
+/**
+ * The choices in the Filter dialog. TaskQueryBuilder turns them into WHERE
+ * conditions; matches() is the same rule in memory, for tasks that are
+ * created or edited locally and never went through a query.
+ */
+public enum TaskFilter {
+    ALL("Show All"),
+    PENDING("Show Pending Only"),
+    COMPLETED("Show Completed Only"),
+    DUE_TODAY("Show Due Today"),
+    HIGH_PRIORITY("Show High Priority");
+
+    private final String label;
+
+    TaskFilter(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @return true if the task passes this filter.
+     */
+    public boolean matches(Task task) {
+        switch (this) {
+            case PENDING:
+                return task.getStatus() == Status.PENDING;
+            case COMPLETED:
+                return task.getStatus() == Status.COMPLETED;
+            case DUE_TODAY:
+                return task.getDueDate() != null && task.getDueDate().isEqual(LocalDate.now());
+            case HIGH_PRIORITY:
+                return task.getPriority() == Priority.HIGH;
+            case ALL:
+            default:
+                return true;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
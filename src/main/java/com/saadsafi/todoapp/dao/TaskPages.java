@@ -0,0 +1,73 @@
+package com.saadsafi.todoapp.dao;
+
+import com.saadsafi.todoapp.model.Task;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cuts task list pages from tasks that are already in memory, with the
+ * same results TaskDAO.getTaskPage gets from SQL. Used by the DAOs that
+ * serve reads from memory (CachingTaskDAO, JournalTaskDAO).
+ */
+final class TaskPages {
+
+    private TaskPages() {
+    }
+
+    /**
+     * The in-memory version of TaskDAO.getTaskPage: filter, sort, then seek past the anchor.
+     */
+    static List<Task> page(List<Task> tasks, TaskQuery query, Task anchor, boolean forward, int limit) {
+        List<Integer> rankedIds = query.getRankedTaskIds();
+        Map<Integer, Integer> rankById = new HashMap<>();
+        if (rankedIds != null) {
+            for (int rank = 0; rank < rankedIds.size(); rank++) {
+                rankById.put(rankedIds.get(rank), rank);
+            }
+            if (anchor != null && !rankById.containsKey(anchor.getTaskId())) {
+                return new ArrayList<>(); // Not one of the results, so no position to continue from
+            }
+        }
+
+        List<Task> matching = new ArrayList<>();
+        for (Task task : tasks) {
+            if (query.matchesExceptSearch(task)
+                    && (rankedIds != null ? rankById.containsKey(task.getTaskId()) : query.matchesSearch(task))) {
+                matching.add(task);
+            }
+        }
+
+        // Index search results: show the best matches first
+        Comparator<Task> order = rankedIds != null && query.getSort() == TaskSort.DEFAULT
+                ? Comparator.comparingInt(task -> rankById.get(task.getTaskId()))
+                : query.getSort().comparator();
+        matching.sort(order);
+
+        int from = 0;
+        int to = matching.size();
+        if (anchor != null) {
+            // First position after (or at) the anchor in this order
+            int split = 0;
+            while (split < matching.size() && order.compare(matching.get(split), anchor) < 0) {
+                split++;
+            }
+            if (forward) {
+                from = split;
+                if (from < matching.size() && matching.get(from).getTaskId() == anchor.getTaskId()) {
+                    from++;
+                }
+            } else {
+                to = split;
+            }
+        }
+        if (forward) {
+            to = Math.min(to, from + limit);
+        } else {
+            from = Math.max(from, to - limit);
+        }
+        return new ArrayList<>(matching.subList(from, to));
+    }
+}
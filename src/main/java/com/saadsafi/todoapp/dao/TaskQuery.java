@@ -0,0 +1,115 @@
+package com.saadsafi.todoapp.dao;
+
+import com.saadsafi.todoapp.model.Task;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Everything that decides which tasks the task list shows, and in what order:
+ * the user and category, the search text, the filter and the sort.
+ *
+ * Immutable; the with*() methods return a modified copy.
+ */
+public final class TaskQuery {
+
+    private final int userId;
+    private final int categoryId;
+    private final String searchText; // never null, "" means no search
+    private final TaskFilter filter;
+    private final TaskSort sort;
+    // All search results from the in-memory index, best first (null = search in SQL)
+    private final List<Integer> rankedTaskIds;
+
+    public TaskQuery(int userId, int categoryId) {
+        this(userId, categoryId, "", TaskFilter.ALL, TaskSort.DEFAULT, null);
+    }
+
+    private TaskQuery(int userId, int categoryId, String searchText, TaskFilter filter, TaskSort sort,
+                      List<Integer> rankedTaskIds) {
+        this.userId = userId;
+        this.categoryId = categoryId;
+        this.searchText = searchText == null ? "" : searchText.trim();
+        this.filter = filter == null ? TaskFilter.ALL : filter;
+        this.sort = sort == null ? TaskSort.DEFAULT : sort;
+        this.rankedTaskIds = rankedTaskIds == null ? null : Collections.unmodifiableList(rankedTaskIds);
+    }
+
+    public TaskQuery withCategory(int categoryId) {
+        return new TaskQuery(userId, categoryId, searchText, filter, sort, rankedTaskIds);
+    }
+
+    public TaskQuery withSearchText(String searchText) {
+        return new TaskQuery(userId, categoryId, searchText, filter, sort, null);
+    }
+
+    public TaskQuery withFilter(TaskFilter filter) {
+        return new TaskQuery(userId, categoryId, searchText, filter, sort, rankedTaskIds);
+    }
+
+    public TaskQuery withSort(TaskSort sort) {
+        return new TaskQuery(userId, categoryId, searchText, filter, sort, rankedTaskIds);
+    }
+
+    /**
+     * Uses search results from the TaskSearchIndex instead of a LIKE scan in SQL.
+     * The query then returns only these tasks (still filtered), and with the
+     * default sort they come back in this ranked order.
+     *
+     * The two searches match differently: the index wants every word of the
+     * text as the start of some word in the task, SQL wants the whole text
+     * somewhere in the title or description. Only the index results are
+     * ranked, so the index is used whenever it is built.
+     *
+     * @param rankedTaskIds Every matching task ID, best match first (not
+     *        cut to a page, so the filter sees all of them).
+     */
+    public TaskQuery withRankedTaskIds(List<Integer> rankedTaskIds) {
+        return new TaskQuery(userId, categoryId, searchText, filter, sort, rankedTaskIds);
+    }
+
+    // --- Getters ---
+
+    public int getUserId() { return userId; }
+    public int getCategoryId() { return categoryId; }
+    public String getSearchText() { return searchText; }
+    public TaskFilter getFilter() { return filter; }
+    public TaskSort getSort() { return sort; }
+    public List<Integer> getRankedTaskIds() { return rankedTaskIds; }
+
+    public boolean hasSearchText() {
+        return !searchText.isEmpty();
+    }
+
+    /**
+     * The same rules as the SQL TaskQueryBuilder generates, evaluated in
+     * memory. Used to decide whether a locally created or edited task
+     * belongs in the current list.
+     */
+    public boolean matches(Task task) {
+        return matchesExceptSearch(task) && matchesSearch(task);
+    }
+
+    /**
+     * The user, category and filter part of {@link #matches}.
+     */
+    public boolean matchesExceptSearch(Task task) {
+        return task.getUserId() == userId
+                && task.getCategory() != null
+                && task.getCategory().getCategoryId() == categoryId
+                && filter.matches(task);
+    }
+
+    /**
+     * The search text part of {@link #matches} (the SQL LIKE search, not the index).
+     */
+    public boolean matchesSearch(Task task) {
+        if (!hasSearchText()) {
+            return true;
+        }
+        String needle = searchText.toLowerCase(Locale.ROOT);
+        boolean inTitle = task.getTitle() != null && task.getTitle().toLowerCase(Locale.ROOT).contains(needle);
+        boolean inDescription = task.getDescription() != null && task.getDescription().toLowerCase(Locale.ROOT).contains(needle);
+        return inTitle || inDescription;
+    }
+}
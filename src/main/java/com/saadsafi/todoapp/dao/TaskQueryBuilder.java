@@ -0,0 +1,162 @@
+package com.saadsafi.todoapp.dao;
+
+import com.saadsafi.todoapp.model.Priority;
+import com.saadsafi.todoapp.model.Status;
+import com.saadsafi.todoapp.model.Task;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Turns a TaskQuery into a parameterized SELECT, so search, filtering and
+ * sorting happen in the database and the client only receives the rows it
+ * is going to display.
+ *
+ * Every query is anchored on (user_id, category_id), the leading columns
+ * of the task indexes in db/schema.sql, so the database only reads one
+ * user's category. Within it, the filters and the Default and Title sorts
+ * compare plain columns and can use the rest of an index; the search text
+ * (a "contains" LIKE) and the Priority and Due Date sorts (CASE/COALESCE
+ * expressions) cannot, and are evaluated on each row of the category.
+ */
+public final class TaskQueryBuilder {
+
+    private final StringBuilder sql = new StringBuilder();
+    private final List<Object> params = new ArrayList<>();
+
+    private TaskQueryBuilder() {
+    }
+
+    /**
+     * Builds the SQL for one keyset page of a query.
+     *
+     * @param query What to list.
+     * @param anchor Continue after (or before) this task, or null for the first page.
+     * @param forward true to read the rows after the anchor, false for the rows before it.
+     * @param limit Page size.
+     */
+    public static TaskQueryBuilder page(TaskQuery query, Task anchor, boolean forward, int limit) {
+        TaskQueryBuilder builder = new TaskQueryBuilder();
+        TaskSort sort = query.getSort();
+        String direction = forward ? "ASC" : "DESC";
+        String compare = forward ? ">" : "<";
+
+        builder.sql.append("SELECT t.*, c.category_name ")
+                   .append("FROM tasks t ")
+                   .append("LEFT JOIN categories c ON t.category_id = c.category_id ")
+                   .append("WHERE t.user_id = ? AND t.category_id = ?");
+        builder.params.add(query.getUserId());
+        builder.params.add(query.getCategoryId());
+
+        builder.appendFilter(query.getFilter());
+        if (query.getRankedTaskIds() != null) {
+            // Already searched by the in-memory index, just fetch those rows
+            builder.appendTaskIds(query.getRankedTaskIds());
+        } else {
+            builder.appendSearch(query.getSearchText());
+        }
+
+        // --- Keyset "seek" condition ---
+        if (anchor != null) {
+            if (sort == TaskSort.DEFAULT) {
+                builder.sql.append(" AND t.task_id ").append(compare).append(" ?");
+            } else {
+                // (key, task_id) > (anchorKey, anchorId), spelled out since not every database supports row comparisons
+                String expr = sort.getSqlExpression();
+                builder.sql.append(" AND (").append(expr).append(' ').append(compare).append(" ?")
+                           .append(" OR (").append(expr).append(" = ? AND t.task_id ").append(compare).append(" ?))");
+                Object key = sort.keyOf(anchor);
+                builder.params.add(key);
+                builder.params.add(key);
+            }
+            builder.params.add(anchor.getTaskId());
+        }
+
+        // --- Order and limit ---
+        if (sort == TaskSort.DEFAULT) {
+            builder.sql.append(" ORDER BY t.task_id ").append(direction);
+        } else {
+            builder.sql.append(" ORDER BY ").append(sort.getSqlExpression()).append(' ').append(direction)
+                       .append(", t.task_id ").append(direction);
+        }
+        builder.sql.append(" LIMIT ?");
+        builder.params.add(limit);
+
+        return builder;
+    }
+
+    public String getSql() {
+        return sql.toString();
+    }
+
+    public List<Object> getParams() {
+        return params;
+    }
+
+    /**
+     * Binds all the collected parameters onto a statement prepared from getSql().
+     */
+    public void bind(PreparedStatement pstmt) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            pstmt.setObject(i + 1, params.get(i));
+        }
+    }
+
+    // --- Internal helpers ---
+
+    private void appendFilter(TaskFilter filter) {
+        switch (filter) {
+            case PENDING:
+                sql.append(" AND t.status = ?");
+                params.add(Status.PENDING.name());
+                break;
+            case COMPLETED:
+                sql.append(" AND t.status = ?");
+                params.add(Status.COMPLETED.name());
+                break;
+            case DUE_TODAY:
+                sql.append(" AND t.due_date = ?");
+                params.add(java.sql.Date.valueOf(LocalDate.now()));
+                break;
+            case HIGH_PRIORITY:
+                sql.append(" AND t.priority = ?");
+                params.add(Priority.HIGH.name());
+                break;
+            case ALL:
+            default:
+                break;
+        }
+    }
+
+    private void appendSearch(String searchText) {
+        if (searchText.isEmpty()) {
+            return;
+        }
+        // Case-insensitive "contains", with LIKE wildcards in the user's text escaped.
+        // The leading % means no index helps; the (user_id, category_id) anchor keeps the scan small.
+        String pattern = "%" + escapeLike(searchText.toLowerCase(Locale.ROOT)) + "%";
+        sql.append(" AND (LOWER(t.title) LIKE ? ESCAPE '!' OR LOWER(t.description) LIKE ? ESCAPE '!')");
+        params.add(pattern);
+        params.add(pattern);
+    }
+
+    private void appendTaskIds(List<Integer> taskIds) {
+        if (taskIds.isEmpty()) {
+            sql.append(" AND 1 = 0"); // Nothing matched
+            return;
+        }
+        sql.append(" AND t.task_id IN (");
+        for (int i = 0; i < taskIds.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+            params.add(taskIds.get(i));
+        }
+        sql.append(')');
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+}
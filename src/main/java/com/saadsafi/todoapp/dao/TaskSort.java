@@ -0,0 +1,116 @@
+package com.saadsafi.todoapp.dao;
+
+import com.saadsafi.todoapp.model.Task;
+import java.time.LocalDate;
+import java.util.Comparator;
+
+/**
+ * The sort orders the task list supports, and how each one maps onto SQL.
+ *
+ * Every order is made total by adding task_id as a tie-breaker, which is
+ * what lets TaskDAO.getTaskPage seek straight to "the rows after this task"
+ * (keyset pagination) instead of counting through an OFFSET. DEFAULT and
+ * TITLE order by plain columns, which the task indexes return in order;
+ * PRIORITY and DUE_DATE order by expressions, so their rows are sorted
+ * after they are read.
+ */
+public enum TaskSort {
+    DEFAULT("Default (None)", "t.task_id"),
+    // Same order as the Priority enum: HIGH, MEDIUM, LOW (unknown values count as MEDIUM)
+    PRIORITY("Priority (High-Low)",
+            "CASE t.priority WHEN 'HIGH' THEN 0 WHEN 'MEDIUM' THEN 1 WHEN 'LOW' THEN 2 ELSE 1 END"),
+    // Tasks without a due date go last
+    DUE_DATE("Due Date (Soonest)", "COALESCE(t.due_date, DATE '9999-12-31')"),
+    TITLE("Title (A-Z)", "t.title");
+
+    // Stand-in for "no due date", must match the COALESCE above
+    private static final LocalDate NO_DUE_DATE = LocalDate.of(9999, 12, 31);
+
+    private final String label;
+    private final String sqlExpression;
+
+    TaskSort(String label, String sqlExpression) {
+        this.label = label;
+        this.sqlExpression = sqlExpression;
+    }
+
+    /**
+     * @return The text shown in the Sort dialog.
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @return The SQL expression rows are ordered by (before the task_id tie-breaker).
+     */
+    public String getSqlExpression() {
+        return sqlExpression;
+    }
+
+    /**
+     * Computes the sort key of a task, i.e. the value of getSqlExpression() for its row.
+     * Used to bind the keyset "seek" parameters.
+     */
+    public Object keyOf(Task task) {
+        switch (this) {
+            case PRIORITY:
+                return task.getPriority().ordinal();
+            case DUE_DATE:
+                LocalDate dueDate = task.getDueDate() != null ? task.getDueDate() : NO_DUE_DATE;
+                return java.sql.Date.valueOf(dueDate);
+            case TITLE:
+                return task.getTitle();
+            case DEFAULT:
+            default:
+                return task.getTaskId();
+        }
+    }
+
+    /**
+     * The same order as ORDER BY getSqlExpression(), task_id, for sorting
+     * tasks that are already in memory.
+     * Titles compare case-insensitively, which is exactly how H2 compares
+     * them (the H2 URL sets IGNORECASE). MySQL's default collation,
+     * utf8mb4_0900_ai_ci, also ignores accents, so there titles that differ
+     * only in accents (or that start with an accented letter) can sort
+     * differently in memory than in SQL.
+     */
+    public Comparator<Task> comparator() {
+        Comparator<Task> byKey;
+        switch (this) {
+            case PRIORITY:
+                byKey = Comparator.comparingInt(task -> task.getPriority().ordinal());
+                break;
+            case DUE_DATE:
+                byKey = Comparator.comparing(task -> task.getDueDate() != null ? task.getDueDate() : NO_DUE_DATE);
+                break;
+            case TITLE:
+                byKey = Comparator.comparing(Task::getTitle, String.CASE_INSENSITIVE_ORDER);
+                break;
+            case DEFAULT:
+            default:
+                byKey = (a, b) -> 0;
+                break;
+        }
+        return byKey.thenComparingInt(Task::getTaskId);
+    }
+
+    /**
+     * Looks a sort up by its dialog label.
+     * @return The matching TaskSort, or DEFAULT if the label is unknown.
+     */
+    public static TaskSort fromLabel(String label) {
+        for (TaskSort sort : values()) {
+            if (sort.label.equals(label)) {
+                return sort;
+            }
+        }
+        return DEFAULT;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,36 @@
+package com.saadsafi.todoapp.dao;
+
+import com.saadsafi.todoapp.model.User;
+
+/**
+ * A user's row as stored, including the password hash. Only used while
+ * checking a login; the rest of the app works with User.
+ */
+public final class UserCredentials {
+
+    private final int userId;
+    private final String username;
+    private final String passwordHash;
+
+    public UserCredentials(int userId, String username, String passwordHash) {
+        this.userId = userId;
+        this.username = username;
+        this.passwordHash = passwordHash;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getPasswordHash() {
+        return passwordHash;
+    }
+
+    public User toUser() {
+        return new User(userId, username);
+    }
+}
@@ -15,31 +15,34 @@ public class UserDAO {
 
     /**
      * Registers a new user in the database.
-     * Hashes the password using jBCrypt.
+     * Hashes the password using jBCrypt, on the calling thread; the app
+     * goes through AuthService, which hashes on its own worker pool.
      *
      * @param username The username to register.
      * @param password The plain-text password to hash and store.
      * @return true if registration was successful, false otherwise.
      */
     public boolean registerUser(String username, String password) {
-        // 1. Hash the password
-        String hashedPassword = BCrypt.hashpw(password, BCrypt.gensalt());
+        return createUser(username, BCrypt.hashpw(password, BCrypt.gensalt()));
+    }
 
-        // 2. Create the SQL query
+    /**
+     * Inserts a new user whose password is already hashed.
+     *
+     * @param passwordHash A BCrypt hash of the user's password.
+     * @return true if the user was created, false otherwise (e.g. the username is taken).
+     */
+    public boolean createUser(String username, String passwordHash) {
         String sql = "INSERT INTO users (username, password_hash) VALUES (?, ?)";
 
-        // 3. Use try-with-resources to auto-close the connection
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setString(1, username);
-            pstmt.setString(2, hashedPassword);
+            pstmt.setString(2, passwordHash);
             
-            // 4. Execute the query
-            int rowsAffected = pstmt.executeUpdate();
-            
-            // 5. Return true if one row (the new user) was inserted
-            return rowsAffected > 0;
+            // Return true if one row (the new user) was inserted
+            return pstmt.executeUpdate() > 0;
 
         } catch (SQLException e) {
             // Check for duplicate username (SQL error code 1062)
@@ -53,40 +56,67 @@ public class UserDAO {
     }
 
     /**
-     * Attempts to log in a user.
+     * Attempts to log in a user, checking the password on the calling
+     * thread (see registerUser).
      *
      * @param username The username to check.
      * @param password The plain-text password to verify.
      * @return A User object if login is successful, null otherwise.
      */
     public User loginUser(String username, String password) {
-        String sql = "SELECT user_id, password_hash FROM users WHERE username = ?";
+        UserCredentials credentials = getCredentials(username);
+        if (credentials != null && BCrypt.checkpw(password, credentials.getPasswordHash())) {
+            return credentials.toUser();
+        }
+        // User not found, password mismatch or SQL error
+        return null; 
+    }
+
+    /**
+     * Looks up a user's stored password hash, without checking anything.
+     *
+     * @return The user's ID and hash, or null if there is no such user (or the query failed).
+     */
+    public UserCredentials getCredentials(String username) {
+        String sql = "SELECT user_id, username, password_hash FROM users WHERE username = ?";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setString(1, username);
             
-            // 1. Execute the query
             try (ResultSet rs = pstmt.executeQuery()) {
-                
-                // 2. Check if a user with that username was found
                 if (rs.next()) {
-                    int userId = rs.getInt("user_id");
-                    String storedHash = rs.getString("password_hash");
-
-                    // 3. Verify the plain-text password against the stored hash
-                    if (BCrypt.checkpw(password, storedHash)) {
-                        // Password matches! Return a new User object.
-                        return new User(userId, username);
-                    }
+                    return new UserCredentials(rs.getInt("user_id"), rs.getString("username"),
+                            rs.getString("password_hash"));
                 }
             }
         } catch (SQLException e) {
             System.err.println("SQL Error during login: " + e.getMessage());
         }
-        
-        // 4. If anything fails (user not found, password mismatch, SQL error), return null.
-        return null; 
+        return null;
+    }
+
+    /**
+     * Replaces a user's password hash, but only if it is still the one
+     * that was read (so a password changed meanwhile is kept).
+     *
+     * @return true if the hash was replaced.
+     */
+    public boolean updatePasswordHash(int userId, String oldHash, String newHash) {
+        String sql = "UPDATE users SET password_hash = ? WHERE user_id = ? AND password_hash = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, newHash);
+            pstmt.setInt(2, userId);
+            pstmt.setString(3, oldHash);
+            return pstmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            System.err.println("SQL Error updating password hash: " + e.getMessage());
+            return false;
+        }
     }
-}
+}
\ No newline at end of file
@@ -0,0 +1,526 @@
+package com.saadsafi.todoapp.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A small bounded JDBC connection pool.
+ *
+ * Connections are handed out as proxies: calling close() on them returns the
+ * physical connection to the pool instead of closing it, so all the DAOs can
+ * keep using try-with-resources exactly like before. Their statements and
+ * result sets are proxies too, so a connection error raised while running
+ * a query marks the connection broken, and nothing hands out the physical
+ * connection.
+ */
+public class ConnectionPool {
+
+    // --- Pool configuration ---
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxSize;
+    private final int minIdle;
+    private final long acquireTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long maxLifetimeMillis;
+    private final long validationIntervalMillis;
+    private final int statementCacheSize;
+
+    // --- Pool state ---
+    // Idle connections, most recently used first (LIFO keeps the hot ones warm)
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    // One permit per connection we are allowed to have checked out
+    private final Semaphore permits;
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean shutdown = false;
+
+    // --- Metrics ---
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder evictedCount = new LongAdder();
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+
+    /**
+     * Creates a new pool. No connections are opened until the first borrow
+     * (or until {@link #warmUp()} is called).
+     *
+     * @param statementCacheSize How many prepared statements each connection
+     *                           keeps cached (0 disables the cache).
+     */
+    public ConnectionPool(String url, String user, String password,
+                          int maxSize, int minIdle,
+                          long acquireTimeoutMillis, long idleTimeoutMillis,
+                          long maxLifetimeMillis, long validationIntervalMillis,
+                          int statementCacheSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.minIdle = Math.min(minIdle, maxSize);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.maxLifetimeMillis = maxLifetimeMillis;
+        this.validationIntervalMillis = validationIntervalMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, Math.min(idleTimeoutMillis, maxLifetimeMillis) / 2);
+        housekeeper.scheduleWithFixedDelay(this::evictStaleConnections, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection from the pool, waiting at most the configured
+     * acquisition timeout for one to become free.
+     *
+     * @return A pooled Connection. Closing it hands it back to the pool.
+     * @throws SQLException if the pool is exhausted or a connection cannot be opened.
+     */
+    public Connection getConnection() throws SQLException {
+        if (shutdown) {
+            throw new SQLException("Connection pool has been shut down");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeouts.increment();
+                throw new SQLException("Timed out after " + acquireTimeoutMillis
+                        + " ms waiting for a database connection (active=" + activeConnections.get() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        recordWait(System.nanoTime() - start);
+
+        try {
+            PooledConnection pooled = takeIdleConnection();
+            if (pooled == null) {
+                pooled = openConnection();
+            }
+            activeConnections.incrementAndGet();
+            return pooled.lease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens connections until minIdle of them are sitting in the pool.
+     * Useful at startup so the first real query does not pay the handshake.
+     */
+    public void warmUp() throws SQLException {
+        while (!shutdown && totalConnections.get() < minIdle) {
+            idle.offerFirst(openConnection());
+        }
+    }
+
+    /**
+     * Closes every idle connection and stops the housekeeping thread.
+     * Connections still checked out are closed when they are returned.
+     */
+    public void shutdown() {
+        shutdown = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            discard(pooled);
+        }
+    }
+
+    // --- Metrics getters ---
+
+    public int getActiveConnections() { return activeConnections.get(); }
+    public int getIdleConnections() { return idle.size(); }
+    public int getTotalConnections() { return totalConnections.get(); }
+    public int getMaxSize() { return maxSize; }
+    public long getAcquisitionCount() { return acquisitions.sum(); }
+    public long getTimeoutCount() { return timeouts.sum(); }
+    public long getCreatedCount() { return createdCount.sum(); }
+    public long getEvictedCount() { return evictedCount.sum(); }
+    public long getStatementCacheHits() { return statementCacheHits.sum(); }
+    public long getStatementCacheMisses() { return statementCacheMisses.sum(); }
+
+    public double getStatementCacheHitRate() {
+        long hits = statementCacheHits.sum();
+        long total = hits + statementCacheMisses.sum();
+        return total == 0 ? 0.0 : hits / (double) total;
+    }
+
+    public double getAverageWaitMillis() {
+        long count = acquisitions.sum();
+        return count == 0 ? 0.0 : totalWaitNanos.sum() / (double) count / 1_000_000.0;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * A one-line summary of the pool metrics, handy for logging.
+     */
+    public String describe() {
+        return String.format("pool[active=%d, idle=%d, total=%d/%d, acquired=%d, avgWait=%.2fms, maxWait=%.2fms, timeouts=%d, created=%d, evicted=%d, stmtCache=%d hits/%d misses]",
+                getActiveConnections(), getIdleConnections(), getTotalConnections(), maxSize,
+                getAcquisitionCount(), getAverageWaitMillis(), getMaxWaitMillis(),
+                getTimeoutCount(), getCreatedCount(), getEvictedCount(),
+                getStatementCacheHits(), getStatementCacheMisses());
+    }
+
+    // --- Internal helpers ---
+
+    private void recordWait(long waitNanos) {
+        acquisitions.increment();
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    /**
+     * Pops idle connections until we find one that is still usable.
+     * Connections that were idle for a while are validated with isValid().
+     */
+    private PooledConnection takeIdleConnection() {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            long now = System.currentTimeMillis();
+            if (pooled.isExpired(now, maxLifetimeMillis)) {
+                discard(pooled);
+                continue;
+            }
+            if (now - pooled.lastUsed > validationIntervalMillis && !pooled.isValid()) {
+                discard(pooled);
+                continue;
+            }
+            return pooled;
+        }
+        return null;
+    }
+
+    private PooledConnection openConnection() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, user, password);
+        totalConnections.incrementAndGet();
+        createdCount.increment();
+        return new PooledConnection(physical);
+    }
+
+    /**
+     * Called by a leased connection proxy when the DAO closes it.
+     */
+    private void release(PooledConnection pooled, boolean broken) {
+        activeConnections.decrementAndGet();
+        try {
+            if (broken || shutdown || pooled.isExpired(System.currentTimeMillis(), maxLifetimeMillis)
+                    || !pooled.reset()) {
+                discard(pooled);
+            } else {
+                pooled.lastUsed = System.currentTimeMillis();
+                idle.offerFirst(pooled);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        try {
+            if (pooled.statements != null) {
+                pooled.statements.closeAll();
+            }
+            pooled.physical.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing pooled connection: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs periodically on the housekeeper thread. Removes connections that
+     * have been idle too long (keeping minIdle around) or have outlived
+     * their max lifetime.
+     */
+    private void evictStaleConnections() {
+        long now = System.currentTimeMillis();
+        List<PooledConnection> stale = new ArrayList<>();
+        int idleCount = idle.size();
+
+        // Oldest idle connections sit at the tail of the deque
+        Iterator<PooledConnection> it = idle.descendingIterator();
+        while (it.hasNext()) {
+            PooledConnection pooled = it.next();
+            boolean tooOld = pooled.isExpired(now, maxLifetimeMillis);
+            boolean idleTooLong = now - pooled.lastUsed > idleTimeoutMillis && idleCount > minIdle;
+            if ((tooOld || idleTooLong) && idle.remove(pooled)) {
+                stale.add(pooled);
+                idleCount--;
+            }
+        }
+
+        for (PooledConnection pooled : stale) {
+            evictedCount.increment();
+            discard(pooled);
+        }
+    }
+
+    /**
+     * Wraps one physical JDBC connection plus its bookkeeping.
+     */
+    private final class PooledConnection {
+        private final Connection physical;
+        private final StatementCache statements;
+        private final long createdAt = System.currentTimeMillis();
+        private volatile long lastUsed = createdAt;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statements = statementCacheSize > 0
+                    ? new StatementCache(physical, statementCacheSize, statementCacheHits, statementCacheMisses)
+                    : null;
+        }
+
+        boolean isExpired(long now, long maxLifetime) {
+            return now - createdAt > maxLifetime;
+        }
+
+        boolean isValid() {
+            try {
+                return physical.isValid(2);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Puts the connection back into a clean state before it is reused.
+         * @return false if the connection should be thrown away instead.
+         */
+        boolean reset() {
+            try {
+                if (physical.isClosed()) {
+                    return false;
+                }
+                if (statements != null) {
+                    statements.releaseAll();
+                }
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                physical.clearWarnings();
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Hands out a fresh proxy for this connection. Each lease has its own
+         * closed flag so a double close() can't return the connection twice.
+         */
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new LeaseHandler(this));
+        }
+    }
+
+    /**
+     * The InvocationHandler behind every borrowed Connection.
+     */
+    private final class LeaseHandler implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean closed = false;
+        private boolean broken = false;
+
+        LeaseHandler(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(pooled, broken);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection@" + Integer.toHexString(System.identityHashCode(proxy));
+                default:
+                    break;
+            }
+
+            if (closed) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+
+            if (pooled.statements != null) {
+                int keysFlag = StatementCache.cacheableKeysFlag(method, args);
+                if (keysFlag != -1) {
+                    try {
+                        return guard(pooled.statements.prepare((String) args[0], keysFlag, (Connection) proxy), proxy);
+                    } catch (SQLException e) {
+                        // A cache miss prepares on the server, where a dead link often shows first
+                        throw (SQLException) inspect(e);
+                    }
+                }
+            }
+
+            switch (method.getName()) {
+                case "unwrap":
+                    // The physical connection would bypass the pool
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    throw new SQLException("Pooled connections cannot be unwrapped to " + args[0]);
+                case "isWrapperFor":
+                    return ((Class<?>) args[0]).isInstance(proxy);
+                default:
+                    break;
+            }
+
+            Object result;
+            try {
+                result = method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw inspect(e.getCause());
+            }
+            return result instanceof Statement || result instanceof DatabaseMetaData ? guard(result, proxy) : result;
+        }
+
+        /**
+         * Marks the connection broken if the error says the link is gone.
+         * @return The error, to be rethrown.
+         */
+        Throwable inspect(Throwable error) {
+            // SQLState class 08 = connection exception, don't reuse this one
+            if (error instanceof SQLRecoverableException || error instanceof SQLNonTransientConnectionException) {
+                broken = true;
+            } else if (error instanceof SQLException) {
+                String state = ((SQLException) error).getSQLState();
+                if (state != null && state.startsWith("08")) {
+                    broken = true;
+                }
+            }
+            return error;
+        }
+
+        /**
+         * Wraps a statement, metadata object or result set of this lease in a GuardHandler.
+         *
+         * @param parent What getConnection() (statements, metadata) or getStatement() (result sets) returns.
+         */
+        Object guard(Object target, Object parent) {
+            Class<?> type = target instanceof CallableStatement ? CallableStatement.class
+                    : target instanceof PreparedStatement ? PreparedStatement.class
+                    : target instanceof Statement ? Statement.class
+                    : target instanceof DatabaseMetaData ? DatabaseMetaData.class
+                    : ResultSet.class;
+            return Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{type}, new GuardHandler(this, target, parent));
+        }
+    }
+
+    /**
+     * The InvocationHandler behind the statements, metadata and result sets
+     * of a lease. Passes every call through, but checks the errors with
+     * LeaseHandler.inspect and keeps the proxies from leaking the real objects.
+     */
+    private static final class GuardHandler implements InvocationHandler {
+        private final LeaseHandler lease;
+        private final Object target;
+        private final Object parent;
+
+        GuardHandler(LeaseHandler lease, Object target, Object parent) {
+            this.lease = lease;
+            this.target = target;
+            this.parent = parent;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getConnection":
+                    if (args == null) {
+                        return parent;
+                    }
+                    break;
+                case "getStatement":
+                    if (args == null) {
+                        // Metadata result sets have no statement
+                        return parent instanceof Statement ? parent : null;
+                    }
+                    break;
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    throw new SQLException("Pooled statements cannot be unwrapped to " + args[0]);
+                case "isWrapperFor":
+                    return ((Class<?>) args[0]).isInstance(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return target.toString();
+                default:
+                    break;
+            }
+
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw lease.inspect(e.getCause());
+            }
+            return result instanceof ResultSet ? lease.guard(result, proxy) : result;
+        }
+    }
+}
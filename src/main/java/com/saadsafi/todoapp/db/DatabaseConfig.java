@@ -0,0 +1,209 @@
+package com.saadsafi.todoapp.db;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * Which database to use and how to connect to it.
+ *
+ * Settings are read from, in increasing priority:
+ * - the backend's defaults (see StorageBackend),
+ * - a todoapp.properties file on the classpath,
+ * - ~/.todoapp/todoapp.properties (or the file named by -Dtodoapp.config),
+ * - system properties with the same keys (-Dtodoapp.db.url=...).
+ *
+ * Keys:
+ *   todoapp.db.backend    mysql (default) or h2
+ *   todoapp.db.url        JDBC URL
+ *   todoapp.db.user
+ *   todoapp.db.password
+ *   todoapp.db.bootstrap  true (default) to create missing tables, columns and
+ *                         indexes on startup
+ *   todoapp.tasks.storage database (default) or journal, to keep categories,
+ *                         tasks and subtasks in the local JournalStore instead
+ *                         (users and logins stay in the database)
+ *   todoapp.journal.dir   Where the journal lives, by default ~/.todoapp/journal
+ *   todoapp.sync.enabled  true (default) to copy journal changes to and from
+ *                         the database in the background (see SyncEngine)
+ *   todoapp.auth.bcrypt.cost       BCrypt work factor for new password hashes;
+ *                                  unset (default) to calibrate it at startup
+ *   todoapp.auth.bcrypt.target.ms  Hash time the calibration aims for, 250 by default
+ */
+public final class DatabaseConfig {
+
+    public static final String BACKEND_KEY = "todoapp.db.backend";
+    public static final String URL_KEY = "todoapp.db.url";
+    public static final String USER_KEY = "todoapp.db.user";
+    public static final String PASSWORD_KEY = "todoapp.db.password";
+    public static final String BOOTSTRAP_KEY = "todoapp.db.bootstrap";
+    public static final String TASK_STORAGE_KEY = "todoapp.tasks.storage";
+    public static final String JOURNAL_DIR_KEY = "todoapp.journal.dir";
+    public static final String SYNC_KEY = "todoapp.sync.enabled";
+    public static final String BCRYPT_COST_KEY = "todoapp.auth.bcrypt.cost";
+    public static final String BCRYPT_TARGET_KEY = "todoapp.auth.bcrypt.target.ms";
+
+    private static final long DEFAULT_BCRYPT_TARGET_MS = 250;
+
+    private static final String CONFIG_FILE_KEY = "todoapp.config";
+    private static final String CONFIG_FILE_NAME = "todoapp.properties";
+
+    private final StorageBackend backend;
+    private final String url;
+    private final String user;
+    private final String password;
+    private final boolean bootstrapSchema;
+    private final boolean journalEnabled;
+    private final Path journalDir;
+    private final boolean syncEnabled;
+    private final int bcryptCost;
+    private final long bcryptTargetMillis;
+
+    public DatabaseConfig(StorageBackend backend, String url, String user, String password,
+                          boolean bootstrapSchema, boolean journalEnabled, Path journalDir,
+                          boolean syncEnabled, int bcryptCost, long bcryptTargetMillis) {
+        this.backend = backend;
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.bootstrapSchema = bootstrapSchema;
+        this.journalEnabled = journalEnabled;
+        this.journalDir = journalDir;
+        this.syncEnabled = syncEnabled;
+        this.bcryptCost = bcryptCost;
+        this.bcryptTargetMillis = bcryptTargetMillis;
+    }
+
+    /**
+     * Reads the configuration from the files and system properties above.
+     *
+     * @throws IllegalArgumentException If the configured backend or task storage is unknown,
+     *         or a BCrypt setting is not a number.
+     */
+    public static DatabaseConfig load() {
+        Properties props = new Properties();
+        readClasspathFile(props);
+        readUserFile(props);
+        for (String key : new String[]{BACKEND_KEY, URL_KEY, USER_KEY, PASSWORD_KEY, BOOTSTRAP_KEY,
+                TASK_STORAGE_KEY, JOURNAL_DIR_KEY, SYNC_KEY, BCRYPT_COST_KEY, BCRYPT_TARGET_KEY}) {
+            String value = System.getProperty(key);
+            if (value != null) {
+                props.setProperty(key, value);
+            }
+        }
+
+        StorageBackend backend = StorageBackend.fromName(
+                props.getProperty(BACKEND_KEY, StorageBackend.MYSQL.name()));
+        String bootstrap = props.getProperty(BOOTSTRAP_KEY);
+        String taskStorage = props.getProperty(TASK_STORAGE_KEY, "database").trim();
+        if (!taskStorage.equalsIgnoreCase("database") && !taskStorage.equalsIgnoreCase("journal")) {
+            throw new IllegalArgumentException("Unknown task storage: " + taskStorage);
+        }
+        String journalDir = props.getProperty(JOURNAL_DIR_KEY);
+        String sync = props.getProperty(SYNC_KEY, "true");
+        String bcryptCost = props.getProperty(BCRYPT_COST_KEY);
+        String bcryptTarget = props.getProperty(BCRYPT_TARGET_KEY);
+        return new DatabaseConfig(backend,
+                props.getProperty(URL_KEY, backend.getDefaultUrl()),
+                props.getProperty(USER_KEY, backend.getDefaultUser()),
+                props.getProperty(PASSWORD_KEY, backend.getDefaultPassword()),
+                bootstrap != null ? Boolean.parseBoolean(bootstrap.trim()) : backend.isDefaultBootstrap(),
+                taskStorage.equalsIgnoreCase("journal"),
+                journalDir != null
+                        ? Paths.get(journalDir.trim())
+                        : Paths.get(System.getProperty("user.home"), ".todoapp", "journal"),
+                Boolean.parseBoolean(sync.trim()),
+                bcryptCost != null ? Integer.parseInt(bcryptCost.trim()) : 0,
+                bcryptTarget != null ? Long.parseLong(bcryptTarget.trim()) : DEFAULT_BCRYPT_TARGET_MS);
+    }
+
+    public StorageBackend getBackend() {
+        return backend;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public boolean isBootstrapSchema() {
+        return bootstrapSchema;
+    }
+
+    /**
+     * @return True if categories, tasks and subtasks are kept in the local journal.
+     */
+    public boolean isJournalEnabled() {
+        return journalEnabled;
+    }
+
+    public Path getJournalDir() {
+        return journalDir;
+    }
+
+    /**
+     * @return True if journal changes are synced with the database.
+     */
+    public boolean isSyncEnabled() {
+        return journalEnabled && syncEnabled;
+    }
+
+    /**
+     * @return The configured BCrypt work factor, or 0 to calibrate one.
+     */
+    public int getBcryptCost() {
+        return bcryptCost;
+    }
+
+    public long getBcryptTargetMillis() {
+        return bcryptTargetMillis;
+    }
+
+    @Override
+    public String toString() {
+        // No password, this ends up in the log
+        return "DatabaseConfig[backend=" + backend + ", url=" + url + ", user=" + user
+                + ", bootstrap=" + bootstrapSchema
+                + (journalEnabled ? ", journal=" + journalDir + ", sync=" + syncEnabled : "") + "]";
+    }
+
+    // --- Internal helpers ---
+
+    private static void readClasspathFile(Properties props) {
+        try (InputStream in = DatabaseConfig.class.getResourceAsStream("/" + CONFIG_FILE_NAME)) {
+            if (in != null) {
+                props.load(in);
+            }
+        } catch (IOException e) {
+            System.err.println("Could not read " + CONFIG_FILE_NAME + " from the classpath: " + e.getMessage());
+        }
+    }
+
+    private static void readUserFile(Properties props) {
+        String configured = System.getProperty(CONFIG_FILE_KEY);
+        Path file = configured != null
+                ? Paths.get(configured)
+                : Paths.get(System.getProperty("user.home"), ".todoapp", CONFIG_FILE_NAME);
+        if (!Files.isRegularFile(file)) {
+            if (configured != null) {
+                System.err.println("Config file not found: " + file);
+            }
+            return;
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            props.load(in);
+        } catch (IOException e) {
+            System.err.println("Could not read " + file + ": " + e.getMessage());
+        }
+    }
+}
@@ -1,30 +1,105 @@
 package com.saadsafi.todoapp.db;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class DatabaseConnection {
 
     // --- !! IMPORTANT !! ---
-    // Update these 3 variables to match your MySQL setup
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/todo_app";
-    private static final String USER = "root";
-    private static final String PASSWORD = "saad123"; 
+    // The database to use (MySQL or the embedded H2) and its URL, user and
+    // password come from DatabaseConfig: set them in ~/.todoapp/todoapp.properties
+    // or with -Dtodoapp.db.* system properties. MySQL on localhost is the default.
     // -----------------------
 
-    // This method will be called from all over our app to get a connection
+    // --- Connection pool settings ---
+    private static final int POOL_MAX_SIZE = 10;
+    private static final int POOL_MIN_IDLE = 2;
+    private static final long ACQUIRE_TIMEOUT_MS = 5_000;
+    private static final long IDLE_TIMEOUT_MS = 5 * 60_000;
+    private static final long MAX_LIFETIME_MS = 30 * 60_000;
+    private static final long VALIDATION_INTERVAL_MS = 5_000;
+    private static final int STATEMENT_CACHE_SIZE = 64; // per connection
+
+    private static volatile ConnectionPool pool;
+    private static volatile DatabaseConfig config;
+
+    // This method will be called from all over our app to get a connection.
+    // The connection comes from the shared pool; closing it returns it to the pool.
     public static Connection getConnection() throws SQLException {
-        try {
-            // 1. Load the database driver
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            
-            // 2. Return the connection
-            return DriverManager.getConnection(DB_URL, USER, PASSWORD);
-            
-        } catch (ClassNotFoundException e) {
-            System.out.println("MySQL JDBC Driver not found!");
-            throw new SQLException("JDBC Driver not found", e);
+        return getPool().getConnection();
+    }
+
+    /**
+     * Returns the shared pool, creating it (and loading the driver) on first use.
+     */
+    public static ConnectionPool getPool() throws SQLException {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (DatabaseConnection.class) {
+                current = pool;
+                if (current == null) {
+                    DatabaseConfig cfg;
+                    try {
+                        cfg = getConfig();
+                    } catch (IllegalArgumentException e) {
+                        throw new SQLException("Invalid database configuration: " + e.getMessage(), e);
+                    }
+                    try {
+                        // Load the database driver once, not on every connection
+                        Class.forName(cfg.getBackend().getDriverClass());
+                    } catch (ClassNotFoundException e) {
+                        System.out.println(cfg.getBackend() + " JDBC Driver not found!");
+                        throw new SQLException("JDBC Driver not found", e);
+                    }
+                    current = new ConnectionPool(cfg.getUrl(), cfg.getUser(), cfg.getPassword(),
+                            POOL_MAX_SIZE, POOL_MIN_IDLE, ACQUIRE_TIMEOUT_MS,
+                            IDLE_TIMEOUT_MS, MAX_LIFETIME_MS, VALIDATION_INTERVAL_MS,
+                            STATEMENT_CACHE_SIZE);
+                    if (cfg.isBootstrapSchema()) {
+                        try (Connection conn = current.getConnection()) {
+                            SchemaBootstrapper.bootstrap(conn);
+                        } catch (SQLException e) {
+                            current.shutdown();
+                            throw e;
+                        }
+                    }
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Returns the database configuration, reading it on first use.
+     */
+    public static DatabaseConfig getConfig() {
+        DatabaseConfig current = config;
+        if (current == null) {
+            synchronized (DatabaseConnection.class) {
+                current = config;
+                if (current == null) {
+                    current = DatabaseConfig.load();
+                    System.out.println("Using " + current);
+                    config = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Closes all pooled connections. Called when the application exits.
+     */
+    public static void shutdown() {
+        synchronized (DatabaseConnection.class) {
+            if (pool != null) {
+                System.out.println("Closing database pool: " + pool.describe());
+                pool.shutdown();
+                pool = null;
+            }
+            // Re-read the configuration if the pool is opened again
+            config = null;
         }
     }
 
@@ -37,12 +112,15 @@ public class DatabaseConnection {
             if (conn != null && !conn.isClosed()) {
                 System.out.println("Connection Successful! :)");
                 conn.close();
+                System.out.println(getPool().describe());
             } else {
                 System.out.println("Connection Failed! :(");
             }
         } catch (SQLException e) {
             System.out.println("Connection Failed! See error below:");
             e.printStackTrace();
+        } finally {
+            shutdown();
         }
     }
-}
\ No newline at end of file
+}
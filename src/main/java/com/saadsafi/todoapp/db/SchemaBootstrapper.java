@@ -0,0 +1,186 @@
+package com.saadsafi.todoapp.db;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Creates the app's tables, columns and indexes (db/schema.sql) if they are missing.
+ *
+ * Works on both backends: before each CREATE TABLE, ALTER TABLE ... ADD
+ * COLUMN or CREATE INDEX it looks the object up in the database metadata
+ * and skips it if it already exists, since MySQL has no CREATE INDEX (or
+ * ADD COLUMN) IF NOT EXISTS. Other statements (the INSERTs that seed
+ * rows) only add what is missing, and run every time.
+ */
+public final class SchemaBootstrapper {
+
+    private static final String SCHEMA_RESOURCE = "/db/schema.sql";
+
+    private static final Pattern CREATE_TABLE = Pattern.compile(
+            "CREATE\\s+TABLE\\s+(?:IF\\s+NOT\\s+EXISTS\\s+)?(\\w+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern ADD_COLUMN = Pattern.compile(
+            "ALTER\\s+TABLE\\s+(\\w+)\\s+ADD\\s+COLUMN\\s+(\\w+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern CREATE_INDEX = Pattern.compile(
+            "CREATE\\s+(?:UNIQUE\\s+)?INDEX\\s+(\\w+)\\s+ON\\s+(\\w+)", Pattern.CASE_INSENSITIVE);
+
+    private SchemaBootstrapper() {
+    }
+
+    /**
+     * Creates whatever part of the schema doesn't exist yet.
+     *
+     * @param conn A connection to the target database.
+     * @return How many tables, columns and indexes were created.
+     */
+    public static int bootstrap(Connection conn) throws SQLException {
+        long start = System.nanoTime();
+        DatabaseMetaData meta = conn.getMetaData();
+        String catalog = conn.getCatalog();
+        String schema = conn.getSchema();
+        int created = 0;
+
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : readStatements()) {
+                if (!createsObject(sql)) {
+                    stmt.execute(sql);
+                } else if (!alreadyApplied(meta, catalog, schema, sql)) {
+                    stmt.execute(sql);
+                    created++;
+                }
+            }
+        }
+
+        System.out.printf("Schema bootstrap: created %d tables/columns/indexes in %.1f ms%n",
+                created, (System.nanoTime() - start) / 1_000_000.0);
+        return created;
+    }
+
+    /**
+     * Checks the schema without changing it, for databases that are not
+     * bootstrapped by the app.
+     *
+     * @param conn A connection to the target database.
+     * @return The schema.sql statements that have not been applied (the
+     *         first line of each); empty if the schema is up to date. Seed
+     *         INSERTs cannot be checked this way and are not listed.
+     */
+    public static List<String> verify(Connection conn) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        String catalog = conn.getCatalog();
+        String schema = conn.getSchema();
+        List<String> missing = new ArrayList<>();
+        for (String sql : readStatements()) {
+            if (createsObject(sql) && !alreadyApplied(meta, catalog, schema, sql)) {
+                missing.add(sql.split("\\R", 2)[0]);
+            }
+        }
+        return missing;
+    }
+
+    // --- Internal helpers ---
+
+    /**
+     * @return True for CREATE TABLE, ADD COLUMN and CREATE INDEX statements.
+     */
+    private static boolean createsObject(String sql) {
+        return CREATE_TABLE.matcher(sql).lookingAt() || ADD_COLUMN.matcher(sql).lookingAt()
+                || CREATE_INDEX.matcher(sql).lookingAt();
+    }
+
+    /**
+     * @return True if the table, column or index the statement creates exists.
+     */
+    private static boolean alreadyApplied(DatabaseMetaData meta, String catalog, String schema,
+                                          String sql) throws SQLException {
+        Matcher table = CREATE_TABLE.matcher(sql);
+        Matcher column = ADD_COLUMN.matcher(sql);
+        Matcher index = CREATE_INDEX.matcher(sql);
+        if (table.lookingAt()) {
+            return tableExists(meta, catalog, schema, table.group(1));
+        } else if (column.lookingAt()) {
+            return columnExists(meta, catalog, schema, column.group(1), column.group(2));
+        } else if (index.lookingAt()) {
+            return indexExists(meta, catalog, schema, index.group(2), index.group(1));
+        }
+        return false;
+    }
+
+    private static boolean tableExists(DatabaseMetaData meta, String catalog, String schema,
+                                       String table) throws SQLException {
+        try (ResultSet rs = meta.getTables(catalog, schema, identifier(meta, table), new String[]{"TABLE"})) {
+            return rs.next();
+        }
+    }
+
+    private static boolean columnExists(DatabaseMetaData meta, String catalog, String schema,
+                                        String table, String column) throws SQLException {
+        try (ResultSet rs = meta.getColumns(catalog, schema, identifier(meta, table), identifier(meta, column))) {
+            return rs.next();
+        }
+    }
+
+    private static boolean indexExists(DatabaseMetaData meta, String catalog, String schema,
+                                       String table, String indexName) throws SQLException {
+        try (ResultSet rs = meta.getIndexInfo(catalog, schema, identifier(meta, table), false, true)) {
+            while (rs.next()) {
+                if (indexName.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Metadata lookups match names exactly, so use the case the database stores them in.
+     */
+    private static String identifier(DatabaseMetaData meta, String name) throws SQLException {
+        if (meta.storesUpperCaseIdentifiers()) {
+            return name.toUpperCase(Locale.ROOT);
+        }
+        if (meta.storesLowerCaseIdentifiers()) {
+            return name.toLowerCase(Locale.ROOT);
+        }
+        return name;
+    }
+
+    /**
+     * Reads db/schema.sql and splits it into statements, dropping comment lines.
+     */
+    private static List<String> readStatements() throws SQLException {
+        String script;
+        try (InputStream in = SchemaBootstrapper.class.getResourceAsStream(SCHEMA_RESOURCE)) {
+            if (in == null) {
+                throw new SQLException("Schema not found on the classpath: " + SCHEMA_RESOURCE);
+            }
+            script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new SQLException("Could not read " + SCHEMA_RESOURCE, e);
+        }
+
+        StringBuilder sql = new StringBuilder();
+        for (String line : script.split("\n")) {
+            if (!line.trim().startsWith("--")) {
+                sql.append(line).append('\n');
+            }
+        }
+        List<String> statements = new ArrayList<>();
+        for (String statement : sql.toString().split(";")) {
+            if (!statement.trim().isEmpty()) {
+                statements.add(statement.trim());
+            }
+        }
+        return statements;
+    }
+}
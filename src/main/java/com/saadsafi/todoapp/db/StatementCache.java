@@ -0,0 +1,272 @@
+package com.saadsafi.todoapp.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A per-connection cache of PreparedStatements, keyed by SQL text.
+ *
+ * Each pooled connection owns one of these, so a hot statement such as
+ * TaskDAO.updateTask's UPDATE is parsed and planned once per connection and
+ * then just re-bound on every call. The DAOs don't need to know: they still
+ * call conn.prepareStatement(sql) and close it with try-with-resources, the
+ * close() simply hands the statement back to this cache.
+ *
+ * Only used from the thread that currently holds the connection, so it is
+ * not synchronized.
+ */
+class StatementCache {
+
+    private final Connection physical;
+    private final int maxSize;
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+    // Access-ordered, so the first entry is always the least recently used one
+    private final LinkedHashMap<String, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+    StatementCache(Connection physical, int maxSize, LongAdder hits, LongAdder misses) {
+        this.physical = physical;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+    }
+
+    /**
+     * Returns a statement for the given SQL, re-using a cached one when possible.
+     *
+     * @param sql The SQL text.
+     * @param autoGeneratedKeys Statement.RETURN_GENERATED_KEYS or Statement.NO_GENERATED_KEYS.
+     * @param owner The connection proxy, returned from getConnection() on the statement.
+     */
+    PreparedStatement prepare(String sql, int autoGeneratedKeys, Connection owner) throws SQLException {
+        String key = autoGeneratedKeys + ":" + sql;
+        CachedStatement cached = statements.get(key);
+        if (cached != null && cached.evicted) {
+            // Closed after an error in release(), prepare it again
+            statements.remove(key);
+            cached = null;
+        }
+
+        if (cached != null && !cached.inUse) {
+            hits.increment();
+            cached.inUse = true;
+            return cached.proxy(owner);
+        }
+
+        misses.increment();
+        PreparedStatement pstmt = physical.prepareStatement(sql, autoGeneratedKeys);
+        CachedStatement fresh;
+        try {
+            fresh = new CachedStatement(pstmt);
+        } catch (SQLException e) {
+            pstmt.close();
+            throw e;
+        }
+        fresh.inUse = true;
+
+        if (cached != null) {
+            // Same SQL is already checked out (nested use), so hand out an
+            // uncached one. Still a proxy, so getConnection() is the pooled
+            // connection; marked evicted so close() really closes it.
+            fresh.evicted = true;
+            return fresh.proxy(owner);
+        }
+
+        statements.put(key, fresh);
+        evictIfNeeded();
+        return fresh.proxy(owner);
+    }
+
+    /**
+     * Marks every statement as free again. Called when the connection goes
+     * back into the pool, in case a caller forgot to close a statement.
+     */
+    void releaseAll() {
+        for (CachedStatement cached : statements.values()) {
+            if (cached.inUse) {
+                cached.release();
+            }
+        }
+    }
+
+    /**
+     * Closes every cached statement. Called before the physical connection is closed.
+     */
+    void closeAll() {
+        for (CachedStatement cached : statements.values()) {
+            cached.closeQuietly();
+        }
+        statements.clear();
+    }
+
+    int size() {
+        return statements.size();
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, CachedStatement>> it = statements.entrySet().iterator();
+        while (statements.size() > maxSize && it.hasNext()) {
+            CachedStatement eldest = it.next().getValue();
+            it.remove();
+            if (eldest.inUse) {
+                // Still checked out, it will be closed for real when the caller closes it
+                eldest.evicted = true;
+            } else {
+                eldest.closeQuietly();
+            }
+        }
+    }
+
+    /**
+     * One cached statement plus its checked-out flag, and the settings it
+     * had when it was prepared, so one caller's limits don't stick to the next.
+     */
+    private static final class CachedStatement {
+        private final PreparedStatement statement;
+        private final int defaultFetchSize;
+        private final int defaultMaxRows;
+        private final int defaultQueryTimeout;
+        private final int defaultMaxFieldSize;
+        private boolean inUse = false;
+        private boolean evicted = false;
+
+        CachedStatement(PreparedStatement statement) throws SQLException {
+            this.statement = statement;
+            this.defaultFetchSize = statement.getFetchSize();
+            this.defaultMaxRows = statement.getMaxRows();
+            this.defaultQueryTimeout = statement.getQueryTimeout();
+            this.defaultMaxFieldSize = statement.getMaxFieldSize();
+        }
+
+        PreparedStatement proxy(Connection owner) {
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    StatementCache.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    new StatementHandler(this, owner));
+        }
+
+        void release() {
+            inUse = false;
+            if (evicted) {
+                closeQuietly(); // Closes its result set too
+                return;
+            }
+            try {
+                // A result set the caller left open
+                ResultSet rs = statement.getResultSet();
+                if (rs != null) {
+                    rs.close();
+                }
+                // Max rows first: some drivers refuse a fetch size above it
+                if (statement.getMaxRows() != defaultMaxRows) {
+                    statement.setMaxRows(defaultMaxRows);
+                }
+                if (statement.getFetchSize() != defaultFetchSize) {
+                    statement.setFetchSize(defaultFetchSize);
+                }
+                if (statement.getQueryTimeout() != defaultQueryTimeout) {
+                    statement.setQueryTimeout(defaultQueryTimeout);
+                }
+                if (statement.getMaxFieldSize() != defaultMaxFieldSize) {
+                    statement.setMaxFieldSize(defaultMaxFieldSize);
+                }
+                statement.clearParameters();
+                statement.clearBatch();
+                statement.clearWarnings();
+            } catch (SQLException e) {
+                // Broken statement, drop it from the server as well
+                evicted = true;
+            }
+            if (evicted) {
+                closeQuietly();
+            }
+        }
+
+        void closeQuietly() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                System.err.println("Error closing cached statement: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * The InvocationHandler behind each statement handed out from the cache.
+     * Like the connection lease, each checkout gets its own closed flag.
+     */
+    private static final class StatementHandler implements InvocationHandler {
+        private final CachedStatement cached;
+        private final Connection owner;
+        private boolean closed = false;
+
+        StatementHandler(CachedStatement cached, Connection owner) {
+            this.cached = cached;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        cached.release();
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || cached.statement.isClosed();
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement@" + Integer.toHexString(System.identityHashCode(proxy));
+                default:
+                    break;
+            }
+
+            if (closed) {
+                throw new SQLException("Statement has already been closed");
+            }
+
+            try {
+                return method.invoke(cached.statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Maps the prepareStatement overloads we cache onto an autoGeneratedKeys flag.
+     * @return the flag, or -1 if this overload should bypass the cache.
+     */
+    static int cacheableKeysFlag(Method method, Object[] args) {
+        if (!"prepareStatement".equals(method.getName()) || args == null) {
+            return -1;
+        }
+        Class<?>[] types = method.getParameterTypes();
+        if (types.length == 1 && types[0] == String.class) {
+            return Statement.NO_GENERATED_KEYS;
+        }
+        if (types.length == 2 && types[0] == String.class && types[1] == int.class) {
+            return (Integer) args[1];
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,84 @@
+package com.saadsafi.todoapp.db;
+
+/**
+ * The database engines the app can store its data in.
+ *
+ * Each backend knows its JDBC driver and the connection settings to use
+ * when none are configured (see DatabaseConfig).
+ */
+public enum StorageBackend {
+
+    /**
+     * A MySQL server (the original setup). Shared, but every query goes
+     * over the network stack to a separate server process.
+     */
+    MYSQL("com.mysql.cj.jdbc.Driver",
+            // Prepare statements on the server so cached statements skip re-parsing
+            "jdbc:mysql://localhost:3306/todo_app?useServerPrepStmts=true",
+            "root", "saad123", true),
+
+    /**
+     * An H2 database running inside the app, stored in ~/.todoapp.
+     * No server to install, and a query is a method call instead of a round trip.
+     * MySQL mode keeps the DAOs' SQL working unchanged; IGNORECASE makes text
+     * columns compare without case, like MySQL's default collation (and like
+     * the title order TaskSort sorts in memory).
+     */
+    H2("org.h2.Driver",
+            "jdbc:h2:~/.todoapp/todo_app;MODE=MySQL;DATABASE_TO_LOWER=TRUE;IGNORECASE=TRUE",
+            "sa", "", true);
+
+    private final String driverClass;
+    private final String defaultUrl;
+    private final String defaultUser;
+    private final String defaultPassword;
+    private final boolean defaultBootstrap;
+
+    StorageBackend(String driverClass, String defaultUrl, String defaultUser,
+                   String defaultPassword, boolean defaultBootstrap) {
+        this.driverClass = driverClass;
+        this.defaultUrl = defaultUrl;
+        this.defaultUser = defaultUser;
+        this.defaultPassword = defaultPassword;
+        this.defaultBootstrap = defaultBootstrap;
+    }
+
+    public String getDriverClass() {
+        return driverClass;
+    }
+
+    public String getDefaultUrl() {
+        return defaultUrl;
+    }
+
+    public String getDefaultUser() {
+        return defaultUser;
+    }
+
+    public String getDefaultPassword() {
+        return defaultPassword;
+    }
+
+    /**
+     * @return Whether the schema is created on startup unless configured otherwise.
+     *         An embedded database starts out empty; a MySQL server set up by
+     *         hand with an older db/schema.sql still needs the sync columns.
+     */
+    public boolean isDefaultBootstrap() {
+        return defaultBootstrap;
+    }
+
+    /**
+     * Parses a configured backend name, ignoring case ("mysql", "h2").
+     *
+     * @throws IllegalArgumentException If the name isn't a known backend.
+     */
+    public static StorageBackend fromName(String name) {
+        for (StorageBackend backend : values()) {
+            if (backend.name().equalsIgnoreCase(name.trim())) {
+                return backend;
+            }
+        }
+        throw new IllegalArgumentException("Unknown storage backend: " + name);
+    }
+}
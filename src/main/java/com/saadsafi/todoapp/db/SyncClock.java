@@ -0,0 +1,204 @@
+package com.saadsafi.todoapp.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * The server-side change counters behind sync (the sync_user_clock table).
+ *
+ * Every write to categories, tasks and subtasks stamps the rows it touches
+ * with the next version of the owning user's clock (row_version), and
+ * every delete leaves a tombstone with one. Taking a version updates that
+ * user's clock row, which stays locked until the transaction ends. So a
+ * user's versions become visible in the order they were taken, and
+ * "everything of this user after version N" never misses a write that was
+ * still in progress when N was read. Writes of different users lock
+ * different rows and do not wait for each other.
+ */
+public final class SyncClock {
+
+    // Creates the user's clock on their first write; one statement, so two first writes can't both insert
+    private static final String NEXT_SQL = "INSERT INTO sync_user_clock (user_id, version) VALUES (?, 1) "
+            + "ON DUPLICATE KEY UPDATE version = version + 1";
+    private static final String READ_SQL = "SELECT version FROM sync_user_clock WHERE user_id = ?";
+
+    private SyncClock() {
+    }
+
+    /**
+     * Takes the user's next version. Call it first in the write's transaction
+     * (auto-commit off) and commit soon: the user's other writers wait for the commit.
+     */
+    public static long next(Connection conn, int userId) throws SQLException {
+        try (PreparedStatement update = conn.prepareStatement(NEXT_SQL)) {
+            update.setInt(1, userId);
+            update.executeUpdate();
+        }
+        return current(conn, userId);
+    }
+
+    /**
+     * Takes the next version of every given user, in user_id order, so
+     * two writes that span users never lock their clocks in opposite orders.
+     *
+     * @return The version of each user.
+     */
+    public static Map<Integer, Long> next(Connection conn, Collection<Integer> userIds) throws SQLException {
+        Map<Integer, Long> versions = new TreeMap<>();
+        for (int userId : new TreeSet<>(userIds)) {
+            versions.put(userId, next(conn, userId));
+        }
+        return versions;
+    }
+
+    /**
+     * Takes the next version of the user owning a row, for writes that only
+     * know the row's ID.
+     *
+     * @param ownerSql SELECT returning the row's user_id, given the row's ID as its only parameter.
+     * @return The version, or -1 if the row does not exist.
+     */
+    public static long nextForOwner(Connection conn, String ownerSql, int rowId) throws SQLException {
+        int userId;
+        try (PreparedStatement pstmt = conn.prepareStatement(ownerSql)) {
+            pstmt.setInt(1, rowId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return -1;
+                }
+                userId = rs.getInt(1);
+            }
+        }
+        return next(conn, userId);
+    }
+
+    /**
+     * Takes the next version of every user owning one of the rows.
+     *
+     * @param ownersSql SELECT returning (row ID, user_id) pairs, ending in "IN " so the row IDs can be appended.
+     * @return The version to stamp each row with; rows that do not exist are left out.
+     */
+    public static Map<Integer, Long> nextForOwners(Connection conn, String ownersSql,
+                                                   Collection<Integer> rowIds) throws SQLException {
+        Map<Integer, Integer> ownerByRow = new HashMap<>();
+        StringBuilder sql = new StringBuilder(ownersSql).append('(');
+        for (int i = 0; i < rowIds.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(')');
+        try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            int index = 1;
+            for (int rowId : rowIds) {
+                pstmt.setInt(index++, rowId);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ownerByRow.put(rs.getInt(1), rs.getInt(2));
+                }
+            }
+        }
+
+        Map<Integer, Long> versionByUser = next(conn, ownerByRow.values());
+        Map<Integer, Long> versions = new HashMap<>();
+        for (Map.Entry<Integer, Integer> entry : ownerByRow.entrySet()) {
+            versions.put(entry.getKey(), versionByUser.get(entry.getValue()));
+        }
+        return versions;
+    }
+
+    /**
+     * @return The latest version taken by a committed write of the user (0 if none yet).
+     */
+    public static long current(Connection conn, int userId) throws SQLException {
+        try (PreparedStatement read = conn.prepareStatement(READ_SQL)) {
+            read.setInt(1, userId);
+            try (ResultSet rs = read.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Records a delete for the sync engines to pick up. Call it in the
+     * delete's transaction, before the delete.
+     *
+     * @param table categories, tasks or subtasks.
+     * @param ownerSql SELECT returning the row's user_id, given the row's ID as its only parameter.
+     */
+    public static void recordDelete(Connection conn, String table, int rowId, String ownerSql,
+                                    long version) throws SQLException {
+        String sql = "INSERT INTO sync_tombstones (table_name, row_id, user_id, deleted_at, row_version) "
+                + "SELECT ?, ?, owner.user_id, ?, ? FROM (" + ownerSql + ") owner";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, table);
+            pstmt.setInt(2, rowId);
+            pstmt.setLong(3, System.currentTimeMillis());
+            pstmt.setLong(4, version);
+            pstmt.setInt(5, rowId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Records the deletes of many of a user's rows, in a table with a
+     * user_id column (tasks, categories), with one statement. Call it in
+     * the delete's transaction, before the delete.
+     *
+     * @param idColumn The table's ID column.
+     * @return How many tombstones were written (missing rows and other users' rows get none).
+     */
+    public static int recordDeletes(Connection conn, String table, String idColumn, int userId,
+                                    List<Integer> rowIds, long version) throws SQLException {
+        StringBuilder sql = new StringBuilder(
+                "INSERT INTO sync_tombstones (table_name, row_id, user_id, deleted_at, row_version) SELECT ?, ")
+                .append(idColumn).append(", user_id, ?, ? FROM ").append(table)
+                .append(" WHERE user_id = ? AND ").append(idColumn).append(" IN (");
+        for (int i = 0; i < rowIds.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(")");
+        try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            pstmt.setString(1, table);
+            pstmt.setLong(2, System.currentTimeMillis());
+            pstmt.setLong(3, version);
+            pstmt.setInt(4, userId);
+            for (int i = 0; i < rowIds.size(); i++) {
+                pstmt.setInt(i + 5, rowIds.get(i));
+            }
+            return pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Records the deletes of all the rows of a table (with a user_id
+     * column) that match a condition, with one INSERT ... SELECT, so no ID
+     * list has to go through the client. Call it in the delete's
+     * transaction, before the delete, with the delete's condition.
+     *
+     * @param condition SQL for the WHERE clause, e.g. "user_id = ? AND category_id = ?".
+     * @param params The condition's int parameters.
+     * @return How many tombstones were written.
+     */
+    public static int recordDeletesWhere(Connection conn, String table, String idColumn, String condition,
+                                         long version, int... params) throws SQLException {
+        String sql = "INSERT INTO sync_tombstones (table_name, row_id, user_id, deleted_at, row_version) "
+                + "SELECT ?, " + idColumn + ", user_id, ?, ? FROM " + table + " WHERE " + condition;
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, table);
+            pstmt.setLong(2, System.currentTimeMillis());
+            pstmt.setLong(3, version);
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setInt(i + 4, params[i]);
+            }
+            return pstmt.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.saadsafi.todoapp.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * One append-only log file, memory-mapped.
+ *
+ * File layout: an 8-byte header (magic, format version), then records of
+ * [int payload length][int CRC32 of the payload][payload]. The mapping is
+ * larger than the data; the unused tail is zeros, and a zero length marks
+ * the end of the log.
+ *
+ * An append is a copy into the mapping, so once it returns the record
+ * survives the app crashing (the OS still has the page). force() makes it
+ * survive the OS crashing too. A record cut off by a crash fails its length
+ * or CRC check when the file is opened again; since it was the last write,
+ * nothing follows it and it is discarded. A damaged record with data after
+ * it is not a crash but corruption, and the file refuses to open rather
+ * than throw the later records away.
+ *
+ * Not thread-safe, JournalStore serializes access.
+ */
+final class JournalFile implements AutoCloseable {
+
+    private static final int MAGIC = 0x54444A31; // "TDJ1"
+    private static final int FORMAT_VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    static final int RECORD_OVERHEAD = 8; // length + CRC
+
+    private static final int INITIAL_MAPPING_SIZE = 1 << 20; // 1 MB
+
+    private final Path path;
+    private final FileChannel channel;
+    private MappedByteBuffer mapping;
+    private int end; // Where the next record goes
+    private boolean dirty = false;
+    private long discardedBytes = 0; // Torn tail dropped when opening
+
+    private final CRC32 crc = new CRC32();
+
+    private JournalFile(Path path, FileChannel channel) {
+        this.path = path;
+        this.channel = channel;
+    }
+
+    /**
+     * Opens (or creates) a log file and replays its records, in order.
+     *
+     * @param replay Called with each valid record's payload (a read-only view).
+     */
+    static JournalFile open(Path path, Consumer<ByteBuffer> replay) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        JournalFile file = new JournalFile(path, channel);
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Journal file too large: " + path);
+            }
+            file.map(Math.max(INITIAL_MAPPING_SIZE, (int) size));
+            if (size == 0) {
+                file.mapping.putInt(0, MAGIC);
+                file.mapping.putInt(4, FORMAT_VERSION);
+                file.end = HEADER_SIZE;
+                file.force();
+            } else {
+                file.checkHeader();
+                file.recover(replay);
+            }
+            return file;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Appends one record.
+     *
+     * @param payload The record, from position to limit.
+     * @return The record's size in the file.
+     */
+    int append(ByteBuffer payload) throws IOException {
+        int length = payload.remaining();
+        int size = RECORD_OVERHEAD + length;
+        if (end + size > mapping.capacity()) {
+            long needed = (long) end + size;
+            long grown = Math.max(needed, (long) mapping.capacity() * 2);
+            if (grown > Integer.MAX_VALUE) {
+                throw new IOException("Journal file full: " + path);
+            }
+            map((int) grown);
+        }
+
+        crc.reset();
+        crc.update(payload.duplicate());
+        // Payload and CRC first, length last: a reader only sees the record
+        // once its length is there, and the CRC catches a half-copied page.
+        mapping.position(end + RECORD_OVERHEAD);
+        mapping.put(payload);
+        mapping.putInt(end + 4, (int) crc.getValue());
+        mapping.putInt(end, length);
+        end += size;
+        dirty = true;
+        return size;
+    }
+
+    /**
+     * Flushes appended records to the disk, if there are any.
+     */
+    void force() {
+        if (dirty) {
+            mapping.force();
+            dirty = false;
+        }
+    }
+
+    /**
+     * Hands the mapping to a background flusher if there is anything to
+     * flush, and marks the file clean. The caller forces it outside its lock.
+     *
+     * @return The mapping to force, or null if nothing was appended since the last flush.
+     */
+    MappedByteBuffer takeDirtyMapping() {
+        if (!dirty) {
+            return null;
+        }
+        dirty = false;
+        return mapping;
+    }
+
+    /**
+     * @return Bytes used by the header and records (not the zero tail).
+     */
+    int size() {
+        return end;
+    }
+
+    long getDiscardedBytes() {
+        return discardedBytes;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        // The mapping itself is released when it is garbage collected
+        channel.close();
+    }
+
+    /**
+     * Writes a complete log file from the given records in one go (used by
+     * compaction). The file is written with plain writes and forced before
+     * this returns, so it can be renamed into place.
+     */
+    static void write(Path path, Iterable<ByteBuffer> payloads) throws IOException {
+        CRC32 crc = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        try (FileChannel out = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            buffer.putInt(MAGIC).putInt(FORMAT_VERSION);
+            for (ByteBuffer payload : payloads) {
+                int length = payload.remaining();
+                if (buffer.remaining() < RECORD_OVERHEAD + length) {
+                    drain(out, buffer);
+                    if (buffer.capacity() < RECORD_OVERHEAD + length) {
+                        buffer = ByteBuffer.allocate(RECORD_OVERHEAD + length);
+                    }
+                }
+                crc.reset();
+                crc.update(payload.duplicate());
+                buffer.putInt(length).putInt((int) crc.getValue()).put(payload);
+            }
+            drain(out, buffer);
+            out.force(true);
+        }
+    }
+
+    // --- Internal helpers ---
+
+    private static void drain(FileChannel out, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void map(int size) throws IOException {
+        // Mapping past the end of the file grows it (the new part reads as zeros)
+        mapping = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    private void checkHeader() throws IOException {
+        if (mapping.getInt(0) != MAGIC) {
+            throw new IOException("Not a journal file: " + path);
+        }
+        int version = mapping.getInt(4);
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported journal format " + version + ": " + path);
+        }
+    }
+
+    /**
+     * Replays records up to the first one that is missing or damaged, and
+     * makes that point the end of the log.
+     *
+     * @throws IOException If the damaged record is followed by more data, i.e.
+     *         it is not a torn last write and truncating would lose records.
+     */
+    private void recover(Consumer<ByteBuffer> replay) throws IOException {
+        int position = HEADER_SIZE;
+        int capacity = mapping.capacity();
+        while (position + RECORD_OVERHEAD <= capacity) {
+            int length = mapping.getInt(position);
+            if (length <= 0 || length > capacity - position - RECORD_OVERHEAD) {
+                break;
+            }
+            ByteBuffer payload = mapping.duplicate();
+            payload.limit(position + RECORD_OVERHEAD + length).position(position + RECORD_OVERHEAD);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != mapping.getInt(position + 4)) {
+                break;
+            }
+            replay.accept(payload.slice().asReadOnlyBuffer());
+            position += RECORD_OVERHEAD + length;
+        }
+        end = position;
+
+        int written = writtenEnd(position);
+        if (position < written && !isTornTail(position, written)) {
+            throw new IOException("Journal file is damaged at byte " + position + " but has data up to byte "
+                    + written + ", not opening it: " + path);
+        }
+
+        // Zero whatever a crash left past the end (part of a torn record),
+        // so new records are never followed by stale bytes
+        for (int i = position; i < capacity; i++) {
+            if (mapping.get(i) != 0) {
+                mapping.put(i, (byte) 0);
+                discardedBytes++;
+            }
+        }
+        if (discardedBytes > 0) {
+            dirty = true;
+            force();
+        }
+    }
+
+    /**
+     * @return The offset after the last non-zero byte, at least from.
+     */
+    private int writtenEnd(int from) {
+        int written = mapping.capacity();
+        while (written > from && mapping.get(written - 1) == 0) {
+            written--;
+        }
+        return written;
+    }
+
+    /**
+     * Whether the bad record at position is a torn last write: its payload
+     * ends where the written data ends or, if its length does not say
+     * where it ends, no valid record can be found after it.
+     */
+    private boolean isTornTail(int position, int written) {
+        int length = mapping.getInt(position);
+        if (length > 0 && length <= written - position - RECORD_OVERHEAD) {
+            return position + RECORD_OVERHEAD + length == written;
+        }
+        for (int next = position + 1; next + RECORD_OVERHEAD < written; next++) {
+            if (isValidRecord(next, written)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isValidRecord(int position, int written) {
+        int length = mapping.getInt(position);
+        if (length <= 0 || length > written - position - RECORD_OVERHEAD) {
+            return false;
+        }
+        ByteBuffer payload = mapping.duplicate();
+        payload.limit(position + RECORD_OVERHEAD + length).position(position + RECORD_OVERHEAD);
+        crc.reset();
+        crc.update(payload);
+        return (int) crc.getValue() == mapping.getInt(position + 4);
+    }
+}
@@ -0,0 +1,1779 @@
+package com.saadsafi.todoapp.journal;
+
+import com.saadsafi.todoapp.model.Category;
+import com.saadsafi.todoapp.model.Status;
+import com.saadsafi.todoapp.model.Subtask;
+import com.saadsafi.todoapp.model.TaskRecord;
+import com.saadsafi.todoapp.search.SearchDocument;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A local storage engine for categories, tasks and subtasks: an
+ * append-only log on disk plus an index of the current rows in memory.
+ *
+ * - Reads never touch the disk, they are answered from the in-memory maps.
+ * - Every write is one record appended to the log (see JournalFile), then
+ *   applied to the maps. Nothing is ever rewritten in place.
+ * - Opening the store replays the log to rebuild the maps. A record torn
+ *   by a crash is dropped, everything before it is kept.
+ * - Updates and deletes leave the old records behind as garbage. When the
+ *   log is mostly garbage it is compacted: the live rows are written to a
+ *   new log file, which replaces the old one with an atomic rename.
+ * - A background thread flushes the log to the disk once a second, and
+ *   checks whether it is time to compact.
+ *
+ * The operations mirror TaskDAO, SubtaskDAO and CategoryDAO, including the
+ * schema's cascades (deleting a task deletes its subtasks, deleting a
+ * category leaves its tasks without one). IDs are never reused.
+ *
+ * For the SyncEngine, every row also carries its sync state: the server's
+ * ID for it, when it was last edited, and whether that edit still has to
+ * be pushed. Deleting a row the server knows leaves a pending delete
+ * behind until the server has it too. This state travels in the same
+ * records as the data (as trailing fields, so logs written before sync
+ * existed still replay: their rows simply count as not pushed yet).
+ * Thread-safe.
+ */
+public class JournalStore implements AutoCloseable {
+
+    // --- Record types (first byte of every record; never renumber) ---
+    private static final byte PUT_CATEGORY = 1;
+    private static final byte DELETE_CATEGORY = 2;
+    private static final byte PUT_TASK = 3;
+    private static final byte DELETE_TASK = 4;
+    private static final byte TASK_STATUSES = 5;
+    private static final byte PUT_SUBTASK = 6;
+    private static final byte DELETE_SUBTASK = 7;
+    private static final byte SUBTASK_STATUSES = 8;
+    private static final byte ID_COUNTERS = 9;
+    private static final byte SYNC_ACK = 10;
+    private static final byte PENDING_DELETE = 11;
+    private static final byte WATERMARK = 12;
+
+    // --- Housekeeping settings ---
+    private static final long FLUSH_INTERVAL_MS = 1_000;
+    private static final long COMPACTION_CHECK_INTERVAL_MS = 30_000;
+    // Compact once the log is this big and holds this many records per live row
+    private static final int COMPACTION_MIN_BYTES = 4 << 20;
+    private static final int COMPACTION_GARBAGE_RATIO = 2;
+
+    private static final Pattern FILE_NAME = Pattern.compile("journal-(\\d+)\\.log");
+    private static final long NO_DUE_DATE = Long.MIN_VALUE;
+
+    private final Path directory;
+    private JournalFile file;
+    private long generation;
+    private long recordCount = 0; // Records in the current file, live or not
+
+    // --- In-memory index of the current rows ---
+    private final Map<Integer, CategoryRow> categories = new TreeMap<>();
+    private final Map<Integer, TaskRecord> tasks = new HashMap<>();
+    // (userId << 32 | categoryId) -> task IDs in that list, in ID order like the SQL
+    private final Map<Long, TreeSet<Integer>> taskIdsByList = new HashMap<>();
+    private final Map<Integer, SubtaskRow> subtasks = new HashMap<>();
+    private final Map<Integer, TreeSet<Integer>> subtaskIdsByTask = new HashMap<>();
+    private int nextCategoryId = 1;
+    private int nextTaskId = 1;
+    private int nextSubtaskId = 1;
+
+    // --- Sync state (see SyncRow) ---
+    private final Map<SyncEntity, Map<Integer, SyncState>> syncStates = new EnumMap<>(SyncEntity.class);
+    private final Map<SyncEntity, Map<Integer, Integer>> localIdsByRemote = new EnumMap<>(SyncEntity.class);
+    // Local IDs with an edit the server doesn't have yet, oldest edit first (roughly)
+    private final Map<SyncEntity, Set<Integer>> dirtyIds = new EnumMap<>(SyncEntity.class);
+    // Remote ID -> a local delete the server doesn't have yet
+    private final Map<SyncEntity, Map<Integer, PendingDelete>> pendingDeletes = new EnumMap<>(SyncEntity.class);
+    // User ID -> the server change version pulled up to
+    private final Map<Integer, Long> watermarks = new HashMap<>();
+    // Told about every local write (not about applied server changes)
+    private volatile Runnable writeListener;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ScheduledExecutorService housekeeper;
+    private boolean closed = false;
+
+    // Encodes the record being appended (callers hold the write lock)
+    private ByteBuffer out = ByteBuffer.allocate(1024);
+
+    // --- Metrics ---
+    private long appendCount = 0;
+    private long totalAppendNanos = 0;
+    private long compactionCount = 0;
+    private long lastCompactionNanos = 0;
+    private long openNanos = 0;
+    private long replayedRecords = 0;
+
+    private JournalStore(Path directory) {
+        this.directory = directory;
+        for (SyncEntity entity : SyncEntity.values()) {
+            syncStates.put(entity, new HashMap<>());
+            localIdsByRemote.put(entity, new HashMap<>());
+            dirtyIds.put(entity, new LinkedHashSet<>());
+            pendingDeletes.put(entity, new LinkedHashMap<>());
+        }
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "journal-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Opens the store in a directory (creating it if needed) and rebuilds
+     * the in-memory index from the log.
+     */
+    public static JournalStore open(Path directory) throws IOException {
+        long start = System.nanoTime();
+        Files.createDirectories(directory);
+        JournalStore store = new JournalStore(directory);
+
+        store.generation = store.latestGeneration();
+        store.file = JournalFile.open(store.pathFor(store.generation), store::replay);
+        store.deleteLeftovers();
+        store.openNanos = System.nanoTime() - start;
+        System.out.println("Opened " + store.describe());
+        if (store.file.getDiscardedBytes() > 0) {
+            System.err.println("Journal recovery dropped " + store.file.getDiscardedBytes()
+                    + " bytes of an incomplete write");
+        }
+
+        store.maybeCompact();
+        store.housekeeper.scheduleWithFixedDelay(store::flush,
+                FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        store.housekeeper.scheduleWithFixedDelay(store::maybeCompact,
+                COMPACTION_CHECK_INTERVAL_MS, COMPACTION_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        return store;
+    }
+
+    // --- Categories ---
+
+    /**
+     * @return The user's categories, in creation order.
+     */
+    public List<Category> getCategories(int userId) {
+        lock.readLock().lock();
+        try {
+            List<Category> result = new ArrayList<>();
+            for (CategoryRow row : categories.values()) {
+                if (row.userId == userId) {
+                    result.add(new Category(row.categoryId, row.name));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Category createCategory(String name, int userId) throws IOException {
+        lock.writeLock().lock();
+        try {
+            long now = System.currentTimeMillis();
+            CategoryRow row = new CategoryRow(nextCategoryId, userId, name);
+            encodePutCategory(row, 0, now, true);
+            append();
+            applyPutCategory(row.categoryId, userId, name);
+            track(SyncEntity.CATEGORY, row.categoryId, 0, now, true);
+            return new Category(row.categoryId, name);
+        } finally {
+            lock.writeLock().unlock();
+            notifyWrite();
+        }
+    }
+
+    /**
+     * Deletes one of a user's categories and moves its tasks to another of
+     * the user's categories, or to none. Like updateTasks, there is one
+     * record per moved task (pushed as task updates), then the category's
+     * delete, all appended under one lock.
+     *
+     * @param moveToCategoryId Where the tasks go, or 0 for no category.
+     * @return The IDs of the moved tasks, or null if either category isn't the user's.
+     */
+    public List<Integer> deleteCategory(int userId, int categoryId, int moveToCategoryId) throws IOException {
+        lock.writeLock().lock();
+        try {
+            CategoryRow row = categories.get(categoryId);
+            CategoryRow target = moveToCategoryId != 0 ? categories.get(moveToCategoryId) : null;
+            if (row == null || row.userId != userId || moveToCategoryId == categoryId
+                    || (moveToCategoryId != 0 && (target == null || target.userId != userId))) {
+                return null;
+            }
+            long now = System.currentTimeMillis();
+            List<Integer> taskIds = tasksInList(userId, categoryId);
+            for (int taskId : taskIds) {
+                TaskRecord moved = tasks.get(taskId).withCategory(target != null ? target.category : null);
+                int remoteId = remoteIdOf(SyncEntity.TASK, taskId);
+                encodePutTask(moved, remoteId, now, true);
+                append();
+                applyPutTask(moved);
+                track(SyncEntity.TASK, taskId, remoteId, now, true);
+            }
+            encodeDelete(DELETE_CATEGORY, categoryId, now, true);
+            append();
+            applyDeleteCategory(categoryId, now, true);
+            return taskIds;
+        } finally {
+            lock.writeLock().unlock();
+            notifyWrite();
+        }
+    }
+
+    /**
+     * Deletes one of a user's categories with its tasks and their subtasks,
+     * under one lock: one record per task, then the category's.
+     *
+     * @return The deleted tasks' IDs, in order, each with its deleted
+     *         subtasks' IDs; or null if the category isn't the user's.
+     */
+    public Map<Integer, List<Integer>> deleteCategoryWithTasks(int userId, int categoryId) throws IOException {
+        lock.writeLock().lock();
+        try {
+            CategoryRow row = categories.get(categoryId);
+            if (row == null || row.userId != userId) {
+                return null;
+            }
+            long now = System.currentTimeMillis();
+            Map<Integer, List<Integer>> deleted = new LinkedHashMap<>();
+            for (int taskId : tasksInList(userId, categoryId)) {
+                TreeSet<Integer> subtaskIds = subtaskIdsByTask.get(taskId);
+                deleted.put(taskId, subtaskIds != null ? new ArrayList<>(subtaskIds) : new ArrayList<>());
+                encodeDelete(DELETE_TASK, taskId, now, true);
+                append();
+                applyDeleteTask(taskId, now, true);
+            }
+            encodeDelete(DELETE_CATEGORY, categoryId, now, true);
+            append();
+            applyDeleteCategory(categoryId, now, true);
+            return deleted;
+        } finally {
+            lock.writeLock().unlock();
+            notifyWrite();
+        }
+    }
+
+    // --- Tasks ---
+
+    /**
+     * @return The tasks in one of a user's categories, in ID order.
+     */
+    public List<TaskRecord> getTasks(int userId, int categoryId) {
+        lock.readLock().lock();
+        try {
+            TreeSet<Integer> ids = taskIdsByList.get(listKey(userId, categoryId));
+            List<TaskRecord> result = new ArrayList<>(ids != null ? ids.size() : 0);
+            if (ids != null) {
+                for (int taskId : ids) {
+                    result.add(tasks.get(taskId));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return One task, or null if it doesn't exist.
+     */
+    public TaskRecord getTask(int taskId) {
+        lock.readLock().lock();
+        try {
+            return tasks.get(taskId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int countTasks(int userId, int categoryId) {
+        lock.readLock().lock();
+        try {
+            TreeSet<Integer> ids = taskIdsByList.get(listKey(userId, categoryId));
+            return ids != null ? ids.size() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The searchable text of all of a user's tasks, in ID order.
+     */
+    public List<SearchDocument> getSearchDocuments(int userId) {
+        lock.readLock().lock();
+        try {
+            TreeMap<Integer, TaskRecord> userTasks = new TreeMap<>();
+            for (Map.Entry<Long, TreeSet<Integer>> list : taskIdsByList.entrySet()) {
+                if ((int) (list.getKey() >>> 32) == userId) {
+                    for (int taskId : list.getValue()) {
+                        userTasks.put(taskId, tasks.get(taskId));
+                    }
+                }
+            }
+            List<SearchDocument> documents = new ArrayList<>(userTasks.size());
+            for (TaskRecord record : userTasks.values()) {
+                List<String> subtaskTitles = new ArrayList<>();
+                for (SubtaskRow row : subtaskRows(record.getTaskId())) {
+                    subtaskTitles.add(row.title);
+                }
+                documents.add(new SearchDocument(record.getTaskId(), record.getCategoryId(),
+                        record.getTitle(), record.getDescription(), subtaskTitles));
+            }
+            return documents;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Stores a new task (its task ID is ignored).
+     *
+     * @return The stored task with its new ID, or null if its category isn't the user's.
+     */
+    public TaskRecord createTask(TaskRecord task) throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (!ownsCategory(task.getUserId(), task)) {
+                return null;
+            }
+            long now = System.currentTimeMillis();
+            TaskRecord created = task.withTaskId(nextTaskId);
+            encodePutTask(created, 0, now, true);
+            append();
+            applyPutTask(created);
+            track(SyncEntity.TASK, created.getTaskId(), 0, now, true);
+            return tasks.get(created.getTaskId());
+        } finally {
+            lock.writeLock().unlock();
+            notifyWrite();
+        }
+    }
+
+    /**
+     * Creates many tasks under one lock (an import). There is one record
+     * per task, like createTask.
+     *
+     * @return How many tasks were created, or -1 if a category isn't the task's user's (then none are).
+     */
+    public int createTasks(Collection<TaskRecord> newTasks) throws IOException {
+        lock.writeLock().lock();
+        try {
+            for (TaskRecord task : newTasks) {
+                if (!ownsCategory(task.getUserId(), task)) {
+                    return -1;
+                }
+            }
+            long now = System.currentTimeMillis();
+            for (TaskRecord task : newTasks) {
+                TaskRecord created = task.withTaskId(nextTaskId);
+                encodePutTask(created, 0, now, true);
+                append();
+                applyPutTask(created);
+                track(SyncEntity.TASK, created.getTaskId(), 0, now, true);
+            }
+            return newTasks.size();
+        } finally {
+            lock.writeLock().unlock();
+            notifyWrite();
+        }
+    }
+
+    /**
+     * Replaces a task's values. The owner can't change, like in TaskDAO.
+     *
+     * @return False if there is no such task or its new category isn't the owner's.
+     */
+    public boolean updateTask(TaskRecord task) throws IOException {
+        lock.writeLock().lock();
+        try {
+            TaskRecord existing = tasks.get(task.getTaskId());
+            if (existing == null || !ownsCategory(existing.getUserId(), task)) {
+                return false;
+            }
+            TaskRecord updated = new TaskRecord(task.getTaskId(), existing.getUserId(), task.getTitle(),
+                    task.getDescription(), task.getPriority(), task.getDueDate(), task.getStatus(),
+                    task.getCategory());
+            long now = System.currentTimeMillis();
+            int remoteId = remoteIdOf(SyncEntity.TASK, updated.getTaskId());
+            encodePutTask(updated, remoteId, now, true);
+            append();
+            applyPutTask(updated);
+            track(SyncEntity.TASK, updated.getTaskId(), remoteId, now, true);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+            notifyWrite();
+        }
+    }
+
+    /**
+     * Deletes a task and its subtasks.
+     *
+     * @return False if there is no such task.
+     */
+    public boolean deleteTask(int taskId) throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (!tasks.containsKey(taskId)) {
+                return false;
+            }
+            long now = System.currentTimeMillis();
+            encodeDelete(DELETE_TASK, taskId, now, true);
+            append();
+            applyDeleteTask(taskId, now, true);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+            notifyWrite();
+        }
+    }
+
+    /**
+     * Changes many of a user's tasks in one go (bulk move, priority...).
+     * There is one record per task, all appended under one lock, so readers
+     * see either none or all of the changes, and sync pushes them together.
+     * Tasks that don't exist or belong to another user are skipped.
+     *
+     * @param change Computes a task's new values; the ID and owner can't change.
+     * @return How many tasks were changed, or -1 if a new category isn't the user's (then none are).
+     */
+    public int updateTasks(int userId, Collection<Integer> taskIds, UnaryOperator<TaskRecord> change)
+            throws IOException {
+        lock.writeLock().lock();
+        try {
+            List<TaskRecord> updates = new ArrayList<>(taskIds.size());
+            for (int taskId : taskIds) {
+                TaskRecord existing = tasks.get(taskId);
+                if (existing == null || existing.getUserId() != userId) {
+                    continue;
+                }
+                TaskRecord task = change.apply(existing);
+                if (!ownsCategory(userId, task)) {
+                    return -1;
+                }
+                updates.add(new TaskRecord(taskId, userId, task.getTitle(), task.getDescription(),
+                        task.getPriority(), task.getDueDate(), task.getStatus(), task.getCategory()));
+            }
+            long now = System.currentTimeMillis();
+            for (TaskRecord updated : updates) {
+                int remoteId = remoteIdOf(SyncEntity.TASK, updated.getTaskId());
+                encodePutTask(updated, remoteId, now, true);
+                append();
+                applyPutTask(updated);
+                track(SyncEntity.TASK, updated.getTaskId(), remoteId, now, true);
+            }
+            return updates.size();
+        } finally {
+            lock.writeLock().unlock();
+            notifyWrite();
+        }
+    }
+
+    /**
+     * Deletes many of a user's tasks (and their subtasks) under one lock,
+     * like updateTasks. Tasks that don't exist or belong to another user are skipped.
+     *
+     * @return How many tasks were deleted.
+     */
+    public int deleteTasks(int userId, Collection<Integer> taskIds) throws IOException {
+        lock.writeLock().lock();
+        try {
+            long now = System.currentTimeMillis();
+            int deleted = 0;
+            for (int taskId : taskIds) {
+                TaskRecord existing = tasks.get(taskId);
+                if (existing == null || existing.getUserId() != userId) {
+                    continue;
+                }
+                encodeDelete(DELETE_TASK, taskId, now, true);
+                append();
+                applyDeleteTask(taskId, now, true);
+                deleted++;
+            }
+            return deleted;
+        } finally {
+            lock.writeLock().unlock();
+            notifyWrite();
+        }
+    }
+
+    /**
+     * Changes the status of many tasks with a single record, so either all
+     * of them are stored or none. Unknown IDs are skipped.
+     */
+    public void updateTaskStatuses(Map<Integer, Status> statuses) throws IOException {
+        if (statuses.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            long now = System.currentTimeMillis();
+            appendStatuses(TASK_STATUSES, statuses, now);
+            for (Map.Entry<Integer, Status> entry : statuses.entrySet()) {
+                applyTaskStatus(entry.getKey(), entry.getValue());
+                touch(SyncEntity.TASK, entry.getKey(), now);
+            }
+        } finally {
+            lock.writeLock().unlock();
+            notifyWrite();
+        }
+    }
+
+    // --- Subtasks ---
+
+    /**
+     * @return New Subtask objects for a task's subtasks, in ID order.
+     */
+    public List<Subtask> getSubtasks(int taskId) {
+        lock.readLock().lock();
+        try {
+            List<Subtask> result = new ArrayList<>();
+            for (SubtaskRow row : subtaskRows(taskId)) {
+                result.add(row.toSubtask());
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Stores a new pending subtask.
+     *
+     * @return The new subtask, or null if the parent task doesn't exist.
+     */
+    public Subtask createSubtask(String title, int taskId) throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (!tasks.containsKey(taskId)) {
+                return null;
+            }
+            long now = System.currentTimeMillis();
+            SubtaskRow row = new SubtaskRow(nextSubtaskId, taskId, title, Status.PENDING);
+            encodePutSubtask(row, 0, now, true);
+            append();
+            applyPutSubtask(row);
+            track(SyncEntity.SUBTASK, row.subtaskId, 0, now, true);
+            return row.toSubtask();
+        } finally {
+            lock.writeLock().unlock();
+            notifyWrite();
+        }
+    }
+
+    /**
+     * @return False if there is no such subtask.
+     */
+    public boolean updateSubtask(int subtaskId, String title, Status status) throws IOException {
+        lock.writeLock().lock();
+        try {
+            SubtaskRow existing = subtasks.get(subtaskId);
+            if (existing == null) {
+                return false;
+            }
+            long now = System.currentTimeMillis();
+            int remoteId = remoteIdOf(SyncEntity.SUBTASK, subtaskId);
+            SubtaskRow updated = new SubtaskRow(subtaskId, existing.taskId, title, status);
+            encodePutSubtask(updated, remoteId, now, true);
+            append();
+            applyPutSubtask(updated);
+            track(SyncEntity.SUBTASK, subtaskId, remoteId, now, true);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+            notifyWrite();
+        }
+    }
+
+    /**
+     * @return False if there is no such subtask.
+     */
+    public boolean deleteSubtask(int subtaskId) throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (!subtasks.containsKey(subtaskId)) {
+                return false;
+            }
+            long now = System.currentTimeMillis();
+            encodeDelete(DELETE_SUBTASK, subtaskId, now, true);
+            append();
+            applyDeleteSubtask(subtaskId, now, true);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+            notifyWrite();
+        }
+    }
+
+    /**
+     * Changes the status of many subtasks with a single record. Unknown IDs are skipped.
+     */
+    public void updateSubtaskStatuses(Map<Integer, Status> statuses) throws IOException {
+        if (statuses.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            long now = System.currentTimeMillis();
+            appendStatuses(SUBTASK_STATUSES, statuses, now);
+            for (Map.Entry<Integer, Status> entry : statuses.entrySet()) {
+                applySubtaskStatus(entry.getKey(), entry.getValue());
+                touch(SyncEntity.SUBTASK, entry.getKey(), now);
+            }
+        } finally {
+            lock.writeLock().unlock();
+            notifyWrite();
+        }
+    }
+
+    // --- Sync (used by the SyncEngine) ---
+
+    /**
+     * Tells the listener about every local write, e.g. to schedule a push.
+     * It runs on the writing thread and must return quickly. Changes pulled
+     * from the server (applyServerChanges) don't trigger it.
+     */
+    public void setWriteListener(Runnable listener) {
+        this.writeListener = listener;
+    }
+
+    /**
+     * Collects a user's changes the server doesn't have yet, in the order
+     * they can be pushed: new and edited categories, tasks and subtasks
+     * (parents before children), then deletes (children before parents).
+     *
+     * @param limit At most this many rows.
+     */
+    public List<SyncRow> getPendingChanges(int userId, int limit) {
+        lock.readLock().lock();
+        try {
+            List<SyncRow> rows = new ArrayList<>();
+            for (int categoryId : dirtyIds.get(SyncEntity.CATEGORY)) {
+                CategoryRow row = categories.get(categoryId);
+                if (rows.size() < limit && row.userId == userId) {
+                    SyncState state = syncStates.get(SyncEntity.CATEGORY).get(categoryId);
+                    rows.add(SyncRow.category(categoryId, state.remoteId, userId, row.name, state.updatedAt));
+                }
+            }
+            for (int taskId : dirtyIds.get(SyncEntity.TASK)) {
+                TaskRecord task = tasks.get(taskId);
+                if (rows.size() < limit && task.getUserId() == userId) {
+                    SyncState state = syncStates.get(SyncEntity.TASK).get(taskId);
+                    rows.add(SyncRow.task(taskId, state.remoteId, task.getCategoryId(),
+                            remoteIdOf(SyncEntity.CATEGORY, task.getCategoryId()), task, state.updatedAt));
+                }
+            }
+            for (int subtaskId : dirtyIds.get(SyncEntity.SUBTASK)) {
+                SubtaskRow row = subtasks.get(subtaskId);
+                if (rows.size() < limit && tasks.get(row.taskId).getUserId() == userId) {
+                    SyncState state = syncStates.get(SyncEntity.SUBTASK).get(subtaskId);
+                    rows.add(SyncRow.subtask(subtaskId, state.remoteId, row.taskId,
+                            remoteIdOf(SyncEntity.TASK, row.taskId), userId, row.title, row.status,
+                            state.updatedAt));
+                }
+            }
+            for (SyncEntity entity : new SyncEntity[]{SyncEntity.SUBTASK, SyncEntity.TASK, SyncEntity.CATEGORY}) {
+                for (Map.Entry<Integer, PendingDelete> entry : pendingDeletes.get(entity).entrySet()) {
+                    PendingDelete delete = entry.getValue();
+                    if (rows.size() < limit && delete.userId == userId) {
+                        rows.add(SyncRow.deletion(entity, entry.getKey(), userId, delete.deletedAt));
+                    }
+                }
+            }
+            return rows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Records that the server has these rows (from getPendingChanges, with
+     * the remote IDs the server gave them). A row edited again since it was
+     * collected keeps its newer edit pending. One record for the whole batch.
+     */
+    public void acknowledge(List<SyncRow> pushed) throws IOException {
+        if (pushed.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            List<SyncRow> rows = new ArrayList<>();
+            List<SyncRow> deletes = new ArrayList<>();
+            for (SyncRow row : pushed) {
+                (row.isDeleted() ? deletes : rows).add(row);
+            }
+            begin(SYNC_ACK);
+            putInt(rows.size());
+            for (SyncRow row : rows) {
+                putByte(row.getEntity().code());
+                putInt(row.getLocalId());
+                putInt(row.getRemoteId());
+                putInt(row.getUserId());
+                putLong(row.getUpdatedAt());
+            }
+            putInt(deletes.size());
+            for (SyncRow row : deletes) {
+                putByte(row.getEntity().code());
+                putInt(row.getRemoteId());
+            }
+            append();
+            for (SyncRow row : rows) {
+                applyAck(row.getEntity(), row.getLocalId(), row.getRemoteId(), row.getUserId(), row.getUpdatedAt());
+            }
+            for (SyncRow row : deletes) {
+                pendingDeletes.get(row.getEntity()).remove(row.getRemoteId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies changes read from the server and moves the user's watermark.
+     *
+     * Conflicts (the row also has a local edit or delete that isn't pushed
+     * yet) go to the newer edit by edit time; on a tie the server wins, so
+     * every client ends up with the same row. A kept local edit is pushed
+     * later as usual. A server delete of a row with a newer local edit puts
+     * the row back: it is pushed again as a new row.
+     *
+     * @param rows Categories, then tasks, then subtasks, then deletions.
+     * @param watermark The server version these changes go up to.
+     */
+    public PullResult applyServerChanges(int userId, List<SyncRow> rows, long watermark) throws IOException {
+        lock.writeLock().lock();
+        try {
+            int applied = 0;
+            int localWins = 0;
+            int remoteWins = 0;
+            boolean categoriesChanged = false;
+            Set<Integer> changedTaskIds = new LinkedHashSet<>();
+            Set<Integer> deletedTaskIds = new LinkedHashSet<>();
+
+            for (SyncRow row : rows) {
+                SyncEntity entity = row.getEntity();
+                Integer localId = localIdsByRemote.get(entity).get(row.getRemoteId());
+                SyncState state = localId != null ? syncStates.get(entity).get(localId) : null;
+                // A deleted subtask's task is only known before the delete
+                SubtaskRow oldSubtask = entity == SyncEntity.SUBTASK && localId != null ? subtasks.get(localId) : null;
+
+                if (row.isDeleted()) {
+                    if (state == null) {
+                        continue; // Never had it, or deleted it already
+                    }
+                    if (state.dirty && state.updatedAt > row.getUpdatedAt()) {
+                        localWins++;
+                        detach(entity, localId, System.currentTimeMillis());
+                        continue;
+                    }
+                    if (state.dirty) {
+                        remoteWins++;
+                    }
+                    byte type = entity == SyncEntity.CATEGORY ? DELETE_CATEGORY
+                            : entity == SyncEntity.TASK ? DELETE_TASK : DELETE_SUBTASK;
+                    encodeDelete(type, localId, row.getUpdatedAt(), false);
+                    append();
+                    applyDelete(entity, localId, row.getUpdatedAt(), false);
+                } else if (state != null) {
+                    if (state.dirty) {
+                        if (state.updatedAt > row.getUpdatedAt()) {
+                            localWins++;
+                            continue;
+                        }
+                        remoteWins++;
+                    } else if (state.updatedAt == row.getUpdatedAt()) {
+                        continue; // Already have it, e.g. our own push coming back
+                    }
+                    if (!putServerRow(row, localId)) {
+                        continue;
+                    }
+                } else {
+                    PendingDelete delete = pendingDeletes.get(entity).get(row.getRemoteId());
+                    if (delete != null) {
+                        if (delete.deletedAt > row.getUpdatedAt()) {
+                            localWins++;
+                            continue;
+                        }
+                        remoteWins++;
+                    }
+                    if (!putServerRow(row, 0)) {
+                        continue;
+                    }
+                }
+                applied++;
+                if (entity == SyncEntity.CATEGORY) {
+                    categoriesChanged = true;
+                } else if (entity == SyncEntity.TASK && row.isDeleted()) {
+                    changedTaskIds.remove(localId);
+                    deletedTaskIds.add(localId);
+                } else {
+                    int taskId = entity == SyncEntity.TASK
+                            ? localIdsByRemote.get(SyncEntity.TASK).get(row.getRemoteId())
+                            : row.isDeleted()
+                            ? oldSubtask.taskId
+                            : subtasks.get(localIdsByRemote.get(SyncEntity.SUBTASK).get(row.getRemoteId())).taskId;
+                    if (!deletedTaskIds.contains(taskId)) {
+                        changedTaskIds.add(taskId);
+                    }
+                }
+            }
+
+            Long previous = watermarks.get(userId);
+            if (previous == null || previous != watermark) {
+                begin(WATERMARK);
+                putInt(userId);
+                putLong(watermark);
+                append();
+                watermarks.put(userId, watermark);
+            }
+            return new PullResult(applied, localWins, remoteWins, categoriesChanged, changedTaskIds, deletedTaskIds);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Forgets a row's remote ID because the server no longer has the row,
+     * so that its pending edit is pushed as a new row. Does nothing if the
+     * row has no pending edit or is linked to a different remote row by now.
+     */
+    public void detachFromServer(SyncEntity entity, int localId, int remoteId) throws IOException {
+        lock.writeLock().lock();
+        try {
+            SyncState state = syncStates.get(entity).get(localId);
+            if (state != null && state.dirty && state.remoteId == remoteId) {
+                detach(entity, localId, state.updatedAt);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return The server version the user's changes have been pulled up to (0 if never).
+     */
+    public long getWatermark(int userId) {
+        lock.readLock().lock();
+        try {
+            return watermarks.getOrDefault(userId, 0L);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return How many of the user's rows have changes the server doesn't have yet.
+     */
+    public int countPendingChanges(int userId) {
+        return getPendingChanges(userId, Integer.MAX_VALUE).size();
+    }
+
+    /**
+     * @return The edit time of the user's oldest change the server doesn't
+     *         have yet, or 0 if everything is pushed.
+     */
+    public long getOldestPendingChange(int userId) {
+        long oldest = Long.MAX_VALUE;
+        for (SyncRow row : getPendingChanges(userId, Integer.MAX_VALUE)) {
+            oldest = Math.min(oldest, row.getUpdatedAt());
+        }
+        return oldest == Long.MAX_VALUE ? 0 : oldest;
+    }
+
+    // --- Maintenance ---
+
+    /**
+     * Rewrites the log with only the live rows, then swaps it in.
+     *
+     * The new log is written to a temporary file, flushed, and renamed to
+     * the next generation's name. A crash before the rename leaves the old
+     * log in charge; the leftover file is deleted on the next open.
+     */
+    public void compact() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            long start = System.nanoTime();
+            List<ByteBuffer> snapshot = snapshotRecords();
+            long newGeneration = generation + 1;
+            Path target = pathFor(newGeneration);
+            Path temp = directory.resolve(target.getFileName() + ".tmp");
+
+            JournalFile.write(temp, snapshot);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+
+            JournalFile newFile = JournalFile.open(target, record -> { });
+            JournalFile oldFile = file;
+            file = newFile;
+            generation = newGeneration;
+            recordCount = snapshot.size();
+            oldFile.close();
+            deleteQuietly(oldFile.getPath());
+
+            compactionCount++;
+            lastCompactionNanos = System.nanoTime() - start;
+            System.out.printf("Compacted journal: %d records, %d bytes in %.1f ms%n",
+                    recordCount, file.size(), lastCompactionNanos / 1_000_000.0);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Flushes the log to the disk and stops the background thread.
+     */
+    @Override
+    public void close() {
+        housekeeper.shutdownNow();
+        lock.writeLock().lock();
+        try {
+            if (!closed) {
+                closed = true;
+                file.close();
+                System.out.println("Closed " + describe());
+            }
+        } catch (IOException e) {
+            System.err.println("Journal Error closing: " + e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // --- Metrics getters ---
+
+    public long getAppendCount() {
+        lock.readLock().lock();
+        try {
+            return appendCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public double getAverageAppendMicros() {
+        lock.readLock().lock();
+        try {
+            return appendCount == 0 ? 0 : totalAppendNanos / 1_000.0 / appendCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getCompactionCount() {
+        lock.readLock().lock();
+        try {
+            return compactionCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public String describe() {
+        lock.readLock().lock();
+        try {
+            int unpushed = 0;
+            for (SyncEntity entity : SyncEntity.values()) {
+                unpushed += dirtyIds.get(entity).size() + pendingDeletes.get(entity).size();
+            }
+            return String.format("JournalStore[file=%s, bytes=%d, records=%d, categories=%d, tasks=%d, subtasks=%d, "
+                            + "unpushed=%d, replayed=%d in %.1fms, appends=%d, avgAppend=%.1fus, compactions=%d, "
+                            + "lastCompaction=%.1fms]",
+                    file.getPath().getFileName(), file.size(), recordCount, categories.size(), tasks.size(),
+                    subtasks.size(), unpushed, replayedRecords, openNanos / 1_000_000.0, appendCount,
+                    appendCount == 0 ? 0 : totalAppendNanos / 1_000.0 / appendCount,
+                    compactionCount, lastCompactionNanos / 1_000_000.0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- Housekeeping (background thread) ---
+
+    private void flush() {
+        // Only the bookkeeping needs the lock, the disk write happens outside it
+        MappedByteBuffer dirty;
+        lock.writeLock().lock();
+        try {
+            dirty = closed ? null : file.takeDirtyMapping();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (dirty != null) {
+            dirty.force();
+        }
+    }
+
+    private void maybeCompact() {
+        boolean due;
+        lock.readLock().lock();
+        try {
+            long liveRows = categories.size() + tasks.size() + subtasks.size();
+            due = !closed && file.size() >= COMPACTION_MIN_BYTES
+                    && recordCount > COMPACTION_GARBAGE_RATIO * (liveRows + 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (due) {
+            try {
+                compact();
+            } catch (IOException e) {
+                System.err.println("Journal Error compacting: " + e.getMessage());
+            }
+        }
+    }
+
+    // --- Applying records to the index (shared by writes and replay) ---
+
+    /**
+     * @return Whether the task has no category or one of the user's. Call with the lock held.
+     */
+    private boolean ownsCategory(int userId, TaskRecord task) {
+        if (task.getCategory() == null) {
+            return true;
+        }
+        CategoryRow row = categories.get(task.getCategoryId());
+        return row != null && row.userId == userId;
+    }
+
+    private void applyPutCategory(int categoryId, int userId, String name) {
+        categories.put(categoryId, new CategoryRow(categoryId, userId, name));
+        nextCategoryId = Math.max(nextCategoryId, categoryId + 1);
+    }
+
+    private void applyDeleteCategory(int categoryId, long deletedAt, boolean push) {
+        CategoryRow row = categories.remove(categoryId);
+        if (row == null) {
+            return;
+        }
+        untrack(SyncEntity.CATEGORY, categoryId, row.userId, deletedAt, push);
+        TreeSet<Integer> ids = taskIdsByList.remove(listKey(row.userId, categoryId));
+        if (ids != null) {
+            for (int taskId : ids) {
+                applyPutTask(tasks.get(taskId).withCategory(null));
+            }
+        }
+    }
+
+    private void applyPutTask(TaskRecord task) {
+        // Tasks share the store's Category objects, not the caller's
+        CategoryRow row = task.getCategory() != null ? categories.get(task.getCategoryId()) : null;
+        TaskRecord stored = task.withCategory(row != null ? row.category : null);
+
+        TaskRecord previous = tasks.put(stored.getTaskId(), stored);
+        if (previous != null) {
+            removeFromList(previous);
+        }
+        taskIdsByList.computeIfAbsent(listKey(stored.getUserId(), stored.getCategoryId()), k -> new TreeSet<>())
+                .add(stored.getTaskId());
+        nextTaskId = Math.max(nextTaskId, stored.getTaskId() + 1);
+    }
+
+    private void applyDeleteTask(int taskId, long deletedAt, boolean push) {
+        TaskRecord previous = tasks.remove(taskId);
+        if (previous == null) {
+            return;
+        }
+        removeFromList(previous);
+        untrack(SyncEntity.TASK, taskId, previous.getUserId(), deletedAt, push);
+        TreeSet<Integer> subtaskIds = subtaskIdsByTask.remove(taskId);
+        if (subtaskIds != null) {
+            for (int subtaskId : subtaskIds) {
+                subtasks.remove(subtaskId);
+                // The server's cascade deletes these along with the task
+                untrack(SyncEntity.SUBTASK, subtaskId, previous.getUserId(), deletedAt, false);
+            }
+        }
+    }
+
+    private void applyTaskStatus(int taskId, Status status) {
+        TaskRecord task = tasks.get(taskId);
+        if (task != null) {
+            tasks.put(taskId, task.withStatus(status)); // Same list, no need to move it
+        }
+    }
+
+    /**
+     * @return False if the parent task doesn't exist (the subtask is dropped).
+     */
+    private boolean applyPutSubtask(SubtaskRow row) {
+        if (!tasks.containsKey(row.taskId)) {
+            return false;
+        }
+        subtasks.put(row.subtaskId, row);
+        subtaskIdsByTask.computeIfAbsent(row.taskId, k -> new TreeSet<>()).add(row.subtaskId);
+        nextSubtaskId = Math.max(nextSubtaskId, row.subtaskId + 1);
+        return true;
+    }
+
+    private void applyDeleteSubtask(int subtaskId, long deletedAt, boolean push) {
+        SubtaskRow row = subtasks.remove(subtaskId);
+        if (row == null) {
+            return;
+        }
+        untrack(SyncEntity.SUBTASK, subtaskId, tasks.get(row.taskId).getUserId(), deletedAt, push);
+        TreeSet<Integer> ids = subtaskIdsByTask.get(row.taskId);
+        ids.remove(subtaskId);
+        if (ids.isEmpty()) {
+            subtaskIdsByTask.remove(row.taskId);
+        }
+    }
+
+    private void applySubtaskStatus(int subtaskId, Status status) {
+        SubtaskRow row = subtasks.get(subtaskId);
+        if (row != null) {
+            subtasks.put(subtaskId, new SubtaskRow(subtaskId, row.taskId, row.title, status));
+        }
+    }
+
+    private void applyDelete(SyncEntity entity, int localId, long deletedAt, boolean push) {
+        switch (entity) {
+            case CATEGORY:
+                applyDeleteCategory(localId, deletedAt, push);
+                break;
+            case TASK:
+                applyDeleteTask(localId, deletedAt, push);
+                break;
+            default:
+                applyDeleteSubtask(localId, deletedAt, push);
+        }
+    }
+
+    // --- Sync state bookkeeping (shared by writes and replay) ---
+
+    private void track(SyncEntity entity, int localId, int remoteId, long updatedAt, boolean dirty) {
+        SyncState state = syncStates.get(entity).computeIfAbsent(localId, k -> new SyncState());
+        if (state.remoteId != remoteId) {
+            Map<Integer, Integer> byRemote = localIdsByRemote.get(entity);
+            if (state.remoteId != 0) {
+                byRemote.remove(state.remoteId);
+            }
+            if (remoteId != 0) {
+                byRemote.put(remoteId, localId);
+                // The row exists locally after all (a server edit beat the local delete)
+                pendingDeletes.get(entity).remove(remoteId);
+            }
+            state.remoteId = remoteId;
+        }
+        state.updatedAt = updatedAt;
+        state.dirty = dirty;
+        if (dirty) {
+            dirtyIds.get(entity).add(localId);
+        } else {
+            dirtyIds.get(entity).remove(localId);
+        }
+    }
+
+    /**
+     * Marks an existing row as edited locally at the given time.
+     */
+    private void touch(SyncEntity entity, int localId, long updatedAt) {
+        SyncState state = syncStates.get(entity).get(localId);
+        if (state != null) {
+            track(entity, localId, state.remoteId, updatedAt, true);
+        }
+    }
+
+    /**
+     * Drops a deleted row's sync state.
+     *
+     * @param push True to delete it on the server too (a local delete).
+     */
+    private void untrack(SyncEntity entity, int localId, int userId, long deletedAt, boolean push) {
+        SyncState state = syncStates.get(entity).remove(localId);
+        dirtyIds.get(entity).remove(localId);
+        if (state != null && state.remoteId != 0) {
+            localIdsByRemote.get(entity).remove(state.remoteId);
+            if (push) {
+                pendingDeletes.get(entity).put(state.remoteId, new PendingDelete(userId, deletedAt));
+            }
+        }
+    }
+
+    private void applyAck(SyncEntity entity, int localId, int remoteId, int userId, long updatedAt) {
+        SyncState state = syncStates.get(entity).get(localId);
+        if (state == null) {
+            // Deleted locally while its insert was on the way: the server has
+            // a row nobody asked it to delete yet
+            if (remoteId != 0) {
+                pendingDeletes.get(entity).putIfAbsent(remoteId, new PendingDelete(userId, updatedAt + 1));
+            }
+            return;
+        }
+        boolean stillDirty = state.dirty && state.updatedAt != updatedAt;
+        track(entity, localId, remoteId, state.updatedAt, stillDirty);
+    }
+
+    private int remoteIdOf(SyncEntity entity, int localId) {
+        SyncState state = syncStates.get(entity).get(localId);
+        return state != null ? state.remoteId : 0;
+    }
+
+    private void notifyWrite() {
+        Runnable listener = writeListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Stores a row read from the server under the given local ID (0 for a
+     * new local row), marked as pushed.
+     *
+     * @return False if the row can't be stored (a subtask whose task isn't here).
+     */
+    private boolean putServerRow(SyncRow row, int localId) throws IOException {
+        switch (row.getEntity()) {
+            case CATEGORY: {
+                CategoryRow category = new CategoryRow(localId != 0 ? localId : nextCategoryId,
+                        row.getUserId(), row.getTitle());
+                encodePutCategory(category, row.getRemoteId(), row.getUpdatedAt(), false);
+                append();
+                applyPutCategory(category.categoryId, category.userId, category.name);
+                track(SyncEntity.CATEGORY, category.categoryId, row.getRemoteId(), row.getUpdatedAt(), false);
+                return true;
+            }
+            case TASK: {
+                Integer categoryId = localIdsByRemote.get(SyncEntity.CATEGORY).get(row.getParentRemoteId());
+                TaskRecord values = row.getTask();
+                TaskRecord task = new TaskRecord(localId != 0 ? localId : nextTaskId, row.getUserId(),
+                        values.getTitle(), values.getDescription(), values.getPriority(), values.getDueDate(),
+                        values.getStatus(), categoryId != null ? new Category(categoryId, null) : null);
+                encodePutTask(task, row.getRemoteId(), row.getUpdatedAt(), false);
+                append();
+                applyPutTask(task);
+                track(SyncEntity.TASK, task.getTaskId(), row.getRemoteId(), row.getUpdatedAt(), false);
+                return true;
+            }
+            default: {
+                Integer taskId = localIdsByRemote.get(SyncEntity.TASK).get(row.getParentRemoteId());
+                if (taskId == null) {
+                    return false;
+                }
+                SubtaskRow subtask = new SubtaskRow(localId != 0 ? localId : nextSubtaskId, taskId,
+                        row.getTitle(), row.getStatus());
+                encodePutSubtask(subtask, row.getRemoteId(), row.getUpdatedAt(), false);
+                append();
+                applyPutSubtask(subtask);
+                track(SyncEntity.SUBTASK, subtask.subtaskId, row.getRemoteId(), row.getUpdatedAt(), false);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Unlinks a row from a server row that is gone, so the row is pushed
+     * again as a new one. Rows that pointed at it on the server lost it
+     * too, so they are pushed again as well: a task's subtasks (deleted
+     * with it) and a category's tasks (left without a category).
+     */
+    private void detach(SyncEntity entity, int localId, long updatedAt) throws IOException {
+        rewriteSyncState(entity, localId, 0, updatedAt, true);
+        if (entity == SyncEntity.TASK) {
+            for (SubtaskRow row : subtaskRows(localId)) {
+                rewriteSyncState(SyncEntity.SUBTASK, row.subtaskId, 0, updatedAt, true);
+            }
+        } else if (entity == SyncEntity.CATEGORY) {
+            CategoryRow category = categories.get(localId);
+            TreeSet<Integer> ids = taskIdsByList.get(listKey(category.userId, localId));
+            if (ids != null) {
+                for (int taskId : ids) {
+                    rewriteSyncState(SyncEntity.TASK, taskId, remoteIdOf(SyncEntity.TASK, taskId), updatedAt, true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Appends a row's current values again with new sync state.
+     */
+    private void rewriteSyncState(SyncEntity entity, int localId, int remoteId, long updatedAt, boolean dirty)
+            throws IOException {
+        switch (entity) {
+            case CATEGORY:
+                encodePutCategory(categories.get(localId), remoteId, updatedAt, dirty);
+                break;
+            case TASK:
+                encodePutTask(tasks.get(localId), remoteId, updatedAt, dirty);
+                break;
+            default:
+                encodePutSubtask(subtasks.get(localId), remoteId, updatedAt, dirty);
+        }
+        append();
+        track(entity, localId, remoteId, updatedAt, dirty);
+    }
+
+    private void removeFromList(TaskRecord task) {
+        long key = listKey(task.getUserId(), task.getCategoryId());
+        TreeSet<Integer> ids = taskIdsByList.get(key);
+        if (ids != null) {
+            ids.remove(task.getTaskId());
+            if (ids.isEmpty()) {
+                taskIdsByList.remove(key);
+            }
+        }
+    }
+
+    private List<Integer> tasksInList(int userId, int categoryId) {
+        TreeSet<Integer> ids = taskIdsByList.get(listKey(userId, categoryId));
+        return ids != null ? new ArrayList<>(ids) : new ArrayList<>();
+    }
+
+    private List<SubtaskRow> subtaskRows(int taskId) {
+        TreeSet<Integer> ids = subtaskIdsByTask.get(taskId);
+        List<SubtaskRow> rows = new ArrayList<>(ids != null ? ids.size() : 0);
+        if (ids != null) {
+            for (int subtaskId : ids) {
+                rows.add(subtasks.get(subtaskId));
+            }
+        }
+        return rows;
+    }
+
+    private static long listKey(int userId, int categoryId) {
+        return ((long) userId << 32) | (categoryId & 0xFFFFFFFFL);
+    }
+
+    // --- Replay ---
+
+    private void replay(ByteBuffer record) {
+        replayedRecords++;
+        recordCount++;
+        byte type = record.get();
+        switch (type) {
+            case PUT_CATEGORY: {
+                int categoryId = record.getInt();
+                int userId = record.getInt();
+                applyPutCategory(categoryId, userId, getString(record));
+                replaySyncState(SyncEntity.CATEGORY, categoryId, record);
+                break;
+            }
+            case DELETE_CATEGORY:
+                replayDelete(SyncEntity.CATEGORY, record);
+                break;
+            case PUT_TASK: {
+                TaskRecord task = readTask(record);
+                applyPutTask(task);
+                replaySyncState(SyncEntity.TASK, task.getTaskId(), record);
+                break;
+            }
+            case DELETE_TASK:
+                replayDelete(SyncEntity.TASK, record);
+                break;
+            case TASK_STATUSES:
+                replayStatuses(SyncEntity.TASK, record);
+                break;
+            case PUT_SUBTASK: {
+                int subtaskId = record.getInt();
+                int taskId = record.getInt();
+                String title = getString(record);
+                if (applyPutSubtask(new SubtaskRow(subtaskId, taskId, title, Status.fromString(getString(record))))) {
+                    replaySyncState(SyncEntity.SUBTASK, subtaskId, record);
+                }
+                break;
+            }
+            case DELETE_SUBTASK:
+                replayDelete(SyncEntity.SUBTASK, record);
+                break;
+            case SUBTASK_STATUSES:
+                replayStatuses(SyncEntity.SUBTASK, record);
+                break;
+            case ID_COUNTERS:
+                nextCategoryId = Math.max(nextCategoryId, record.getInt());
+                nextTaskId = Math.max(nextTaskId, record.getInt());
+                nextSubtaskId = Math.max(nextSubtaskId, record.getInt());
+                break;
+            case SYNC_ACK:
+                for (int n = record.getInt(); n > 0; n--) {
+                    SyncEntity entity = SyncEntity.fromCode(record.get());
+                    int localId = record.getInt();
+                    int remoteId = record.getInt();
+                    int userId = record.getInt();
+                    applyAck(entity, localId, remoteId, userId, record.getLong());
+                }
+                for (int n = record.getInt(); n > 0; n--) {
+                    SyncEntity entity = SyncEntity.fromCode(record.get());
+                    pendingDeletes.get(entity).remove(record.getInt());
+                }
+                break;
+            case PENDING_DELETE: {
+                SyncEntity entity = SyncEntity.fromCode(record.get());
+                int remoteId = record.getInt();
+                int userId = record.getInt();
+                pendingDeletes.get(entity).put(remoteId, new PendingDelete(userId, record.getLong()));
+                break;
+            }
+            case WATERMARK: {
+                int userId = record.getInt();
+                watermarks.put(userId, record.getLong());
+                break;
+            }
+            default:
+                // Written by a newer version of the app; skip it rather than lose everything after it
+                System.err.println("Journal Error: unknown record type " + type + ", skipped");
+        }
+    }
+
+    /**
+     * Reads the sync state after a row's values. Records from before sync
+     * don't have it; those rows were never pushed.
+     */
+    private void replaySyncState(SyncEntity entity, int localId, ByteBuffer record) {
+        if (record.hasRemaining()) {
+            int remoteId = record.getInt();
+            long updatedAt = record.getLong();
+            track(entity, localId, remoteId, updatedAt, record.get() != 0);
+        } else {
+            track(entity, localId, 0, 0, true);
+        }
+    }
+
+    private void replayDelete(SyncEntity entity, ByteBuffer record) {
+        int localId = record.getInt();
+        long deletedAt = record.hasRemaining() ? record.getLong() : 0;
+        boolean push = !record.hasRemaining() || record.get() != 0;
+        applyDelete(entity, localId, deletedAt, push);
+    }
+
+    private void replayStatuses(SyncEntity entity, ByteBuffer record) {
+        List<Integer> ids = new ArrayList<>();
+        for (int n = record.getInt(); n > 0; n--) {
+            int id = record.getInt();
+            Status status = Status.fromString(getString(record));
+            if (entity == SyncEntity.TASK) {
+                applyTaskStatus(id, status);
+            } else {
+                applySubtaskStatus(id, status);
+            }
+            ids.add(id);
+        }
+        long updatedAt = record.hasRemaining() ? record.getLong() : 0;
+        for (int id : ids) {
+            touch(entity, id, updatedAt);
+        }
+    }
+
+    private TaskRecord readTask(ByteBuffer record) {
+        int taskId = record.getInt();
+        int userId = record.getInt();
+        int categoryId = record.getInt();
+        String title = getString(record);
+        String description = getString(record);
+        String priority = getString(record);
+        long dueDay = record.getLong();
+        String status = getString(record);
+        // Only the ID matters here, applyPutTask swaps in the stored category
+        Category category = categoryId != 0 ? new Category(categoryId, null) : null;
+        return TaskRecord.fromDatabase(taskId, userId, title, description, priority,
+                dueDay != NO_DUE_DATE ? LocalDate.ofEpochDay(dueDay) : null, status, category);
+    }
+
+    private static String getString(ByteBuffer record) {
+        int length = record.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // --- Encoding and appending (callers hold the write lock) ---
+
+    private void encodePutCategory(CategoryRow row, int remoteId, long updatedAt, boolean dirty) {
+        begin(PUT_CATEGORY);
+        putInt(row.categoryId);
+        putInt(row.userId);
+        putString(row.name);
+        putSyncState(remoteId, updatedAt, dirty);
+    }
+
+    private void encodePutTask(TaskRecord task, int remoteId, long updatedAt, boolean dirty) {
+        begin(PUT_TASK);
+        putInt(task.getTaskId());
+        putInt(task.getUserId());
+        putInt(task.getCategoryId());
+        putString(task.getTitle());
+        putString(task.getDescription());
+        putString(task.getPriority().name());
+        putLong(task.getDueDate() != null ? task.getDueDate().toEpochDay() : NO_DUE_DATE);
+        putString(task.getStatus().name());
+        putSyncState(remoteId, updatedAt, dirty);
+    }
+
+    private void encodePutSubtask(SubtaskRow row, int remoteId, long updatedAt, boolean dirty) {
+        begin(PUT_SUBTASK);
+        putInt(row.subtaskId);
+        putInt(row.taskId);
+        putString(row.title);
+        putString(row.status.name());
+        putSyncState(remoteId, updatedAt, dirty);
+    }
+
+    /**
+     * @param push True for a local delete, false for one that came from the server.
+     */
+    private void encodeDelete(byte type, int localId, long deletedAt, boolean push) {
+        begin(type);
+        putInt(localId);
+        putLong(deletedAt);
+        putByte(push ? (byte) 1 : (byte) 0);
+    }
+
+    private void appendStatuses(byte type, Map<Integer, Status> statuses, long updatedAt) throws IOException {
+        begin(type);
+        putInt(statuses.size());
+        for (Map.Entry<Integer, Status> entry : statuses.entrySet()) {
+            putInt(entry.getKey());
+            putString(entry.getValue().name());
+        }
+        putLong(updatedAt);
+        append();
+    }
+
+    private void putSyncState(int remoteId, long updatedAt, boolean dirty) {
+        putInt(remoteId);
+        putLong(updatedAt);
+        putByte(dirty ? (byte) 1 : (byte) 0);
+    }
+
+    private void begin(byte type) {
+        out.clear();
+        out.put(type);
+    }
+
+    private void putByte(byte value) {
+        ensureRoom(1);
+        out.put(value);
+    }
+
+    private void putInt(int value) {
+        ensureRoom(4);
+        out.putInt(value);
+    }
+
+    private void putLong(long value) {
+        ensureRoom(8);
+        out.putLong(value);
+    }
+
+    private void putString(String value) {
+        if (value == null) {
+            putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putInt(bytes.length);
+        ensureRoom(bytes.length);
+        out.put(bytes);
+    }
+
+    private void ensureRoom(int bytes) {
+        if (out.remaining() < bytes) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + bytes));
+            out.flip();
+            bigger.put(out);
+            out = bigger;
+        }
+    }
+
+    private void append() throws IOException {
+        if (closed) {
+            throw new IOException("Journal is closed");
+        }
+        long start = System.nanoTime();
+        out.flip();
+        file.append(out);
+        recordCount++;
+        appendCount++;
+        totalAppendNanos += System.nanoTime() - start;
+    }
+
+    /**
+     * Encodes every live row as a fresh record, categories first so that
+     * replaying tasks finds their categories.
+     */
+    private List<ByteBuffer> snapshotRecords() {
+        List<ByteBuffer> records = new ArrayList<>(categories.size() + tasks.size() + subtasks.size() + 1);
+
+        // Keeps deleted IDs from being handed out again
+        begin(ID_COUNTERS);
+        putInt(nextCategoryId);
+        putInt(nextTaskId);
+        putInt(nextSubtaskId);
+        records.add(copyOut());
+
+        for (CategoryRow row : categories.values()) {
+            SyncState state = syncStates.get(SyncEntity.CATEGORY).get(row.categoryId);
+            encodePutCategory(row, state.remoteId, state.updatedAt, state.dirty);
+            records.add(copyOut());
+        }
+        for (TaskRecord task : new TreeMap<>(tasks).values()) {
+            SyncState state = syncStates.get(SyncEntity.TASK).get(task.getTaskId());
+            encodePutTask(task, state.remoteId, state.updatedAt, state.dirty);
+            records.add(copyOut());
+        }
+        for (SubtaskRow row : new TreeMap<>(subtasks).values()) {
+            SyncState state = syncStates.get(SyncEntity.SUBTASK).get(row.subtaskId);
+            encodePutSubtask(row, state.remoteId, state.updatedAt, state.dirty);
+            records.add(copyOut());
+        }
+
+        // Sync state that isn't attached to a live row
+        for (Map.Entry<SyncEntity, Map<Integer, PendingDelete>> deletes : pendingDeletes.entrySet()) {
+            for (Map.Entry<Integer, PendingDelete> entry : deletes.getValue().entrySet()) {
+                begin(PENDING_DELETE);
+                putByte(deletes.getKey().code());
+                putInt(entry.getKey());
+                putInt(entry.getValue().userId);
+                putLong(entry.getValue().deletedAt);
+                records.add(copyOut());
+            }
+        }
+        for (Map.Entry<Integer, Long> entry : watermarks.entrySet()) {
+            begin(WATERMARK);
+            putInt(entry.getKey());
+            putLong(entry.getValue());
+            records.add(copyOut());
+        }
+        return records;
+    }
+
+    private ByteBuffer copyOut() {
+        out.flip();
+        ByteBuffer copy = ByteBuffer.allocate(out.remaining());
+        copy.put(out).flip();
+        return copy;
+    }
+
+    // --- Files ---
+
+    private Path pathFor(long generation) {
+        return directory.resolve("journal-" + generation + ".log");
+    }
+
+    /**
+     * @return The newest generation on disk, or 1 for a new store.
+     */
+    private long latestGeneration() throws IOException {
+        long latest = 1;
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, "journal-*.log")) {
+            for (Path entry : entries) {
+                Matcher m = FILE_NAME.matcher(entry.getFileName().toString());
+                if (m.matches()) {
+                    latest = Math.max(latest, Long.parseLong(m.group(1)));
+                }
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * Deletes older generations and unfinished compactions. Best effort: a
+     * file that can't be deleted yet (e.g. still mapped on Windows) is
+     * retried on the next open.
+     */
+    private void deleteLeftovers() throws IOException {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, "journal-*")) {
+            for (Path entry : entries) {
+                String name = entry.getFileName().toString();
+                Matcher m = FILE_NAME.matcher(name);
+                if (name.endsWith(".tmp") || (m.matches() && Long.parseLong(m.group(1)) < generation)) {
+                    deleteQuietly(entry);
+                }
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            System.err.println("Could not delete old journal file " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * A category row (Category itself doesn't know its owner).
+     */
+    private static final class CategoryRow {
+        final int categoryId;
+        final int userId;
+        final String name;
+        final Category category; // Shared by this category's TaskRecords
+
+        CategoryRow(int categoryId, int userId, String name) {
+            this.categoryId = categoryId;
+            this.userId = userId;
+            this.name = name;
+            this.category = new Category(categoryId, name);
+        }
+    }
+
+    /**
+     * A row's sync state (see the class comment).
+     */
+    private static final class SyncState {
+        int remoteId;    // 0 until the server has the row
+        long updatedAt;  // Time of the last edit, local or from the server (ms)
+        boolean dirty;   // The last edit is local and not pushed yet
+    }
+
+    private static final class PendingDelete {
+        final int userId;
+        final long deletedAt;
+
+        PendingDelete(int userId, long deletedAt) {
+            this.userId = userId;
+            this.deletedAt = deletedAt;
+        }
+    }
+
+    /**
+     * An immutable subtask row (Subtask is a mutable JavaFX object, handed out as copies).
+     */
+    private static final class SubtaskRow {
+        final int subtaskId;
+        final int taskId;
+        final String title;
+        final Status status;
+
+        SubtaskRow(int subtaskId, int taskId, String title, Status status) {
+            this.subtaskId = subtaskId;
+            this.taskId = taskId;
+            this.title = title;
+            this.status = status;
+        }
+
+        Subtask toSubtask() {
+            return new Subtask(subtaskId, taskId, title, status.name());
+        }
+    }
+}
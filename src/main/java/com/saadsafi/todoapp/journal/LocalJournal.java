@@ -0,0 +1,44 @@
+package com.saadsafi.todoapp.journal;
+
+import com.saadsafi.todoapp.db.DatabaseConnection;
+import java.io.IOException;
+
+/**
+ * The app's shared JournalStore, opened on first use in the configured
+ * directory (see DatabaseConfig). Like the connection pool, it stays open
+ * across logins and is closed when the app exits.
+ */
+public final class LocalJournal {
+
+    private static JournalStore store;
+
+    private LocalJournal() {
+    }
+
+    /**
+     * @return True if the configuration keeps tasks in the journal.
+     */
+    public static boolean isEnabled() {
+        return DatabaseConnection.getConfig().isJournalEnabled();
+    }
+
+    /**
+     * Returns the shared store, opening it (and replaying the log) on first use.
+     */
+    public static synchronized JournalStore get() throws IOException {
+        if (store == null) {
+            store = JournalStore.open(DatabaseConnection.getConfig().getJournalDir());
+        }
+        return store;
+    }
+
+    /**
+     * Flushes and closes the store, if it was opened. Called when the application exits.
+     */
+    public static synchronized void shutdown() {
+        if (store != null) {
+            store.close();
+            store = null;
+        }
+    }
+}
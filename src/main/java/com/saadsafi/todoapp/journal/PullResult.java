@@ -0,0 +1,60 @@
+package com.saadsafi.todoapp.journal;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * What applying a batch of server changes to the JournalStore did.
+ */
+public final class PullResult {
+
+    private final int applied;
+    private final int localWins;
+    private final int remoteWins;
+    private final boolean categoriesChanged;
+    private final Set<Integer> changedTaskIds;
+    private final Set<Integer> deletedTaskIds;
+
+    PullResult(int applied, int localWins, int remoteWins, boolean categoriesChanged,
+               Set<Integer> changedTaskIds, Set<Integer> deletedTaskIds) {
+        this.applied = applied;
+        this.localWins = localWins;
+        this.remoteWins = remoteWins;
+        this.categoriesChanged = categoriesChanged;
+        this.changedTaskIds = Collections.unmodifiableSet(changedTaskIds);
+        this.deletedTaskIds = Collections.unmodifiableSet(deletedTaskIds);
+    }
+
+    /**
+     * @return Server rows written to the store (new, updated or deleted locally).
+     */
+    public int getApplied() { return applied; }
+
+    /**
+     * @return Conflicts where the unpushed local edit was newer and was kept.
+     */
+    public int getLocalWins() { return localWins; }
+
+    /**
+     * @return Conflicts where the server's row replaced an unpushed local edit.
+     */
+    public int getRemoteWins() { return remoteWins; }
+
+    public boolean isCategoriesChanged() { return categoriesChanged; }
+
+    /**
+     * @return True if any task or subtask changed.
+     */
+    public boolean isTasksChanged() { return !changedTaskIds.isEmpty() || !deletedTaskIds.isEmpty(); }
+
+    /**
+     * @return Local IDs of the tasks that are new or changed, including
+     * tasks whose subtasks changed.
+     */
+    public Set<Integer> getChangedTaskIds() { return changedTaskIds; }
+
+    /**
+     * @return Local IDs of the tasks that were deleted.
+     */
+    public Set<Integer> getDeletedTaskIds() { return deletedTaskIds; }
+}
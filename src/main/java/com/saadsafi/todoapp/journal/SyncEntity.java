@@ -0,0 +1,21 @@
+package com.saadsafi.todoapp.journal;
+
+/**
+ * The kinds of rows the JournalStore keeps sync state for.
+ */
+public enum SyncEntity {
+    CATEGORY,
+    TASK,
+    SUBTASK;
+
+    /**
+     * @return The byte stored for this entity in journal records (never renumber).
+     */
+    byte code() {
+        return (byte) (ordinal() + 1);
+    }
+
+    static SyncEntity fromCode(byte code) {
+        return values()[code - 1];
+    }
+}
@@ -0,0 +1,100 @@
+package com.saadsafi.todoapp.journal;
+
+import com.saadsafi.todoapp.model.Status;
+import com.saadsafi.todoapp.model.TaskRecord;
+
+/**
+ * One row travelling between the JournalStore and the server: a local
+ * change to push, or a server change to apply. Immutable.
+ *
+ * Rows are known by two IDs. The local ID is the JournalStore's; the
+ * remote ID is the server's primary key, 0 until the row has been pushed.
+ * The parent is a task's category or a subtask's task (0 if none).
+ */
+public final class SyncRow {
+
+    private final SyncEntity entity;
+    private final int localId;
+    private final int remoteId;
+    private final int parentLocalId;
+    private final int parentRemoteId;
+    private final int userId;
+    private final String title;     // Category name, task title or subtask title
+    private final TaskRecord task;  // Tasks only, IDs inside it are not used
+    private final Status status;    // Subtasks only
+    private final long updatedAt;   // Edit time (ms), or the deletion time
+    private final boolean deleted;
+
+    private SyncRow(SyncEntity entity, int localId, int remoteId, int parentLocalId, int parentRemoteId,
+                    int userId, String title, TaskRecord task, Status status, long updatedAt, boolean deleted) {
+        this.entity = entity;
+        this.localId = localId;
+        this.remoteId = remoteId;
+        this.parentLocalId = parentLocalId;
+        this.parentRemoteId = parentRemoteId;
+        this.userId = userId;
+        this.title = title;
+        this.task = task;
+        this.status = status;
+        this.updatedAt = updatedAt;
+        this.deleted = deleted;
+    }
+
+    public static SyncRow category(int localId, int remoteId, int userId, String name, long updatedAt) {
+        return new SyncRow(SyncEntity.CATEGORY, localId, remoteId, 0, 0, userId, name, null, null,
+                updatedAt, false);
+    }
+
+    public static SyncRow task(int localId, int remoteId, int categoryLocalId, int categoryRemoteId,
+                               TaskRecord task, long updatedAt) {
+        return new SyncRow(SyncEntity.TASK, localId, remoteId, categoryLocalId, categoryRemoteId,
+                task.getUserId(), task.getTitle(), task, task.getStatus(), updatedAt, false);
+    }
+
+    public static SyncRow subtask(int localId, int remoteId, int taskLocalId, int taskRemoteId, int userId,
+                                  String title, Status status, long updatedAt) {
+        return new SyncRow(SyncEntity.SUBTASK, localId, remoteId, taskLocalId, taskRemoteId, userId, title,
+                null, status, updatedAt, false);
+    }
+
+    /**
+     * A deleted row, known by its remote ID.
+     */
+    public static SyncRow deletion(SyncEntity entity, int remoteId, int userId, long deletedAt) {
+        return new SyncRow(entity, 0, remoteId, 0, 0, userId, null, null, null, deletedAt, true);
+    }
+
+    /**
+     * @return This row with the remote ID the server gave it.
+     */
+    public SyncRow withRemoteId(int remoteId) {
+        return new SyncRow(entity, localId, remoteId, parentLocalId, parentRemoteId, userId, title, task,
+                status, updatedAt, deleted);
+    }
+
+    /**
+     * @return This row with its parent's remote ID filled in.
+     */
+    public SyncRow withParentRemoteId(int parentRemoteId) {
+        return new SyncRow(entity, localId, remoteId, parentLocalId, parentRemoteId, userId, title, task,
+                status, updatedAt, deleted);
+    }
+
+    public SyncEntity getEntity() { return entity; }
+    public int getLocalId() { return localId; }
+    public int getRemoteId() { return remoteId; }
+    public int getParentLocalId() { return parentLocalId; }
+    public int getParentRemoteId() { return parentRemoteId; }
+    public int getUserId() { return userId; }
+    public String getTitle() { return title; }
+    public TaskRecord getTask() { return task; }
+    public Status getStatus() { return status; }
+    public long getUpdatedAt() { return updatedAt; }
+    public boolean isDeleted() { return deleted; }
+
+    @Override
+    public String toString() {
+        return "SyncRow[" + entity + (deleted ? " deleted" : "") + ", local=" + localId
+                + ", remote=" + remoteId + ", updatedAt=" + updatedAt + "]";
+    }
+}
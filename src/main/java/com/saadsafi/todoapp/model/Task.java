@@ -1,6 +1,9 @@
 package com.saadsafi.todoapp.model;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleIntegerProperty;
@@ -8,70 +11,183 @@ import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 
+/**
+ * A task as the UI sees it.
+ *
+ * The values live in an immutable TaskRecord. The JavaFX properties are
+ * only created the first time something asks for them (a binding, a
+ * listener, a list extractor). Until then a Task is just the record plus
+ * a few null fields, so loading many tasks for counting or searching stays
+ * cheap. Once a property exists, it holds the current value.
+ */
 public class Task {
 
-    // These are the JavaFX properties matching our database columns
-    private final IntegerProperty taskId;
-    private final IntegerProperty userId;
-    private final StringProperty title;
-    private final StringProperty description;
-    private final ObjectProperty<Priority> priority;
-    private final ObjectProperty<LocalDate> dueDate;
-    private final ObjectProperty<Status> status;
+    // The values, as long as no property has taken over
+    private TaskRecord record;
+
+    // These are the JavaFX properties matching our database columns.
+    // Each one is created on first use.
+    private IntegerProperty taskId;
+    private IntegerProperty userId;
+    private StringProperty title;
+    private StringProperty description;
+    private ObjectProperty<Priority> priority;
+    private ObjectProperty<LocalDate> dueDate;
+    private ObjectProperty<Status> status;
     
     // This is the "linked" Category object. Can be null (for "Inbox")
-    private final ObjectProperty<Category> category;
+    private ObjectProperty<Category> category;
+    
+    // Subtasks loaded together with the task (null = not loaded yet)
+    private List<Subtask> subtasks;
 
     /**
      * Full constructor for creating a Task object from database data
      */
     public Task(int taskId, int userId, String title, String description,
                 String priority, LocalDate dueDate, String status, Category category) {
-        
-        this.taskId = new SimpleIntegerProperty(taskId);
-        this.userId = new SimpleIntegerProperty(userId);
-        this.title = new SimpleStringProperty(title);
-        this.description = new SimpleStringProperty(description);
-        
-        // Use our safe helper methods from the enums
-        this.priority = new SimpleObjectProperty<>(Priority.fromString(priority));
-        this.status = new SimpleObjectProperty<>(Status.fromString(status));
-        
-        // These can be null
-        this.dueDate = new SimpleObjectProperty<>(dueDate);
-        this.category = new SimpleObjectProperty<>(category);
+        // Uses our safe helper methods from the enums
+        this(TaskRecord.fromDatabase(taskId, userId, title, description, priority, dueDate, status, category));
+    }
+
+    /**
+     * Wraps a record. No properties are created until they are asked for.
+     */
+    public Task(TaskRecord record) {
+        this.record = record;
+    }
+
+    /**
+     * @return The current values as an immutable record (cheap if no property was ever created).
+     */
+    public TaskRecord toRecord() {
+        if (taskId == null && userId == null && title == null && description == null
+                && priority == null && dueDate == null && status == null && category == null) {
+            return record;
+        }
+        return new TaskRecord(getTaskId(), getUserId(), getTitle(), getDescription(),
+                getPriority(), getDueDate(), getStatus(), getCategory());
     }
 
     // --- Getters for the values ---
     
-    public int getTaskId() { return taskId.get(); }
-    public int getUserId() { return userId.get(); }
-    public String getTitle() { return title.get(); }
-    public String getDescription() { return description.get(); }
-    public Priority getPriority() { return priority.get(); }
-    public LocalDate getDueDate() { return dueDate.get(); }
-    public Status getStatus() { return status.get(); }
-    public Category getCategory() { return category.get(); }
+    public int getTaskId() { return taskId != null ? taskId.get() : record.getTaskId(); }
+    public int getUserId() { return userId != null ? userId.get() : record.getUserId(); }
+    public String getTitle() { return title != null ? title.get() : record.getTitle(); }
+    public String getDescription() { return description != null ? description.get() : record.getDescription(); }
+    public Priority getPriority() { return priority != null ? priority.get() : record.getPriority(); }
+    public LocalDate getDueDate() { return dueDate != null ? dueDate.get() : record.getDueDate(); }
+    public Status getStatus() { return status != null ? status.get() : record.getStatus(); }
+    public Category getCategory() { return category != null ? category.get() : record.getCategory(); }
 
     // --- Setters for the values ---
     // We need these to update the task
     
-    public void setTitle(String title) { this.title.set(title); }
-    public void setDescription(String description) { this.description.set(description); }
-    public void setPriority(Priority priority) { this.priority.set(priority); }
-    public void setDueDate(LocalDate dueDate) { this.dueDate.set(dueDate); }
-    public void setStatus(Status status) { this.status.set(status); }
-    public void setCategory(Category category) { this.category.set(category); }
+    public void setTitle(String title) {
+        if (this.title != null) { this.title.set(title); } else { record = record.withTitle(title); }
+    }
+    public void setDescription(String description) {
+        if (this.description != null) { this.description.set(description); } else { record = record.withDescription(description); }
+    }
+    public void setPriority(Priority priority) {
+        if (this.priority != null) { this.priority.set(priority); } else { record = record.withPriority(priority); }
+    }
+    public void setDueDate(LocalDate dueDate) {
+        if (this.dueDate != null) { this.dueDate.set(dueDate); } else { record = record.withDueDate(dueDate); }
+    }
+    public void setStatus(Status status) {
+        if (this.status != null) { this.status.set(status); } else { record = record.withStatus(status); }
+    }
+    public void setCategory(Category category) {
+        if (this.category != null) { this.category.set(category); } else { record = record.withCategory(category); }
+    }
+
+    /**
+     * Takes over the values of another copy of this task (read again after
+     * it changed elsewhere). Lists and selections holding this object see
+     * the new values; the subtasks are replaced only if the copy has them.
+     */
+    public void updateFrom(Task other) {
+        setTitle(other.getTitle());
+        setDescription(other.getDescription());
+        setPriority(other.getPriority());
+        setDueDate(other.getDueDate());
+        setStatus(other.getStatus());
+        setCategory(other.getCategory());
+        if (other.hasSubtasksLoaded()) {
+            setSubtasks(other.getSubtasks());
+        }
+    }
 
     // --- Getters for the *Properties* ---
-    // These are used by JavaFX to bind to UI components
+    // These are used by JavaFX to bind to UI components.
+    // Each is created from the current value the first time it is asked for.
+    
+    public IntegerProperty taskIdProperty() {
+        if (taskId == null) { taskId = new SimpleIntegerProperty(this, "taskId", record.getTaskId()); }
+        return taskId;
+    }
+    public IntegerProperty userIdProperty() {
+        if (userId == null) { userId = new SimpleIntegerProperty(this, "userId", record.getUserId()); }
+        return userId;
+    }
+    public StringProperty titleProperty() {
+        if (title == null) { title = new SimpleStringProperty(this, "title", record.getTitle()); }
+        return title;
+    }
+    public StringProperty descriptionProperty() {
+        if (description == null) { description = new SimpleStringProperty(this, "description", record.getDescription()); }
+        return description;
+    }
+    public ObjectProperty<Priority> priorityProperty() {
+        if (priority == null) { priority = new SimpleObjectProperty<>(this, "priority", record.getPriority()); }
+        return priority;
+    }
+    public ObjectProperty<LocalDate> dueDateProperty() {
+        if (dueDate == null) { dueDate = new SimpleObjectProperty<>(this, "dueDate", record.getDueDate()); }
+        return dueDate;
+    }
+    public ObjectProperty<Status> statusProperty() {
+        if (status == null) { status = new SimpleObjectProperty<>(this, "status", record.getStatus()); }
+        return status;
+    }
+    public ObjectProperty<Category> categoryProperty() {
+        if (category == null) { category = new SimpleObjectProperty<>(this, "category", record.getCategory()); }
+        return category;
+    }
+    
+    // --- Eagerly loaded subtasks ---
     
-    public IntegerProperty taskIdProperty() { return taskId; }
-    public IntegerProperty userIdProperty() { return userId; }
-    public StringProperty titleProperty() { return title; }
-    public StringProperty descriptionProperty() { return description; }
-    public ObjectProperty<Priority> priorityProperty() { return priority; }
-    public ObjectProperty<LocalDate> dueDateProperty() { return dueDate; }
-    public ObjectProperty<Status> statusProperty() { return status; }
-    public ObjectProperty<Category> categoryProperty() { return category; }
+    /**
+     * @return true if the subtasks were loaded along with this task.
+     */
+    public boolean hasSubtasksLoaded() { return subtasks != null; }
+    
+    /**
+     * @return The loaded subtasks (read-only), or an empty list if they were not loaded.
+     */
+    public List<Subtask> getSubtasks() {
+        return subtasks == null ? Collections.emptyList() : Collections.unmodifiableList(subtasks);
+    }
+    
+    public void setSubtasks(List<Subtask> subtasks) {
+        this.subtasks = subtasks == null ? null : new ArrayList<>(subtasks);
+    }
+    
+    public int getSubtaskCount() {
+        return subtasks == null ? 0 : subtasks.size();
+    }
+    
+    public int getCompletedSubtaskCount() {
+        if (subtasks == null) {
+            return 0;
+        }
+        int completed = 0;
+        for (Subtask subtask : subtasks) {
+            if (subtask.getStatus() == Status.COMPLETED) {
+                completed++;
+            }
+        }
+        return completed;
+    }
 }
\ No newline at end of file
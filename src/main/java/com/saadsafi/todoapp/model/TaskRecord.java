@@ -0,0 +1,121 @@
+package com.saadsafi.todoapp.model;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * The plain, immutable data of one task row.
+ *
+ * This is what the DAO layer and caches work with. It has no JavaFX
+ * properties, so it is cheap to create and keep around in bulk. A Task
+ * wraps a TaskRecord and only creates properties when the UI binds to it.
+ */
+public final class TaskRecord {
+
+    private final int taskId;
+    private final int userId;
+    private final String title;
+    private final String description;
+    private final Priority priority;
+    private final LocalDate dueDate;   // Can be null
+    private final Status status;
+    private final Category category;   // Can be null (for "Inbox")
+
+    public TaskRecord(int taskId, int userId, String title, String description,
+                      Priority priority, LocalDate dueDate, Status status, Category category) {
+        this.taskId = taskId;
+        this.userId = userId;
+        this.title = title;
+        this.description = description;
+        this.priority = priority;
+        this.dueDate = dueDate;
+        this.status = status;
+        this.category = category;
+    }
+
+    /**
+     * Creates a record from database values, using the safe enum parsers.
+     */
+    public static TaskRecord fromDatabase(int taskId, int userId, String title, String description,
+                                          String priority, LocalDate dueDate, String status, Category category) {
+        return new TaskRecord(taskId, userId, title, description,
+                Priority.fromString(priority), dueDate, Status.fromString(status), category);
+    }
+
+    // --- Getters ---
+
+    public int getTaskId() { return taskId; }
+    public int getUserId() { return userId; }
+    public String getTitle() { return title; }
+    public String getDescription() { return description; }
+    public Priority getPriority() { return priority; }
+    public LocalDate getDueDate() { return dueDate; }
+    public Status getStatus() { return status; }
+    public Category getCategory() { return category; }
+
+    /**
+     * @return The category ID, or 0 if the task has no category.
+     */
+    public int getCategoryId() {
+        return category != null ? category.getCategoryId() : 0;
+    }
+
+    // --- Copies with one value changed ---
+
+    public TaskRecord withTaskId(int taskId) {
+        return new TaskRecord(taskId, userId, title, description, priority, dueDate, status, category);
+    }
+
+    public TaskRecord withTitle(String title) {
+        return new TaskRecord(taskId, userId, title, description, priority, dueDate, status, category);
+    }
+
+    public TaskRecord withDescription(String description) {
+        return new TaskRecord(taskId, userId, title, description, priority, dueDate, status, category);
+    }
+
+    public TaskRecord withPriority(Priority priority) {
+        return new TaskRecord(taskId, userId, title, description, priority, dueDate, status, category);
+    }
+
+    public TaskRecord withDueDate(LocalDate dueDate) {
+        return new TaskRecord(taskId, userId, title, description, priority, dueDate, status, category);
+    }
+
+    public TaskRecord withStatus(Status status) {
+        return new TaskRecord(taskId, userId, title, description, priority, dueDate, status, category);
+    }
+
+    public TaskRecord withCategory(Category category) {
+        return new TaskRecord(taskId, userId, title, description, priority, dueDate, status, category);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TaskRecord)) {
+            return false;
+        }
+        TaskRecord other = (TaskRecord) o;
+        return taskId == other.taskId
+                && userId == other.userId
+                && getCategoryId() == other.getCategoryId()
+                && Objects.equals(title, other.title)
+                && Objects.equals(description, other.description)
+                && priority == other.priority
+                && Objects.equals(dueDate, other.dueDate)
+                && status == other.status;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(taskId, userId, title, description, priority, dueDate, status, getCategoryId());
+    }
+
+    @Override
+    public String toString() {
+        return "TaskRecord[" + taskId + ", " + title + "]";
+    }
+}
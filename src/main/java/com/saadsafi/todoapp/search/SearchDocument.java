@@ -0,0 +1,47 @@
+package com.saadsafi.todoapp.search;
+
+import com.saadsafi.todoapp.model.Subtask;
+import com.saadsafi.todoapp.model.Task;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The searchable text of one task: its title, description and subtask titles.
+ * This is all the TaskSearchIndex needs, so building the index does not
+ * require loading full Task objects.
+ */
+public final class SearchDocument {
+
+    private final int taskId;
+    private final int categoryId; // 0 when the task has no category
+    private final String title;
+    private final String description;
+    private final List<String> subtaskTitles;
+
+    public SearchDocument(int taskId, int categoryId, String title, String description, List<String> subtaskTitles) {
+        this.taskId = taskId;
+        this.categoryId = categoryId;
+        this.title = title;
+        this.description = description;
+        this.subtaskTitles = subtaskTitles == null ? Collections.emptyList() : subtaskTitles;
+    }
+
+    /**
+     * Builds the document for a task, including whatever subtasks are loaded on it.
+     */
+    public static SearchDocument of(Task task) {
+        List<String> subtaskTitles = new ArrayList<>();
+        for (Subtask subtask : task.getSubtasks()) {
+            subtaskTitles.add(subtask.getTitle());
+        }
+        int categoryId = task.getCategory() != null ? task.getCategory().getCategoryId() : 0;
+        return new SearchDocument(task.getTaskId(), categoryId, task.getTitle(), task.getDescription(), subtaskTitles);
+    }
+
+    public int getTaskId() { return taskId; }
+    public int getCategoryId() { return categoryId; }
+    public String getTitle() { return title; }
+    public String getDescription() { return description; }
+    public List<String> getSubtaskTitles() { return subtaskTitles; }
+}
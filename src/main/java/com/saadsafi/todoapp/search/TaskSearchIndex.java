@@ -0,0 +1,459 @@
+package com.saadsafi.todoapp.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An in-memory inverted index over one user's tasks, for search-as-you-type.
+ *
+ * Titles, descriptions and subtask titles are split into lowercase word
+ * tokens. Each token points at the tasks containing it (its "postings"),
+ * along with a weight that says where it was found. The tokens are kept
+ * sorted, so a prefix such as "gro" is answered with one range scan over
+ * the tokens starting with "gro" instead of looking at every task.
+ *
+ * A query matches a task when every word of the query is a prefix of some
+ * word in the task. Results are ranked: title hits count more than
+ * description or subtask hits, and whole-word hits count more than prefixes.
+ *
+ * Internally each task gets a small "slot" number and postings are plain
+ * int arrays of (slot, weight) pairs, so a query only does array work and
+ * no boxing. The index is updated incrementally (index/remove) as tasks
+ * change. Reads and writes may happen on different threads.
+ */
+public class TaskSearchIndex {
+
+    // --- Field weights used for ranking (must fit in WEIGHT_BITS) ---
+    private static final int TITLE_WEIGHT = 4;
+    private static final int DESCRIPTION_WEIGHT = 2;
+    private static final int SUBTASK_WEIGHT = 1;
+    // A whole-word hit scores double compared to a prefix hit
+    private static final int EXACT_MATCH_BONUS = 2;
+
+    // Each posting is one int: (slot << WEIGHT_BITS) | weight
+    private static final int WEIGHT_BITS = 3;
+    private static final int WEIGHT_MASK = (1 << WEIGHT_BITS) - 1;
+
+    // token -> postings of the tasks containing it
+    private final TreeMap<String, PostingList> postings = new TreeMap<>();
+
+    // --- Per-slot document data ---
+    private final Map<Integer, Integer> slotByTaskId = new HashMap<>();
+    private int[] taskIdBySlot = new int[64];
+    private int[] categoryBySlot = new int[64];
+    private String[][] tokensBySlot = new String[64][];
+    private int slotCount = 0;
+    private int[] freeSlots = new int[16];
+    private int freeSlotCount = 0;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // False until the first rebuild, searches should go to SQL until then
+    private volatile boolean built = false;
+
+    // Counts the clears, so a rebuild loaded before one can be dropped
+    private volatile long generation = 0;
+
+    // Per-thread scoring arrays, reused between queries
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    /**
+     * Replaces the whole index with the given documents.
+     */
+    public void rebuild(Collection<SearchDocument> docs) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            slotByTaskId.clear();
+            slotCount = 0;
+            freeSlotCount = 0;
+            for (SearchDocument doc : docs) {
+                addDocument(doc);
+            }
+            built = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the whole index with the given documents, unless the index
+     * was cleared since {@link #getGeneration} returned the given value (the
+     * documents were loaded for a session that has ended).
+     * @return True if the index was rebuilt.
+     */
+    public boolean rebuild(Collection<SearchDocument> docs, long expectedGeneration) {
+        lock.writeLock().lock();
+        try {
+            if (generation != expectedGeneration) {
+                return false;
+            }
+            rebuild(docs);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Empties the index and marks it as not built, so searches go to SQL
+     * until the next {@link #rebuild}. Called on logout.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            generation++;
+            postings.clear();
+            slotByTaskId.clear();
+            Arrays.fill(tokensBySlot, null);
+            slotCount = 0;
+            freeSlotCount = 0;
+            built = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a task to the index, or re-indexes it if it is already there.
+     * Call after a task is created or updated.
+     */
+    public void index(SearchDocument doc) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(doc.getTaskId());
+            addDocument(doc);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a task from the index. Call after a task is deleted.
+     */
+    public void remove(int taskId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(taskId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Moves indexed tasks to another category without re-indexing their
+     * text. Call after tasks were moved in bulk (e.g. their category was
+     * deleted). Tasks that aren't indexed are skipped.
+     *
+     * @param categoryId The new category, or 0 for none.
+     */
+    public void moveToCategory(Collection<Integer> taskIds, int categoryId) {
+        lock.writeLock().lock();
+        try {
+            for (int taskId : taskIds) {
+                Integer slot = slotByTaskId.get(taskId);
+                if (slot != null) {
+                    categoryBySlot[slot] = categoryId;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the tasks matching a search text, best matches first.
+     *
+     * @param text The search box text; every word must match (as a prefix).
+     * @param categoryId Only return tasks in this category, or 0 for all categories.
+     * @param limit The maximum number of results, or Integer.MAX_VALUE for all of them.
+     * @return Task IDs ranked by score (ties broken by ID), empty if nothing
+     *         matches or the text has no words (see {@link #hasWords}).
+     */
+    public List<Integer> search(String text, int categoryId, int limit) {
+        // Repeated words don't make a task match "more"
+        List<String> queryTokens = new ArrayList<>(new LinkedHashSet<>(tokenize(text)));
+        if (queryTokens.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            Scratch s = scratch.get();
+            s.ensureCapacity(slotCount);
+            try {
+                for (int i = 0; i < queryTokens.size(); i++) {
+                    scoreToken(s, queryTokens.get(i), i, categoryId);
+                }
+                return topResults(s, queryTokens.size(), limit);
+            } finally {
+                s.reset();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return True if the text has at least one word to look up. Text made
+     *         only of punctuation matches nothing here, so search it in SQL.
+     */
+    public static boolean hasWords(String text) {
+        return !tokenize(text).isEmpty();
+    }
+
+    /**
+     * @return True once the index has been filled by {@link #rebuild}.
+     */
+    public boolean isBuilt() {
+        return built;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public int getDocumentCount() {
+        lock.readLock().lock();
+        try {
+            return slotByTaskId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getTokenCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Splits text into lowercase words (runs of letters and digits).
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    // --- Internal helpers (callers hold the lock) ---
+
+    /**
+     * Adds the score of query word number tokenIndex to every task that
+     * matched all the earlier words. A task may contain several words with
+     * this prefix; only the best of them counts.
+     */
+    private void scoreToken(Scratch s, String queryToken, int tokenIndex, int categoryId) {
+        for (Map.Entry<String, PostingList> term
+                : postings.subMap(queryToken, true, queryToken + Character.MAX_VALUE, false).entrySet()) {
+
+            int bonus = term.getKey().length() == queryToken.length() ? EXACT_MATCH_BONUS : 1;
+            PostingList list = term.getValue();
+
+            for (int p = 0; p < list.size; p++) {
+                int entry = list.entries[p];
+                int slot = entry >>> WEIGHT_BITS;
+                int score = (entry & WEIGHT_MASK) * bonus;
+
+                if (s.matched[slot] == tokenIndex) {
+                    // First hit for this word
+                    if (tokenIndex == 0) {
+                        if (categoryId != 0 && categoryBySlot[slot] != categoryId) {
+                            continue;
+                        }
+                        s.touch(slot);
+                    }
+                    s.matched[slot] = tokenIndex + 1;
+                    s.wordScore[slot] = score;
+                    s.total[slot] += score;
+                } else if (s.matched[slot] == tokenIndex + 1 && score > s.wordScore[slot]) {
+                    // Better word for the same prefix
+                    s.total[slot] += score - s.wordScore[slot];
+                    s.wordScore[slot] = score;
+                }
+            }
+        }
+    }
+
+    /**
+     * Picks the best `limit` tasks that matched every query word.
+     */
+    private List<Integer> topResults(Scratch s, int wordCount, int limit) {
+        // Min-heap of the best results so far: the weakest one is on top
+        PriorityQueue<int[]> best = new PriorityQueue<>(Math.min(limit, s.touchedCount) + 1, (a, b) ->
+                a[1] != b[1] ? Integer.compare(a[1], b[1]) : Integer.compare(b[0], a[0]));
+
+        for (int i = 0; i < s.touchedCount; i++) {
+            int slot = s.touched[i];
+            if (s.matched[slot] != wordCount) {
+                continue;
+            }
+            int score = s.total[slot];
+            int taskId = taskIdBySlot[slot];
+            if (best.size() == limit) {
+                // Most matches are weaker than the current top results, skip them cheaply
+                int[] weakest = best.peek();
+                if (score < weakest[1] || (score == weakest[1] && taskId > weakest[0])) {
+                    continue;
+                }
+                best.poll();
+            }
+            best.offer(new int[]{taskId, score});
+        }
+
+        Integer[] ranked = new Integer[best.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = best.poll()[0];
+        }
+        return new ArrayList<>(Arrays.asList(ranked));
+    }
+
+    private void addDocument(SearchDocument doc) {
+        Map<String, Integer> weights = new HashMap<>();
+        addField(weights, doc.getTitle(), TITLE_WEIGHT);
+        addField(weights, doc.getDescription(), DESCRIPTION_WEIGHT);
+        for (String subtaskTitle : doc.getSubtaskTitles()) {
+            addField(weights, subtaskTitle, SUBTASK_WEIGHT);
+        }
+
+        int slot = allocateSlot();
+        taskIdBySlot[slot] = doc.getTaskId();
+        categoryBySlot[slot] = doc.getCategoryId();
+        tokensBySlot[slot] = weights.keySet().toArray(new String[0]);
+        slotByTaskId.put(doc.getTaskId(), slot);
+
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), k -> new PostingList())
+                    .add((slot << WEIGHT_BITS) | entry.getValue());
+        }
+    }
+
+    private static void addField(Map<String, Integer> weights, String text, int weight) {
+        for (String token : tokenize(text)) {
+            // A word in several fields keeps its best field weight
+            weights.merge(token, weight, Math::max);
+        }
+    }
+
+    private void removeDocument(int taskId) {
+        Integer slot = slotByTaskId.remove(taskId);
+        if (slot == null) {
+            return;
+        }
+        for (String token : tokensBySlot[slot]) {
+            PostingList list = postings.get(token);
+            if (list != null && list.removeSlot(slot) && list.size == 0) {
+                postings.remove(token);
+            }
+        }
+        tokensBySlot[slot] = null;
+        if (freeSlotCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+        }
+        freeSlots[freeSlotCount++] = slot;
+    }
+
+    private int allocateSlot() {
+        if (freeSlotCount > 0) {
+            return freeSlots[--freeSlotCount];
+        }
+        if (slotCount == taskIdBySlot.length) {
+            int newLength = taskIdBySlot.length * 2;
+            taskIdBySlot = Arrays.copyOf(taskIdBySlot, newLength);
+            categoryBySlot = Arrays.copyOf(categoryBySlot, newLength);
+            tokensBySlot = Arrays.copyOf(tokensBySlot, newLength);
+        }
+        return slotCount++;
+    }
+
+    /**
+     * A growable array of (slot, weight) postings for one token.
+     */
+    private static final class PostingList {
+        private int[] entries = new int[4];
+        private int size = 0;
+
+        void add(int entry) {
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, size * 2);
+            }
+            entries[size++] = entry;
+        }
+
+        /**
+         * Removes the posting for a slot (order doesn't matter, so swap with the last).
+         */
+        boolean removeSlot(int slot) {
+            for (int i = 0; i < size; i++) {
+                if ((entries[i] >>> WEIGHT_BITS) == slot) {
+                    entries[i] = entries[--size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Scoring arrays for one query, indexed by slot. Only the touched slots
+     * are cleared afterwards, so a query costs nothing for tasks it never hits.
+     */
+    private static final class Scratch {
+        private int[] matched = new int[0];   // how many query words matched so far
+        private int[] total = new int[0];     // running score
+        private int[] wordScore = new int[0]; // score of the current word
+        private int[] touched = new int[0];
+        private int touchedCount = 0;
+
+        void ensureCapacity(int slots) {
+            if (matched.length < slots) {
+                int length = Math.max(slots, matched.length * 2);
+                matched = new int[length];
+                total = new int[length];
+                wordScore = new int[length];
+                touched = new int[length];
+            }
+        }
+
+        void touch(int slot) {
+            touched[touchedCount++] = slot;
+        }
+
+        void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                int slot = touched[i];
+                matched[slot] = 0;
+                total[slot] = 0;
+                wordScore[slot] = 0;
+            }
+            touchedCount = 0;
+        }
+    }
+}
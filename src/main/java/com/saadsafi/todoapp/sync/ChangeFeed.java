@@ -0,0 +1,259 @@
+package com.saadsafi.todoapp.sync;
+
+import com.saadsafi.todoapp.dao.TaskDAO;
+import com.saadsafi.todoapp.db.DatabaseConnection;
+import com.saadsafi.todoapp.db.SyncClock;
+import com.saadsafi.todoapp.model.Task;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Tells the UI which of a user's tasks changed in the database, so it can
+ * patch the task list instead of reloading it. Used when tasks are kept in
+ * the database; with the journal, SyncEngine reports what it pulled.
+ *
+ * Every write stamps the rows it touches with a SyncClock version
+ * (row_version) and every delete leaves a tombstone, so a poll is: read
+ * the clock, then read the IDs of everything of the user's with a version
+ * between the previous poll's clock value and this one. Only the changed
+ * tasks are then fetched (TaskDAO.getTasksByIds). The app's own writes come
+ * back too; patching with them again changes nothing.
+ *
+ * Polls run on a background thread every POLL_INTERVAL_MS. The first poll
+ * only reads the clock: everything before it is what the UI loads anyway.
+ */
+public class ChangeFeed implements AutoCloseable {
+
+    private static final long POLL_INTERVAL_MS = 3_000;
+    private static final long CLOSE_TIMEOUT_MS = 2_000;
+
+    private static final String SELECT_TASKS =
+            "SELECT task_id FROM tasks WHERE user_id = ? AND row_version > ? AND row_version <= ?";
+    // A subtask change shows in its task's progress, so the task counts as changed
+    private static final String SELECT_SUBTASK_TASKS =
+            "SELECT DISTINCT s.task_id FROM subtasks s JOIN tasks t ON t.task_id = s.task_id "
+            + "WHERE t.user_id = ? AND s.row_version > ? AND s.row_version <= ?";
+    private static final String SELECT_CATEGORIES =
+            "SELECT COUNT(*) FROM categories WHERE user_id = ? AND row_version > ? AND row_version <= ?";
+    private static final String SELECT_TOMBSTONES =
+            "SELECT table_name, row_id FROM sync_tombstones "
+            + "WHERE user_id = ? AND row_version > ? AND row_version <= ?";
+
+    private final TaskDAO taskDAO;
+    private final int userId;
+    private final ScheduledExecutorService worker;
+    private volatile Consumer<TaskChanges> listener;
+
+    private long watermark = -1; // Poll thread only; -1 until the first poll
+
+    // --- Metrics (guarded by this) ---
+    private long polls = 0;
+    private long failedPolls = 0;
+    private long deliveries = 0;
+    private long changedTasks = 0;
+    private long deletedTasks = 0;
+    private long totalPollNanos = 0;
+    private long maxPollNanos = 0;
+    private String lastError = null;
+
+    /**
+     * @param taskDAO Fetches the changed tasks (a CachingTaskDAO refreshes its cache with them).
+     */
+    public ChangeFeed(TaskDAO taskDAO, int userId) {
+        this.taskDAO = taskDAO;
+        this.userId = userId;
+        this.worker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "change-feed");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Called on the feed's thread with each non-empty batch of changes.
+     */
+    public void setListener(Consumer<TaskChanges> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Reads the starting version now and polls every POLL_INTERVAL_MS after that.
+     */
+    public void start() {
+        worker.scheduleWithFixedDelay(this::poll, 0, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Polls as soon as the feed's thread is free.
+     */
+    public Future<?> pollNow() {
+        return worker.submit(this::poll);
+    }
+
+    @Override
+    public void close() {
+        worker.shutdown();
+        try {
+            if (!worker.awaitTermination(CLOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                worker.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            worker.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("Closed " + describe());
+    }
+
+    // --- Metrics getters ---
+
+    public synchronized long getPollCount() {
+        return polls;
+    }
+
+    public synchronized double getAveragePollMillis() {
+        return polls == 0 ? 0 : totalPollNanos / 1_000_000.0 / polls;
+    }
+
+    public synchronized String describe() {
+        return String.format("ChangeFeed[user=%d, polls=%d, failed=%d, deliveries=%d, changed=%d, deleted=%d, "
+                        + "avgPoll=%.2fms, maxPoll=%.2fms, lastError=%s]",
+                userId, polls, failedPolls, deliveries, changedTasks, deletedTasks,
+                polls == 0 ? 0 : totalPollNanos / 1_000_000.0 / polls, maxPollNanos / 1_000_000.0, lastError);
+    }
+
+    // --- Polling (feed thread) ---
+
+    private void poll() {
+        long start = System.nanoTime();
+        TaskChanges changes = null;
+        String error = null;
+        try {
+            changes = readChanges();
+        } catch (SQLException | RuntimeException e) {
+            error = e.toString();
+            System.err.println("Change Feed Error: " + e.getMessage());
+        }
+        long elapsed = System.nanoTime() - start;
+        synchronized (this) {
+            polls++;
+            totalPollNanos += elapsed;
+            maxPollNanos = Math.max(maxPollNanos, elapsed);
+            if (error != null) {
+                failedPolls++;
+                lastError = error;
+            } else if (changes != null) {
+                deliveries++;
+                changedTasks += changes.getChangedTasks().size();
+                deletedTasks += changes.getDeletedTaskIds().size();
+            }
+        }
+
+        Consumer<TaskChanges> current = listener;
+        if (changes != null && current != null) {
+            current.accept(changes);
+        }
+    }
+
+    /**
+     * @return The changes since the last poll, or null if there are none.
+     */
+    private TaskChanges readChanges() throws SQLException {
+        long since = watermark;
+        long version;
+        Set<Integer> changedIds = new LinkedHashSet<>();
+        Set<Integer> deletedTaskIds = new LinkedHashSet<>();
+        Set<Integer> deletedSubtaskIds = new LinkedHashSet<>();
+        Set<Integer> deletedCategoryIds = new LinkedHashSet<>();
+        boolean categoriesChanged;
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            // One transaction, so MySQL reads everything from the same snapshot
+            conn.setAutoCommit(false);
+            version = SyncClock.current(conn, userId);
+            if (since < 0 || version < since) {
+                // First poll, or the database was recreated: start from here
+                watermark = version;
+                conn.commit();
+                return null;
+            }
+            if (version == since) {
+                conn.commit();
+                return null;
+            }
+
+            readIds(conn, SELECT_TASKS, since, version, changedIds);
+            readIds(conn, SELECT_SUBTASK_TASKS, since, version, changedIds);
+            categoriesChanged = countRows(conn, SELECT_CATEGORIES, since, version) > 0;
+            try (PreparedStatement pstmt = conn.prepareStatement(SELECT_TOMBSTONES)) {
+                bindRange(pstmt, since, version);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        int rowId = rs.getInt("row_id");
+                        switch (rs.getString("table_name")) {
+                            case "tasks":
+                                deletedTaskIds.add(rowId);
+                                break;
+                            case "subtasks":
+                                deletedSubtaskIds.add(rowId);
+                                break;
+                            case "categories":
+                                deletedCategoryIds.add(rowId);
+                                categoriesChanged = true;
+                                break;
+                            default:
+                                break;
+                        }
+                    }
+                }
+            }
+            conn.commit();
+        }
+
+        // Fetched after the snapshot: a task deleted in between is simply
+        // missing here, and its tombstone comes with the next poll
+        changedIds.removeAll(deletedTaskIds);
+        List<Task> tasks = changedIds.isEmpty() ? new ArrayList<>() : taskDAO.getTasksByIds(userId, changedIds);
+        watermark = version;
+
+        TaskChanges changes = new TaskChanges(version, tasks, deletedTaskIds, deletedSubtaskIds,
+                deletedCategoryIds, categoriesChanged);
+        return changes.isEmpty() ? null : changes;
+    }
+
+    private void readIds(Connection conn, String sql, long since, long version, Set<Integer> ids) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            bindRange(pstmt, since, version);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+        }
+    }
+
+    private int countRows(Connection conn, String sql, long since, long version) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            bindRange(pstmt, since, version);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    private void bindRange(PreparedStatement pstmt, long since, long version) throws SQLException {
+        pstmt.setInt(1, userId);
+        pstmt.setLong(2, since);
+        pstmt.setLong(3, version);
+    }
+}
@@ -0,0 +1,734 @@
+package com.saadsafi.todoapp.sync;
+
+import com.saadsafi.todoapp.db.DatabaseConnection;
+import com.saadsafi.todoapp.db.SyncClock;
+import com.saadsafi.todoapp.journal.JournalStore;
+import com.saadsafi.todoapp.journal.PullResult;
+import com.saadsafi.todoapp.journal.SyncEntity;
+import com.saadsafi.todoapp.journal.SyncRow;
+import com.saadsafi.todoapp.model.Status;
+import com.saadsafi.todoapp.model.TaskRecord;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Keeps one user's rows in the local JournalStore in step with the
+ * database, in the background.
+ *
+ * A sync cycle pushes, then pulls:
+ * - Push: the user's local changes the server doesn't have yet go to the
+ *   database in batches of BATCH_SIZE rows, one transaction per batch,
+ *   stamped with one SyncClock version. The journal then records the
+ *   server's IDs for new rows and marks the rows as pushed.
+ * - Pull: every row (and tombstone) whose row_version is past the user's
+ *   watermark is read in one transaction and applied to the journal, and
+ *   the watermark moves to the clock value read at the start.
+ *
+ * Conflicts go to the newer edit by updated_at, the server winning ties,
+ * on both sides: an UPDATE or DELETE only touches the server row if it is
+ * older than the local edit, and a pulled row only replaces a local edit
+ * that is older (see JournalStore.applyServerChanges). A push that loses
+ * reads the server's row back, so the journal ends up with it.
+ *
+ * Cycles run on a single background thread: shortly after a local write
+ * (writes within PUSH_DELAY_MS go out together) and every SYNC_INTERVAL_MS
+ * to pick up other clients' changes. A failed cycle (server unreachable,
+ * say) is retried on the next one; the journal keeps the changes meanwhile.
+ *
+ * Known limit: if the app dies after the server committed a new row but
+ * before the journal recorded its ID, the row is inserted again next time.
+ */
+public class SyncEngine implements AutoCloseable {
+
+    private static final long SYNC_INTERVAL_MS = 15_000;
+    private static final long PUSH_DELAY_MS = 500;
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_BATCHES_PER_CYCLE = 20;
+    private static final long CLOSE_TIMEOUT_MS = 5_000;
+
+    // --- Push SQL (UPDATE and DELETE only win against older server rows) ---
+    private static final String INSERT_CATEGORY =
+            "INSERT INTO categories (user_id, category_name, updated_at, row_version) VALUES (?, ?, ?, ?)";
+    private static final String UPDATE_CATEGORY =
+            "UPDATE categories SET category_name = ?, updated_at = ?, row_version = ? "
+            + "WHERE category_id = ? AND updated_at < ?";
+    // A category deleted on the server meanwhile becomes NULL, like ON DELETE SET NULL
+    private static final String INSERT_TASK =
+            "INSERT INTO tasks (user_id, category_id, title, description, priority, due_date, status, "
+            + "updated_at, row_version) "
+            + "VALUES (?, (SELECT category_id FROM categories WHERE category_id = ?), ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_TASK =
+            "UPDATE tasks SET category_id = (SELECT category_id FROM categories WHERE category_id = ?), "
+            + "title = ?, description = ?, priority = ?, due_date = ?, status = ?, updated_at = ?, row_version = ? "
+            + "WHERE task_id = ? AND updated_at < ?";
+    // Inserts nothing if the task was deleted on the server meanwhile
+    private static final String INSERT_SUBTASK =
+            "INSERT INTO subtasks (task_id, title, status, updated_at, row_version) "
+            + "SELECT task_id, ?, ?, ?, ? FROM tasks WHERE task_id = ?";
+    private static final String UPDATE_SUBTASK =
+            "UPDATE subtasks SET title = ?, status = ?, updated_at = ?, row_version = ? "
+            + "WHERE subtask_id = ? AND updated_at < ?";
+    private static final String INSERT_TOMBSTONE =
+            "INSERT INTO sync_tombstones (table_name, row_id, user_id, deleted_at, row_version) "
+            + "VALUES (?, ?, ?, ?, ?)";
+
+    // --- Pull SQL (a condition is appended) ---
+    private static final String SELECT_CATEGORIES =
+            "SELECT category_id, user_id, category_name, updated_at, row_version FROM categories WHERE ";
+    private static final String SELECT_TASKS =
+            "SELECT task_id, user_id, category_id, title, description, priority, due_date, status, "
+            + "updated_at, row_version FROM tasks WHERE ";
+    private static final String SELECT_SUBTASKS =
+            "SELECT s.subtask_id, s.task_id, t.user_id, s.title, s.status, s.updated_at, s.row_version "
+            + "FROM subtasks s JOIN tasks t ON t.task_id = s.task_id WHERE ";
+    private static final String SELECT_TOMBSTONES =
+            "SELECT table_name, row_id, deleted_at, row_version FROM sync_tombstones "
+            + "WHERE user_id = ? AND row_version > ?";
+
+    private final JournalStore store;
+    private final int userId;
+    private final ScheduledExecutorService worker;
+    private final AtomicBoolean cycleScheduled = new AtomicBoolean(false);
+    private volatile Consumer<PullResult> changeListener;
+    private volatile boolean closed = false;
+
+    // --- Metrics (guarded by this) ---
+    private long cycles = 0;
+    private long failedCycles = 0;
+    private long pushBatches = 0;
+    private long pushedRows = 0;
+    private int largestPushBatch = 0;
+    private long pullBatches = 0;
+    private long pulledRows = 0;
+    private int largestPullBatch = 0;
+    private long localWins = 0;
+    private long remoteWins = 0;
+    private long pushLagTotalMillis = 0; // Local edit -> on the server
+    private long pushLagSamples = 0;
+    private long largestPushLagMillis = 0;
+    private long lastCycleNanos = 0;
+    private long lastSuccessMillis = 0;
+    private String lastError = null;
+
+    public SyncEngine(JournalStore store, int userId) {
+        this.store = store;
+        this.userId = userId;
+        this.worker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "sync-worker");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Starts syncing: a first cycle right away, then one after each local
+     * write and every SYNC_INTERVAL_MS.
+     */
+    public void start() {
+        store.setWriteListener(this::requestSync);
+        worker.scheduleWithFixedDelay(this::runCycle, 0, SYNC_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Called on the sync thread after a pull changed the journal, so the UI
+     * can reload what it shows.
+     */
+    public void setChangeListener(Consumer<PullResult> listener) {
+        this.changeListener = listener;
+    }
+
+    /**
+     * Schedules a cycle soon, unless one is already scheduled. Cheap, and
+     * safe to call from any thread.
+     */
+    public void requestSync() {
+        if (!closed && cycleScheduled.compareAndSet(false, true)) {
+            worker.schedule(this::runCycle, PUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Runs a cycle as soon as the sync thread is free.
+     */
+    public Future<?> syncNow() {
+        return worker.submit(this::runCycle);
+    }
+
+    /**
+     * Pushes what is still pending (waiting up to CLOSE_TIMEOUT_MS) and
+     * stops the sync thread. Whatever doesn't make it stays in the journal
+     * for the next session.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        store.setWriteListener(null);
+        worker.submit(this::runCycle);
+        worker.shutdown();
+        try {
+            if (!worker.awaitTermination(CLOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                worker.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            worker.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("Closed " + describe());
+    }
+
+    // --- Metrics getters ---
+
+    /**
+     * @return How long the oldest unpushed local edit has been waiting (0 if none).
+     */
+    public long getSyncLagMillis() {
+        long oldest = store.getOldestPendingChange(userId);
+        return oldest == 0 ? 0 : Math.max(0, System.currentTimeMillis() - oldest);
+    }
+
+    public synchronized long getPushedRows() {
+        return pushedRows;
+    }
+
+    public synchronized long getPulledRows() {
+        return pulledRows;
+    }
+
+    public synchronized double getAveragePushBatchSize() {
+        return pushBatches == 0 ? 0 : (double) pushedRows / pushBatches;
+    }
+
+    public synchronized double getAveragePushLagMillis() {
+        return pushLagSamples == 0 ? 0 : (double) pushLagTotalMillis / pushLagSamples;
+    }
+
+    public synchronized long getConflictCount() {
+        return localWins + remoteWins;
+    }
+
+    public synchronized long getFailedCycles() {
+        return failedCycles;
+    }
+
+    public String describe() {
+        long lag = getSyncLagMillis();
+        int pending = store.countPendingChanges(userId);
+        long watermark = store.getWatermark(userId);
+        synchronized (this) {
+            return String.format("SyncEngine[user=%d, cycles=%d, failed=%d, pending=%d, lag=%dms, "
+                            + "pushed=%d rows in %d batches (avg %.1f, max %d), "
+                            + "pulled=%d rows in %d batches (avg %.1f, max %d), "
+                            + "conflicts=%d (local won %d), pushLag avg=%.0fms max=%dms, watermark=%d, "
+                            + "lastCycle=%.1fms, lastSuccess=%s, lastError=%s]",
+                    userId, cycles, failedCycles, pending, lag,
+                    pushedRows, pushBatches, pushBatches == 0 ? 0 : (double) pushedRows / pushBatches,
+                    largestPushBatch,
+                    pulledRows, pullBatches, pullBatches == 0 ? 0 : (double) pulledRows / pullBatches,
+                    largestPullBatch,
+                    localWins + remoteWins, localWins,
+                    pushLagSamples == 0 ? 0 : (double) pushLagTotalMillis / pushLagSamples, largestPushLagMillis,
+                    watermark, lastCycleNanos / 1_000_000.0,
+                    lastSuccessMillis == 0 ? "never" : (System.currentTimeMillis() - lastSuccessMillis) + "ms ago",
+                    lastError);
+        }
+    }
+
+    // --- Sync cycle (sync thread) ---
+
+    private void runCycle() {
+        cycleScheduled.set(false);
+        long start = System.nanoTime();
+        try {
+            // Rows the server no longer has, found while pushing; they are
+            // only pushed again as new rows if the pull doesn't delete them
+            List<SyncRow> missing = new ArrayList<>();
+            for (int batch = 0; batch < MAX_BATCHES_PER_CYCLE; batch++) {
+                if (!pushBatch(missing)) {
+                    break;
+                }
+            }
+            pull();
+            for (SyncRow row : missing) {
+                store.detachFromServer(row.getEntity(), row.getLocalId(), row.getRemoteId());
+            }
+            if (!missing.isEmpty()) {
+                requestSync();
+            }
+            synchronized (this) {
+                cycles++;
+                lastCycleNanos = System.nanoTime() - start;
+                lastSuccessMillis = System.currentTimeMillis();
+                lastError = null;
+            }
+        } catch (SQLException | IOException | RuntimeException e) {
+            // Nothing is lost, the journal still has every change
+            System.err.println("Sync Error: " + e.getMessage());
+            synchronized (this) {
+                cycles++;
+                failedCycles++;
+                lastCycleNanos = System.nanoTime() - start;
+                lastError = e.getMessage();
+            }
+        }
+    }
+
+    /**
+     * Pushes up to BATCH_SIZE pending changes in one transaction.
+     *
+     * @param missing Collects rows the server no longer has.
+     * @return True if there may be more to push.
+     */
+    private boolean pushBatch(List<SyncRow> missing) throws SQLException, IOException {
+        List<SyncRow> changes = store.getPendingChanges(userId, BATCH_SIZE);
+        if (changes.isEmpty()) {
+            return false;
+        }
+        Map<SyncEntity, List<SyncRow>> rowsByEntity = new EnumMap<>(SyncEntity.class);
+        List<SyncRow> deletes = new ArrayList<>();
+        for (SyncRow row : changes) {
+            if (row.isDeleted()) {
+                deletes.add(row);
+            } else {
+                rowsByEntity.computeIfAbsent(row.getEntity(), k -> new ArrayList<>()).add(row);
+            }
+        }
+
+        List<SyncRow> pushed = new ArrayList<>();     // With the server's IDs
+        List<SyncRow> contested = new ArrayList<>();  // The server had a newer version, or no row
+        // Parents inserted in this batch, local ID -> remote ID
+        Map<SyncEntity, Map<Integer, Integer>> insertedIds = new EnumMap<>(SyncEntity.class);
+        for (SyncEntity entity : SyncEntity.values()) {
+            insertedIds.put(entity, new HashMap<>());
+        }
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            // If anything fails the pool rolls the batch back when the connection is returned
+            conn.setAutoCommit(false);
+            long version = SyncClock.next(conn, userId);
+            for (SyncEntity entity : SyncEntity.values()) {
+                List<SyncRow> updates = new ArrayList<>();
+                for (SyncRow row : rowsByEntity.getOrDefault(entity, Collections.emptyList())) {
+                    int parentRemoteId = parentRemoteId(row, insertedIds);
+                    if (parentRemoteId < 0) {
+                        continue; // The parent isn't on the server yet, next batch
+                    }
+                    if (row.getRemoteId() != 0) {
+                        updates.add(row.withParentRemoteId(parentRemoteId));
+                        continue;
+                    }
+                    int remoteId = insert(conn, row, parentRemoteId, version);
+                    if (remoteId == 0) {
+                        contested.add(row); // Its task is gone from the server
+                        continue;
+                    }
+                    insertedIds.get(entity).put(row.getLocalId(), remoteId);
+                    pushed.add(row.withRemoteId(remoteId));
+                }
+                if (!updates.isEmpty()) {
+                    int[] counts = update(conn, entity, updates, version);
+                    for (int i = 0; i < counts.length; i++) {
+                        (counts[i] == 0 ? contested : pushed).add(updates.get(i));
+                    }
+                }
+            }
+            if (!deletes.isEmpty()) {
+                int[] counts = delete(conn, deletes, version);
+                for (int i = 0; i < counts.length; i++) {
+                    (counts[i] == 0 ? contested : pushed).add(deletes.get(i));
+                }
+            }
+            conn.commit();
+        }
+        store.acknowledge(pushed);
+        recordPush(pushed);
+
+        if (!contested.isEmpty()) {
+            resolveContested(contested, missing);
+        }
+        return changes.size() == BATCH_SIZE && !pushed.isEmpty();
+    }
+
+    /**
+     * @return The server ID of a row's parent, 0 if it has none, or -1 if
+     *         the parent isn't on the server yet.
+     */
+    private static int parentRemoteId(SyncRow row, Map<SyncEntity, Map<Integer, Integer>> insertedIds) {
+        if (row.getEntity() == SyncEntity.CATEGORY || row.getParentLocalId() == 0) {
+            return 0;
+        }
+        if (row.getParentRemoteId() != 0) {
+            return row.getParentRemoteId();
+        }
+        SyncEntity parent = row.getEntity() == SyncEntity.TASK ? SyncEntity.CATEGORY : SyncEntity.TASK;
+        return insertedIds.get(parent).getOrDefault(row.getParentLocalId(), -1);
+    }
+
+    /**
+     * @return The new row's server ID, or 0 if nothing was inserted.
+     */
+    private int insert(Connection conn, SyncRow row, int parentRemoteId, long version) throws SQLException {
+        String sql = row.getEntity() == SyncEntity.CATEGORY ? INSERT_CATEGORY
+                : row.getEntity() == SyncEntity.TASK ? INSERT_TASK : INSERT_SUBTASK;
+        try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            switch (row.getEntity()) {
+                case CATEGORY:
+                    pstmt.setInt(1, row.getUserId());
+                    pstmt.setString(2, row.getTitle());
+                    pstmt.setLong(3, row.getUpdatedAt());
+                    pstmt.setLong(4, version);
+                    break;
+                case TASK:
+                    pstmt.setInt(1, row.getUserId());
+                    setTaskValues(pstmt, 2, row, parentRemoteId, version);
+                    break;
+                default:
+                    pstmt.setString(1, row.getTitle());
+                    pstmt.setString(2, row.getStatus().name());
+                    pstmt.setLong(3, row.getUpdatedAt());
+                    pstmt.setLong(4, version);
+                    pstmt.setInt(5, parentRemoteId);
+            }
+            if (pstmt.executeUpdate() == 0) {
+                return 0;
+            }
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                return keys.next() ? keys.getInt(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Sets category, title, description, priority, due date, status,
+     * updated_at and row_version, starting at the given parameter.
+     */
+    private static void setTaskValues(PreparedStatement pstmt, int first, SyncRow row, int categoryRemoteId,
+                                      long version) throws SQLException {
+        TaskRecord task = row.getTask();
+        if (categoryRemoteId != 0) {
+            pstmt.setInt(first, categoryRemoteId);
+        } else {
+            pstmt.setNull(first, Types.INTEGER);
+        }
+        pstmt.setString(first + 1, task.getTitle());
+        pstmt.setString(first + 2, task.getDescription());
+        pstmt.setString(first + 3, task.getPriority().name());
+        if (task.getDueDate() != null) {
+            pstmt.setDate(first + 4, java.sql.Date.valueOf(task.getDueDate()));
+        } else {
+            pstmt.setNull(first + 4, Types.DATE);
+        }
+        pstmt.setString(first + 5, task.getStatus().name());
+        pstmt.setLong(first + 6, row.getUpdatedAt());
+        pstmt.setLong(first + 7, version);
+    }
+
+    /**
+     * @return The update count of each row (0 if the server row is newer or gone).
+     */
+    private int[] update(Connection conn, SyncEntity entity, List<SyncRow> rows, long version) throws SQLException {
+        String sql = entity == SyncEntity.CATEGORY ? UPDATE_CATEGORY
+                : entity == SyncEntity.TASK ? UPDATE_TASK : UPDATE_SUBTASK;
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (SyncRow row : rows) {
+                switch (entity) {
+                    case CATEGORY:
+                        pstmt.setString(1, row.getTitle());
+                        pstmt.setLong(2, row.getUpdatedAt());
+                        pstmt.setLong(3, version);
+                        pstmt.setInt(4, row.getRemoteId());
+                        pstmt.setLong(5, row.getUpdatedAt());
+                        break;
+                    case TASK:
+                        setTaskValues(pstmt, 1, row, row.getParentRemoteId(), version);
+                        pstmt.setInt(9, row.getRemoteId());
+                        pstmt.setLong(10, row.getUpdatedAt());
+                        break;
+                    default:
+                        pstmt.setString(1, row.getTitle());
+                        pstmt.setString(2, row.getStatus().name());
+                        pstmt.setLong(3, row.getUpdatedAt());
+                        pstmt.setLong(4, version);
+                        pstmt.setInt(5, row.getRemoteId());
+                        pstmt.setLong(6, row.getUpdatedAt());
+                }
+                pstmt.addBatch();
+            }
+            return pstmt.executeBatch();
+        }
+    }
+
+    /**
+     * Deletes rows that weren't edited on the server after the local delete,
+     * leaving tombstones for the other clients.
+     *
+     * @return The delete count of each row.
+     */
+    private int[] delete(Connection conn, List<SyncRow> rows, long version) throws SQLException {
+        int[] counts = new int[rows.size()];
+        List<SyncRow> deleted = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            SyncRow row = rows.get(i);
+            String sql = "DELETE FROM " + tableOf(row.getEntity()) + " WHERE " + idColumnOf(row.getEntity())
+                    + " = ? AND updated_at < ?";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, row.getRemoteId());
+                pstmt.setLong(2, row.getUpdatedAt());
+                counts[i] = pstmt.executeUpdate();
+            }
+            if (counts[i] > 0) {
+                deleted.add(row);
+            }
+        }
+        if (!deleted.isEmpty()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(INSERT_TOMBSTONE)) {
+                for (SyncRow row : deleted) {
+                    pstmt.setString(1, tableOf(row.getEntity()));
+                    pstmt.setInt(2, row.getRemoteId());
+                    pstmt.setInt(3, userId);
+                    pstmt.setLong(4, row.getUpdatedAt());
+                    pstmt.setLong(5, version);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Settles pushes the server turned down: reads the server's rows back
+     * and applies them (they are newer, so they replace the local edits).
+     * Deletes of rows that are already gone count as done; edits of rows
+     * that are gone go to the missing list.
+     */
+    private void resolveContested(List<SyncRow> contested, List<SyncRow> missing) throws SQLException, IOException {
+        Map<SyncEntity, List<Integer>> ids = new EnumMap<>(SyncEntity.class);
+        for (SyncRow row : contested) {
+            if (row.getRemoteId() != 0) {
+                ids.computeIfAbsent(row.getEntity(), k -> new ArrayList<>()).add(row.getRemoteId());
+            }
+        }
+        List<SyncRow> serverRows = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (Map.Entry<SyncEntity, List<Integer>> entry : ids.entrySet()) {
+                String condition = (entry.getKey() == SyncEntity.SUBTASK ? "s." : "")
+                        + idColumnOf(entry.getKey()) + " IN (" + placeholders(entry.getValue().size()) + ")";
+                long[] params = new long[entry.getValue().size()];
+                for (int i = 0; i < params.length; i++) {
+                    params[i] = entry.getValue().get(i);
+                }
+                readRows(conn, entry.getKey(), condition, params, serverRows, null);
+            }
+        }
+
+        Map<SyncEntity, Map<Integer, SyncRow>> found = new EnumMap<>(SyncEntity.class);
+        for (SyncRow row : serverRows) {
+            found.computeIfAbsent(row.getEntity(), k -> new HashMap<>()).put(row.getRemoteId(), row);
+        }
+        List<SyncRow> alreadyDeleted = new ArrayList<>();
+        for (SyncRow row : contested) {
+            boolean onServer = found.getOrDefault(row.getEntity(), Collections.emptyMap())
+                    .containsKey(row.getRemoteId());
+            if (row.isDeleted() && !onServer) {
+                alreadyDeleted.add(row);
+            } else if (!row.isDeleted() && row.getRemoteId() != 0 && !onServer) {
+                missing.add(row);
+            }
+        }
+        store.acknowledge(alreadyDeleted);
+        if (!serverRows.isEmpty()) {
+            applyPulled(serverRows, store.getWatermark(userId));
+        }
+    }
+
+    /**
+     * Reads everything that changed on the server since the watermark and
+     * applies it to the journal.
+     */
+    private void pull() throws SQLException, IOException {
+        long since = store.getWatermark(userId);
+        List<SyncRow> rows = new ArrayList<>();
+        long watermark;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            // One transaction, so the reads see one state of the database
+            conn.setAutoCommit(false);
+            watermark = SyncClock.current(conn, userId);
+            if (watermark < since) {
+                since = 0; // The database was replaced; start over
+            }
+            if (watermark > since) {
+                // Row versions read here, to spot tombstones of IDs that were used again
+                Map<SyncEntity, Map<Integer, Long>> versions = new EnumMap<>(SyncEntity.class);
+                readRows(conn, SyncEntity.CATEGORY, "user_id = ? AND row_version > ?",
+                        new long[]{userId, since}, rows, versions);
+                readRows(conn, SyncEntity.TASK, "user_id = ? AND row_version > ?",
+                        new long[]{userId, since}, rows, versions);
+                readRows(conn, SyncEntity.SUBTASK, "t.user_id = ? AND s.row_version > ?",
+                        new long[]{userId, since}, rows, versions);
+                readTombstones(conn, since, rows, versions);
+            }
+            conn.commit();
+        }
+        if (watermark != since) {
+            applyPulled(rows, watermark);
+        }
+    }
+
+    private void applyPulled(List<SyncRow> rows, long watermark) throws IOException {
+        PullResult result = store.applyServerChanges(userId, rows, watermark);
+        synchronized (this) {
+            if (!rows.isEmpty()) {
+                pullBatches++;
+                pulledRows += rows.size();
+                largestPullBatch = Math.max(largestPullBatch, rows.size());
+            }
+            localWins += result.getLocalWins();
+            remoteWins += result.getRemoteWins();
+        }
+        Consumer<PullResult> listener = changeListener;
+        if (result.getApplied() > 0 && listener != null) {
+            listener.accept(result);
+        }
+    }
+
+    private void readRows(Connection conn, SyncEntity entity, String condition, long[] params,
+                          List<SyncRow> rows, Map<SyncEntity, Map<Integer, Long>> versions) throws SQLException {
+        String sql = entity == SyncEntity.CATEGORY ? SELECT_CATEGORIES
+                : entity == SyncEntity.TASK ? SELECT_TASKS : SELECT_SUBTASKS;
+        try (PreparedStatement pstmt = conn.prepareStatement(sql + condition)) {
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setLong(i + 1, params[i]);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    SyncRow row;
+                    switch (entity) {
+                        case CATEGORY:
+                            row = SyncRow.category(0, rs.getInt("category_id"), rs.getInt("user_id"),
+                                    rs.getString("category_name"), rs.getLong("updated_at"));
+                            break;
+                        case TASK: {
+                            java.sql.Date dueDate = rs.getDate("due_date");
+                            TaskRecord task = TaskRecord.fromDatabase(0, rs.getInt("user_id"), rs.getString("title"),
+                                    rs.getString("description"), rs.getString("priority"),
+                                    dueDate != null ? dueDate.toLocalDate() : null, rs.getString("status"), null);
+                            row = SyncRow.task(0, rs.getInt("task_id"), 0, rs.getInt("category_id"), task,
+                                    rs.getLong("updated_at"));
+                            break;
+                        }
+                        default:
+                            row = SyncRow.subtask(0, rs.getInt("subtask_id"), 0, rs.getInt("task_id"),
+                                    rs.getInt("user_id"), rs.getString("title"),
+                                    Status.fromString(rs.getString("status")), rs.getLong("updated_at"));
+                    }
+                    rows.add(row);
+                    if (versions != null) {
+                        versions.computeIfAbsent(entity, k -> new HashMap<>())
+                                .put(row.getRemoteId(), rs.getLong("row_version"));
+                    }
+                }
+            }
+        }
+    }
+
+    private void readTombstones(Connection conn, long since, List<SyncRow> rows,
+                                Map<SyncEntity, Map<Integer, Long>> versions) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(SELECT_TOMBSTONES)) {
+            pstmt.setInt(1, userId);
+            pstmt.setLong(2, since);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    SyncEntity entity = entityOf(rs.getString("table_name"));
+                    if (entity == null) {
+                        continue;
+                    }
+                    int remoteId = rs.getInt("row_id");
+                    Long rowVersion = versions.getOrDefault(entity, Collections.emptyMap()).get(remoteId);
+                    if (rowVersion != null && rowVersion > rs.getLong("row_version")) {
+                        continue; // The ID belongs to a newer row now
+                    }
+                    rows.add(SyncRow.deletion(entity, remoteId, userId, rs.getLong("deleted_at")));
+                }
+            }
+        }
+    }
+
+    private synchronized void recordPush(List<SyncRow> pushed) {
+        if (pushed.isEmpty()) {
+            return;
+        }
+        pushBatches++;
+        pushedRows += pushed.size();
+        largestPushBatch = Math.max(largestPushBatch, pushed.size());
+        long now = System.currentTimeMillis();
+        for (SyncRow row : pushed) {
+            if (row.getUpdatedAt() > 0) { // 0: written before sync existed
+                long lag = Math.max(0, now - row.getUpdatedAt());
+                pushLagTotalMillis += lag;
+                pushLagSamples++;
+                largestPushLagMillis = Math.max(largestPushLagMillis, lag);
+            }
+        }
+    }
+
+    // --- Table names ---
+
+    private static String tableOf(SyncEntity entity) {
+        switch (entity) {
+            case CATEGORY:
+                return "categories";
+            case TASK:
+                return "tasks";
+            default:
+                return "subtasks";
+        }
+    }
+
+    private static String idColumnOf(SyncEntity entity) {
+        switch (entity) {
+            case CATEGORY:
+                return "category_id";
+            case TASK:
+                return "task_id";
+            default:
+                return "subtask_id";
+        }
+    }
+
+    private static SyncEntity entityOf(String table) {
+        for (SyncEntity entity : SyncEntity.values()) {
+            if (tableOf(entity).equalsIgnoreCase(table)) {
+                return entity;
+            }
+        }
+        return null;
+    }
+
+    private static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(i == 0 ? "?" : ", ?");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,67 @@
+package com.saadsafi.todoapp.sync;
+
+import com.saadsafi.todoapp.model.Task;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * What changed in the database between two ChangeFeed polls.
+ */
+public final class TaskChanges {
+
+    private final long version;
+    private final List<Task> changedTasks;
+    private final Set<Integer> deletedTaskIds;
+    private final Set<Integer> deletedSubtaskIds;
+    private final Set<Integer> deletedCategoryIds;
+    private final boolean categoriesChanged;
+
+    TaskChanges(long version, List<Task> changedTasks, Set<Integer> deletedTaskIds,
+                Set<Integer> deletedSubtaskIds, Set<Integer> deletedCategoryIds, boolean categoriesChanged) {
+        this.version = version;
+        this.changedTasks = Collections.unmodifiableList(changedTasks);
+        this.deletedTaskIds = Collections.unmodifiableSet(deletedTaskIds);
+        this.deletedSubtaskIds = Collections.unmodifiableSet(deletedSubtaskIds);
+        this.deletedCategoryIds = Collections.unmodifiableSet(deletedCategoryIds);
+        this.categoriesChanged = categoriesChanged;
+    }
+
+    /**
+     * @return The SyncClock version these changes go up to.
+     */
+    public long getVersion() { return version; }
+
+    /**
+     * @return New and changed tasks as they are now, with their subtasks
+     * (a task whose subtasks changed counts as changed).
+     */
+    public List<Task> getChangedTasks() { return changedTasks; }
+
+    public Set<Integer> getDeletedTaskIds() { return deletedTaskIds; }
+
+    /**
+     * @return Deleted subtasks. Their task isn't known any more, so it is not
+     * in getChangedTasks(); look the IDs up in the tasks on screen.
+     */
+    public Set<Integer> getDeletedSubtaskIds() { return deletedSubtaskIds; }
+
+    public Set<Integer> getDeletedCategoryIds() { return deletedCategoryIds; }
+
+    /**
+     * @return True if a category was created or deleted.
+     */
+    public boolean isCategoriesChanged() { return categoriesChanged; }
+
+    public boolean isEmpty() {
+        return changedTasks.isEmpty() && deletedTaskIds.isEmpty() && deletedSubtaskIds.isEmpty()
+                && !categoriesChanged;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskChanges[version=" + version + ", changed=" + changedTasks.size()
+                + ", deleted=" + deletedTaskIds.size() + ", deletedSubtasks=" + deletedSubtaskIds.size()
+                + ", categoriesChanged=" + categoriesChanged + "]";
+    }
+}
@@ -0,0 +1,144 @@
+package com.saadsafi.todoapp.transfer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads CSV (RFC 4180): the first row names the columns, fields may be
+ * quoted, and quoted fields may contain commas, "" and line breaks.
+ */
+public class CsvTaskReader implements TaskRowReader {
+
+    private final Reader in;
+    private final List<String> header;
+    private long line = 1;
+    private long rowLine = 0;
+    private int peeked = -2; // -2: nothing peeked
+
+    /**
+     * @param in Read from as needed; pass a buffered reader.
+     * @throws IOException If the header row can't be read.
+     */
+    public CsvTaskReader(Reader in) throws IOException {
+        this.in = in;
+        List<String> names = readRecord();
+        if (names == null) {
+            throw new IOException("The file is empty");
+        }
+        header = new ArrayList<>(names.size());
+        for (String name : names) {
+            // A byte order mark shows up as part of the first name
+            header.add(name.replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    @Override
+    public Map<String, String> next() throws IOException {
+        List<String> fields;
+        do {
+            fields = readRecord();
+            if (fields == null) {
+                return null;
+            }
+        } while (fields.size() == 1 && fields.get(0).isEmpty()); // Blank line
+
+        Map<String, String> row = new LinkedHashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            // Extra fields past the header are kept under their position
+            row.put(i < header.size() ? header.get(i) : "#" + (i + 1), fields.get(i));
+        }
+        return row;
+    }
+
+    @Override
+    public long getLineNumber() {
+        return rowLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // --- Parsing ---
+
+    /**
+     * @return The fields of the next record, or null at the end of the input.
+     */
+    private List<String> readRecord() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        rowLine = line;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unclosed quote in the record starting on line " + rowLine);
+                }
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == -1 || c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    int next = read();
+                    if (next != '\n') {
+                        unread(next);
+                    }
+                }
+                fields.add(field.toString());
+                return fields;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                wasQuoted = false;
+            } else if (c == '"' && field.length() == 0 && !wasQuoted) {
+                quoted = true;
+                wasQuoted = true;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        int c;
+        if (peeked != -2) {
+            c = peeked;
+            peeked = -2;
+        } else {
+            c = in.read();
+        }
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+
+    private void unread(int c) {
+        if (c == '\n') {
+            line--;
+        }
+        peeked = c;
+    }
+}
@@ -0,0 +1,52 @@
+package com.saadsafi.todoapp.transfer;
+
+/**
+ * What a TaskExporter run wrote.
+ */
+public final class ExportReport {
+
+    private final int categories;
+    private final long tasks;
+    private final long subtasks;
+    private final long bytes;
+    private final long elapsedNanos;
+    private final String error;
+
+    ExportReport(int categories, long tasks, long subtasks, long bytes, long elapsedNanos, String error) {
+        this.categories = categories;
+        this.tasks = tasks;
+        this.subtasks = subtasks;
+        this.bytes = bytes;
+        this.elapsedNanos = elapsedNanos;
+        this.error = error;
+    }
+
+    public int getCategories() { return categories; }
+
+    public long getTasks() { return tasks; }
+
+    public long getSubtasks() { return subtasks; }
+
+    public long getBytes() { return bytes; }
+
+    public double getElapsedMillis() { return elapsedNanos / 1_000_000.0; }
+
+    public double getTasksPerSecond() {
+        return elapsedNanos == 0 ? 0 : tasks * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    /**
+     * @return Why the export failed, or null if it is complete. A failed
+     * export leaves a partial file behind.
+     */
+    public String getError() { return error; }
+
+    public boolean isComplete() { return error == null; }
+
+    @Override
+    public String toString() {
+        return String.format("ExportReport[categories=%d, tasks=%d, subtasks=%d, %d bytes, %.1f ms, %.0f tasks/s%s]",
+                categories, tasks, subtasks, bytes, getElapsedMillis(), getTasksPerSecond(),
+                error != null ? ", error=" + error : "");
+    }
+}
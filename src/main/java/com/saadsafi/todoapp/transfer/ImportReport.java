@@ -0,0 +1,92 @@
+package com.saadsafi.todoapp.transfer;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What a TaskImporter run did.
+ */
+public final class ImportReport {
+
+    /**
+     * A row that was not imported, and why.
+     */
+    public static final class RejectedRow {
+        private final long line;
+        private final String reason;
+
+        RejectedRow(long line, String reason) {
+            this.line = line;
+            this.reason = reason;
+        }
+
+        public long getLine() { return line; }
+        public String getReason() { return reason; }
+
+        @Override
+        public String toString() {
+            return "line " + line + ": " + reason;
+        }
+    }
+
+    private final String source;
+    private final long rowsRead;
+    private final long imported;
+    private final long rejected;
+    private final List<RejectedRow> rejectedRows;
+    private final int categoriesCreated;
+    private final long elapsedNanos;
+    private final String error;
+
+    ImportReport(String source, long rowsRead, long imported, long rejected, List<RejectedRow> rejectedRows,
+                 int categoriesCreated, long elapsedNanos, String error) {
+        this.source = source;
+        this.rowsRead = rowsRead;
+        this.imported = imported;
+        this.rejected = rejected;
+        this.rejectedRows = Collections.unmodifiableList(rejectedRows);
+        this.categoriesCreated = categoriesCreated;
+        this.elapsedNanos = elapsedNanos;
+        this.error = error;
+    }
+
+    public String getSource() { return source; }
+
+    public long getRowsRead() { return rowsRead; }
+
+    public long getImported() { return imported; }
+
+    /**
+     * @return How many rows failed validation (more than getRejectedRows() may list).
+     */
+    public long getRejected() { return rejected; }
+
+    /**
+     * @return The first rejected rows, up to TaskImporter.MAX_REPORTED_REJECTIONS.
+     */
+    public List<RejectedRow> getRejectedRows() { return rejectedRows; }
+
+    public int getCategoriesCreated() { return categoriesCreated; }
+
+    public double getElapsedMillis() { return elapsedNanos / 1_000_000.0; }
+
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rowsRead * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    /**
+     * @return Why the import stopped early (unreadable file, database error),
+     * or null if it read the whole file. Chunks stored before that stay stored.
+     */
+    public String getError() { return error; }
+
+    public boolean isComplete() { return error == null; }
+
+    @Override
+    public String toString() {
+        return String.format("ImportReport[source=%s, read=%d, imported=%d, rejected=%d, categoriesCreated=%d, "
+                        + "%.1f ms, %.0f rows/s%s]",
+                source, rowsRead, imported, rejected, categoriesCreated, getElapsedMillis(), getRowsPerSecond(),
+                error != null ? ", error=" + error : "");
+    }
+}
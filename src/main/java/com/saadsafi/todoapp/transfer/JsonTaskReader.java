@@ -0,0 +1,273 @@
+package com.saadsafi.todoapp.transfer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads tasks from JSON: one array of objects, objects one after another
+ * (JSON Lines), or a TaskExporter backup (an object whose "tasks" array
+ * holds the rows). Each object is one row; its string, number, boolean
+ * and null values become the row's fields. Nested objects and arrays are
+ * skipped.
+ *
+ * A small hand-written parser, so the app needs no JSON library and only
+ * one object is in memory at a time.
+ */
+public class JsonTaskReader implements TaskRowReader {
+
+    private final Reader in;
+    private boolean array = false;
+    private Map<String, String> firstRow = null; // Already read while looking for "tasks"
+    private boolean first = true;
+    private boolean done = false;
+    private long line = 1;
+    private long rowLine = 0;
+    private int peeked = -2; // -2: nothing peeked
+
+    /**
+     * @param in Read from as needed; pass a buffered reader.
+     */
+    public JsonTaskReader(Reader in) throws IOException {
+        this.in = in;
+        int c = skipWhitespace();
+        if (c == '\uFEFF') { // Byte order mark
+            c = skipWhitespace();
+        }
+        if (c == '[') {
+            array = true;
+        } else if (c == '{') {
+            // The first of several objects, or a backup with a "tasks" array
+            rowLine = line;
+            Map<String, String> row = new LinkedHashMap<>();
+            if (readFields(row, true)) {
+                array = true; // Rest of the backup after the array is ignored
+            } else {
+                firstRow = row;
+            }
+        } else {
+            unread(c);
+        }
+    }
+
+    @Override
+    public Map<String, String> next() throws IOException {
+        if (done) {
+            return null;
+        }
+        if (firstRow != null) {
+            Map<String, String> row = firstRow;
+            firstRow = null;
+            return row;
+        }
+        int c = skipWhitespace();
+        if (array) {
+            if (c == ']' && first) {
+                done = true;
+                return null;
+            }
+            if (!first) {
+                if (c == ']') {
+                    done = true;
+                    return null;
+                }
+                expect(c, ',');
+                c = skipWhitespace();
+            }
+        } else if (c == -1) {
+            done = true;
+            return null;
+        }
+        first = false;
+        rowLine = line;
+        expect(c, '{');
+        Map<String, String> row = new LinkedHashMap<>();
+        readFields(row, false);
+        return row;
+    }
+
+    @Override
+    public long getLineNumber() {
+        return rowLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // --- Parsing ---
+
+    /**
+     * Reads the rest of an object whose '{' was just read into row.
+     *
+     * @param findTasks Stop at a "tasks" array instead of skipping it.
+     * @return True if it stopped just inside a "tasks" array.
+     */
+    private boolean readFields(Map<String, String> row, boolean findTasks) throws IOException {
+        int c = skipWhitespace();
+        if (c == '}') {
+            return false;
+        }
+        while (true) {
+            expect(c, '"');
+            String name = readString().trim().toLowerCase(Locale.ROOT);
+            expect(skipWhitespace(), ':');
+            c = skipWhitespace();
+            if (c == '[' && findTasks && name.equals("tasks")) {
+                return true;
+            } else if (c == '{' || c == '[') {
+                skipNested(c);
+            } else if (c == '"') {
+                row.put(name, readString());
+            } else {
+                String literal = readLiteral(c);
+                row.put(name, literal.equals("null") ? null : literal);
+            }
+            c = skipWhitespace();
+            if (c == '}') {
+                return false;
+            }
+            expect(c, ',');
+            c = skipWhitespace();
+        }
+    }
+
+    /**
+     * Reads the rest of a string whose opening quote was just read.
+     */
+    private String readString() throws IOException {
+        StringBuilder value = new StringBuilder();
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                throw error("Unclosed string");
+            }
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append((char) c);
+                continue;
+            }
+            c = read();
+            switch (c) {
+                case '"':
+                case '\\':
+                case '/':
+                    value.append((char) c);
+                    break;
+                case 'b':
+                    value.append('\b');
+                    break;
+                case 'f':
+                    value.append('\f');
+                    break;
+                case 'n':
+                    value.append('\n');
+                    break;
+                case 'r':
+                    value.append('\r');
+                    break;
+                case 't':
+                    value.append('\t');
+                    break;
+                case 'u':
+                    char[] hex = new char[4];
+                    for (int i = 0; i < 4; i++) {
+                        hex[i] = (char) read();
+                    }
+                    try {
+                        value.append((char) Integer.parseInt(new String(hex), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Bad \\u escape");
+                    }
+                    break;
+                default:
+                    throw error("Bad escape");
+            }
+        }
+    }
+
+    /**
+     * Reads a number, true, false or null starting with c.
+     */
+    private String readLiteral(int c) throws IOException {
+        StringBuilder value = new StringBuilder();
+        while (c != -1 && c != ',' && c != '}' && c != ']' && !Character.isWhitespace(c)) {
+            value.append((char) c);
+            c = read();
+        }
+        unread(c);
+        String literal = value.toString();
+        if (literal.isEmpty()) {
+            throw error("Expected a value");
+        }
+        if (!literal.equals("true") && !literal.equals("false") && !literal.equals("null")
+                && !literal.matches("-?\\d+(\\.\\d+)?([eE][+-]?\\d+)?")) {
+            throw error("Unexpected '" + literal + "'");
+        }
+        return literal;
+    }
+
+    /**
+     * Skips an object or array whose opening bracket (c) was just read.
+     */
+    private void skipNested(int c) throws IOException {
+        int depth = 1;
+        while (depth > 0) {
+            c = read();
+            if (c == -1) {
+                throw error("Unclosed object or array");
+            } else if (c == '"') {
+                readString();
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+            }
+        }
+    }
+
+    private void expect(int c, char expected) throws IOException {
+        if (c != expected) {
+            throw error("Expected '" + expected + "' but found "
+                    + (c == -1 ? "the end of the file" : "'" + (char) c + "'"));
+        }
+    }
+
+    private IOException error(String message) {
+        return new IOException(message + " on line " + line);
+    }
+
+    private int skipWhitespace() throws IOException {
+        int c = read();
+        while (c != -1 && Character.isWhitespace(c)) {
+            c = read();
+        }
+        return c;
+    }
+
+    private int read() throws IOException {
+        int c;
+        if (peeked != -2) {
+            c = peeked;
+            peeked = -2;
+        } else {
+            c = in.read();
+        }
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+
+    private void unread(int c) {
+        if (c == '\n') {
+            line--;
+        }
+        peeked = c;
+    }
+}
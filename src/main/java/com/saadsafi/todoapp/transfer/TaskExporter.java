@@ -0,0 +1,402 @@
+package com.saadsafi.todoapp.transfer;
+
+import com.saadsafi.todoapp.db.DatabaseConnection;
+import com.saadsafi.todoapp.db.StorageBackend;
+import com.saadsafi.todoapp.journal.JournalStore;
+import com.saadsafi.todoapp.model.Category;
+import com.saadsafi.todoapp.model.Status;
+import com.saadsafi.todoapp.model.Subtask;
+import com.saadsafi.todoapp.model.TaskRecord;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Exports all of a user's categories, tasks and subtasks as CSV or JSON.
+ *
+ * From the database, the tasks and their subtasks come from one joined
+ * query, read with a forward-only cursor in task order and written out
+ * task by task, so memory use doesn't grow with the number of tasks. Only
+ * the user's categories (to name each task's category) are held.
+ *
+ * CSV has one row per task, with the subtasks in the last column, one per
+ * line ("[x] Done one", "[ ] Open one"); categories without tasks are not
+ * in it. JSON is a backup of everything:
+ * {"categories": [...], "tasks": [{..., "subtasks": [...]}]}.
+ * TaskImporter reads both back (without the subtasks).
+ */
+public class TaskExporter {
+
+    public enum Format {
+        CSV, JSON;
+
+        /**
+         * @return JSON for a .json file name, otherwise CSV.
+         */
+        public static Format forFile(Path file) {
+            return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".json") ? JSON : CSV;
+        }
+    }
+
+    // Rows per round trip from the database (MySQL streams instead, see fetchSize())
+    private static final int FETCH_SIZE = 1_000;
+    private static final int WRITE_BUFFER_CHARS = 64 * 1024;
+
+    private static final String SELECT_CATEGORIES =
+            "SELECT category_id, category_name FROM categories WHERE user_id = ? ORDER BY category_id";
+    private static final String SELECT_TASKS =
+            "SELECT t.task_id, t.category_id, t.title, t.description, t.priority, t.due_date, t.status, "
+            + "s.subtask_id, s.title AS subtask_title, s.status AS subtask_status "
+            + "FROM tasks t LEFT JOIN subtasks s ON s.task_id = t.task_id "
+            + "WHERE t.user_id = ? ORDER BY t.task_id, s.subtask_id";
+
+    private final JournalStore journal;
+
+    /**
+     * Exports from the database.
+     */
+    public TaskExporter() {
+        this(null);
+    }
+
+    /**
+     * @param journal Export from this JournalStore instead of the database (null for the database).
+     */
+    public TaskExporter(JournalStore journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Exports to a file, replacing it. The format follows the file name (see Format.forFile).
+     */
+    public ExportReport exportFile(int userId, Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            return export(userId, Format.forFile(file), channel);
+        } catch (IOException e) {
+            System.err.println("Export Error writing " + file + ": " + e.getMessage());
+            return new ExportReport(0, 0, 0, 0, 0, "Could not write " + file.getFileName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the export to a channel as it is read. The channel is not closed.
+     */
+    public ExportReport export(int userId, Format format, WritableByteChannel channel) {
+        long start = System.nanoTime();
+        CountingChannel counted = new CountingChannel(channel);
+        Writer out = new BufferedWriter(Channels.newWriter(counted, StandardCharsets.UTF_8), WRITE_BUFFER_CHARS);
+        ExportWriter writer = format == Format.JSON ? new JsonExportWriter(out, userId) : new CsvExportWriter(out);
+
+        String error = null;
+        try {
+            if (journal != null) {
+                exportJournal(userId, writer);
+            } else {
+                exportDatabase(userId, writer);
+            }
+            writer.end();
+            out.flush();
+        } catch (SQLException e) {
+            System.err.println("SQL Error exporting tasks: " + e.getMessage());
+            error = "Database error: " + e.getMessage();
+        } catch (IOException e) {
+            System.err.println("Export Error: " + e.getMessage());
+            error = "Could not write the export: " + e.getMessage();
+        }
+
+        ExportReport report = new ExportReport(writer.categories, writer.tasks, writer.subtasks,
+                counted.bytes, System.nanoTime() - start, error);
+        System.out.println(report);
+        return report;
+    }
+
+    // --- Sources ---
+
+    private void exportDatabase(int userId, ExportWriter writer) throws SQLException, IOException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            // One transaction, so categories and tasks come from the same snapshot
+            conn.setAutoCommit(false);
+
+            List<Category> categories = new ArrayList<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(SELECT_CATEGORIES)) {
+                pstmt.setInt(1, userId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        categories.add(new Category(rs.getInt("category_id"), rs.getString("category_name")));
+                    }
+                }
+            }
+            writer.begin(categories);
+            Map<Integer, Category> categoriesById = new HashMap<>();
+            for (Category category : categories) {
+                categoriesById.put(category.getCategoryId(), category);
+            }
+
+            // This overload bypasses the statement cache, so the fetch size doesn't stick to a cached statement
+            try (PreparedStatement pstmt = conn.prepareStatement(SELECT_TASKS,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                pstmt.setFetchSize(fetchSize());
+                pstmt.setInt(1, userId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    // One row per subtask (or one for a task without any); a task's rows are together
+                    TaskRecord task = null;
+                    List<Subtask> subtasks = new ArrayList<>();
+                    while (rs.next()) {
+                        int taskId = rs.getInt("task_id");
+                        if (task == null || task.getTaskId() != taskId) {
+                            if (task != null) {
+                                writer.task(task, subtasks);
+                                subtasks.clear();
+                            }
+                            Date dueDate = rs.getDate("due_date");
+                            task = TaskRecord.fromDatabase(taskId, userId, rs.getString("title"),
+                                    rs.getString("description"), rs.getString("priority"),
+                                    dueDate != null ? dueDate.toLocalDate() : null, rs.getString("status"),
+                                    categoriesById.get(rs.getInt("category_id")));
+                        }
+                        int subtaskId = rs.getInt("subtask_id");
+                        if (!rs.wasNull()) {
+                            subtasks.add(new Subtask(subtaskId, taskId, rs.getString("subtask_title"),
+                                    rs.getString("subtask_status")));
+                        }
+                    }
+                    if (task != null) {
+                        writer.task(task, subtasks);
+                    }
+                }
+            }
+            conn.commit();
+        }
+    }
+
+    private void exportJournal(int userId, ExportWriter writer) throws IOException {
+        // Already in memory; read one category at a time
+        List<Category> categories = journal.getCategories(userId);
+        writer.begin(categories);
+        List<Integer> categoryIds = new ArrayList<>();
+        categoryIds.add(0); // No category
+        for (Category category : categories) {
+            categoryIds.add(category.getCategoryId());
+        }
+        for (int categoryId : categoryIds) {
+            for (TaskRecord task : journal.getTasks(userId, categoryId)) {
+                writer.task(task, journal.getSubtasks(task.getTaskId()));
+            }
+        }
+    }
+
+    /**
+     * Connector/J reads the whole result into memory unless the fetch size
+     * is Integer.MIN_VALUE, which streams it row by row. H2 takes the fetch
+     * size as is (and keeps large results on disk, not in memory).
+     */
+    private static int fetchSize() {
+        return DatabaseConnection.getConfig().getBackend() == StorageBackend.MYSQL ? Integer.MIN_VALUE : FETCH_SIZE;
+    }
+
+    // --- Formats ---
+
+    private abstract static class ExportWriter {
+        final Writer out;
+        int categories = 0;
+        long tasks = 0;
+        long subtasks = 0;
+
+        ExportWriter(Writer out) {
+            this.out = out;
+        }
+
+        abstract void begin(List<Category> categories) throws IOException;
+
+        abstract void task(TaskRecord task, List<Subtask> subtasks) throws IOException;
+
+        abstract void end() throws IOException;
+    }
+
+    private static final class CsvExportWriter extends ExportWriter {
+
+        CsvExportWriter(Writer out) {
+            super(out);
+        }
+
+        @Override
+        void begin(List<Category> categoryList) throws IOException {
+            categories = categoryList.size();
+            out.write("task_id,title,description,priority,status,due_date,category,subtasks\r\n");
+        }
+
+        @Override
+        void task(TaskRecord task, List<Subtask> subtaskList) throws IOException {
+            StringBuilder subtaskCell = new StringBuilder();
+            for (Subtask subtask : subtaskList) {
+                if (subtaskCell.length() > 0) {
+                    subtaskCell.append('\n');
+                }
+                subtaskCell.append(subtask.getStatus() == Status.COMPLETED ? "[x] " : "[ ] ").append(subtask.getTitle());
+            }
+            out.write(Integer.toString(task.getTaskId()));
+            field(task.getTitle());
+            field(task.getDescription());
+            field(task.getPriority().name());
+            field(task.getStatus().name());
+            field(task.getDueDate() != null ? task.getDueDate().toString() : null);
+            field(task.getCategory() != null ? task.getCategory().getCategoryName() : null);
+            field(subtaskCell.toString());
+            out.write("\r\n");
+            tasks++;
+            subtasks += subtaskList.size();
+        }
+
+        @Override
+        void end() {
+        }
+
+        private void field(String value) throws IOException {
+            out.write(',');
+            if (value == null || value.isEmpty()) {
+                return;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                    && value.indexOf('\r') < 0) {
+                out.write(value);
+                return;
+            }
+            out.write('"');
+            out.write(value.replace("\"", "\"\""));
+            out.write('"');
+        }
+    }
+
+    private static final class JsonExportWriter extends ExportWriter {
+        private final int userId;
+
+        JsonExportWriter(Writer out, int userId) {
+            super(out);
+            this.userId = userId;
+        }
+
+        @Override
+        void begin(List<Category> categoryList) throws IOException {
+            out.write("{\"user_id\":" + userId + ",\"exported_at\":\"" + Instant.now() + "\",\n\"categories\":[");
+            for (Category category : categoryList) {
+                out.write(categories++ == 0 ? "\n" : ",\n");
+                out.write("{\"id\":" + category.getCategoryId() + ",\"name\":");
+                string(category.getCategoryName());
+                out.write('}');
+            }
+            out.write("],\n\"tasks\":[");
+        }
+
+        @Override
+        void task(TaskRecord task, List<Subtask> subtaskList) throws IOException {
+            // One task per line
+            out.write(tasks++ == 0 ? "\n" : ",\n");
+            out.write("{\"id\":" + task.getTaskId() + ",\"title\":");
+            string(task.getTitle());
+            out.write(",\"description\":");
+            string(task.getDescription());
+            out.write(",\"priority\":\"" + task.getPriority().name() + "\",\"status\":\"" + task.getStatus().name()
+                    + "\",\"due_date\":");
+            string(task.getDueDate() != null ? task.getDueDate().toString() : null);
+            out.write(",\"category\":");
+            string(task.getCategory() != null ? task.getCategory().getCategoryName() : null);
+            out.write(",\"subtasks\":[");
+            for (int i = 0; i < subtaskList.size(); i++) {
+                Subtask subtask = subtaskList.get(i);
+                out.write((i == 0 ? "" : ",") + "{\"id\":" + subtask.getSubtaskId() + ",\"title\":");
+                string(subtask.getTitle());
+                out.write(",\"status\":\"" + subtask.getStatus().name() + "\"}");
+            }
+            out.write("]}");
+            subtasks += subtaskList.size();
+        }
+
+        @Override
+        void end() throws IOException {
+            out.write("\n]}\n");
+        }
+
+        private void string(String value) throws IOException {
+            if (value == null) {
+                out.write("null");
+                return;
+            }
+            out.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"':
+                        out.write("\\\"");
+                        break;
+                    case '\\':
+                        out.write("\\\\");
+                        break;
+                    case '\n':
+                        out.write("\\n");
+                        break;
+                    case '\r':
+                        out.write("\\r");
+                        break;
+                    case '\t':
+                        out.write("\\t");
+                        break;
+                    default:
+                        if (c < 0x20) {
+                            out.write(String.format("\\u%04x", (int) c));
+                        } else {
+                            out.write(c);
+                        }
+                }
+            }
+            out.write('"');
+        }
+    }
+
+    /**
+     * Counts the bytes written, for the report.
+     */
+    private static final class CountingChannel implements WritableByteChannel {
+        private final WritableByteChannel channel;
+        private long bytes = 0;
+
+        CountingChannel(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            int written = channel.write(src);
+            bytes += written;
+            return written;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
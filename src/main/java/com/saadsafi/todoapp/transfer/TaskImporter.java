@@ -0,0 +1,270 @@
+package com.saadsafi.todoapp.transfer;
+
+import com.saadsafi.todoapp.dao.CategoryDAO;
+import com.saadsafi.todoapp.dao.TaskDAO;
+import com.saadsafi.todoapp.model.Category;
+import com.saadsafi.todoapp.model.Priority;
+import com.saadsafi.todoapp.model.Status;
+import com.saadsafi.todoapp.model.TaskRecord;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Imports tasks for one user from a CSV or JSON file.
+ *
+ * The file is streamed: rows are read, validated and collected into chunks
+ * of CHUNK_SIZE, and each chunk is stored with TaskDAO.insertTasks (multi-row
+ * INSERTs in one transaction) before the next one is read. Memory use stays
+ * the same whatever the file size, and a failure only loses the chunk it
+ * happened in.
+ *
+ * Columns (CSV header names or JSON field names; case, spaces and
+ * underscores don't matter): title (required), description, priority
+ * (HIGH, MEDIUM, LOW), status (PENDING, COMPLETED), due_date (yyyy-MM-dd)
+ * and category (a name; missing categories are created). Other columns
+ * are ignored. Rows that don't validate are skipped and reported.
+ */
+public class TaskImporter {
+
+    public static final int CHUNK_SIZE = 1_000;
+    public static final int MAX_REPORTED_REJECTIONS = 100;
+
+    // Column sizes in db/schema.sql
+    private static final int MAX_TITLE_LENGTH = 255;
+    private static final int MAX_CATEGORY_NAME_LENGTH = 100;
+
+    // Values other apps export, besides our own enum names
+    private static final Map<String, Priority> PRIORITY_ALIASES = Map.of(
+            "normal", Priority.MEDIUM, "med", Priority.MEDIUM);
+    private static final Map<String, Status> STATUS_ALIASES = Map.of(
+            "done", Status.COMPLETED, "complete", Status.COMPLETED, "true", Status.COMPLETED,
+            "todo", Status.PENDING, "open", Status.PENDING, "false", Status.PENDING);
+
+    private final TaskDAO taskDAO;
+    private final CategoryDAO categoryDAO;
+
+    public TaskImporter(TaskDAO taskDAO, CategoryDAO categoryDAO) {
+        this.taskDAO = taskDAO;
+        this.categoryDAO = categoryDAO;
+    }
+
+    /**
+     * Imports a .csv file, or a .json / .jsonl / .ndjson file.
+     */
+    public ImportReport importFile(Path file, int userId) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        boolean json = name.endsWith(".json") || name.endsWith(".jsonl") || name.endsWith(".ndjson");
+        long start = System.nanoTime();
+        try (TaskRowReader reader = json
+                ? new JsonTaskReader(Files.newBufferedReader(file, StandardCharsets.UTF_8))
+                : new CsvTaskReader(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+            return importTasks(reader, file.getFileName().toString(), userId);
+        } catch (IOException e) {
+            System.err.println("Import Error opening " + file + ": " + e.getMessage());
+            return new ImportReport(file.getFileName().toString(), 0, 0, 0, new ArrayList<>(), 0,
+                    System.nanoTime() - start, "Could not open the file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Imports every row the reader returns.
+     *
+     * @param source The file name, for the report.
+     */
+    public ImportReport importTasks(TaskRowReader reader, String source, int userId) {
+        long start = System.nanoTime();
+        Map<String, Category> categories = new HashMap<>();
+        for (Category category : categoryDAO.getCategoriesByUserId(userId)) {
+            categories.putIfAbsent(categoryKey(category.getCategoryName()), category);
+        }
+        int categoriesBefore = categories.size();
+
+        List<TaskRecord> chunk = new ArrayList<>(CHUNK_SIZE);
+        List<ImportReport.RejectedRow> rejectedRows = new ArrayList<>();
+        long rowsRead = 0;
+        long imported = 0;
+        long rejected = 0;
+        String error = null;
+
+        while (true) {
+            Map<String, String> row;
+            try {
+                row = reader.next();
+            } catch (IOException e) {
+                error = "Could not read " + source + ": " + e.getMessage();
+                System.err.println("Import Error: " + e.getMessage());
+                break; // The rows before it are still stored below
+            }
+            if (row == null) {
+                break;
+            }
+            rowsRead++;
+
+            try {
+                chunk.add(toTask(row, userId, categories));
+            } catch (IllegalArgumentException e) {
+                rejected++;
+                if (rejectedRows.size() < MAX_REPORTED_REJECTIONS) {
+                    rejectedRows.add(new ImportReport.RejectedRow(reader.getLineNumber(), e.getMessage()));
+                }
+                continue;
+            }
+
+            if (chunk.size() == CHUNK_SIZE) {
+                int stored = taskDAO.insertTasks(chunk);
+                chunk.clear();
+                if (stored < 0) {
+                    error = "Database error after " + imported + " tasks";
+                    break;
+                }
+                imported += stored;
+            }
+        }
+
+        // (After a database error the chunk is already empty)
+        if (!chunk.isEmpty()) {
+            int stored = taskDAO.insertTasks(chunk);
+            if (stored < 0) {
+                error = "Database error after " + imported + " tasks";
+            } else {
+                imported += stored;
+            }
+        }
+
+        ImportReport report = new ImportReport(source, rowsRead, imported, rejected, rejectedRows,
+                categories.size() - categoriesBefore, System.nanoTime() - start, error);
+        System.out.println(report);
+        return report;
+    }
+
+    // --- Validation ---
+
+    /**
+     * @throws IllegalArgumentException With the reason if the row can't be imported.
+     */
+    private TaskRecord toTask(Map<String, String> row, int userId, Map<String, Category> categories) {
+        String title = null;
+        String description = null;
+        String priority = null;
+        String status = null;
+        String dueDate = null;
+        String category = null;
+        for (Map.Entry<String, String> field : row.entrySet()) {
+            String value = field.getValue() != null ? field.getValue().trim() : "";
+            if (value.isEmpty()) {
+                continue;
+            }
+            switch (field.getKey().replaceAll("[\\s_-]", "")) {
+                case "title":
+                case "name":
+                    title = value;
+                    break;
+                case "description":
+                case "notes":
+                    description = field.getValue(); // Kept as written
+                    break;
+                case "priority":
+                    priority = value;
+                    break;
+                case "status":
+                    status = value;
+                    break;
+                case "duedate":
+                case "due":
+                    dueDate = value;
+                    break;
+                case "category":
+                case "categoryname":
+                    category = value;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        if (title == null) {
+            throw new IllegalArgumentException("Missing title");
+        }
+        if (title.length() > MAX_TITLE_LENGTH) {
+            throw new IllegalArgumentException("Title longer than " + MAX_TITLE_LENGTH + " characters");
+        }
+        return new TaskRecord(0, userId, title, description, parsePriority(priority), parseDate(dueDate),
+                parseStatus(status), findOrCreateCategory(category, userId, categories));
+    }
+
+    private static Priority parsePriority(String value) {
+        if (value == null) {
+            return Priority.MEDIUM;
+        }
+        String key = value.toLowerCase(Locale.ROOT);
+        if (PRIORITY_ALIASES.containsKey(key)) {
+            return PRIORITY_ALIASES.get(key);
+        }
+        try {
+            return Priority.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown priority '" + value + "'");
+        }
+    }
+
+    private static Status parseStatus(String value) {
+        if (value == null) {
+            return Status.PENDING;
+        }
+        String key = value.toLowerCase(Locale.ROOT);
+        if (STATUS_ALIASES.containsKey(key)) {
+            return STATUS_ALIASES.get(key);
+        }
+        try {
+            return Status.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown status '" + value + "'");
+        }
+    }
+
+    private static LocalDate parseDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        // A timestamp (2024-05-01T09:00...) counts as its date
+        String date = value.length() > 10 && (value.charAt(10) == 'T' || value.charAt(10) == ' ')
+                ? value.substring(0, 10) : value;
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Bad due date '" + value + "' (expected yyyy-MM-dd)");
+        }
+    }
+
+    private Category findOrCreateCategory(String name, int userId, Map<String, Category> categories) {
+        if (name == null) {
+            return null;
+        }
+        if (name.length() > MAX_CATEGORY_NAME_LENGTH) {
+            throw new IllegalArgumentException("Category name longer than " + MAX_CATEGORY_NAME_LENGTH + " characters");
+        }
+        String key = categoryKey(name);
+        Category category = categories.get(key);
+        if (category == null) {
+            category = categoryDAO.createCategory(name, userId);
+            if (category == null) {
+                throw new IllegalArgumentException("Could not create category '" + name + "'");
+            }
+            categories.put(key, category);
+        }
+        return category;
+    }
+
+    private static String categoryKey(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,25 @@
+package com.saadsafi.todoapp.transfer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Reads an import file one row at a time, so a file of any size is never
+ * held in memory.
+ */
+public interface TaskRowReader extends Closeable {
+
+    /**
+     * @return The next row as field name to value (names in lower case,
+     * missing values absent or null), or null at the end of the file.
+     * @throws IOException If the file can't be read or isn't well-formed;
+     * nothing after that point can be read.
+     */
+    Map<String, String> next() throws IOException;
+
+    /**
+     * @return The line the last row returned by next() started on, for error messages.
+     */
+    long getLineNumber();
+}
@@ -0,0 +1,132 @@
+-- Schema for the Todo App (MySQL, or the embedded H2 in MySQL mode).
+--
+-- The tables match what the DAOs read and write. The indexes back the
+-- queries TaskQueryBuilder generates: every task query starts with
+-- (user_id, category_id), and a filter column or plain sort column comes
+-- next. Searches and the Priority and Due Date sorts are expressions that
+-- no index covers; they only read the rows of one user's category.
+-- On an existing database, run the ALTER TABLE, CREATE INDEX and INSERT statements.
+-- SchemaBootstrapper runs this file on startup when todoapp.db.bootstrap
+-- is on (the default), skipping tables, columns and indexes that exist.
+-- The INSERTs only add missing rows, so they run every time.
+-- Keep it to one statement per ";" and "--" comments on their own lines.
+--
+-- updated_at and row_version are for sync (see SyncClock and SyncEngine):
+-- updated_at is when the row was last edited (epoch ms, used to pick the
+-- newer edit in a conflict), row_version is the owner's sync_user_clock
+-- version of the write that last touched it (what sync pulls by).
+
+CREATE TABLE IF NOT EXISTS users (
+    user_id       INT AUTO_INCREMENT PRIMARY KEY,
+    username      VARCHAR(100) NOT NULL UNIQUE,
+    password_hash VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS categories (
+    category_id   INT AUTO_INCREMENT PRIMARY KEY,
+    user_id       INT NOT NULL,
+    category_name VARCHAR(100) NOT NULL,
+    updated_at    BIGINT NOT NULL DEFAULT 0,
+    row_version   BIGINT NOT NULL DEFAULT 0,
+    FOREIGN KEY (user_id) REFERENCES users (user_id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS tasks (
+    task_id     INT AUTO_INCREMENT PRIMARY KEY,
+    user_id     INT NOT NULL,
+    category_id INT NULL,
+    title       VARCHAR(255) NOT NULL,
+    description TEXT,
+    priority    VARCHAR(10) NOT NULL DEFAULT 'MEDIUM',
+    due_date    DATE NULL,
+    status      VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    updated_at  BIGINT NOT NULL DEFAULT 0,
+    row_version BIGINT NOT NULL DEFAULT 0,
+    FOREIGN KEY (user_id) REFERENCES users (user_id) ON DELETE CASCADE,
+    FOREIGN KEY (category_id) REFERENCES categories (category_id) ON DELETE SET NULL
+);
+
+CREATE TABLE IF NOT EXISTS subtasks (
+    subtask_id  INT AUTO_INCREMENT PRIMARY KEY,
+    task_id     INT NOT NULL,
+    title       VARCHAR(255) NOT NULL,
+    status      VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    updated_at  BIGINT NOT NULL DEFAULT 0,
+    row_version BIGINT NOT NULL DEFAULT 0,
+    FOREIGN KEY (task_id) REFERENCES tasks (task_id) ON DELETE CASCADE
+);
+
+-- Remembered logins: the SHA-256 of each session token (the token itself
+-- only lives on the client, see SessionFile), looked up by primary key
+CREATE TABLE IF NOT EXISTS sessions (
+    token_hash  CHAR(64) PRIMARY KEY,
+    user_id     INT NOT NULL,
+    created_at  BIGINT NOT NULL,
+    expires_at  BIGINT NOT NULL,
+    FOREIGN KEY (user_id) REFERENCES users (user_id) ON DELETE CASCADE
+);
+
+-- --- Sync ---
+
+-- Before per-user clocks: one row, the latest change version of all users.
+-- Only read to start sync_user_clock past the versions it handed out.
+CREATE TABLE IF NOT EXISTS sync_clock (
+    clock_id INT PRIMARY KEY,
+    version  BIGINT NOT NULL
+);
+
+-- One row per user, the latest change version of their rows (see SyncClock)
+CREATE TABLE IF NOT EXISTS sync_user_clock (
+    user_id INT PRIMARY KEY,
+    version BIGINT NOT NULL,
+    FOREIGN KEY (user_id) REFERENCES users (user_id) ON DELETE CASCADE
+);
+
+-- Deleted rows, so that sync can delete them on the other clients
+CREATE TABLE IF NOT EXISTS sync_tombstones (
+    tombstone_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    table_name   VARCHAR(20) NOT NULL,
+    row_id       INT NOT NULL,
+    user_id      INT NOT NULL,
+    deleted_at   BIGINT NOT NULL,
+    row_version  BIGINT NOT NULL
+);
+
+-- Databases created before sync
+ALTER TABLE categories ADD COLUMN updated_at BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE categories ADD COLUMN row_version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE tasks ADD COLUMN updated_at BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE tasks ADD COLUMN row_version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE subtasks ADD COLUMN updated_at BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE subtasks ADD COLUMN row_version BIGINT NOT NULL DEFAULT 0;
+
+-- A clock for every user, so writes never have to create one
+INSERT INTO sync_user_clock (user_id, version)
+SELECT u.user_id, COALESCE((SELECT MAX(c.version) FROM sync_clock c), 0)
+FROM users u
+WHERE NOT EXISTS (SELECT 1 FROM sync_user_clock uc WHERE uc.user_id = u.user_id);
+
+-- --- Indexes for the task list queries ---
+
+-- Default order and keyset pagination by task_id
+CREATE INDEX idx_tasks_user_category ON tasks (user_id, category_id, task_id);
+-- "Show Pending/Completed Only"
+CREATE INDEX idx_tasks_user_category_status ON tasks (user_id, category_id, status);
+-- "Show Due Today" (the "Due Date (Soonest)" sort uses COALESCE and cannot use it)
+CREATE INDEX idx_tasks_user_category_due ON tasks (user_id, category_id, due_date);
+-- "Show High Priority" (the "Priority (High-Low)" sort uses CASE and cannot use it)
+CREATE INDEX idx_tasks_user_category_priority ON tasks (user_id, category_id, priority);
+-- "Title (A-Z)"
+CREATE INDEX idx_tasks_user_category_title ON tasks (user_id, category_id, title);
+
+CREATE INDEX idx_categories_user ON categories (user_id);
+CREATE INDEX idx_subtasks_task ON subtasks (task_id, subtask_id);
+
+-- "What changed since version N" for sync
+CREATE INDEX idx_categories_user_version ON categories (user_id, row_version);
+CREATE INDEX idx_tasks_user_version ON tasks (user_id, row_version);
+CREATE INDEX idx_subtasks_version ON subtasks (row_version);
+CREATE INDEX idx_tombstones_user_version ON sync_tombstones (user_id, row_version);
+
+-- Clearing a user's expired sessions
+CREATE INDEX idx_sessions_user_expires ON sessions (user_id, expires_at);